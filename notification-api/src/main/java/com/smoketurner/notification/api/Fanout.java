@@ -0,0 +1,113 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.api;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableSet;
+import io.dropwizard.jackson.JsonSnakeCase;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.StringJoiner;
+import javax.annotation.Nullable;
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import org.hibernate.validator.constraints.NotEmpty;
+
+/** A single notification to be delivered to multiple users. */
+@JsonSnakeCase
+@JsonIgnoreProperties(ignoreUnknown = true)
+public final class Fanout {
+
+  public static final int MAX_USERNAMES = 10000;
+
+  @NotEmpty
+  @Size(max = MAX_USERNAMES)
+  private final Set<String> usernames;
+
+  @NotNull @Valid private final Notification notification;
+
+  /**
+   * Constructor
+   *
+   * @param usernames Users to deliver the notification to
+   * @param notification Notification to deliver
+   */
+  @JsonCreator
+  private Fanout(
+      @JsonProperty("usernames") @Nullable final Collection<String> usernames,
+      @JsonProperty("notification") final Notification notification) {
+    if (usernames == null) {
+      this.usernames = ImmutableSet.of();
+    } else {
+      this.usernames = ImmutableSet.copyOf(usernames);
+    }
+    this.notification = notification;
+  }
+
+  /**
+   * Create a new fan-out of a notification to a collection of users.
+   *
+   * @param usernames Users to deliver the notification to
+   * @param notification Notification to deliver
+   * @return Fanout
+   */
+  public static Fanout create(final Collection<String> usernames, final Notification notification) {
+    return new Fanout(
+        Objects.requireNonNull(usernames, "usernames == null"),
+        Objects.requireNonNull(notification, "notification == null"));
+  }
+
+  @JsonProperty
+  public Set<String> getUsernames() {
+    return usernames;
+  }
+
+  @JsonProperty
+  public Notification getNotification() {
+    return notification;
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if ((obj == null) || (getClass() != obj.getClass())) {
+      return false;
+    }
+
+    final Fanout other = (Fanout) obj;
+    return Objects.equals(usernames, other.usernames)
+        && Objects.equals(notification, other.notification);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(usernames, notification);
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", Fanout.class.getSimpleName() + "{", "}")
+        .add("usernames=" + usernames)
+        .add("notification=" + notification)
+        .toString();
+  }
+}
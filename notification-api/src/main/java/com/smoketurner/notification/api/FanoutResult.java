@@ -0,0 +1,168 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.api;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.jackson.JsonSnakeCase;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.StringJoiner;
+import javax.annotation.Nullable;
+
+/** The outcome of delivering a fanned out notification to a single user. */
+@JsonSnakeCase
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_ABSENT)
+public final class FanoutResult {
+
+  /** Whether the notification was delivered to the user. */
+  public enum Status {
+    /** The notification was stored */
+    @JsonProperty("success")
+    SUCCESS,
+
+    /** The notification was not stored */
+    @JsonProperty("failure")
+    FAILURE,
+
+    /** The update was sent but didn't complete in time, so it may or may not have been stored */
+    @JsonProperty("unknown")
+    UNKNOWN
+  }
+
+  private final String username;
+  private final Status status;
+  private final Optional<String> id;
+
+  /**
+   * Constructor
+   *
+   * @param username User the notification was delivered to
+   * @param status Whether the notification was stored or not
+   * @param id ID of the stored notification
+   */
+  private FanoutResult(final String username, final Status status, @Nullable final String id) {
+    this.username = username;
+    this.status = status;
+    this.id = Optional.ofNullable(id);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param username User the notification was delivered to
+   * @param success Whether the notification was stored or not
+   * @param status Whether the notification was stored or not, which takes precedence over success
+   * @param id ID of the stored notification
+   */
+  @JsonCreator
+  private FanoutResult(
+      @JsonProperty("username") final String username,
+      @JsonProperty("success") final boolean success,
+      @JsonProperty("status") @Nullable final Status status,
+      @JsonProperty("id") @Nullable final String id) {
+    this(username, status != null ? status : success ? Status.SUCCESS : Status.FAILURE, id);
+  }
+
+  /**
+   * Create a successful result
+   *
+   * @param username User the notification was delivered to
+   * @param id ID of the stored notification
+   * @return FanoutResult
+   */
+  public static FanoutResult success(final String username, final String id) {
+    return new FanoutResult(
+        Objects.requireNonNull(username, "username == null"),
+        Status.SUCCESS,
+        Objects.requireNonNull(id, "id == null"));
+  }
+
+  /**
+   * Create a failed result
+   *
+   * @param username User the notification could not be delivered to
+   * @return FanoutResult
+   */
+  public static FanoutResult failure(final String username) {
+    return new FanoutResult(
+        Objects.requireNonNull(username, "username == null"), Status.FAILURE, null);
+  }
+
+  /**
+   * Create a result for a user whose update didn't complete in time, so whether the notification
+   * was stored is unknown
+   *
+   * @param username User the notification may have been delivered to
+   * @return FanoutResult
+   */
+  public static FanoutResult unknown(final String username) {
+    return new FanoutResult(
+        Objects.requireNonNull(username, "username == null"), Status.UNKNOWN, null);
+  }
+
+  @JsonProperty
+  public String getUsername() {
+    return username;
+  }
+
+  @JsonProperty
+  public boolean isSuccess() {
+    return status == Status.SUCCESS;
+  }
+
+  @JsonProperty
+  public Status getStatus() {
+    return status;
+  }
+
+  @JsonProperty
+  public Optional<String> getId() {
+    return id;
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if ((obj == null) || (getClass() != obj.getClass())) {
+      return false;
+    }
+
+    final FanoutResult other = (FanoutResult) obj;
+    return Objects.equals(username, other.username)
+        && status == other.status
+        && Objects.equals(id, other.id);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(username, status, id);
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", FanoutResult.class.getSimpleName() + "{", "}")
+        .add("username=" + username)
+        .add("status=" + status)
+        .add("id=" + id)
+        .toString();
+  }
+}
@@ -20,13 +20,13 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.google.common.collect.ComparisonChain;
 import io.dropwizard.jackson.JsonSnakeCase;
 import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -45,7 +45,12 @@ public final class Notification implements Comparable<Notification> {
   public static final int MESSAGE_MIN_LENGTH = 1;
   public static final int MESSAGE_MAX_LENGTH = 255;
 
-  private final Optional<String> id;
+  private static final Optional<Boolean> UNSEEN = Optional.of(Boolean.TRUE);
+  private static final Optional<Boolean> SEEN = Optional.of(Boolean.FALSE);
+
+  // Notifications are decoded, copied and rolled up on every fetch, so they are held in their
+  // most compact form and the Optional and ZonedDateTime views are only created when requested.
+  @Nullable private final String id;
 
   @NotEmpty
   @Length(min = CATEGORY_MIN_LENGTH, max = CATEGORY_MAX_LENGTH)
@@ -55,28 +60,44 @@ public final class Notification implements Comparable<Notification> {
   @Length(min = MESSAGE_MIN_LENGTH, max = MESSAGE_MAX_LENGTH)
   private final String message;
 
-  private final ZonedDateTime createdAt;
-  private final Optional<Boolean> unseen;
+  private final long createdAtMillis;
+  @Nullable private final ZonedDateTime createdAtDateTime;
+  @Nullable private final Boolean unseen;
   private final Map<String, String> properties;
   private final Collection<Notification> notifications;
+  @Nullable private final RollupSummary summary;
 
   /**
    * Constructor
    *
+   * @param id
    * @param category
    * @param message
+   * @param createdAt
+   * @param unseen
+   * @param properties
+   * @param notifications
+   * @param summary
    */
   @JsonCreator
   private Notification(
+      @JsonProperty("id") @Nullable final String id,
       @JsonProperty("category") final String category,
-      @JsonProperty("message") final String message) {
-    this.id = Optional.empty();
+      @JsonProperty("message") final String message,
+      @JsonProperty("created_at") @Nullable final ZonedDateTime createdAt,
+      @JsonProperty("unseen") @Nullable final Boolean unseen,
+      @JsonProperty("properties") @Nullable final Map<String, String> properties,
+      @JsonProperty("notifications") @Nullable final Collection<Notification> notifications,
+      @JsonProperty("summary") @Nullable final RollupSummary summary) {
+    this.id = id;
     this.category = category;
     this.message = message;
-    this.createdAt = ZonedDateTime.now(Clock.systemUTC());
-    this.unseen = Optional.empty();
-    this.properties = Collections.emptyMap();
-    this.notifications = Collections.emptyList();
+    this.createdAtDateTime = createdAt != null ? createdAt : ZonedDateTime.now(Clock.systemUTC());
+    this.createdAtMillis = createdAtDateTime.toInstant().toEpochMilli();
+    this.unseen = unseen;
+    this.properties = properties != null ? properties : Collections.emptyMap();
+    this.notifications = notifications != null ? notifications : Collections.emptyList();
+    this.summary = summary;
   }
 
   /**
@@ -85,14 +106,48 @@ public final class Notification implements Comparable<Notification> {
    * @param builder
    */
   private Notification(final Builder builder) {
-    this.id = Optional.ofNullable(builder.id);
+    this.id = builder.id;
     this.category = builder.category;
     this.message = builder.message;
-    this.createdAt =
-        Optional.ofNullable(builder.createdAt).orElse(ZonedDateTime.now(Clock.systemUTC()));
-    this.unseen = Optional.ofNullable(builder.unseen);
-    this.properties = Optional.ofNullable(builder.properties).orElse(Collections.emptyMap());
-    this.notifications = Optional.ofNullable(builder.notifications).orElse(Collections.emptyList());
+    if (builder.createdAt != null) {
+      this.createdAtDateTime = builder.createdAt;
+      this.createdAtMillis = builder.createdAt.toInstant().toEpochMilli();
+    } else if (builder.createdAtMillis != null) {
+      this.createdAtDateTime = null;
+      this.createdAtMillis = builder.createdAtMillis;
+    } else {
+      this.createdAtDateTime = ZonedDateTime.now(Clock.systemUTC());
+      this.createdAtMillis = createdAtDateTime.toInstant().toEpochMilli();
+    }
+    this.unseen = builder.unseen;
+    this.properties = builder.properties != null ? builder.properties : Collections.emptyMap();
+    this.notifications =
+        builder.notifications != null ? builder.notifications : Collections.emptyList();
+    this.summary = builder.summary;
+  }
+
+  /**
+   * Copy constructor, which shares everything but the unseen state and rolled up notifications
+   *
+   * @param other Notification to copy from
+   * @param unseen Unseen state
+   * @param notifications Rolled up notifications
+   * @param summary Summary of the rolled up notifications
+   */
+  private Notification(
+      final Notification other,
+      @Nullable final Boolean unseen,
+      final Collection<Notification> notifications,
+      @Nullable final RollupSummary summary) {
+    this.id = other.id;
+    this.category = other.category;
+    this.message = other.message;
+    this.createdAtMillis = other.createdAtMillis;
+    this.createdAtDateTime = other.createdAtDateTime;
+    this.unseen = unseen;
+    this.properties = other.properties;
+    this.notifications = notifications;
+    this.summary = summary;
   }
 
   /**
@@ -163,12 +218,16 @@ public final class Notification implements Comparable<Notification> {
 
     @Nullable private ZonedDateTime createdAt;
 
+    @Nullable private Long createdAtMillis;
+
     @Nullable private Boolean unseen;
 
     @Nullable private Map<String, String> properties;
 
     @Nullable private Collection<Notification> notifications;
 
+    @Nullable private RollupSummary summary;
+
     /**
      * Constructor
      *
@@ -181,17 +240,13 @@ public final class Notification implements Comparable<Notification> {
     }
 
     public Builder fromNotification(final Notification other) {
-      this.id = other.id.orElse(null);
-      if (other.createdAt != null) {
-        this.createdAt = other.createdAt;
-      }
-      this.unseen = other.unseen.orElse(null);
-      if (other.properties != null) {
-        this.properties = other.properties;
-      }
-      if (other.notifications != null) {
-        this.notifications = other.notifications;
-      }
+      this.id = other.id;
+      this.createdAt = other.createdAtDateTime;
+      this.createdAtMillis = other.createdAtMillis;
+      this.unseen = other.unseen;
+      this.properties = other.properties;
+      this.notifications = other.notifications;
+      this.summary = other.summary;
       return this;
     }
 
@@ -205,6 +260,19 @@ public final class Notification implements Comparable<Notification> {
       return this;
     }
 
+    /**
+     * Set the creation time in milliseconds since the epoch, without creating a {@link
+     * ZonedDateTime} until one is requested.
+     *
+     * @param createdAtMillis Creation time in milliseconds since the epoch
+     * @return this builder
+     */
+    public Builder withCreatedAt(final long createdAtMillis) {
+      this.createdAt = null;
+      this.createdAtMillis = createdAtMillis;
+      return this;
+    }
+
     public Builder withUnseen(@Nullable final Boolean unseen) {
       this.unseen = unseen;
       return this;
@@ -220,6 +288,11 @@ public final class Notification implements Comparable<Notification> {
       return this;
     }
 
+    public Builder withSummary(@Nullable final RollupSummary summary) {
+      this.summary = summary;
+      return this;
+    }
+
     public Notification build() {
       return new Notification(this);
     }
@@ -227,7 +300,7 @@ public final class Notification implements Comparable<Notification> {
 
   @JsonProperty
   public Optional<String> getId() {
-    return id;
+    return Optional.ofNullable(id);
   }
 
   /**
@@ -241,7 +314,7 @@ public final class Notification implements Comparable<Notification> {
    */
   @JsonIgnore
   public String getId(final String value) {
-    return id.orElse(value);
+    return id != null ? id : value;
   }
 
   @JsonProperty
@@ -256,12 +329,28 @@ public final class Notification implements Comparable<Notification> {
 
   @JsonProperty
   public ZonedDateTime getCreatedAt() {
-    return createdAt;
+    if (createdAtDateTime != null) {
+      return createdAtDateTime;
+    }
+    return ZonedDateTime.ofInstant(Instant.ofEpochMilli(createdAtMillis), ZoneOffset.UTC);
+  }
+
+  /**
+   * Return the creation time in milliseconds since the epoch
+   *
+   * @return Creation time in milliseconds since the epoch
+   */
+  @JsonIgnore
+  public long getCreatedAtMillis() {
+    return createdAtMillis;
   }
 
   @JsonProperty
   public Optional<Boolean> getUnseen() {
-    return unseen;
+    if (unseen == null) {
+      return Optional.empty();
+    }
+    return unseen ? UNSEEN : SEEN;
   }
 
   @JsonProperty
@@ -274,6 +363,59 @@ public final class Notification implements Comparable<Notification> {
     return notifications;
   }
 
+  /**
+   * Return the summary of the rolled up notifications, which is only present when {@link
+   * #getNotifications()} is a sample of them rather than all of them.
+   *
+   * @return the rollup summary, or absent
+   */
+  @JsonProperty
+  public Optional<RollupSummary> getSummary() {
+    return Optional.ofNullable(summary);
+  }
+
+  /**
+   * Return a copy of this notification with the given unseen state, or this notification if it
+   * already has that state.
+   *
+   * @param unseen Unseen state
+   * @return the notification
+   */
+  public Notification withUnseen(final boolean unseen) {
+    if (this.unseen != null && this.unseen == unseen) {
+      return this;
+    }
+    return new Notification(this, unseen, notifications, summary);
+  }
+
+  /**
+   * Return a copy of this notification with the given rolled up notifications
+   *
+   * @param notifications Rolled up notifications
+   * @return the notification
+   */
+  public Notification withNotifications(final Collection<Notification> notifications) {
+    return new Notification(
+        this, unseen, Objects.requireNonNull(notifications, "notifications == null"), summary);
+  }
+
+  /**
+   * Return a copy of this notification with a summary of its rolled up notifications, which only
+   * includes a sample of them.
+   *
+   * @param summary Summary of the rolled up notifications
+   * @param sample Sample of the rolled up notifications
+   * @return the notification
+   */
+  public Notification withSummary(
+      final RollupSummary summary, final Collection<Notification> sample) {
+    return new Notification(
+        this,
+        unseen,
+        Objects.requireNonNull(sample, "sample == null"),
+        Objects.requireNonNull(summary, "summary == null"));
+  }
+
   @Override
   public boolean equals(final Object obj) {
     if (this == obj) {
@@ -290,19 +432,20 @@ public final class Notification implements Comparable<Notification> {
 
   @Override
   public int hashCode() {
-    return Objects.hash(id);
+    return Objects.hashCode(id);
   }
 
   @Override
   public String toString() {
     return new StringJoiner(", ", Notification.class.getSimpleName() + "{", "}")
-        .add("id=" + id)
+        .add("id=" + getId())
         .add("category=" + category)
         .add("message=" + message)
-        .add("createdAt=" + createdAt)
-        .add("unseen=" + unseen)
+        .add("createdAt=" + getCreatedAt())
+        .add("unseen=" + getUnseen())
         .add("properties=" + properties)
         .add("notifications=" + notifications)
+        .add("summary=" + summary)
         .toString();
   }
 
@@ -314,8 +457,7 @@ public final class Notification implements Comparable<Notification> {
    */
   @Override
   public int compareTo(final Notification that) {
-    return ComparisonChain.start()
-        .compare(this.getId(""), that.getId(""), Comparator.reverseOrder())
-        .result();
+    // compared directly, as this is called on every sorted set operation
+    return that.getId("").compareTo(this.getId(""));
   }
 }
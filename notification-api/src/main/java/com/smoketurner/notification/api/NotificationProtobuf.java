@@ -0,0 +1,124 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.api;
+
+import com.google.protobuf.BoolValue;
+import com.smoketurner.notification.api.protos.NotificationApiProtos.NotificationListResponsePB;
+import com.smoketurner.notification.api.protos.NotificationApiProtos.NotificationResponsePB;
+import com.smoketurner.notification.api.protos.NotificationApiProtos.RollupSummaryPB;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/** Converts notifications to and from their protocol buffer API representation. */
+public final class NotificationProtobuf {
+
+  /** Media type of {@link NotificationListResponsePB} responses */
+  public static final String APPLICATION_PROTOBUF = "application/x-protobuf";
+
+  private NotificationProtobuf() {}
+
+  /**
+   * Convert notifications into a protocol buffer list response
+   *
+   * @param notifications Notifications to convert
+   * @return the list response
+   */
+  public static NotificationListResponsePB toProtobuf(
+      final Collection<Notification> notifications) {
+    final NotificationListResponsePB.Builder builder = NotificationListResponsePB.newBuilder();
+    for (Notification notification : notifications) {
+      builder.addNotification(toProtobuf(notification));
+    }
+    return builder.build();
+  }
+
+  /**
+   * Convert a notification, including any rolled up notifications, into its protocol buffer form
+   *
+   * @param notification Notification to convert
+   * @return the protocol buffer notification
+   */
+  public static NotificationResponsePB toProtobuf(final Notification notification) {
+    final NotificationResponsePB.Builder builder =
+        NotificationResponsePB.newBuilder()
+            .setId(notification.getId(""))
+            .setCategory(notification.getCategory())
+            .setMessage(notification.getMessage())
+            .setCreatedAt(notification.getCreatedAtMillis())
+            .putAllProperty(notification.getProperties());
+    notification.getUnseen().ifPresent(unseen -> builder.setUnseen(BoolValue.of(unseen)));
+    for (Notification child : notification.getNotifications()) {
+      builder.addNotification(toProtobuf(child));
+    }
+    notification
+        .getSummary()
+        .ifPresent(
+            summary ->
+                builder.setSummary(
+                    RollupSummaryPB.newBuilder()
+                        .setCount(summary.getCount())
+                        .setFirstId(summary.getFirstId())
+                        .setLastId(summary.getLastId())));
+    return builder.build();
+  }
+
+  /**
+   * Convert a protocol buffer list response into notifications
+   *
+   * @param list List response to convert
+   * @return the notifications, in the order of the response
+   */
+  public static List<Notification> fromProtobuf(final NotificationListResponsePB list) {
+    return fromProtobuf(list.getNotificationList());
+  }
+
+  /**
+   * Convert a protocol buffer notification, including any rolled up notifications
+   *
+   * @param notification Protocol buffer notification to convert
+   * @return the notification
+   */
+  public static Notification fromProtobuf(final NotificationResponsePB notification) {
+    final Notification.Builder builder =
+        Notification.builder(notification.getCategory(), notification.getMessage())
+            .withCreatedAt(notification.getCreatedAt())
+            .withProperties(notification.getPropertyMap());
+    if (!notification.getId().isEmpty()) {
+      builder.withId(notification.getId());
+    }
+    if (notification.hasUnseen()) {
+      builder.withUnseen(notification.getUnseen().getValue());
+    }
+    if (notification.getNotificationCount() > 0) {
+      builder.withNotifications(fromProtobuf(notification.getNotificationList()));
+    }
+    if (notification.hasSummary()) {
+      final RollupSummaryPB summary = notification.getSummary();
+      builder.withSummary(
+          RollupSummary.of(summary.getCount(), summary.getFirstId(), summary.getLastId()));
+    }
+    return builder.build();
+  }
+
+  private static List<Notification> fromProtobuf(final List<NotificationResponsePB> notifications) {
+    final List<Notification> converted = new ArrayList<>(notifications.size());
+    for (NotificationResponsePB notification : notifications) {
+      converted.add(fromProtobuf(notification));
+    }
+    return converted;
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.api;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.jackson.JsonSnakeCase;
+import java.util.Objects;
+import java.util.StringJoiner;
+
+/**
+ * Summary of the notifications rolled up into a notification, which is returned in place of the
+ * full list of rolled up notifications along with a sample of them.
+ */
+@JsonSnakeCase
+@JsonIgnoreProperties(ignoreUnknown = true)
+public final class RollupSummary {
+
+  private final int count;
+  private final String firstId;
+  private final String lastId;
+
+  /**
+   * Constructor
+   *
+   * @param count Number of rolled up notifications
+   * @param firstId ID of the first (newest) rolled up notification
+   * @param lastId ID of the last (oldest) rolled up notification
+   */
+  @JsonCreator
+  private RollupSummary(
+      @JsonProperty("count") final int count,
+      @JsonProperty("first_id") final String firstId,
+      @JsonProperty("last_id") final String lastId) {
+    this.count = count;
+    this.firstId = firstId;
+    this.lastId = lastId;
+  }
+
+  /**
+   * Create a rollup summary
+   *
+   * @param count Number of rolled up notifications
+   * @param firstId ID of the first (newest) rolled up notification
+   * @param lastId ID of the last (oldest) rolled up notification
+   * @return RollupSummary
+   */
+  public static RollupSummary of(final int count, final String firstId, final String lastId) {
+    return new RollupSummary(
+        count,
+        Objects.requireNonNull(firstId, "firstId == null"),
+        Objects.requireNonNull(lastId, "lastId == null"));
+  }
+
+  @JsonProperty
+  public int getCount() {
+    return count;
+  }
+
+  @JsonProperty
+  public String getFirstId() {
+    return firstId;
+  }
+
+  @JsonProperty
+  public String getLastId() {
+    return lastId;
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if ((obj == null) || (getClass() != obj.getClass())) {
+      return false;
+    }
+
+    final RollupSummary other = (RollupSummary) obj;
+    return count == other.count
+        && Objects.equals(firstId, other.firstId)
+        && Objects.equals(lastId, other.lastId);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(count, firstId, lastId);
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", RollupSummary.class.getSimpleName() + "{", "}")
+        .add("count=" + count)
+        .add("firstId=" + firstId)
+        .add("lastId=" + lastId)
+        .toString();
+  }
+}
@@ -35,10 +35,12 @@ public final class Rule {
   public static final String MAX_SIZE = "max_size";
   public static final String MAX_DURATION = "max_duration";
   public static final String MATCH_ON = "match_on";
+  public static final String SUMMARY_SIZE = "summary_size";
 
   private final Optional<Integer> maxSize;
   private final Optional<Duration> maxDuration;
   private final Optional<String> matchOn;
+  private final Optional<Integer> summarySize;
 
   /**
    * Constructor
@@ -46,12 +48,15 @@ public final class Rule {
    * @param maxSize Maximum number of notifications to include in a roll-up
    * @param maxDuration Maximum time duration between the first and last notifications in a roll-up
    * @param matchOn Group notifications by a specific category
+   * @param summarySize Number of rolled up notifications to return along with a summary of them,
+   *     instead of returning all of them
    */
   @JsonCreator
   private Rule(
       @JsonProperty(MAX_SIZE) @Nullable final Integer maxSize,
       @JsonProperty(MAX_DURATION) @Nullable final Duration maxDuration,
-      @JsonProperty(MATCH_ON) @Nullable final String matchOn) {
+      @JsonProperty(MATCH_ON) @Nullable final String matchOn,
+      @JsonProperty(SUMMARY_SIZE) @Nullable final Integer summarySize) {
     this.maxSize = Optional.ofNullable(maxSize);
     this.maxDuration = Optional.ofNullable(maxDuration);
     if (matchOn != null && !matchOn.isEmpty()) {
@@ -59,6 +64,7 @@ public final class Rule {
     } else {
       this.matchOn = Optional.empty();
     }
+    this.summarySize = Optional.ofNullable(summarySize);
   }
 
   public static Builder builder() {
@@ -72,6 +78,8 @@ public final class Rule {
 
     @Nullable private String matchOn;
 
+    @Nullable private Integer summarySize;
+
     public Builder withMaxSize(@Nullable final Integer maxSize) {
       this.maxSize = maxSize;
       return this;
@@ -91,8 +99,13 @@ public final class Rule {
       return this;
     }
 
+    public Builder withSummarySize(@Nullable final Integer summarySize) {
+      this.summarySize = summarySize;
+      return this;
+    }
+
     public Rule build() {
-      return new Rule(maxSize, maxDuration, matchOn);
+      return new Rule(maxSize, maxDuration, matchOn, summarySize);
     }
   }
 
@@ -111,6 +124,17 @@ public final class Rule {
     return matchOn;
   }
 
+  @JsonProperty(SUMMARY_SIZE)
+  public Optional<Integer> getSummarySize() {
+    return summarySize;
+  }
+
+  /**
+   * A rule is valid if it rolls up notifications. The summary_size only changes how the rolled up
+   * notifications are returned, so a rule with only a summary_size is not valid.
+   *
+   * @return true if the rule rolls up notifications, otherwise false
+   */
   @JsonIgnore
   public boolean isValid() {
     return maxSize.isPresent() || maxDuration.isPresent() || matchOn.isPresent();
@@ -128,12 +152,13 @@ public final class Rule {
     final Rule other = (Rule) obj;
     return Objects.equals(maxSize, other.maxSize)
         && Objects.equals(maxDuration, other.maxDuration)
-        && Objects.equals(matchOn, other.matchOn);
+        && Objects.equals(matchOn, other.matchOn)
+        && Objects.equals(summarySize, other.summarySize);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(maxSize, maxDuration, matchOn);
+    return Objects.hash(maxSize, maxDuration, matchOn, summarySize);
   }
 
   @Override
@@ -142,6 +167,7 @@ public final class Rule {
         .add("maxSize=" + maxSize)
         .add("maxDuration=" + maxDuration)
         .add("matchOn=" + matchOn)
+        .add("summarySize=" + summarySize)
         .toString();
   }
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.api;
+
+import static io.dropwizard.testing.FixtureHelpers.fixture;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.dropwizard.jackson.Jackson;
+import org.junit.Test;
+
+public class FanoutResultTest {
+  private final ObjectMapper MAPPER = Jackson.newObjectMapper();
+  private final FanoutResult result = FanoutResult.success("test1", "12345");
+
+  @Test
+  public void serializesToJSON() throws Exception {
+    final String actual = MAPPER.writeValueAsString(result);
+    final String expected =
+        MAPPER.writeValueAsString(
+            MAPPER.readValue(fixture("fixtures/fanout_result.json"), FanoutResult.class));
+    assertThat(actual).isEqualTo(expected);
+  }
+
+  @Test
+  public void deserializesFromJSON() throws Exception {
+    final FanoutResult actual =
+        MAPPER.readValue(fixture("fixtures/fanout_result.json"), FanoutResult.class);
+    assertThat(actual).isEqualTo(result);
+  }
+
+  @Test
+  public void testFailureOmitsId() throws Exception {
+    final String actual = MAPPER.writeValueAsString(FanoutResult.failure("test1"));
+    assertThat(actual)
+        .isEqualTo("{\"username\":\"test1\",\"success\":false,\"status\":\"failure\"}");
+  }
+
+  @Test
+  public void testUnknown() throws Exception {
+    final FanoutResult unknown = FanoutResult.unknown("test1");
+    assertThat(unknown.isSuccess()).isFalse();
+    assertThat(MAPPER.writeValueAsString(unknown))
+        .isEqualTo("{\"username\":\"test1\",\"success\":false,\"status\":\"unknown\"}");
+    assertThat(MAPPER.readValue(MAPPER.writeValueAsString(unknown), FanoutResult.class))
+        .isEqualTo(unknown);
+  }
+
+  @Test
+  public void testDeserializesWithoutStatus() throws Exception {
+    assertThat(MAPPER.readValue("{\"username\":\"test1\",\"success\":false}", FanoutResult.class))
+        .isEqualTo(FanoutResult.failure("test1"));
+  }
+}
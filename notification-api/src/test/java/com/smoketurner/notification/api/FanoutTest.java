@@ -0,0 +1,56 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.api;
+
+import static io.dropwizard.testing.FixtureHelpers.fixture;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import io.dropwizard.jackson.Jackson;
+import java.time.ZonedDateTime;
+import org.junit.Test;
+
+public class FanoutTest {
+  private final ObjectMapper MAPPER = Jackson.newObjectMapper();
+  private final Fanout fanout =
+      Fanout.create(
+          ImmutableList.of("test1", "test2"),
+          Notification.builder("new-follower", "you have a new follower")
+              .withCreatedAt(ZonedDateTime.parse("2015-06-29T21:04:12Z"))
+              .build());
+
+  @Test
+  public void serializesToJSON() throws Exception {
+    final String actual = MAPPER.writeValueAsString(fanout);
+    final String expected =
+        MAPPER.writeValueAsString(MAPPER.readValue(fixture("fixtures/fanout.json"), Fanout.class));
+    assertThat(actual).isEqualTo(expected);
+  }
+
+  @Test
+  public void deserializesFromJSON() throws Exception {
+    final Fanout actual = MAPPER.readValue(fixture("fixtures/fanout.json"), Fanout.class);
+    assertThat(actual).isEqualTo(fanout);
+  }
+
+  @Test
+  public void testDuplicateUsernames() throws Exception {
+    final Fanout actual =
+        Fanout.create(ImmutableList.of("test1", "test1", "test2"), Notification.create("1"));
+    assertThat(actual.getUsernames()).containsExactly("test1", "test2");
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.smoketurner.notification.api.protos.NotificationApiProtos.NotificationListResponsePB;
+import com.smoketurner.notification.api.protos.NotificationApiProtos.NotificationResponsePB;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.junit.Test;
+
+public class NotificationProtobufTest {
+
+  private final ZonedDateTime now = ZonedDateTime.parse("2015-06-29T21:04:12Z");
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    final Notification child =
+        Notification.builder("new-follower", "you have a new follower")
+            .withId("12344")
+            .withCreatedAt(now)
+            .withProperties(ImmutableMap.of("first_name", "Test 2"))
+            .build();
+    final Notification notification =
+        Notification.builder("new-follower", "you have a new follower")
+            .withId("12345")
+            .withCreatedAt(now)
+            .withUnseen(true)
+            .withProperties(ImmutableMap.of("first_name", "Test"))
+            .withNotifications(ImmutableList.of(child))
+            .build();
+
+    final NotificationListResponsePB list =
+        NotificationProtobuf.toProtobuf(ImmutableList.of(notification));
+    final List<Notification> actual =
+        NotificationProtobuf.fromProtobuf(NotificationListResponsePB.parseFrom(list.toByteArray()));
+
+    assertThat(actual).hasSize(1);
+    final Notification first = actual.get(0);
+    assertThat(first.getId()).contains("12345");
+    assertThat(first.getCategory()).isEqualTo("new-follower");
+    assertThat(first.getMessage()).isEqualTo("you have a new follower");
+    assertThat(first.getCreatedAt()).isEqualTo(now);
+    assertThat(first.getUnseen()).contains(true);
+    assertThat(first.getProperties()).containsEntry("first_name", "Test");
+    assertThat(first.getNotifications()).hasSize(1);
+
+    final Notification second = first.getNotifications().iterator().next();
+    assertThat(second.getId()).contains("12344");
+    assertThat(second.getUnseen()).isEmpty();
+    assertThat(second.getProperties()).containsEntry("first_name", "Test 2");
+    assertThat(second.getNotifications()).isEmpty();
+    assertThat(first.getSummary()).isEmpty();
+  }
+
+  @Test
+  public void testSummary() throws Exception {
+    final RollupSummary summary = RollupSummary.of(10, "12344", "12335");
+    final Notification notification =
+        Notification.builder("new-follower", "you have a new follower")
+            .withId("12345")
+            .build()
+            .withSummary(summary, ImmutableList.of(Notification.create("12344")));
+
+    final Notification actual =
+        NotificationProtobuf.fromProtobuf(
+            NotificationResponsePB.parseFrom(
+                NotificationProtobuf.toProtobuf(notification).toByteArray()));
+
+    assertThat(actual.getSummary()).contains(summary);
+    assertThat(actual.getNotifications()).containsExactly(Notification.create("12344"));
+  }
+
+  @Test
+  public void testNoId() throws Exception {
+    final Notification actual =
+        NotificationProtobuf.fromProtobuf(NotificationResponsePB.newBuilder().build());
+    assertThat(actual.getId()).isEmpty();
+    assertThat(actual.getUnseen()).isEmpty();
+  }
+}
@@ -86,7 +86,7 @@ public class NotificationTest {
             "Notification{id=Optional[1],"
                 + " category=test-category, message=,"
                 + " createdAt=2015-08-14T21:25:19.533Z, unseen=Optional.empty,"
-                + " properties={}, notifications=[]}");
+                + " properties={}, notifications=[], summary=null}");
   }
 
   @Test
@@ -96,6 +96,61 @@ public class NotificationTest {
     assertThat(n1).isEqualTo(n2);
   }
 
+  @Test
+  public void testCreatedAtMillis() throws Exception {
+    final ZonedDateTime now = ZonedDateTime.parse("2015-08-14T21:25:19.533Z");
+    final Notification n1 = Notification.builder().withCreatedAt(now).build();
+    assertThat(n1.getCreatedAt()).isSameAs(now);
+    assertThat(n1.getCreatedAtMillis()).isEqualTo(now.toInstant().toEpochMilli());
+
+    final Notification n2 = Notification.builder().withCreatedAt(n1.getCreatedAtMillis()).build();
+    assertThat(n2.getCreatedAt()).isEqualTo(now);
+    assertThat(Notification.builder(n2).build().getCreatedAtMillis())
+        .isEqualTo(n1.getCreatedAtMillis());
+  }
+
+  @Test
+  public void testWithUnseen() throws Exception {
+    final Notification unseen = notification.withUnseen(true);
+    assertThat(unseen).isSameAs(notification);
+
+    final Notification seen = notification.withUnseen(false);
+    assertThat(seen.getUnseen()).contains(false);
+    assertThat(seen.getId()).isEqualTo(notification.getId());
+    assertThat(seen.getCreatedAt()).isEqualTo(notification.getCreatedAt());
+    assertThat(seen.getProperties()).isSameAs(notification.getProperties());
+    assertThat(seen.getNotifications()).isSameAs(notification.getNotifications());
+    assertThat(notification.getUnseen()).contains(true);
+  }
+
+  @Test
+  public void testWithNotifications() throws Exception {
+    final Notification child = Notification.create("1");
+    final Notification parent = notification.withNotifications(ImmutableList.of(child));
+    assertThat(parent.getNotifications()).containsExactly(child);
+    assertThat(parent.getUnseen()).isEqualTo(notification.getUnseen());
+    assertThat(parent.getProperties()).isSameAs(notification.getProperties());
+  }
+
+  @Test
+  public void testWithSummary() throws Exception {
+    final RollupSummary summary = RollupSummary.of(3, "12346", "12344");
+    final Notification parent =
+        notification.withSummary(summary, ImmutableList.of(Notification.create("12346")));
+    assertThat(parent.getSummary()).contains(summary);
+    assertThat(parent.getNotifications()).containsExactly(Notification.create("12346"));
+    assertThat(notification.getSummary()).isEmpty();
+
+    // the summary is kept when the unseen state is set
+    assertThat(parent.withUnseen(false).getSummary()).contains(summary);
+    assertThat(Notification.builder(parent).build().getSummary()).contains(summary);
+
+    final Notification actual =
+        MAPPER.readValue(MAPPER.writeValueAsString(parent), Notification.class);
+    assertThat(actual.getSummary()).contains(summary);
+    assertThat(MAPPER.writeValueAsString(notification)).doesNotContain("summary");
+  }
+
   @Test
   public void testComparison() throws Exception {
     final Notification n1 = Notification.create("1");
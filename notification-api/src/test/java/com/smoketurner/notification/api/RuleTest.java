@@ -31,6 +31,7 @@ public class RuleTest {
           .withMatchOn("first_name")
           .withMaxSize(3)
           .withMaxDuration(Duration.minutes(10))
+          .withSummarySize(5)
           .build();
 
   @Test
@@ -77,4 +78,11 @@ public class RuleTest {
     rule = Rule.builder().withMatchOn("like").build();
     assertThat(rule.isValid()).isTrue();
   }
+
+  @Test
+  public void testIsValidSummarySize() throws Exception {
+    // a summary_size alone doesn't roll up any notifications
+    assertThat(Rule.builder().withSummarySize(5).build().isValid()).isFalse();
+    assertThat(Rule.builder().withMaxSize(10).withSummarySize(5).build().isValid()).isTrue();
+  }
 }
@@ -19,6 +19,7 @@ import com.basho.riak.client.api.RiakClient;
 import com.basho.riak.client.api.cap.ConflictResolverFactory;
 import com.basho.riak.client.api.convert.ConverterFactory;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.smoketurner.dropwizard.graphql.GraphQLBundle;
 import com.smoketurner.dropwizard.graphql.GraphQLFactory;
 import com.smoketurner.dropwizard.riak.RiakBundle;
@@ -29,6 +30,7 @@ import com.smoketurner.notification.application.core.WebSecurityFilter;
 import com.smoketurner.notification.application.exceptions.NotificationExceptionMapper;
 import com.smoketurner.notification.application.graphql.CreateNotificationMutation;
 import com.smoketurner.notification.application.graphql.CreateRuleMutation;
+import com.smoketurner.notification.application.graphql.FanoutNotificationMutation;
 import com.smoketurner.notification.application.graphql.NotificationDataFetcher;
 import com.smoketurner.notification.application.graphql.RemoveAllNotificationsMutation;
 import com.smoketurner.notification.application.graphql.RemoveAllRulesMutation;
@@ -39,6 +41,9 @@ import com.smoketurner.notification.application.graphql.Scalars;
 import com.smoketurner.notification.application.graphql.UsernameFieldValidation;
 import com.smoketurner.notification.application.managed.CursorStoreManager;
 import com.smoketurner.notification.application.managed.NotificationStoreManager;
+import com.smoketurner.notification.application.resources.AsyncNotificationResource;
+import com.smoketurner.notification.application.resources.NotificationListProtobufWriter;
+import com.smoketurner.notification.application.resources.NotificationPageJsonWriter;
 import com.smoketurner.notification.application.resources.NotificationResource;
 import com.smoketurner.notification.application.resources.PingResource;
 import com.smoketurner.notification.application.resources.RuleResource;
@@ -48,9 +53,13 @@ import com.smoketurner.notification.application.riak.CursorResolver;
 import com.smoketurner.notification.application.riak.NotificationListConverter;
 import com.smoketurner.notification.application.riak.NotificationListObject;
 import com.smoketurner.notification.application.riak.NotificationListResolver;
+import com.smoketurner.notification.application.riak.NotificationManifestObject;
+import com.smoketurner.notification.application.riak.NotificationManifestResolver;
 import com.smoketurner.notification.application.store.CursorStore;
+import com.smoketurner.notification.application.store.CursorWriter;
 import com.smoketurner.notification.application.store.NotificationStore;
 import com.smoketurner.notification.application.store.RuleStore;
+import com.smoketurner.notification.application.store.WriteCombiner;
 import graphql.execution.instrumentation.fieldvalidation.FieldValidationInstrumentation;
 import graphql.schema.idl.RuntimeWiring;
 import io.dropwizard.Application;
@@ -59,9 +68,14 @@ import io.dropwizard.configuration.SubstitutingSourceProvider;
 import io.dropwizard.jersey.filter.CharsetUtf8Filter;
 import io.dropwizard.jersey.filter.RequestIdFilter;
 import io.dropwizard.jersey.filter.RuntimeFilter;
+import io.dropwizard.lifecycle.ExecutorServiceManager;
 import io.dropwizard.setup.Bootstrap;
 import io.dropwizard.setup.Environment;
 import java.util.Collections;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -73,6 +87,8 @@ public class NotificationApplication extends Application<NotificationConfigurati
       new AtomicReference<>();
   private static final AtomicReference<RuleStore> RULE_STORE = new AtomicReference<>();
   private static final AtomicReference<CursorStore> CURSOR_STORE = new AtomicReference<>();
+  private static final AtomicReference<CursorWriter> CURSOR_WRITER = new AtomicReference<>();
+  private static final AtomicReference<ExecutorService> READ_EXECUTOR = new AtomicReference<>();
 
   public static void main(final String[] args) throws Exception {
     // http://docs.aws.amazon.com/AWSSdkDocsJava/latest/DeveloperGuide/java-dg-jvm-ttl.html
@@ -87,12 +103,10 @@ public class NotificationApplication extends Application<NotificationConfigurati
 
   @Override
   public void initialize(Bootstrap<NotificationConfiguration> bootstrap) {
-    ConflictResolverFactory.INSTANCE.registerConflictResolver(
-        NotificationListObject.class, new NotificationListResolver());
     ConflictResolverFactory.INSTANCE.registerConflictResolver(
         CursorObject.class, new CursorResolver());
-    ConverterFactory.INSTANCE.registerConverterForClass(
-        NotificationListObject.class, new NotificationListConverter());
+    ConflictResolverFactory.INSTANCE.registerConflictResolver(
+        NotificationManifestObject.class, new NotificationManifestResolver());
 
     // Enable variable substitution with environment variables
     bootstrap.setConfigurationSourceProvider(
@@ -135,6 +149,10 @@ public class NotificationApplication extends Application<NotificationConfigurati
     // returns all DateTime objects as ISO8601 strings
     environment.getObjectMapper().configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
     environment.jersey().register(NotificationExceptionMapper.class);
+    // writes notification lists as protocol buffers when requested
+    environment.jersey().register(NotificationListProtobufWriter.class);
+    // streams pages of notifications as JSON without copying them
+    environment.jersey().register(new NotificationPageJsonWriter(environment.getObjectMapper()));
     // adds charset=UTF-8 to the response headers
     environment.jersey().register(CharsetUtf8Filter.class);
     // adds a X-Request-Id response header
@@ -145,17 +163,33 @@ public class NotificationApplication extends Application<NotificationConfigurati
 
     // riak
     final RiakClient client = configuration.getRiak().build();
+    ConverterFactory.INSTANCE.registerConverterForClass(
+        NotificationListObject.class, new NotificationListConverter(configuration.getListFormat()));
+    ConflictResolverFactory.INSTANCE.registerConflictResolver(
+        NotificationListObject.class,
+        new NotificationListResolver(configuration.getDeletedIdHorizon()));
 
     // data stores
     final RuleStore ruleStore = getRuleStore(client, configuration);
     final CursorStore cursorStore = getCursorStore(client, configuration);
+    final CursorWriter cursorWriter = getCursorWriter(client, configuration);
     final NotificationStore store = getNotificationStore(client, configuration);
-
-    environment.lifecycle().manage(new CursorStoreManager(cursorStore));
+    final ExecutorService readExecutor = getReadExecutor(configuration);
+
+    environment
+        .lifecycle()
+        .manage(
+            new ExecutorServiceManager(
+                readExecutor, configuration.getRiakRequestTimeout(), "notification-read"));
+    environment.lifecycle().manage(new CursorStoreManager(cursorStore, cursorWriter));
     environment.lifecycle().manage(new NotificationStoreManager(store));
 
     // resources
-    environment.jersey().register(new NotificationResource(store));
+    if (configuration.isAsyncRequests()) {
+      environment.jersey().register(new AsyncNotificationResource(store, readExecutor));
+    } else {
+      environment.jersey().register(new NotificationResource(store));
+    }
     environment.jersey().register(new RuleResource(ruleStore));
     environment.jersey().register(new PingResource());
     environment.jersey().register(new VersionResource());
@@ -210,6 +244,34 @@ public class NotificationApplication extends Application<NotificationConfigurati
     return getCursorStore(client, configuration);
   }
 
+  /**
+   * Get and configure the {@link CursorWriter}
+   *
+   * @param client Riak client
+   * @param configuration Notification configuration
+   * @return CursorWriter
+   */
+  private static CursorWriter getCursorWriter(
+      final RiakClient client, final NotificationConfiguration configuration) {
+
+    if (CURSOR_WRITER.get() != null) {
+      return CURSOR_WRITER.get();
+    }
+
+    final CursorStore cursorStore = getCursorStore(client, configuration);
+
+    final CursorWriter writer =
+        new CursorWriter(
+            cursorStore,
+            configuration.getCursorFlushBatchSize(),
+            configuration.getCursorFlushInterval(),
+            configuration.getRiakRequestTimeout());
+    if (CURSOR_WRITER.compareAndSet(null, writer)) {
+      return writer;
+    }
+    return getCursorWriter(client, configuration);
+  }
+
   /**
    * Get and configure the {@link NotificationStore}
    *
@@ -228,6 +290,7 @@ public class NotificationApplication extends Application<NotificationConfigurati
     final IdGenerator idGenerator = new IdGenerator();
 
     final CursorStore cursorStore = getCursorStore(client, configuration);
+    final CursorWriter cursorWriter = getCursorWriter(client, configuration);
     final RuleStore ruleStore = getRuleStore(client, configuration);
 
     final NotificationStore store =
@@ -235,15 +298,60 @@ public class NotificationApplication extends Application<NotificationConfigurati
             client,
             idGenerator,
             cursorStore,
+            cursorWriter,
             ruleStore,
+            new WriteCombiner<>(
+                configuration.isCombineWrites(),
+                configuration.getCombineWritesWindow(),
+                configuration.getRiakRequestTimeout()),
+            getReadExecutor(configuration),
             configuration.getRiakTimeout(),
-            configuration.getRiakRequestTimeout());
+            configuration.getRiakRequestTimeout(),
+            configuration.getNotificationCacheSize(),
+            configuration.getNotificationCacheTimeout(),
+            configuration.getFanoutMaxInFlight(),
+            configuration.getStorageLayout(),
+            configuration.isLazyDecode(),
+            configuration.isRollupOnWrite());
     if (NOTIFICATION_STORE.compareAndSet(null, store)) {
       return store;
     }
     return getNotificationStore(client, configuration);
   }
 
+  /**
+   * Get the executor which decodes and rolls up asynchronously fetched notifications off the Riak
+   * client's I/O threads and resumes the suspended requests. Its queue is bounded, so once it is
+   * full further reads are rejected rather than queued behind the backlog. It is shut down by the
+   * environment's lifecycle.
+   *
+   * @param configuration Notification configuration
+   * @return ExecutorService
+   */
+  private static ExecutorService getReadExecutor(final NotificationConfiguration configuration) {
+
+    if (READ_EXECUTOR.get() != null) {
+      return READ_EXECUTOR.get();
+    }
+
+    final ExecutorService executor =
+        new ThreadPoolExecutor(
+            configuration.getReadThreads(),
+            configuration.getReadThreads(),
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(configuration.getReadQueueSize()),
+            new ThreadFactoryBuilder()
+                .setNameFormat("notification-read-%d")
+                .setDaemon(true)
+                .build());
+    if (READ_EXECUTOR.compareAndSet(null, executor)) {
+      return executor;
+    }
+    executor.shutdown();
+    return getReadExecutor(configuration);
+  }
+
   /**
    * Build the GraphQL {@link RuntimeWiring}
    *
@@ -272,6 +380,7 @@ public class NotificationApplication extends Application<NotificationConfigurati
                 typeWiring ->
                     typeWiring
                         .dataFetcher("createNotification", new CreateNotificationMutation(store))
+                        .dataFetcher("fanoutNotification", new FanoutNotificationMutation(store))
                         .dataFetcher("removeNotification", new RemoveNotificationMutation(store))
                         .dataFetcher(
                             "removeAllNotifications", new RemoveAllNotificationsMutation(store))
@@ -18,11 +18,14 @@ package com.smoketurner.notification.application.config;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.smoketurner.dropwizard.graphql.GraphQLFactory;
 import com.smoketurner.dropwizard.riak.RiakFactory;
+import com.smoketurner.notification.application.riak.NotificationListFormat;
+import com.smoketurner.notification.application.store.StorageLayout;
 import io.dropwizard.Configuration;
 import io.dropwizard.util.Duration;
 import io.dropwizard.validation.MinDuration;
 import java.util.concurrent.TimeUnit;
 import javax.validation.Valid;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 public class NotificationConfiguration extends Configuration {
@@ -39,6 +42,49 @@ public class NotificationConfiguration extends Configuration {
   @MinDuration(value = 1, unit = TimeUnit.MILLISECONDS)
   private Duration riakRequestTimeout = Duration.seconds(5);
 
+  @Min(0)
+  private long notificationCacheSize = 100000;
+
+  @NotNull
+  @MinDuration(value = 1, unit = TimeUnit.MILLISECONDS)
+  private Duration notificationCacheTimeout = Duration.seconds(5);
+
+  @Min(1)
+  private int cursorFlushBatchSize = 100;
+
+  @NotNull
+  @MinDuration(value = 1, unit = TimeUnit.MILLISECONDS)
+  private Duration cursorFlushInterval = Duration.seconds(1);
+
+  @Min(1)
+  private int fanoutMaxInFlight = 64;
+
+  private boolean combineWrites = false;
+
+  private boolean asyncRequests = false;
+
+  @Min(1)
+  private int readThreads = 16;
+
+  @Min(1)
+  private int readQueueSize = 1000;
+
+  @NotNull private StorageLayout storageLayout = StorageLayout.SINGLE;
+
+  private boolean lazyDecode = false;
+
+  private boolean rollupOnWrite = false;
+
+  @NotNull private NotificationListFormat listFormat = NotificationListFormat.PROTOBUF;
+
+  @NotNull
+  @MinDuration(value = 0, unit = TimeUnit.MILLISECONDS)
+  private Duration deletedIdHorizon = Duration.hours(1);
+
+  @NotNull
+  @MinDuration(value = 0, unit = TimeUnit.MILLISECONDS)
+  private Duration combineWritesWindow = Duration.milliseconds(0);
+
   @Valid @NotNull @JsonProperty private final RiakFactory riak = new RiakFactory();
 
   @Valid @NotNull @JsonProperty private final GraphQLFactory graphql = new GraphQLFactory();
@@ -73,6 +119,156 @@ public class NotificationConfiguration extends Configuration {
     this.ruleCacheTimeout = timeout;
   }
 
+  @JsonProperty
+  public long getNotificationCacheSize() {
+    return notificationCacheSize;
+  }
+
+  @JsonProperty
+  public void setNotificationCacheSize(final long size) {
+    this.notificationCacheSize = size;
+  }
+
+  @JsonProperty
+  public Duration getNotificationCacheTimeout() {
+    return notificationCacheTimeout;
+  }
+
+  @JsonProperty
+  public void setNotificationCacheTimeout(final Duration timeout) {
+    this.notificationCacheTimeout = timeout;
+  }
+
+  @JsonProperty
+  public int getCursorFlushBatchSize() {
+    return cursorFlushBatchSize;
+  }
+
+  @JsonProperty
+  public void setCursorFlushBatchSize(final int size) {
+    this.cursorFlushBatchSize = size;
+  }
+
+  @JsonProperty
+  public Duration getCursorFlushInterval() {
+    return cursorFlushInterval;
+  }
+
+  @JsonProperty
+  public void setCursorFlushInterval(final Duration interval) {
+    this.cursorFlushInterval = interval;
+  }
+
+  @JsonProperty
+  public int getFanoutMaxInFlight() {
+    return fanoutMaxInFlight;
+  }
+
+  @JsonProperty
+  public void setFanoutMaxInFlight(final int maxInFlight) {
+    this.fanoutMaxInFlight = maxInFlight;
+  }
+
+  @JsonProperty
+  public int getReadThreads() {
+    return readThreads;
+  }
+
+  @JsonProperty
+  public void setReadThreads(final int threads) {
+    this.readThreads = threads;
+  }
+
+  @JsonProperty
+  public int getReadQueueSize() {
+    return readQueueSize;
+  }
+
+  @JsonProperty
+  public void setReadQueueSize(final int queueSize) {
+    this.readQueueSize = queueSize;
+  }
+
+  @JsonProperty
+  public boolean isCombineWrites() {
+    return combineWrites;
+  }
+
+  @JsonProperty
+  public void setCombineWrites(final boolean combineWrites) {
+    this.combineWrites = combineWrites;
+  }
+
+  @JsonProperty
+  public Duration getCombineWritesWindow() {
+    return combineWritesWindow;
+  }
+
+  @JsonProperty
+  public void setCombineWritesWindow(final Duration window) {
+    this.combineWritesWindow = window;
+  }
+
+  @JsonProperty
+  public boolean isAsyncRequests() {
+    return asyncRequests;
+  }
+
+  @JsonProperty
+  public void setAsyncRequests(final boolean asyncRequests) {
+    this.asyncRequests = asyncRequests;
+  }
+
+  @JsonProperty
+  public StorageLayout getStorageLayout() {
+    return storageLayout;
+  }
+
+  @JsonProperty
+  public void setStorageLayout(final StorageLayout layout) {
+    this.storageLayout = layout;
+  }
+
+  @JsonProperty
+  public boolean isLazyDecode() {
+    return lazyDecode;
+  }
+
+  @JsonProperty
+  public void setLazyDecode(final boolean lazyDecode) {
+    this.lazyDecode = lazyDecode;
+  }
+
+  @JsonProperty
+  public boolean isRollupOnWrite() {
+    return rollupOnWrite;
+  }
+
+  @JsonProperty
+  public void setRollupOnWrite(final boolean rollupOnWrite) {
+    this.rollupOnWrite = rollupOnWrite;
+  }
+
+  @JsonProperty
+  public NotificationListFormat getListFormat() {
+    return listFormat;
+  }
+
+  @JsonProperty
+  public void setListFormat(final NotificationListFormat listFormat) {
+    this.listFormat = listFormat;
+  }
+
+  @JsonProperty
+  public Duration getDeletedIdHorizon() {
+    return deletedIdHorizon;
+  }
+
+  @JsonProperty
+  public void setDeletedIdHorizon(final Duration deletedIdHorizon) {
+    this.deletedIdHorizon = deletedIdHorizon;
+  }
+
   @JsonProperty
   public RiakFactory getRiak() {
     return riak;
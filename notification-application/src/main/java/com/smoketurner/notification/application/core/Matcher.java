@@ -22,15 +22,14 @@ import java.util.Collection;
 import java.util.Map;
 import java.util.Objects;
 import java.util.StringJoiner;
-import java.util.TreeSet;
 import java.util.function.Predicate;
 import javax.annotation.Nullable;
 
 public class Matcher implements Predicate<Notification>, Comparable<Matcher> {
 
-  private final TreeSet<Notification> notifications = new TreeSet<>();
+  private final NotificationSet notifications = new NotificationSet();
   private final Notification notification;
-  private final Rule rule;
+  private final RulePlan.CategoryRule rule;
   private final int maxSize;
   private final long firstMillis;
   private final long maxDuration;
@@ -46,23 +45,28 @@ public class Matcher implements Predicate<Notification>, Comparable<Matcher> {
    * @param notification First notification to match the rule
    */
   public Matcher(final Rule rule, final Notification notification) {
+    this(RulePlan.CategoryRule.of(rule), notification);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param rule Compiled rule for this match
+   * @param notification First notification to match the rule
+   */
+  public Matcher(final RulePlan.CategoryRule rule, final Notification notification) {
     this.rule = Objects.requireNonNull(rule, "rule == null");
     this.notification = Objects.requireNonNull(notification, "notification == null");
 
-    this.maxSize = rule.getMaxSize().orElse(0);
-    this.matchOn = rule.getMatchOn().orElse(null);
+    this.maxSize = rule.getMaxSize();
+    this.matchOn = rule.getMatchOn();
     if (matchOn != null) {
       this.matchValue = notification.getProperties().get(matchOn);
     } else {
       this.matchValue = null;
     }
-    if (rule.getMaxDuration().isPresent()) {
-      this.maxDuration = rule.getMaxDuration().get().toMilliseconds();
-      this.firstMillis = notification.getCreatedAt().toInstant().toEpochMilli();
-    } else {
-      this.maxDuration = 0;
-      this.firstMillis = 0;
-    }
+    this.maxDuration = rule.getMaxDuration();
+    this.firstMillis = rule.hasMaxDuration() ? notification.getCreatedAtMillis() : 0;
   }
 
   /**
@@ -73,11 +77,11 @@ public class Matcher implements Predicate<Notification>, Comparable<Matcher> {
    * @return true if the notification matches, otherwise false
    */
   public boolean checkMatch(final Notification notification) {
-    if (!rule.getMatchOn().isPresent()) {
+    if (matchOn == null) {
       return true;
     }
 
-    if (matchOn == null || matchValue == null) {
+    if (matchValue == null) {
       return false;
     }
 
@@ -94,6 +98,18 @@ public class Matcher implements Predicate<Notification>, Comparable<Matcher> {
     return (maxSize > 0 && notifications.size() >= maxSize);
   }
 
+  /**
+   * Check whether this matcher can no longer match the given notification, because it is full or
+   * the notification is past its "max-duration". As notifications are rolled up from newest to
+   * oldest, it cannot match any later notification either.
+   *
+   * @param next Next notification to roll up
+   * @return true if the matcher is closed, otherwise false
+   */
+  public boolean isClosed(final Notification next) {
+    return isFull() || !checkDuration(next);
+  }
+
   /**
    * Check whether the given notification matches the same category as the original notification.
    *
@@ -111,12 +127,12 @@ public class Matcher implements Predicate<Notification>, Comparable<Matcher> {
    * @return true if the notification is within the maximum duration, otherwise false.
    */
   public boolean checkDuration(final Notification notification) {
-    if (!rule.getMaxDuration().isPresent()) {
+    if (maxDuration == RulePlan.CategoryRule.NO_MAX_DURATION) {
       return true;
     }
 
     if (maxDuration > 0 && firstMillis > 0) {
-      final long delta = firstMillis - notification.getCreatedAt().toInstant().toEpochMilli();
+      final long delta = firstMillis - notification.getCreatedAtMillis();
       if (delta >= 0 && delta <= maxDuration) {
         return true;
       }
@@ -148,11 +164,21 @@ public class Matcher implements Predicate<Notification>, Comparable<Matcher> {
     return this.notifications.addAll(notifications);
   }
 
+  /**
+   * Return the first notification to match the rule, which the other notifications are rolled up
+   * into
+   *
+   * @return the first notification
+   */
+  public Notification getFirst() {
+    return notification;
+  }
+
   public Notification getNotification() {
     if (notifications.isEmpty()) {
       return notification;
     }
-    return Notification.builder(notification).withNotifications(notifications).build();
+    return notification.withNotifications(notifications);
   }
 
   @Override
@@ -0,0 +1,154 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.core;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.PeekingIterator;
+import com.smoketurner.notification.api.Notification;
+import java.util.AbstractCollection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Optional;
+import javax.annotation.Nullable;
+
+/**
+ * A single page of a user's notifications. The bounds of the page are found from the notification
+ * IDs alone, and the notifications are only summarized and have their unseen state set as the page
+ * is iterated, so writing the page reads each notification in it once without copying the page.
+ */
+public final class NotificationPage extends AbstractCollection<Notification> {
+
+  private static final NotificationPage EMPTY =
+      new NotificationPage(Collections.emptyList(), 0, 0, null, null, false);
+
+  private final Iterable<Notification> notifications;
+  private final int skip;
+  private final int size;
+  @Nullable private final String firstId;
+  @Nullable private final String lastId;
+  private final boolean hasMore;
+
+  /**
+   * Constructor
+   *
+   * @param notifications Notifications ordered from newest to oldest, starting at the page
+   * @param skip Number of notifications to skip before the page
+   * @param size Number of notifications in the page
+   * @param firstId ID of the first notification in the page
+   * @param lastId ID of the last notification in the page
+   * @param hasMore Whether there are older notifications after the page
+   */
+  private NotificationPage(
+      final Iterable<Notification> notifications,
+      final int skip,
+      final int size,
+      @Nullable final String firstId,
+      @Nullable final String lastId,
+      final boolean hasMore) {
+    this.notifications = notifications;
+    this.skip = skip;
+    this.size = size;
+    this.firstId = firstId;
+    this.lastId = lastId;
+    this.hasMore = hasMore;
+  }
+
+  /**
+   * Returns an empty page
+   *
+   * @return an empty page
+   */
+  public static NotificationPage empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Create a page of notifications. The notifications start at the page: when it starts from a
+   * notification ID, they start from the rollup the notification is in, or if the ID is not found,
+   * from the rollup of the next newer notification.
+   *
+   * @param notifications User's notifications, starting at the page
+   * @param fromId Notification ID the page starts from, or absent for the first page
+   * @param fromInclusive Whether to include the rollup of the starting notification in the page
+   * @param limit Maximum number of notifications in the page
+   * @return the page
+   */
+  public static NotificationPage create(
+      final UserNotifications notifications,
+      final Optional<String> fromId,
+      final boolean fromInclusive,
+      final int limit) {
+
+    Objects.requireNonNull(notifications, "notifications == null");
+    Objects.requireNonNull(fromId, "fromId == null");
+    Preconditions.checkArgument(limit > 0, "limit must be greater than zero");
+
+    final PeekingIterator<String> ids =
+        Iterators.peekingIterator(notifications.getOrderedIds().iterator());
+    if (!ids.hasNext()) {
+      return EMPTY;
+    }
+
+    // the first rollup is the starting notification's, unless every notification is older than it
+    int skip = 0;
+    if (!fromInclusive && fromId.isPresent() && ids.peek().compareTo(fromId.get()) >= 0) {
+      ids.next();
+      skip = 1;
+    }
+
+    int size = 0;
+    String firstId = null;
+    String lastId = null;
+    while (size < limit && ids.hasNext()) {
+      lastId = ids.next();
+      if (size++ == 0) {
+        firstId = lastId;
+      }
+    }
+    return new NotificationPage(
+        notifications.getOrderedNotifications(), skip, size, firstId, lastId, ids.hasNext());
+  }
+
+  public Optional<String> getFirstId() {
+    return Optional.ofNullable(firstId);
+  }
+
+  public Optional<String> getLastId() {
+    return Optional.ofNullable(lastId);
+  }
+
+  /**
+   * Returns whether there are older notifications after this page
+   *
+   * @return true if there is a next page, otherwise false
+   */
+  public boolean hasMore() {
+    return hasMore;
+  }
+
+  @Override
+  public Iterator<Notification> iterator() {
+    return Iterators.limit(Iterables.skip(notifications, skip).iterator(), size);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+}
@@ -0,0 +1,669 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.core;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Ordering;
+import com.smoketurner.notification.api.Notification;
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.SortedSet;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+
+/**
+ * A sorted set of notifications, ordered from newest to oldest, which is backed by an array rather
+ * than a tree.
+ *
+ * <p>Notifications are almost always added in order, such as when a stored list is decoded, so an
+ * addition after the last notification is appended without a search. Other additions find their
+ * position with a binary search and shift the notifications after it. Adding a sorted collection
+ * merges the two in a single pass.
+ *
+ * <p>The views returned by {@link #headSet}, {@link #tailSet} and {@link #subSet} are backed by
+ * this set, as with a {@link java.util.TreeSet}, but are read-only.
+ */
+public final class NotificationSet extends AbstractSet<Notification>
+    implements SortedSet<Notification> {
+
+  private static final Notification[] EMPTY = new Notification[0];
+  private static final int DEFAULT_CAPACITY = 16;
+
+  // the set holding the notifications, which is this set unless this set is a view
+  private final NotificationSet root;
+  private Notification[] elements;
+  // position of the newest notification in the array, leaving room to add newer notifications
+  private int head;
+  private int size;
+  private int modCount;
+
+  // bounds of a view, where null is unbounded
+  @Nullable private final Notification fromElement;
+  private final boolean fromInclusive;
+  @Nullable private final Notification toElement;
+  private final boolean toInclusive;
+
+  /** Constructor */
+  public NotificationSet() {
+    this.root = this;
+    this.elements = EMPTY;
+    this.fromElement = null;
+    this.fromInclusive = true;
+    this.toElement = null;
+    this.toInclusive = true;
+  }
+
+  /**
+   * Constructor
+   *
+   * @param notifications Notifications to add
+   */
+  public NotificationSet(final Collection<? extends Notification> notifications) {
+    this();
+    addAll(notifications);
+  }
+
+  /**
+   * Constructor for a view
+   *
+   * @param root Set holding the notifications
+   * @param fromElement Newest bound of the view, or null if unbounded
+   * @param fromInclusive Whether the newest bound is in the view
+   * @param toElement Oldest bound of the view, or null if unbounded
+   * @param toInclusive Whether the oldest bound is in the view
+   */
+  private NotificationSet(
+      final NotificationSet root,
+      @Nullable final Notification fromElement,
+      final boolean fromInclusive,
+      @Nullable final Notification toElement,
+      final boolean toInclusive) {
+    this.root = root;
+    this.elements = EMPTY;
+    this.fromElement = fromElement;
+    this.fromInclusive = fromInclusive;
+    this.toElement = toElement;
+    this.toInclusive = toInclusive;
+  }
+
+  @Override
+  public boolean add(final Notification notification) {
+    Objects.requireNonNull(notification, "notification == null");
+    checkWritable();
+
+    // notifications are usually added from newest to oldest, so check the end first
+    final int index;
+    if (size == 0 || notification.compareTo(elements[head + size - 1]) > 0) {
+      index = size;
+    } else {
+      final int position = search(notification);
+      if (position >= 0) {
+        return false;
+      }
+      index = -(position + 1);
+    }
+
+    // shift whichever side of the insertion point is shorter
+    if (index < size / 2) {
+      if (head == 0) {
+        reallocate(Math.max(DEFAULT_CAPACITY, size >> 1), elements.length - size);
+      }
+      System.arraycopy(elements, head, elements, head - 1, index);
+      head--;
+    } else {
+      if (head + size == elements.length) {
+        reallocate(head, Math.max(DEFAULT_CAPACITY, size >> 1));
+      }
+      System.arraycopy(elements, head + index, elements, head + index + 1, size - index);
+    }
+    elements[head + index] = notification;
+    size++;
+    modCount++;
+    return true;
+  }
+
+  @Override
+  public boolean addAll(final Collection<? extends Notification> notifications) {
+    Objects.requireNonNull(notifications, "notifications == null");
+    checkWritable();
+
+    if (notifications.isEmpty()) {
+      return false;
+    }
+    if (!isNaturallySorted(notifications)) {
+      boolean changed = false;
+      for (Notification notification : notifications) {
+        changed |= add(notification);
+      }
+      return changed;
+    }
+
+    // merge the two sorted sets in a single pass
+    final Notification[] merged = new Notification[size + notifications.size()];
+    final Iterator<? extends Notification> iterator = notifications.iterator();
+    Notification next = iterator.next();
+    int count = 0;
+    int i = 0;
+    while (next != null) {
+      final int comparison = i < size ? elements[head + i].compareTo(next) : 1;
+      if (comparison < 0) {
+        merged[count++] = elements[head + i++];
+        continue;
+      }
+      if (comparison > 0) {
+        merged[count++] = next;
+      }
+      next = iterator.hasNext() ? iterator.next() : null;
+    }
+    System.arraycopy(elements, head + i, merged, count, size - i);
+    count += size - i;
+
+    final boolean changed = count > size;
+    elements = merged;
+    head = 0;
+    size = count;
+    modCount++;
+    return changed;
+  }
+
+  @Override
+  public boolean remove(final Object obj) {
+    checkWritable();
+    if (!(obj instanceof Notification)) {
+      return false;
+    }
+    final int index = search((Notification) obj);
+    if (index < 0) {
+      return false;
+    }
+    removeAt(index);
+    return true;
+  }
+
+  @Override
+  public boolean removeIf(final Predicate<? super Notification> filter) {
+    Objects.requireNonNull(filter, "filter == null");
+    checkWritable();
+
+    int count = 0;
+    for (int i = head; i < head + size; i++) {
+      if (!filter.test(elements[i])) {
+        elements[head + count++] = elements[i];
+      }
+    }
+    if (count == size) {
+      return false;
+    }
+    Arrays.fill(elements, head + count, head + size, null);
+    size = count;
+    modCount++;
+    return true;
+  }
+
+  @Override
+  public void clear() {
+    checkWritable();
+    Arrays.fill(elements, head, head + size, null);
+    head = 0;
+    size = 0;
+    modCount++;
+  }
+
+  /**
+   * Remove the oldest notifications so that no more than {@code maxSize} remain
+   *
+   * @param maxSize Maximum number of notifications to keep
+   * @return the number of notifications removed
+   */
+  public int truncate(final int maxSize) {
+    Preconditions.checkArgument(maxSize >= 0, "maxSize cannot be negative");
+    checkWritable();
+
+    if (size <= maxSize) {
+      return 0;
+    }
+    final int removed = size - maxSize;
+    Arrays.fill(elements, head + maxSize, head + size, null);
+    size = maxSize;
+    modCount++;
+    return removed;
+  }
+
+  /**
+   * Remove and return the newest notification
+   *
+   * @return the newest notification, or null if the set is empty
+   */
+  @Nullable
+  public Notification pollFirst() {
+    checkWritable();
+    if (size == 0) {
+      return null;
+    }
+    final Notification first = elements[head];
+    removeAt(0);
+    return first;
+  }
+
+  /**
+   * Remove and return the oldest notification
+   *
+   * @return the oldest notification, or null if the set is empty
+   */
+  @Nullable
+  public Notification pollLast() {
+    checkWritable();
+    if (size == 0) {
+      return null;
+    }
+    final Notification last = elements[head + size - 1];
+    removeAt(size - 1);
+    return last;
+  }
+
+  @Override
+  public boolean contains(final Object obj) {
+    if (!(obj instanceof Notification)) {
+      return false;
+    }
+    final int index = root.search((Notification) obj);
+    return index >= start() && index < end();
+  }
+
+  @Override
+  public int size() {
+    if (root == this) {
+      return size;
+    }
+    return Math.max(0, end() - start());
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  @Override
+  public Iterator<Notification> iterator() {
+    return new Itr(start(), end());
+  }
+
+  @Override
+  public Spliterator<Notification> spliterator() {
+    final int start = start();
+    return Spliterators.spliterator(
+        root.elements,
+        root.head + start,
+        root.head + Math.max(start, end()),
+        Spliterator.DISTINCT | Spliterator.ORDERED | Spliterator.SORTED | Spliterator.NONNULL);
+  }
+
+  /**
+   * Return a read-only view of this set as a list, ordered from newest to oldest, which can be
+   * accessed by position in constant time
+   *
+   * @return the list view
+   */
+  public List<Notification> asList() {
+    return new ListView();
+  }
+
+  @Nullable
+  @Override
+  public Comparator<? super Notification> comparator() {
+    // notifications are in their natural order
+    return null;
+  }
+
+  @Override
+  public Notification first() {
+    final int start = start();
+    if (start >= end()) {
+      throw new NoSuchElementException();
+    }
+    return root.elements[root.head + start];
+  }
+
+  @Override
+  public Notification last() {
+    final int end = end();
+    if (end <= start()) {
+      throw new NoSuchElementException();
+    }
+    return root.elements[root.head + end - 1];
+  }
+
+  /**
+   * Return the oldest notification which is the same as or newer than the given notification
+   *
+   * @param notification Notification to search for
+   * @return the matching notification, or null if there is none
+   */
+  @Nullable
+  public Notification floor(final Notification notification) {
+    final int index = root.search(notification);
+    return at(Math.min(index >= 0 ? index : -(index + 1) - 1, end() - 1));
+  }
+
+  /**
+   * Return the newest notification which is the same as or older than the given notification
+   *
+   * @param notification Notification to search for
+   * @return the matching notification, or null if there is none
+   */
+  @Nullable
+  public Notification ceiling(final Notification notification) {
+    final int index = root.search(notification);
+    return at(Math.max(index >= 0 ? index : -(index + 1), start()));
+  }
+
+  /**
+   * Return the oldest notification which is newer than the given notification
+   *
+   * @param notification Notification to search for
+   * @return the matching notification, or null if there is none
+   */
+  @Nullable
+  public Notification lower(final Notification notification) {
+    final int index = root.search(notification);
+    return at(Math.min(index >= 0 ? index - 1 : -(index + 1) - 1, end() - 1));
+  }
+
+  /**
+   * Return the newest notification which is older than the given notification
+   *
+   * @param notification Notification to search for
+   * @return the matching notification, or null if there is none
+   */
+  @Nullable
+  public Notification higher(final Notification notification) {
+    final int index = root.search(notification);
+    return at(Math.max(index >= 0 ? index + 1 : -(index + 1), start()));
+  }
+
+  @Override
+  public NotificationSet subSet(final Notification fromElement, final Notification toElement) {
+    return subSet(fromElement, true, toElement, false);
+  }
+
+  /**
+   * Return a read-only view of the notifications from {@code fromElement} to {@code toElement}
+   *
+   * @param fromElement Newest bound of the view
+   * @param fromInclusive Whether the newest bound is in the view
+   * @param toElement Oldest bound of the view
+   * @param toInclusive Whether the oldest bound is in the view
+   * @return the view
+   */
+  public NotificationSet subSet(
+      final Notification fromElement,
+      final boolean fromInclusive,
+      final Notification toElement,
+      final boolean toInclusive) {
+    Objects.requireNonNull(fromElement, "fromElement == null");
+    Objects.requireNonNull(toElement, "toElement == null");
+    Preconditions.checkArgument(
+        fromElement.compareTo(toElement) <= 0, "fromElement is older than toElement");
+    return view(fromElement, fromInclusive, toElement, toInclusive);
+  }
+
+  @Override
+  public NotificationSet headSet(final Notification toElement) {
+    return headSet(toElement, false);
+  }
+
+  /**
+   * Return a read-only view of the notifications newer than {@code toElement}
+   *
+   * @param toElement Oldest bound of the view
+   * @param inclusive Whether the bound is in the view
+   * @return the view
+   */
+  public NotificationSet headSet(final Notification toElement, final boolean inclusive) {
+    Objects.requireNonNull(toElement, "toElement == null");
+    return view(null, true, toElement, inclusive);
+  }
+
+  @Override
+  public NotificationSet tailSet(final Notification fromElement) {
+    return tailSet(fromElement, true);
+  }
+
+  /**
+   * Return a read-only view of the notifications older than {@code fromElement}
+   *
+   * @param fromElement Newest bound of the view
+   * @param inclusive Whether the bound is in the view
+   * @return the view
+   */
+  public NotificationSet tailSet(final Notification fromElement, final boolean inclusive) {
+    Objects.requireNonNull(fromElement, "fromElement == null");
+    return view(fromElement, inclusive, null, true);
+  }
+
+  /**
+   * Create a view within the bounds of this set
+   *
+   * @param from Newest bound of the view, or null to keep this set's bound
+   * @param fromInclusive Whether the newest bound is in the view
+   * @param to Oldest bound of the view, or null to keep this set's bound
+   * @param toInclusive Whether the oldest bound is in the view
+   * @return the view
+   */
+  private NotificationSet view(
+      @Nullable final Notification from,
+      final boolean fromInclusive,
+      @Nullable final Notification to,
+      final boolean toInclusive) {
+
+    // keep whichever of the bounds is narrower
+    Notification newest = from;
+    boolean newestInclusive = fromInclusive;
+    if (fromElement != null) {
+      final int comparison = from == null ? 1 : fromElement.compareTo(from);
+      if (comparison > 0) {
+        newest = fromElement;
+        newestInclusive = this.fromInclusive;
+      } else if (comparison == 0) {
+        newestInclusive = fromInclusive && this.fromInclusive;
+      }
+    }
+
+    Notification oldest = to;
+    boolean oldestInclusive = toInclusive;
+    if (toElement != null) {
+      final int comparison = to == null ? -1 : toElement.compareTo(to);
+      if (comparison < 0) {
+        oldest = toElement;
+        oldestInclusive = this.toInclusive;
+      } else if (comparison == 0) {
+        oldestInclusive = toInclusive && this.toInclusive;
+      }
+    }
+
+    return new NotificationSet(root, newest, newestInclusive, oldest, oldestInclusive);
+  }
+
+  /**
+   * Return the notification at the given position in the root set, if it is within this set
+   *
+   * @param index Position in the root set
+   * @return the notification, or null if it is outside this set
+   */
+  @Nullable
+  private Notification at(final int index) {
+    if (index < start() || index >= end()) {
+      return null;
+    }
+    return root.elements[root.head + index];
+  }
+
+  /**
+   * Position in the root set of the newest notification in this set
+   *
+   * @return the position
+   */
+  private int start() {
+    if (fromElement == null) {
+      return 0;
+    }
+    final int index = root.search(fromElement);
+    if (index >= 0) {
+      return fromInclusive ? index : index + 1;
+    }
+    return -(index + 1);
+  }
+
+  /**
+   * Position in the root set after the oldest notification in this set
+   *
+   * @return the position
+   */
+  private int end() {
+    if (toElement == null) {
+      return root.size;
+    }
+    final int index = root.search(toElement);
+    if (index >= 0) {
+      return toInclusive ? index + 1 : index;
+    }
+    return -(index + 1);
+  }
+
+  /**
+   * Binary search for a notification in the root set
+   *
+   * @param notification Notification to search for
+   * @return the position of the notification, or {@code -(insertion point) - 1} if not found
+   */
+  private int search(final Notification notification) {
+    final int index =
+        Arrays.binarySearch(root.elements, root.head, root.head + root.size, notification);
+    return index >= 0 ? index - root.head : index + root.head;
+  }
+
+  private void removeAt(final int index) {
+    if (index < size / 2) {
+      System.arraycopy(elements, head, elements, head + 1, index);
+      elements[head++] = null;
+    } else {
+      System.arraycopy(elements, head + index + 1, elements, head + index, size - index - 1);
+      elements[head + size - 1] = null;
+    }
+    size--;
+    modCount++;
+  }
+
+  /**
+   * Copy the notifications into a new array with room to add newer and older notifications
+   *
+   * @param front Room for newer notifications
+   * @param back Room for older notifications
+   */
+  private void reallocate(final int front, final int back) {
+    final Notification[] grown = new Notification[front + size + back];
+    System.arraycopy(elements, head, grown, front, size);
+    elements = grown;
+    head = front;
+  }
+
+  private void checkWritable() {
+    if (root != this) {
+      throw new UnsupportedOperationException("NotificationSet views are read-only");
+    }
+  }
+
+  private static boolean isNaturallySorted(final Collection<?> collection) {
+    if (!(collection instanceof SortedSet)) {
+      return false;
+    }
+    final Comparator<?> comparator = ((SortedSet<?>) collection).comparator();
+    return comparator == null || comparator.equals(Ordering.natural());
+  }
+
+  /** Iterates over a range of the root set, failing if the root set is modified by anyone else */
+  private final class Itr implements Iterator<Notification> {
+
+    private int cursor;
+    private int end;
+    private int last = -1;
+    private int expectedModCount = root.modCount;
+
+    Itr(final int start, final int end) {
+      this.cursor = start;
+      this.end = Math.max(start, end);
+    }
+
+    @Override
+    public boolean hasNext() {
+      return cursor < end;
+    }
+
+    @Override
+    public Notification next() {
+      if (root.modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      if (cursor >= end) {
+        throw new NoSuchElementException();
+      }
+      last = cursor++;
+      return root.elements[root.head + last];
+    }
+
+    @Override
+    public void remove() {
+      checkWritable();
+      if (last < 0) {
+        throw new IllegalStateException();
+      }
+      if (root.modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      removeAt(last);
+      cursor = last;
+      end--;
+      last = -1;
+      expectedModCount = modCount;
+    }
+  }
+
+  private final class ListView extends AbstractList<Notification> implements RandomAccess {
+
+    @Override
+    public Notification get(final int index) {
+      final int start = start();
+      Objects.checkIndex(index, Math.max(0, end() - start));
+      return root.elements[root.head + start + index];
+    }
+
+    @Override
+    public int size() {
+      return NotificationSet.this.size();
+    }
+  }
+}
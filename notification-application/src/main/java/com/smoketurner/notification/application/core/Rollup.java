@@ -15,17 +15,32 @@
  */
 package com.smoketurner.notification.application.core;
 
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.PeekingIterator;
 import com.smoketurner.notification.api.Notification;
 import com.smoketurner.notification.api.Rule;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.TreeSet;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
+import javax.annotation.Nullable;
 
 public class Rollup {
 
-  private final Map<String, Rule> rules;
-  private final TreeSet<Matcher> matchers = new TreeSet<>();
+  private final RulePlan plan;
+
+  // open matchers by category, then by the value of the rule's match_on property (or null if the
+  // rule has no match_on), each ordered from newest to oldest
+  private final Map<String, Map<String, List<Matcher>>> matchers = new HashMap<>();
+  private int open;
 
   /**
    * Constructor
@@ -33,68 +48,275 @@ public class Rollup {
    * @param rules Map of rules
    */
   public Rollup(final Map<String, Rule> rules) {
-    this.rules = Objects.requireNonNull(rules, "rules == null");
+    this(RulePlan.compile(rules));
+  }
+
+  /**
+   * Constructor
+   *
+   * @param plan Compiled rules
+   */
+  public Rollup(final RulePlan plan) {
+    this.plan = Objects.requireNonNull(plan, "plan == null");
   }
 
   /**
    * Iterates over the notifications and uses the {@link Rule} and {@link Matcher} objects to roll
    * up the notifications based on the rules.
    *
+   * <p>A notification can only match a rollup of the same category and, if the rule has a match_on
+   * property, the same value of that property, so it is only tested against those rollups.
+   *
    * @param notifications Notifications to roll up
    * @return Rolled up notifications
    */
   public Stream<Notification> rollup(final Stream<Notification> notifications) {
     Objects.requireNonNull(notifications, "notifications == null");
 
-    if (rules.isEmpty()) {
+    if (plan.isEmpty()) {
       return notifications;
     }
 
-    final TreeSet<Notification> rollups = new TreeSet<>();
+    final NotificationSet rollups = new NotificationSet();
+    final Consumer<Matcher> closed = matcher -> rollups.add(matcher.getNotification());
 
     notifications.forEachOrdered(
         notification -> {
-          final Rule rule = rules.get(notification.getCategory());
-
           // If the notification category doesn't match any rule categories,
           // add the notification as-is to the list of rollups.
-          if (rule == null || !rule.isValid()) {
+          if (add(notification, closed) == null) {
             rollups.add(notification);
-          } else if (matchers.isEmpty()) {
-            // If we don't have any matchers yet, add the first one
-            matchers.add(new Matcher(rule, notification));
-          } else {
-            // Loop through the existing matchers to see if this
-            // notification falls into any previous rollups
-            boolean matched = false;
-            for (final Matcher matcher : matchers) {
-              if (matcher.test(notification)) {
-                matched = true;
-
-                // if the matcher is now full, add it to the rollups and
-                // remove it from the available matchers which still
-                // have empty space.
-                if (matcher.isFull()) {
-                  matchers.remove(matcher);
-                  rollups.add(matcher.getNotification());
-                }
-                break;
-              }
-            }
-
-            // If the notification didn't match any existing rollups, add it
-            // as a new matcher
-            if (!matched) {
-              matchers.add(new Matcher(rule, notification));
-            }
           }
         });
 
     // Pull out the rolled up notifications out of the matchers
-    for (final Matcher match : matchers) {
-      rollups.add(match.getNotification());
-    }
+    flush(closed);
 
     return rollups.stream();
   }
+
+  /**
+   * Lazily roll up notifications ordered from newest to oldest. Each rolled up notification is
+   * returned as soon as it can no longer grow, because it is full, the next notification is past
+   * its max_duration or there are no more notifications, and once every newer rolled up
+   * notification has been returned. Callers which only need the newest rolled up notifications can
+   * stop early without rolling up the rest.
+   *
+   * <p>Unlike {@link #rollup(Stream)}, this relies on the notifications being in order, and on
+   * their IDs and creation times being in the same order.
+   *
+   * @param notifications Notifications to roll up, ordered from newest to oldest
+   * @return Rolled up notifications, ordered from newest to oldest
+   */
+  public Iterator<Notification> iterator(final Iterator<Notification> notifications) {
+    Objects.requireNonNull(notifications, "notifications == null");
+
+    if (plan.isEmpty()) {
+      return notifications;
+    }
+    return new RollupIterator(Iterators.peekingIterator(notifications));
+  }
+
+  /**
+   * Roll up the next notification, which must not be newer than any notification already rolled up
+   *
+   * @param notification Notification to roll up
+   * @param closed Receives the matcher if the notification fills it
+   * @return the matcher the notification was added to or started, or null if no rule applies to the
+   *     notification
+   */
+  @Nullable
+  Matcher add(final Notification notification, final Consumer<Matcher> closed) {
+    final RulePlan.CategoryRule rule = plan.get(notification.getCategory());
+    if (rule == null) {
+      return null;
+    }
+
+    final String matchValue = getMatchValue(rule, notification);
+    final List<Matcher> candidates =
+        matchers
+            .computeIfAbsent(notification.getCategory(), category -> new HashMap<>())
+            .computeIfAbsent(matchValue, value -> new ArrayList<>(1));
+
+    // Loop through the candidate matchers to see if this notification
+    // falls into any previous rollups. If the rule matches on a property
+    // which this notification doesn't have, nothing can match it.
+    if (matchValue != null || rule.getMatchOn() == null) {
+      for (int i = 0; i < candidates.size(); i++) {
+        final Matcher matcher = candidates.get(i);
+        if (matcher.test(notification)) {
+          // if the matcher is now full, close it and remove it from the
+          // available matchers which still have empty space.
+          if (matcher.isFull()) {
+            candidates.remove(i);
+            open--;
+            closed.accept(matcher);
+          }
+          return matcher;
+        }
+      }
+    }
+
+    // If the notification didn't match any existing rollups, add it
+    // as a new matcher
+    final Matcher matcher = new Matcher(rule, notification);
+    insert(candidates, matcher);
+    open++;
+    return matcher;
+  }
+
+  /**
+   * Close the open matchers which can no longer match the given notification, and so cannot match
+   * any older notification either.
+   *
+   * @param next Next notification to roll up
+   * @param closed Receives each matcher which is closed
+   * @return true if no matchers are left open, otherwise false
+   */
+  boolean close(final Notification next, final Consumer<Matcher> closed) {
+    if (open == 0) {
+      return true;
+    }
+    for (final Map<String, List<Matcher>> byValue : matchers.values()) {
+      for (final List<Matcher> candidates : byValue.values()) {
+        candidates.removeIf(
+            matcher -> {
+              if (!matcher.isClosed(next)) {
+                return false;
+              }
+              open--;
+              closed.accept(matcher);
+              return true;
+            });
+      }
+    }
+    return open == 0;
+  }
+
+  /**
+   * Close all of the open matchers
+   *
+   * @param closed Receives each matcher which is closed
+   */
+  void flush(final Consumer<Matcher> closed) {
+    for (final Map<String, List<Matcher>> byValue : matchers.values()) {
+      for (final List<Matcher> candidates : byValue.values()) {
+        candidates.forEach(closed);
+        candidates.clear();
+      }
+    }
+    open = 0;
+  }
+
+  /**
+   * Iterator which rolls up one notification at a time, keeping the rollups which have been started
+   * but not yet returned in order.
+   */
+  private final class RollupIterator extends AbstractIterator<Notification> {
+
+    private final PeekingIterator<Notification> notifications;
+    private final Deque<Group> pending = new ArrayDeque<>();
+
+    private RollupIterator(final PeekingIterator<Notification> notifications) {
+      this.notifications = notifications;
+    }
+
+    @Override
+    protected Notification computeNext() {
+      while (true) {
+        final Group first = pending.peekFirst();
+        if (first != null && isComplete(first)) {
+          pending.removeFirst();
+          return first.getNotification();
+        }
+
+        if (!notifications.hasNext()) {
+          return endOfData();
+        }
+
+        final Notification notification = notifications.next();
+        final Matcher matcher = add(notification, m -> {});
+        if (matcher == null) {
+          pending.addLast(new Group(notification, null));
+        } else if (matcher.getFirst() == notification) {
+          pending.addLast(new Group(notification, matcher));
+        }
+      }
+    }
+
+    /**
+     * Check whether a rollup can no longer grow. Rollups are only checked once every newer rollup
+     * is complete, so it is only checked against the next notification.
+     *
+     * @param group Rollup to check
+     * @return true if the rollup is complete, otherwise false
+     */
+    private boolean isComplete(final Group group) {
+      final Matcher matcher = group.matcher;
+      if (matcher == null || matcher.isFull() || !notifications.hasNext()) {
+        return true;
+      }
+
+      final Notification next = notifications.peek();
+      if (!matcher.isClosed(next)) {
+        return false;
+      }
+      // stop testing the next notifications against any rollups past their max_duration
+      close(next, m -> {});
+      return true;
+    }
+  }
+
+  /** A rollup which has been started, or a notification which no rule applies to. */
+  private static final class Group {
+
+    private final Notification notification;
+
+    @Nullable private final Matcher matcher;
+
+    private Group(final Notification notification, @Nullable final Matcher matcher) {
+      this.notification = notification;
+      this.matcher = matcher;
+    }
+
+    private Notification getNotification() {
+      return matcher == null ? notification : matcher.getNotification();
+    }
+  }
+
+  /**
+   * Return the value of the rule's match_on property from the notification
+   *
+   * @param rule Rule for the notification's category
+   * @param notification Notification
+   * @return the property value, or null if the rule has no match_on or the notification doesn't
+   *     have the property
+   */
+  @Nullable
+  private static String getMatchValue(
+      final RulePlan.CategoryRule rule, final Notification notification) {
+    final String matchOn = rule.getMatchOn();
+    if (matchOn == null) {
+      return null;
+    }
+    return notification.getProperties().get(matchOn);
+  }
+
+  /**
+   * Add a matcher in order, which is at the end unless the notifications are out of order
+   *
+   * @param candidates Matchers ordered from newest to oldest
+   * @param matcher Matcher to add
+   */
+  private static void insert(final List<Matcher> candidates, final Matcher matcher) {
+    final int size = candidates.size();
+    if (size == 0 || matcher.compareTo(candidates.get(size - 1)) > 0) {
+      candidates.add(matcher);
+      return;
+    }
+    final int index = Collections.binarySearch(candidates, matcher);
+    if (index < 0) {
+      candidates.add(-(index + 1), matcher);
+    }
+  }
 }
@@ -0,0 +1,392 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.core;
+
+import com.google.common.base.Preconditions;
+import com.smoketurner.notification.api.Notification;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.StringJoiner;
+import javax.annotation.Nullable;
+
+/**
+ * The rollups of a user's stored notifications, kept alongside the notifications so they don't have
+ * to be rolled up again on every read. For each notification, ordered from newest to oldest, the
+ * state holds the position of the newest notification of its rollup.
+ *
+ * <p>Notifications are rolled up from newest to oldest, so adding a notification to the start of
+ * the list can change every rollup after it. Instead of rolling up the whole list again, the new
+ * notifications are rolled up together with the existing notifications until reaching a position
+ * where no rollup continues past it, both in the previous state and in the new rollups. From there
+ * on, rolling up gives the same result as before and the previous state is reused. Rules without a
+ * max_size or max_duration keep a rollup open until the end of the list, in which case the whole
+ * list is rolled up again. Like {@link Rollup}, this relies on notification IDs and creation times
+ * being in the same order, as they are both assigned when a notification is stored.
+ *
+ * <p>The state was rolled up by a particular version of the rules, see {@link
+ * RulePlan#getVersion()}, and is only used while the rules are unchanged.
+ *
+ * <p>Pages are read through a {@link PageIndex}, which is built the first time a page is read so
+ * reading a page's rollups doesn't scan the rest of the list. The rollup a page starts from is the
+ * rollup of the notification it starts from, see {@link #rollupStart(int)}.
+ */
+public final class RollupState {
+
+  private final int version;
+  private final int[] heads;
+  // built on first use, the index is immutable so it is safe to build more than once
+  @Nullable private PageIndex index;
+
+  private RollupState(final int version, final int[] heads) {
+    this.version = version;
+    this.heads = heads;
+  }
+
+  /**
+   * Create a rollup state from the stored offset of each notification from the newest notification
+   * of its rollup
+   *
+   * @param version Version of the rules the notifications were rolled up by
+   * @param offsets Offset of each notification, ordered from newest to oldest
+   * @return the rollup state, or absent if the offsets are not valid
+   */
+  public static Optional<RollupState> fromOffsets(final int version, final int[] offsets) {
+    Objects.requireNonNull(offsets, "offsets == null");
+
+    final int[] heads = new int[offsets.length];
+    for (int i = 0; i < offsets.length; i++) {
+      final int head = i - offsets[i];
+      // the newest notification of a rollup must start it
+      if (head < 0 || head > i || (head < i && heads[head] != head)) {
+        return Optional.empty();
+      }
+      heads[i] = head;
+    }
+    return Optional.of(new RollupState(version, heads));
+  }
+
+  /**
+   * Roll up a list of notifications
+   *
+   * @param notifications Notifications ordered from newest to oldest
+   * @param rules Rollup rules
+   * @return the rollup state
+   */
+  public static RollupState create(final List<Notification> notifications, final RulePlan rules) {
+    Objects.requireNonNull(notifications, "notifications == null");
+    Objects.requireNonNull(rules, "rules == null");
+    if (rules.isEmpty()) {
+      // nothing is rolled up, so the notifications don't need to be read
+      final int[] heads = new int[notifications.size()];
+      Arrays.setAll(heads, i -> i);
+      return new RollupState(rules.getVersion(), heads);
+    }
+    return new RollupState(rules.getVersion(), regroup(notifications, rules, 0, null, 0));
+  }
+
+  /**
+   * Check whether this state was rolled up by the given rules
+   *
+   * @param rules Rollup rules
+   * @return true if the rules have the same version, otherwise false
+   */
+  public boolean isCurrent(final RulePlan rules) {
+    return version == rules.getVersion();
+  }
+
+  /**
+   * Update this state after notifications have been added to the start of the list. The oldest
+   * notifications may also have been dropped from the end of the list.
+   *
+   * @param notifications Notifications ordered from newest to oldest, starting with the added
+   *     notifications followed by the notifications of this state
+   * @param added Number of notifications added
+   * @param rules Rollup rules
+   * @return the updated rollup state
+   */
+  public RollupState prepend(
+      final List<Notification> notifications, final int added, final RulePlan rules) {
+    Objects.requireNonNull(notifications, "notifications == null");
+    Preconditions.checkArgument(added >= 0, "added cannot be negative");
+
+    final int size = notifications.size();
+    if (!isCurrent(rules) || size < added || size - added > heads.length) {
+      return create(notifications, rules);
+    }
+
+    final int[] previous = new int[size];
+    for (int i = 0; i < added; i++) {
+      previous[i] = i;
+    }
+    for (int i = added; i < size; i++) {
+      previous[i] = heads[i - added] + added;
+    }
+    return new RollupState(version, regroup(notifications, rules, 0, previous, added));
+  }
+
+  /**
+   * Roll up the notifications either side of a position separately, as unseen and seen
+   * notifications are never rolled up together. Rollups before the position are cut short, and the
+   * notifications after it are rolled up again until the rollups are the same as in this state.
+   *
+   * @param notifications Notifications of this state, ordered from newest to oldest
+   * @param split Position of the first notification after the split
+   * @param rules Rollup rules this state was rolled up by
+   * @return the split rollup state
+   */
+  public RollupState split(
+      final List<Notification> notifications, final int split, final RulePlan rules) {
+    Objects.requireNonNull(notifications, "notifications == null");
+    Preconditions.checkArgument(notifications.size() == heads.length, "notifications changed");
+
+    if (split <= 0 || split >= heads.length) {
+      return this;
+    }
+    return new RollupState(version, regroup(notifications, rules, split, heads, split));
+  }
+
+  /**
+   * Return the rolled up notifications starting within a range of positions. The range should not
+   * start or end part way through a rollup, see {@link #split(List, int, RulePlan)}.
+   *
+   * @param notifications Notifications of this state, ordered from newest to oldest
+   * @param from Position of the first notification in the range
+   * @param to Position after the last notification in the range
+   * @param limit Maximum number of rolled up notifications to return
+   * @param unseen Whether the notifications are unseen
+   * @return the newest rolled up notifications in the range
+   */
+  public NotificationSet rollups(
+      final List<Notification> notifications,
+      final int from,
+      final int to,
+      final int limit,
+      final boolean unseen) {
+    Objects.requireNonNull(notifications, "notifications == null");
+    Preconditions.checkArgument(notifications.size() == heads.length, "notifications changed");
+    Preconditions.checkPositionIndexes(from, to, heads.length);
+
+    // only the newest rollups and their own notifications are visited, so only they are decoded
+    final PageIndex index = index();
+    final NotificationSet rollups = new NotificationSet();
+    for (int rollup = index.firstRollup(from);
+        rollup < index.size() && rollups.size() < limit;
+        rollup++) {
+      final int head = index.head(rollup);
+      if (head >= to) {
+        break;
+      }
+
+      NotificationSet rolledUp = null;
+      final int[] members = index.members;
+      for (int m = index.offsets[rollup] + 1; m < index.offsets[rollup + 1]; m++) {
+        if (members[m] >= to) {
+          break;
+        }
+        if (rolledUp == null) {
+          rolledUp = new NotificationSet();
+        }
+        rolledUp.add(notifications.get(members[m]).withUnseen(unseen));
+      }
+
+      final Notification notification = notifications.get(head).withUnseen(unseen);
+      rollups.add(rolledUp == null ? notification : notification.withNotifications(rolledUp));
+    }
+    return rollups;
+  }
+
+  /**
+   * Return the position of the newest notification of the rollup a notification is in, whether the
+   * notification starts the rollup or is rolled up into it
+   *
+   * @param index Position of a notification
+   * @return the position the rollup starts at
+   */
+  public int rollupStart(final int index) {
+    Objects.checkIndex(index, heads.length);
+    return heads[index];
+  }
+
+  /**
+   * Return the offset of a notification from the newest notification of its rollup
+   *
+   * @param index Position of the notification
+   * @return the offset, or 0 if the notification starts a rollup
+   */
+  public int getOffset(final int index) {
+    return index - heads[index];
+  }
+
+  public int getVersion() {
+    return version;
+  }
+
+  /**
+   * Return the number of notifications in the state
+   *
+   * @return the number of notifications
+   */
+  public int size() {
+    return heads.length;
+  }
+
+  private PageIndex index() {
+    PageIndex result = index;
+    if (result == null) {
+      result = new PageIndex(heads);
+      index = result;
+    }
+    return result;
+  }
+
+  /**
+   * Roll up notifications from a starting position until reaching a position from which the
+   * previous rollups can be reused. They can be reused once none of the previous rollups continue
+   * past the position and none of the matchers still open could match the notification at it, as
+   * rolling up from there on then gives the same result.
+   *
+   * @param notifications Notifications ordered from newest to oldest
+   * @param rules Rollup rules
+   * @param start Position to start rolling up from, earlier positions keep their previous rollups
+   * @param previous Previous rollup heads of the notifications, or null
+   * @param reuseFrom First position at which the previous rollups can be reused
+   * @return the rollup head of each notification
+   */
+  private static int[] regroup(
+      final List<Notification> notifications,
+      final RulePlan rules,
+      final int start,
+      @Nullable final int[] previous,
+      final int reuseFrom) {
+
+    final int size = notifications.size();
+    final int[] heads = new int[size];
+
+    // oldest rollup head of any notification from each position onwards
+    int[] oldestHeads = null;
+    if (previous != null) {
+      System.arraycopy(previous, 0, heads, 0, start);
+      oldestHeads = new int[size + 1];
+      oldestHeads[size] = size;
+      for (int i = size - 1; i >= reuseFrom; i--) {
+        oldestHeads[i] = Math.min(previous[i], oldestHeads[i + 1]);
+      }
+    }
+
+    final Rollup rollup = new Rollup(rules);
+    final Map<Matcher, Integer> positions = new HashMap<>();
+    for (int i = start; i < size; i++) {
+      final Notification notification = notifications.get(i);
+      if (oldestHeads != null
+          && i >= reuseFrom
+          && oldestHeads[i] >= i
+          && rollup.close(notification, matcher -> {})) {
+        System.arraycopy(previous, i, heads, i, size - i);
+        return heads;
+      }
+
+      final Matcher matcher = rollup.add(notification, m -> {});
+      if (matcher == null) {
+        heads[i] = i;
+      } else {
+        final Integer head = positions.putIfAbsent(matcher, i);
+        heads[i] = head == null ? i : head;
+      }
+    }
+    return heads;
+  }
+
+  /**
+   * Index of the rollups in a state, ordered from newest to oldest. The positions of the rollup
+   * heads are held in order, so the rollup at the start of a page is found with a binary search,
+   * and the positions of each rollup's notifications are held together, so reading a rollup only
+   * visits its own notifications rather than every notification after it.
+   */
+  private static final class PageIndex {
+
+    // position of the newest notification of each rollup
+    private final int[] heads;
+    // positions of the notifications of each rollup, grouped by rollup and then in order
+    private final int[] members;
+    // start of each rollup's notifications in the members, followed by the number of members
+    private final int[] offsets;
+
+    private PageIndex(final int[] rollupHeads) {
+      final int size = rollupHeads.length;
+
+      // the rollup of each head, where -1 is a notification which is rolled up into another
+      final int[] rollups = new int[size];
+      int count = 0;
+      for (int i = 0; i < size; i++) {
+        rollups[i] = rollupHeads[i] == i ? count++ : -1;
+      }
+
+      heads = new int[count];
+      offsets = new int[count + 1];
+      for (int i = 0; i < size; i++) {
+        if (rollups[i] >= 0) {
+          heads[rollups[i]] = i;
+        }
+        offsets[rollups[rollupHeads[i]] + 1]++;
+      }
+      for (int r = 0; r < count; r++) {
+        offsets[r + 1] += offsets[r];
+      }
+
+      // notifications are visited in order, so each rollup's members are in order too
+      members = new int[size];
+      final int[] next = Arrays.copyOf(offsets, count);
+      for (int i = 0; i < size; i++) {
+        members[next[rollups[rollupHeads[i]]]++] = i;
+      }
+    }
+
+    int size() {
+      return heads.length;
+    }
+
+    int head(final int rollup) {
+      return heads[rollup];
+    }
+
+    /**
+     * Return the first rollup which starts at or after a position
+     *
+     * @param index Position of a notification
+     * @return the rollup, or the number of rollups if every rollup starts before the position
+     */
+    int firstRollup(final int index) {
+      final int rollup = Arrays.binarySearch(heads, index);
+      return rollup >= 0 ? rollup : -(rollup + 1);
+    }
+  }
+
+  @Override
+  public String toString() {
+    final StringJoiner offsets = new StringJoiner(", ", "[", "]");
+    for (int i = 0; i < heads.length; i++) {
+      offsets.add(String.valueOf(getOffset(i)));
+    }
+    return new StringJoiner(", ", RollupState.class.getSimpleName() + "{", "}")
+        .add("version=" + version)
+        .add("offsets=" + offsets)
+        .toString();
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.core;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.smoketurner.notification.api.Notification;
+import com.smoketurner.notification.api.RollupSummary;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.StringJoiner;
+
+/**
+ * Replaces the notifications rolled up into a notification with a {@link RollupSummary} and a
+ * sample of them, so a rollup of hundreds of notifications isn't returned in full. The sample size
+ * either comes from the summary_size of each category's rule, or from the request, in which case it
+ * applies to every rollup.
+ */
+public final class RollupSummarizer {
+
+  /** Summarizer which returns every rolled up notification */
+  public static final RollupSummarizer NONE =
+      new RollupSummarizer(RulePlan.EMPTY, RulePlan.CategoryRule.NO_SUMMARY_SIZE);
+
+  private final RulePlan rules;
+  // sample size for every rollup, or NO_SUMMARY_SIZE to use each category's rule
+  private final int sampleSize;
+
+  /**
+   * Constructor
+   *
+   * @param rules Rollup rules
+   * @param sampleSize Sample size for every rollup
+   */
+  private RollupSummarizer(final RulePlan rules, final int sampleSize) {
+    this.rules = rules;
+    this.sampleSize = sampleSize;
+  }
+
+  /**
+   * Create a summarizer which summarizes the rollups of each category with a summary_size
+   *
+   * @param rules Rollup rules
+   * @return the summarizer
+   */
+  public static RollupSummarizer of(final RulePlan rules) {
+    Objects.requireNonNull(rules, "rules == null");
+    if (!rules.hasSummaries()) {
+      return NONE;
+    }
+    return new RollupSummarizer(rules, RulePlan.CategoryRule.NO_SUMMARY_SIZE);
+  }
+
+  /**
+   * Create a summarizer which summarizes every rollup, regardless of the rules
+   *
+   * @param sampleSize Number of rolled up notifications to return with each summary
+   * @return the summarizer
+   */
+  public static RollupSummarizer of(final int sampleSize) {
+    Preconditions.checkArgument(sampleSize >= 0, "sampleSize cannot be negative");
+    return new RollupSummarizer(RulePlan.EMPTY, sampleSize);
+  }
+
+  /**
+   * Summarize the notifications rolled up into a notification
+   *
+   * @param notification Notification to summarize
+   * @return the summarized notification, or the notification if it isn't summarized
+   */
+  public Notification summarize(final Notification notification) {
+    final Collection<Notification> children = notification.getNotifications();
+    if (children.isEmpty() || notification.getSummary().isPresent()) {
+      return notification;
+    }
+
+    int size = sampleSize;
+    if (size == RulePlan.CategoryRule.NO_SUMMARY_SIZE) {
+      final RulePlan.CategoryRule rule = rules.get(notification.getCategory());
+      if (rule == null || !rule.hasSummarySize()) {
+        return notification;
+      }
+      size = rule.getSummarySize();
+    }
+
+    final Notification first = Iterables.getFirst(children, null);
+    final Notification last =
+        children instanceof SortedSet
+            ? ((SortedSet<Notification>) children).last()
+            : Iterables.getLast(children);
+
+    final RollupSummary summary =
+        RollupSummary.of(children.size(), first.getId(""), last.getId(""));
+    final Collection<Notification> sample =
+        children.size() <= size ? children : ImmutableList.copyOf(Iterables.limit(children, size));
+    return notification.withSummary(summary, sample);
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", RollupSummarizer.class.getSimpleName() + "{", "}")
+        .add("rules=" + rules)
+        .add("sampleSize=" + sampleSize)
+        .toString();
+  }
+}
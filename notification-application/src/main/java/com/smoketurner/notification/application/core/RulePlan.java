@@ -0,0 +1,273 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.core;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.smoketurner.notification.api.Rule;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import javax.annotation.Nullable;
+
+/**
+ * The rollup rules compiled into the form used to roll up notifications. A plan is immutable, so a
+ * single plan is compiled each time the rules are loaded and shared by every request until they
+ * next change.
+ */
+public final class RulePlan {
+
+  public static final RulePlan EMPTY = compile(ImmutableMap.of());
+
+  private final Map<String, Rule> rules;
+  private final Map<String, CategoryRule> categories;
+  private final long maxDuration;
+  private final boolean hasSummaries;
+  private final int version;
+
+  private RulePlan(final Map<String, Rule> rules) {
+    this.rules = ImmutableMap.copyOf(rules);
+
+    final ImmutableMap.Builder<String, CategoryRule> categories = ImmutableMap.builder();
+    final Hasher hasher = Hashing.murmur3_32().newHasher();
+    long maxDuration = 0;
+    boolean hasSummaries = false;
+
+    // hash the rules in category order so the version doesn't depend on the map's order
+    for (Map.Entry<String, Rule> entry : new TreeMap<>(rules).entrySet()) {
+      final Rule rule = entry.getValue();
+      if (!rule.isValid()) {
+        continue;
+      }
+
+      final CategoryRule compiled = CategoryRule.of(rule);
+      categories.put(entry.getKey(), compiled);
+      maxDuration =
+          compiled.hasMaxDuration()
+              ? Math.max(maxDuration, compiled.getMaxDuration())
+              : Long.MAX_VALUE;
+      hasSummaries |= compiled.hasSummarySize();
+
+      // the summary_size only changes how rollups are returned, so it isn't part of the version
+      hasher
+          .putString(entry.getKey(), StandardCharsets.UTF_8)
+          .putInt(0)
+          .putInt(compiled.getMaxSize())
+          .putLong(compiled.getMaxDuration())
+          .putString(Strings.nullToEmpty(compiled.getMatchOn()), StandardCharsets.UTF_8)
+          .putInt(0);
+    }
+
+    this.categories = categories.build();
+    this.maxDuration = maxDuration;
+    this.hasSummaries = hasSummaries;
+    this.version = hasher.hash().asInt();
+  }
+
+  /**
+   * Compile a map of rules into a plan. Rules which are not valid are left out, as they never roll
+   * up any notifications.
+   *
+   * @param rules Map of rules by category
+   * @return the rule plan
+   */
+  public static RulePlan compile(final Map<String, Rule> rules) {
+    Objects.requireNonNull(rules, "rules == null");
+    return new RulePlan(rules);
+  }
+
+  /**
+   * Return the compiled rule for a category
+   *
+   * @param category Notification category
+   * @return the compiled rule, or null if no valid rule applies to the category
+   */
+  @Nullable
+  public CategoryRule get(final String category) {
+    return categories.get(category);
+  }
+
+  /**
+   * Check whether the plan has any valid rules
+   *
+   * @return true if no notifications are rolled up, otherwise false
+   */
+  public boolean isEmpty() {
+    return categories.isEmpty();
+  }
+
+  /**
+   * Return the rules the plan was compiled from, including any which are not valid
+   *
+   * @return map of rules by category
+   */
+  public Map<String, Rule> getRules() {
+    return rules;
+  }
+
+  /**
+   * Return the longest gap between notifications which a rollup can span
+   *
+   * @return the longest max_duration in milliseconds, or {@link Long#MAX_VALUE} if any rule has no
+   *     max_duration
+   */
+  public long getMaxDuration() {
+    return maxDuration;
+  }
+
+  /**
+   * Check whether any rule returns its rollups as a summary
+   *
+   * @return true if any rule has a summary_size, otherwise false
+   */
+  public boolean hasSummaries() {
+    return hasSummaries;
+  }
+
+  /**
+   * Return a version of the plan which only changes when the rules applied by {@link Rollup} do,
+   * and is the same across restarts.
+   *
+   * @return the version
+   */
+  public int getVersion() {
+    return version;
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", RulePlan.class.getSimpleName() + "{", "}")
+        .add("categories=" + categories)
+        .add("version=" + version)
+        .toString();
+  }
+
+  /** A single category's rule, with its optional properties unwrapped. */
+  public static final class CategoryRule {
+
+    public static final long NO_MAX_DURATION = -1L;
+    public static final int NO_SUMMARY_SIZE = -1;
+
+    private final int maxSize;
+    private final long maxDuration;
+
+    @Nullable private final String matchOn;
+
+    private final int summarySize;
+
+    private CategoryRule(
+        final int maxSize,
+        final long maxDuration,
+        @Nullable final String matchOn,
+        final int summarySize) {
+      this.maxSize = maxSize;
+      this.maxDuration = maxDuration;
+      this.matchOn = matchOn;
+      this.summarySize = summarySize;
+    }
+
+    /**
+     * Compile a single rule
+     *
+     * @param rule Rule to compile
+     * @return the compiled rule
+     */
+    public static CategoryRule of(final Rule rule) {
+      Objects.requireNonNull(rule, "rule == null");
+      return new CategoryRule(
+          rule.getMaxSize().orElse(0),
+          rule.getMaxDuration().map(d -> d.toMilliseconds()).orElse(NO_MAX_DURATION),
+          rule.getMatchOn().orElse(null),
+          rule.getSummarySize().filter(size -> size >= 0).orElse(NO_SUMMARY_SIZE));
+    }
+
+    /**
+     * Return the maximum number of notifications rolled up together
+     *
+     * @return the max_size, or 0 if there is no limit
+     */
+    public int getMaxSize() {
+      return maxSize;
+    }
+
+    public boolean hasMaxDuration() {
+      return maxDuration != NO_MAX_DURATION;
+    }
+
+    /**
+     * Return the maximum time between the newest and oldest notifications rolled up together
+     *
+     * @return the max_duration in milliseconds, or {@link #NO_MAX_DURATION} if there is no limit
+     */
+    public long getMaxDuration() {
+      return maxDuration;
+    }
+
+    @Nullable
+    public String getMatchOn() {
+      return matchOn;
+    }
+
+    public boolean hasSummarySize() {
+      return summarySize != NO_SUMMARY_SIZE;
+    }
+
+    /**
+     * Return the number of rolled up notifications returned along with the summary of a rollup
+     *
+     * @return the summary_size, or {@link #NO_SUMMARY_SIZE} if every rolled up notification is
+     *     returned
+     */
+    public int getSummarySize() {
+      return summarySize;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if ((obj == null) || (getClass() != obj.getClass())) {
+        return false;
+      }
+
+      final CategoryRule other = (CategoryRule) obj;
+      return maxSize == other.maxSize
+          && maxDuration == other.maxDuration
+          && Objects.equals(matchOn, other.matchOn)
+          && summarySize == other.summarySize;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(maxSize, maxDuration, matchOn, summarySize);
+    }
+
+    @Override
+    public String toString() {
+      return new StringJoiner(", ", CategoryRule.class.getSimpleName() + "{", "}")
+          .add("maxSize=" + maxSize)
+          .add("maxDuration=" + maxDuration)
+          .add("matchOn=" + matchOn)
+          .add("summarySize=" + summarySize)
+          .toString();
+    }
+  }
+}
@@ -15,20 +15,29 @@
  */
 package com.smoketurner.notification.application.core;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Ordering;
 import com.smoketurner.notification.api.Notification;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.StringJoiner;
-import java.util.TreeSet;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import javax.annotation.Nullable;
 
 public final class UserNotifications {
 
   private final Iterable<Notification> unseen;
   private final Iterable<Notification> seen;
+  // whether the unseen state is set as each notification is read
+  private final boolean markOnRead;
+  private final RollupSummarizer summarizer;
+  // newest of all of the user's notifications, when these are only part of them
+  @Nullable private final Notification newest;
 
   /**
    * Constructor
@@ -39,6 +48,9 @@ public final class UserNotifications {
   public UserNotifications(final Iterable<Notification> unseen, final Iterable<Notification> seen) {
     this.unseen = Objects.requireNonNull(unseen, "unseen == null");
     this.seen = Objects.requireNonNull(seen, "seen == null");
+    this.markOnRead = false;
+    this.summarizer = RollupSummarizer.NONE;
+    this.newest = null;
   }
 
   /**
@@ -51,8 +63,11 @@ public final class UserNotifications {
     Objects.requireNonNull(unseen, "unseen == null");
     Objects.requireNonNull(seen, "seen == null");
 
-    this.unseen = unseen.collect(Collectors.toCollection(TreeSet::new));
-    this.seen = seen.collect(Collectors.toCollection(TreeSet::new));
+    this.unseen = unseen.collect(Collectors.toCollection(NotificationSet::new));
+    this.seen = seen.collect(Collectors.toCollection(NotificationSet::new));
+    this.markOnRead = false;
+    this.summarizer = RollupSummarizer.NONE;
+    this.newest = null;
   }
 
   /**
@@ -63,6 +78,9 @@ public final class UserNotifications {
   public UserNotifications(final Iterable<Notification> unseen) {
     this.unseen = Objects.requireNonNull(unseen, "unseen == null");
     this.seen = Collections.<Notification>emptySortedSet();
+    this.markOnRead = false;
+    this.summarizer = RollupSummarizer.NONE;
+    this.newest = null;
   }
 
   /**
@@ -72,14 +90,111 @@ public final class UserNotifications {
    */
   public UserNotifications(final Stream<Notification> unseen) {
     Objects.requireNonNull(unseen, "unseen == null");
-    this.unseen = unseen.collect(Collectors.toCollection(TreeSet::new));
+    this.unseen = unseen.collect(Collectors.toCollection(NotificationSet::new));
     this.seen = Collections.<Notification>emptySortedSet();
+    this.markOnRead = false;
+    this.summarizer = RollupSummarizer.NONE;
+    this.newest = null;
   }
 
   /** Constructor */
   public UserNotifications() {
     this.unseen = Collections.<Notification>emptySortedSet();
     this.seen = Collections.<Notification>emptySortedSet();
+    this.markOnRead = false;
+    this.summarizer = RollupSummarizer.NONE;
+    this.newest = null;
+  }
+
+  private UserNotifications(
+      final Iterable<Notification> unseen,
+      final Iterable<Notification> seen,
+      final boolean markOnRead,
+      final RollupSummarizer summarizer,
+      @Nullable final Notification newest) {
+    this.unseen = unseen;
+    this.seen = seen;
+    this.markOnRead = markOnRead;
+    this.summarizer = summarizer;
+    this.newest = newest;
+  }
+
+  /**
+   * Create a user's notifications from notifications which don't have their unseen state set yet.
+   * Instead of copying every notification to set its state up front, the state is set as each
+   * notification is read, so only the notifications which are actually read are copied.
+   *
+   * @param unseen Unseen notifications
+   * @param seen Seen notifications
+   * @return the user's notifications
+   */
+  public static UserNotifications markOnRead(
+      final Iterable<Notification> unseen, final Iterable<Notification> seen) {
+    Objects.requireNonNull(unseen, "unseen == null");
+    Objects.requireNonNull(seen, "seen == null");
+    return new UserNotifications(unseen, seen, true, RollupSummarizer.NONE, null);
+  }
+
+  /**
+   * Create a user's notifications from notifications which don't have their unseen state set yet
+   *
+   * @param unseen Unseen notifications
+   * @param seen Seen notifications
+   * @return the user's notifications
+   * @see #markOnRead(Iterable, Iterable)
+   */
+  public static UserNotifications markOnRead(
+      final Stream<Notification> unseen, final Stream<Notification> seen) {
+    Objects.requireNonNull(unseen, "unseen == null");
+    Objects.requireNonNull(seen, "seen == null");
+    return new UserNotifications(
+        unseen.collect(Collectors.toCollection(NotificationSet::new)),
+        seen.collect(Collectors.toCollection(NotificationSet::new)),
+        true,
+        RollupSummarizer.NONE,
+        null);
+  }
+
+  /**
+   * Return a view of these notifications which summarizes each rollup as it is read, so only the
+   * rollups which are actually read are summarized. The summarizer replaces any previous one.
+   *
+   * @param summarizer Rollup summarizer
+   * @return the user's notifications
+   */
+  public UserNotifications summarize(final RollupSummarizer summarizer) {
+    Objects.requireNonNull(summarizer, "summarizer == null");
+    if (summarizer == this.summarizer) {
+      return this;
+    }
+    return new UserNotifications(unseen, seen, markOnRead, summarizer, newest);
+  }
+
+  /**
+   * Return these notifications with the newest of all of the user's notifications, for when they
+   * are only the notifications around a page and so may not include it.
+   *
+   * @param newest Newest of all of the user's notifications
+   * @return the user's notifications
+   */
+  public UserNotifications withNewest(final Notification newest) {
+    Objects.requireNonNull(newest, "newest == null");
+    return new UserNotifications(unseen, seen, markOnRead, summarizer, newest);
+  }
+
+  /**
+   * Returns the newest of all of the user's notifications, which is used to set the Last-Modified
+   * response header.
+   *
+   * @return the newest notification, or absent if there are no notifications
+   */
+  public Optional<Notification> getNewest() {
+    if (newest != null) {
+      return Optional.of(newest);
+    }
+    return Optional.ofNullable(
+        Iterables.getFirst(
+            Iterables.mergeSorted(ImmutableList.of(unseen, seen), Ordering.natural()), null));
   }
 
   public boolean isEmpty() {
@@ -87,15 +202,97 @@ public final class UserNotifications {
   }
 
   public Iterable<Notification> getUnseen() {
-    return unseen;
+    final Iterable<Notification> summarized = summarize(unseen);
+    return markOnRead ? withUnseen(summarized, true) : summarized;
   }
 
   public Iterable<Notification> getSeen() {
-    return seen;
+    final Iterable<Notification> summarized = summarize(seen);
+    return markOnRead ? withUnseen(summarized, false) : summarized;
   }
 
   public ImmutableSortedSet<Notification> getNotifications() {
-    return ImmutableSortedSet.<Notification>naturalOrder().addAll(unseen).addAll(seen).build();
+    return ImmutableSortedSet.<Notification>naturalOrder()
+        .addAll(getUnseen())
+        .addAll(getSeen())
+        .build();
+  }
+
+  /**
+   * Returns a view of the unseen and seen notifications merged from newest to oldest, without
+   * copying them into a new collection.
+   *
+   * @return the notifications in order
+   */
+  public Iterable<Notification> getOrderedNotifications() {
+    return Iterables.mergeSorted(ImmutableList.of(getUnseen(), getSeen()), Ordering.natural());
+  }
+
+  /**
+   * Returns the IDs of the notifications merged from newest to oldest. The notifications are not
+   * summarized and don't have their unseen state set, as neither changes their IDs or order, so the
+   * IDs can be read without copying any notifications.
+   *
+   * @return the notification IDs in order
+   */
+  Iterable<String> getOrderedIds() {
+    return Iterables.transform(
+        Iterables.mergeSorted(ImmutableList.of(unseen, seen), Ordering.natural()),
+        notification -> notification.getId(""));
+  }
+
+  /**
+   * Return a view of notifications with their rollups summarized. Rollups are summarized before
+   * their unseen state is set, so only the sampled notifications are copied.
+   *
+   * @param notifications Notifications
+   * @return the summarized notifications
+   */
+  private Iterable<Notification> summarize(final Iterable<Notification> notifications) {
+    if (summarizer == RollupSummarizer.NONE) {
+      return notifications;
+    }
+    return Iterables.transform(notifications, summarizer::summarize);
+  }
+
+  /**
+   * Return a view of notifications which sets their unseen state as each one is read, so only the
+   * notifications which are actually read are copied. Rolled up notifications get the same state as
+   * the notification they are rolled up into, which is only set when they are read.
+   *
+   * @param notifications Notifications
+   * @param unseen Unseen state
+   * @return the notifications with their unseen state
+   */
+  private static Iterable<Notification> withUnseen(
+      final Iterable<Notification> notifications, final boolean unseen) {
+    return Iterables.transform(notifications, notification -> withUnseen(notification, unseen));
+  }
+
+  /**
+   * Set the unseen state of a notification and its rolled up notifications
+   *
+   * @param notification Notification
+   * @param unseen Unseen state
+   * @return the notification with its unseen state
+   */
+  private static Notification withUnseen(final Notification notification, final boolean unseen) {
+    // notifications which already have the state are returned as they are
+    if (notification.getUnseen().orElse(!unseen) == unseen) {
+      return notification;
+    }
+
+    final Collection<Notification> children = notification.getNotifications();
+    if (children.isEmpty()) {
+      return notification.withUnseen(unseen);
+    }
+    // the rolled up notifications are copied once, rather than every time they are iterated
+    return notification
+        .withUnseen(unseen)
+        .withNotifications(
+            children.stream()
+                .map(child -> child.withUnseen(unseen))
+                .collect(ImmutableSortedSet.toImmutableSortedSet(Ordering.natural())));
   }
 
   @Override
@@ -51,6 +51,24 @@ public class CreateNotificationMutation implements DataFetcher<Notification> {
     }
 
     final Map<String, Object> input = environment.getArgument("notification");
+    final Notification notification = parseNotification(input);
+
+    try {
+      return store.store(username, notification);
+    } catch (NotificationStoreException e) {
+      LOGGER.error(String.format("Unable to create notification for %s", username), e);
+      throw new GraphQLValidationError("Unable to create notification");
+    }
+  }
+
+  /**
+   * Validate and convert a NotificationInput argument into a {@link Notification}.
+   *
+   * @param input Notification input argument
+   * @return the notification
+   * @throws GraphQLValidationError if the input is not a valid notification
+   */
+  static Notification parseNotification(final Map<String, Object> input) {
     if (input == null || input.isEmpty()) {
       throw new GraphQLValidationError("notification cannot be empty");
     }
@@ -92,14 +110,7 @@ public class CreateNotificationMutation implements DataFetcher<Notification> {
       builder.withProperties(convertToMap(properties));
     }
 
-    final Notification notification = builder.build();
-
-    try {
-      return store.store(username, notification);
-    } catch (NotificationStoreException e) {
-      LOGGER.error(String.format("Unable to create notification for %s", username), e);
-      throw new GraphQLValidationError("Unable to create notification");
-    }
+    return builder.build();
   }
 
   /**
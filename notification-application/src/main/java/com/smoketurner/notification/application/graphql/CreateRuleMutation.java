@@ -83,6 +83,13 @@ public class CreateRuleMutation implements DataFetcher<Boolean> {
     if (input.containsKey("matchOn")) {
       builder.withMatchOn(String.valueOf(input.get("matchOn")));
     }
+    if (input.containsKey("summarySize")) {
+      try {
+        builder.withSummarySize(Integer.parseInt(String.valueOf(input.get("summarySize"))));
+      } catch (NumberFormatException e) {
+        throw new GraphQLValidationError("summarySize is not an integer");
+      }
+    }
 
     final Rule rule = builder.build();
 
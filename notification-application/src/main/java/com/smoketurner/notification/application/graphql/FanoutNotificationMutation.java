@@ -0,0 +1,73 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.graphql;
+
+import com.smoketurner.dropwizard.graphql.GraphQLValidationError;
+import com.smoketurner.notification.api.Fanout;
+import com.smoketurner.notification.api.FanoutResult;
+import com.smoketurner.notification.api.Notification;
+import com.smoketurner.notification.application.exceptions.NotificationStoreException;
+import com.smoketurner.notification.application.store.NotificationStore;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class FanoutNotificationMutation implements DataFetcher<List<FanoutResult>> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(FanoutNotificationMutation.class);
+  private final NotificationStore store;
+
+  /**
+   * Constructor
+   *
+   * @param store Notification data store
+   */
+  public FanoutNotificationMutation(final NotificationStore store) {
+    this.store = Objects.requireNonNull(store, "store == null");
+  }
+
+  @Override
+  public List<FanoutResult> get(DataFetchingEnvironment environment) {
+    final List<String> input = environment.getArgument("usernames");
+    if (input == null || input.isEmpty()) {
+      throw new GraphQLValidationError("usernames cannot be empty");
+    }
+
+    final Set<String> usernames = new LinkedHashSet<>(input);
+    if (usernames.size() > Fanout.MAX_USERNAMES) {
+      throw new GraphQLValidationError(
+          String.format("usernames cannot contain more than %d users", Fanout.MAX_USERNAMES));
+    }
+
+    final Map<String, Object> notificationInput = environment.getArgument("notification");
+    final Notification notification =
+        CreateNotificationMutation.parseNotification(notificationInput);
+
+    try {
+      return store.fanout(usernames, notification);
+    } catch (NotificationStoreException e) {
+      LOGGER.error(
+          String.format("Unable to fan out notification to %d users", usernames.size()), e);
+      throw new GraphQLValidationError("Unable to create notifications");
+    }
+  }
+}
@@ -16,7 +16,9 @@
 package com.smoketurner.notification.application.graphql;
 
 import com.google.common.base.Strings;
+import com.smoketurner.dropwizard.graphql.GraphQLValidationError;
 import com.smoketurner.notification.api.Notification;
+import com.smoketurner.notification.application.core.RollupSummarizer;
 import com.smoketurner.notification.application.core.UserNotifications;
 import com.smoketurner.notification.application.exceptions.NotificationStoreException;
 import com.smoketurner.notification.application.store.NotificationStore;
@@ -52,6 +54,12 @@ public class NotificationDataFetcher implements DataFetcher<SortedSet<Notificati
       return null;
     }
 
+    // summarize every rollup when a summary is requested, otherwise only those the rules summarize
+    final Integer summary = environment.getArgument("summary");
+    if (summary != null && summary < 0) {
+      throw new GraphQLValidationError("summary must be greater than or equal to zero");
+    }
+
     final Optional<UserNotifications> notifications;
     try {
       notifications = store.fetch(username);
@@ -64,6 +72,9 @@ public class NotificationDataFetcher implements DataFetcher<SortedSet<Notificati
       return Collections.emptySortedSet();
     }
 
+    if (summary != null) {
+      return notifications.get().summarize(RollupSummarizer.of(summary)).getNotifications();
+    }
     return notifications.get().getNotifications();
   }
 }
@@ -24,6 +24,7 @@ import graphql.execution.instrumentation.fieldvalidation.FieldValidationEnvironm
 import graphql.language.Field;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,6 +34,7 @@ public class UsernameFieldValidation implements FieldValidation {
   private static final List<String> VALID_FIELDS =
       ImmutableList.of(
           "notifications", "createNotification", "removeNotification", "removeAllNotifications");
+  private static final List<String> MULTI_USER_FIELDS = ImmutableList.of("fanoutNotification");
 
   private static final int USERNAME_MIN_LENGTH = 3;
   private static final int USERNAME_MAX_LENGTH = 64;
@@ -43,6 +45,20 @@ public class UsernameFieldValidation implements FieldValidation {
 
     for (FieldAndArguments fieldAndArguments : environment.getFields()) {
       final Field field = fieldAndArguments.getField();
+      if (MULTI_USER_FIELDS.contains(field.getName())) {
+        LOGGER.debug("Field: {}", field.getName());
+
+        final List<String> usernames = fieldAndArguments.getArgumentValue("usernames");
+        if (usernames == null || usernames.isEmpty()) {
+          errors.add(environment.mkError("usernames cannot be empty", fieldAndArguments));
+        } else {
+          for (String username : usernames) {
+            validateUsername(environment, fieldAndArguments, username).ifPresent(errors::add);
+          }
+        }
+        continue;
+      }
+
       if (!VALID_FIELDS.contains(field.getName())) {
         continue;
       }
@@ -50,27 +66,43 @@ public class UsernameFieldValidation implements FieldValidation {
       LOGGER.debug("Field: {}", field.getName());
 
       final String username = fieldAndArguments.getArgumentValue("username");
+      validateUsername(environment, fieldAndArguments, username).ifPresent(errors::add);
+    }
+
+    return errors;
+  }
 
-      if (Strings.isNullOrEmpty(username)) {
-        errors.add(environment.mkError("username cannot be empty", fieldAndArguments));
-      } else {
-        final int length = username.codePointCount(0, username.length());
+  /**
+   * Validate a single username argument
+   *
+   * @param environment Field validation environment
+   * @param fieldAndArguments Field being validated
+   * @param username Username to validate
+   * @return an error if the username is invalid
+   */
+  private static Optional<GraphQLError> validateUsername(
+      final FieldValidationEnvironment environment,
+      final FieldAndArguments fieldAndArguments,
+      final String username) {
 
-        if (length < USERNAME_MIN_LENGTH || length > USERNAME_MAX_LENGTH) {
-          errors.add(
-              environment.mkError(
-                  String.format(
-                      "username must be between %d and %d characters",
-                      USERNAME_MIN_LENGTH, USERNAME_MAX_LENGTH),
-                  fieldAndArguments));
-        } else if (!username.matches("[A-Za-z0-9]+")) {
-          errors.add(
-              environment.mkError(
-                  "username must only contain alphanumeric characters", fieldAndArguments));
-        }
-      }
+    if (Strings.isNullOrEmpty(username)) {
+      return Optional.of(environment.mkError("username cannot be empty", fieldAndArguments));
     }
 
-    return errors;
+    final int length = username.codePointCount(0, username.length());
+
+    if (length < USERNAME_MIN_LENGTH || length > USERNAME_MAX_LENGTH) {
+      return Optional.of(
+          environment.mkError(
+              String.format(
+                  "username must be between %d and %d characters",
+                  USERNAME_MIN_LENGTH, USERNAME_MAX_LENGTH),
+              fieldAndArguments));
+    } else if (!username.matches("[A-Za-z0-9]+")) {
+      return Optional.of(
+          environment.mkError(
+              "username must only contain alphanumeric characters", fieldAndArguments));
+    }
+    return Optional.empty();
   }
 }
@@ -16,29 +16,34 @@
 package com.smoketurner.notification.application.managed;
 
 import com.smoketurner.notification.application.store.CursorStore;
+import com.smoketurner.notification.application.store.CursorWriter;
 import io.dropwizard.lifecycle.Managed;
 import java.util.Objects;
 
 public class CursorStoreManager implements Managed {
 
   private final CursorStore store;
+  private final CursorWriter writer;
 
   /**
    * Constructor
    *
    * @param store Cursor store to manage
+   * @param writer Write-behind cursor updater to drain on shutdown
    */
-  public CursorStoreManager(final CursorStore store) {
+  public CursorStoreManager(final CursorStore store, final CursorWriter writer) {
     this.store = Objects.requireNonNull(store, "store == null");
+    this.writer = Objects.requireNonNull(writer, "writer == null");
   }
 
   @Override
   public void start() throws Exception {
     store.initialize();
+    writer.start();
   }
 
   @Override
   public void stop() throws Exception {
-    // nothing to stop
+    writer.stop();
   }
 }
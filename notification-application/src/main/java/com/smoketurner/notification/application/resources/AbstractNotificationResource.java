@@ -0,0 +1,266 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.resources;
+
+import com.codahale.metrics.annotation.Timed;
+import com.smoketurner.notification.api.Fanout;
+import com.smoketurner.notification.api.FanoutResult;
+import com.smoketurner.notification.api.Notification;
+import com.smoketurner.notification.application.core.NotificationPage;
+import com.smoketurner.notification.application.core.RangeHeader;
+import com.smoketurner.notification.application.core.RollupSummarizer;
+import com.smoketurner.notification.application.core.StringSetParam;
+import com.smoketurner.notification.application.core.UserNotifications;
+import com.smoketurner.notification.application.exceptions.NotificationException;
+import com.smoketurner.notification.application.exceptions.NotificationStoreException;
+import com.smoketurner.notification.application.store.NotificationStore;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import javax.annotation.Nullable;
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.DELETE;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.UriBuilder;
+
+/**
+ * Notification endpoints which are shared between the blocking {@link NotificationResource} and the
+ * non-blocking {@link AsyncNotificationResource}, which only differ in how notifications are
+ * fetched.
+ */
+public abstract class AbstractNotificationResource {
+
+  private static final String ACCEPT_RANGES_HEADER = "Accept-Ranges";
+  private static final String CONTENT_RANGE_HEADER = "Content-Range";
+  private static final String NEXT_RANGE_HEADER = "Next-Range";
+  private static final int DEFAULT_LIMIT = 20;
+  private static final int MAX_LIMIT = 1000;
+  private static final int MAX_BATCH_SIZE = 1000;
+  private static final String RANGE_NAME = "id";
+  protected final NotificationStore store;
+
+  /**
+   * Constructor
+   *
+   * @param store Notification data store
+   */
+  protected AbstractNotificationResource(final NotificationStore store) {
+    this.store = Objects.requireNonNull(store, "store == null");
+  }
+
+  /**
+   * Return the number of notifications to return for a range request
+   *
+   * @param range Parsed Range request header
+   * @return the page size, of at least one notification
+   */
+  protected static int getLimit(final RangeHeader range) {
+    return Math.max(1, Math.min(range.getMax().orElse(DEFAULT_LIMIT), MAX_LIMIT));
+  }
+
+  /**
+   * Return the summarizer for the summary query parameter, which summarizes every rollup instead of
+   * only those whose rule has a summary_size.
+   *
+   * @param summary Number of rolled up notifications to return with each summary, or null
+   * @return the summarizer, or absent to use the rules
+   * @throws NotificationException if the summary is negative
+   */
+  protected static Optional<RollupSummarizer> getSummarizer(@Nullable final Integer summary) {
+    if (summary == null) {
+      return Optional.empty();
+    }
+    if (summary < 0) {
+      throw new NotificationException(
+          Response.Status.BAD_REQUEST, "summary must be greater than or equal to zero");
+    }
+    return Optional.of(RollupSummarizer.of(Math.min(summary, MAX_LIMIT)));
+  }
+
+  /**
+   * Build the paginated response for a user's notifications
+   *
+   * @param rangeHeader Range request header
+   * @param list Optional list of notifications
+   * @param summarizer Summarizer requested for the rollups, or absent to use the rules
+   * @return the response
+   * @throws NotificationException if the notifications were not found
+   */
+  protected Response buildResponse(
+      @Nullable final String rangeHeader,
+      final Optional<UserNotifications> list,
+      final Optional<RollupSummarizer> summarizer) {
+
+    if (!list.isPresent()) {
+      throw new NotificationException(Response.Status.NOT_FOUND, "Notifications not found");
+    }
+
+    // only the rollups in the page are summarized, as the page is written
+    final UserNotifications notifications =
+        summarizer.map(list.get()::summarize).orElse(list.get());
+
+    // If no Range header is present on the request, return a 200 response
+    final ResponseBuilder builder;
+    final NotificationPage page;
+    int limit = DEFAULT_LIMIT;
+    if (rangeHeader == null) {
+      builder = Response.ok();
+      page = NotificationPage.create(notifications, Optional.empty(), true, limit);
+    } else {
+      // If a Range header is present, return a 206 response
+      builder = Response.status(Response.Status.PARTIAL_CONTENT);
+      final RangeHeader range = RangeHeader.parse(rangeHeader);
+      limit = getLimit(range);
+      page =
+          NotificationPage.create(
+              notifications,
+              range.getFromId(),
+              !range.getFromId().isPresent() || range.getFromInclusive().orElse(true),
+              limit);
+    }
+
+    // if there are no notifications, just return an empty list
+    final Optional<Notification> newest = list.get().getNewest();
+    if (!newest.isPresent()) {
+      return Response.ok(page).header(ACCEPT_RANGES_HEADER, RANGE_NAME).build();
+    }
+
+    // Add the Accept-Ranges response header
+    builder.header(ACCEPT_RANGES_HEADER, RANGE_NAME);
+
+    // The newest of all of the user's notifications, which may not be in this page, is used to set
+    // the Last-Modified response header.
+    builder.lastModified(Date.from(newest.get().getCreatedAt().toInstant()));
+
+    if (page.getFirstId().isPresent() && page.getLastId().isPresent()) {
+      final String firstId = page.getFirstId().get();
+      final String lastId = page.getLastId().get();
+
+      // Add the Content-Range and Next-Range response headers
+      builder.header(CONTENT_RANGE_HEADER, String.format("%s %s..%s", RANGE_NAME, firstId, lastId));
+      if (page.hasMore()) {
+        builder.header(
+            NEXT_RANGE_HEADER, String.format("%s ]%s..; max=%d", RANGE_NAME, lastId, limit));
+      }
+    }
+
+    return builder.entity(page).build();
+  }
+
+  @POST
+  @Timed
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Produces(MediaType.APPLICATION_JSON)
+  public Response fanout(@NotNull @Valid final Fanout fanout) {
+
+    final List<FanoutResult> results;
+    try {
+      results = store.fanout(fanout.getUsernames(), fanout.getNotification());
+    } catch (NotificationStoreException e) {
+      throw new NotificationException(
+          Response.Status.INTERNAL_SERVER_ERROR, "Unable to store notifications", e);
+    }
+
+    return Response.ok(results).build();
+  }
+
+  @POST
+  @Timed
+  @Path("/{username}")
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Produces(MediaType.APPLICATION_JSON)
+  public Response add(
+      @PathParam("username") final String username,
+      @NotNull @Valid final Notification notification) {
+
+    final Notification storedNotification;
+    try {
+      storedNotification = store.store(username, notification);
+    } catch (NotificationStoreException e) {
+      throw new NotificationException(
+          Response.Status.INTERNAL_SERVER_ERROR, "Unable to store notification", e);
+    }
+
+    return Response.created(
+            UriBuilder.fromResource(NotificationResource.class).path("{username}").build(username))
+        .entity(storedNotification)
+        .build();
+  }
+
+  @POST
+  @Timed
+  @Path("/{username}/batch")
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Produces(MediaType.APPLICATION_JSON)
+  public Response addAll(
+      @PathParam("username") final String username,
+      @NotNull @Valid final List<Notification> notifications) {
+
+    if (notifications.isEmpty()) {
+      throw new NotificationException(
+          Response.Status.BAD_REQUEST, "At least one notification is required");
+    }
+    if (notifications.size() > MAX_BATCH_SIZE) {
+      throw new NotificationException(
+          Response.Status.BAD_REQUEST,
+          String.format("No more than %d notifications can be added at once", MAX_BATCH_SIZE));
+    }
+
+    final List<Notification> storedNotifications;
+    try {
+      storedNotifications = store.storeAll(username, notifications);
+    } catch (NotificationStoreException e) {
+      throw new NotificationException(
+          Response.Status.INTERNAL_SERVER_ERROR, "Unable to store notifications", e);
+    }
+
+    return Response.created(
+            UriBuilder.fromResource(NotificationResource.class).path("{username}").build(username))
+        .entity(storedNotifications)
+        .build();
+  }
+
+  @DELETE
+  @Timed
+  @Path("/{username}")
+  public Response delete(
+      @PathParam("username") final String username,
+      @QueryParam("ids") final StringSetParam idsParam) {
+
+    try {
+      if (idsParam != null) {
+        store.remove(username, idsParam.get());
+      } else {
+        store.removeAll(username);
+      }
+    } catch (NotificationStoreException e) {
+      throw new NotificationException(
+          Response.Status.INTERNAL_SERVER_ERROR, "Unable to delete notifications", e);
+    }
+
+    return Response.noContent().build();
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.resources;
+
+import com.codahale.metrics.annotation.Timed;
+import com.smoketurner.notification.application.core.RangeHeader;
+import com.smoketurner.notification.application.core.RollupSummarizer;
+import com.smoketurner.notification.application.exceptions.NotificationException;
+import com.smoketurner.notification.application.store.NotificationStore;
+import io.dropwizard.jersey.caching.CacheControl;
+import io.dropwizard.jersey.protobuf.ProtocolBufferMediaType;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import org.glassfish.jersey.server.JSONP;
+
+/**
+ * Variant of {@link NotificationResource} which fetches notifications without holding a request
+ * thread while waiting on Riak. The request is suspended and resumed from the given executor once
+ * the fetch completes, rather than from the Riak client's I/O threads. Requests which the executor
+ * rejects are answered with a 503.
+ */
+@Path("/v1/notifications")
+public class AsyncNotificationResource extends AbstractNotificationResource {
+
+  private final Executor executor;
+
+  /**
+   * Constructor
+   *
+   * @param store Notification data store
+   * @param executor Executor which builds the response and resumes the request
+   */
+  public AsyncNotificationResource(final NotificationStore store, final Executor executor) {
+    super(store);
+    this.executor = Objects.requireNonNull(executor, "executor == null");
+  }
+
+  @GET
+  @JSONP
+  @Timed
+  @Path("/{username}")
+  @Produces({
+    MediaType.APPLICATION_JSON,
+    "application/javascript",
+    ProtocolBufferMediaType.APPLICATION_PROTOBUF
+  })
+  @CacheControl(mustRevalidate = true, noCache = true, noStore = true)
+  public void fetch(
+      @HeaderParam("Range") final String rangeHeader,
+      @PathParam("username") final String username,
+      @QueryParam("summary") final Integer summary,
+      @Suspended final AsyncResponse asyncResponse) {
+
+    final RangeHeader range = RangeHeader.parse(rangeHeader);
+    final Optional<RollupSummarizer> summarizer = getSummarizer(summary);
+
+    store
+        .fetchAsync(username, range.getFromId(), getLimit(range))
+        .thenApplyAsync(list -> buildResponse(rangeHeader, list, summarizer), executor)
+        .whenComplete(
+            (response, error) -> {
+              if (error != null) {
+                asyncResponse.resume(toException(error));
+              } else {
+                asyncResponse.resume(response);
+              }
+            });
+  }
+
+  /**
+   * Convert a failed fetch into the exception to resume the request with. Fetches rejected because
+   * the executor's queue is full are reported as 503, so clients back off instead of waiting behind
+   * the backlog.
+   *
+   * @param error Error the fetch failed with
+   * @return the exception to resume the request with
+   */
+  private static WebApplicationException toException(final Throwable error) {
+    final Throwable cause =
+        error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    if (cause instanceof WebApplicationException) {
+      return (WebApplicationException) cause;
+    }
+    if (cause instanceof RejectedExecutionException) {
+      return new NotificationException(
+          Response.Status.SERVICE_UNAVAILABLE, "Too many requests to fetch notifications", cause);
+    }
+    return new NotificationException(
+        Response.Status.INTERNAL_SERVER_ERROR, "Unable to fetch notifications", cause);
+  }
+}
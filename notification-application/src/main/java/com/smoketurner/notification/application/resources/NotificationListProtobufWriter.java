@@ -0,0 +1,71 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.resources;
+
+import com.smoketurner.notification.api.Notification;
+import com.smoketurner.notification.api.NotificationProtobuf;
+import io.dropwizard.jersey.protobuf.ProtocolBufferMediaType;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Writes a list of notifications as a {@code NotificationListResponsePB} when a client accepts
+ * {@link ProtocolBufferMediaType#APPLICATION_PROTOBUF}.
+ */
+@Provider
+@Produces(ProtocolBufferMediaType.APPLICATION_PROTOBUF)
+public class NotificationListProtobufWriter implements MessageBodyWriter<Collection<Notification>> {
+
+  @Override
+  public boolean isWriteable(
+      final Class<?> type,
+      final Type genericType,
+      final Annotation[] annotations,
+      final MediaType mediaType) {
+    return Collection.class.isAssignableFrom(type);
+  }
+
+  @Override
+  public long getSize(
+      final Collection<Notification> notifications,
+      final Class<?> type,
+      final Type genericType,
+      final Annotation[] annotations,
+      final MediaType mediaType) {
+    return -1;
+  }
+
+  @Override
+  public void writeTo(
+      final Collection<Notification> notifications,
+      final Class<?> type,
+      final Type genericType,
+      final Annotation[] annotations,
+      final MediaType mediaType,
+      final MultivaluedMap<String, Object> httpHeaders,
+      final OutputStream entityStream)
+      throws IOException {
+    NotificationProtobuf.toProtobuf(notifications).writeTo(entityStream);
+  }
+}
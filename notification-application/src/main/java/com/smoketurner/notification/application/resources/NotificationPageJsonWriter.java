@@ -0,0 +1,98 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.resources;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.smoketurner.notification.api.Notification;
+import com.smoketurner.notification.application.core.NotificationPage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Objects;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Writes a {@link NotificationPage} as a JSON array one notification at a time, so the page is
+ * never copied into an intermediate collection before being written.
+ */
+@Provider
+@Produces({MediaType.APPLICATION_JSON, "application/javascript"})
+public class NotificationPageJsonWriter implements MessageBodyWriter<NotificationPage> {
+
+  private final ObjectMapper mapper;
+  private final ObjectWriter writer;
+
+  /**
+   * Constructor
+   *
+   * @param mapper Object mapper
+   */
+  public NotificationPageJsonWriter(final ObjectMapper mapper) {
+    this.mapper = Objects.requireNonNull(mapper, "mapper == null");
+    this.writer =
+        mapper.writerFor(Notification.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+  }
+
+  @Override
+  public boolean isWriteable(
+      final Class<?> type,
+      final Type genericType,
+      final Annotation[] annotations,
+      final MediaType mediaType) {
+    return NotificationPage.class.isAssignableFrom(type);
+  }
+
+  @Override
+  public long getSize(
+      final NotificationPage page,
+      final Class<?> type,
+      final Type genericType,
+      final Annotation[] annotations,
+      final MediaType mediaType) {
+    return -1;
+  }
+
+  @Override
+  public void writeTo(
+      final NotificationPage page,
+      final Class<?> type,
+      final Type genericType,
+      final Annotation[] annotations,
+      final MediaType mediaType,
+      final MultivaluedMap<String, Object> httpHeaders,
+      final OutputStream entityStream)
+      throws IOException {
+
+    // Jersey owns the entity stream, so leave it open when the generator is closed
+    final JsonGenerator generator = mapper.getFactory().createGenerator(entityStream);
+    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    generator.writeStartArray();
+    for (Notification notification : page) {
+      writer.writeValue(generator, notification);
+    }
+    generator.writeEndArray();
+    generator.close();
+  }
+}
@@ -16,50 +16,27 @@
 package com.smoketurner.notification.application.resources;
 
 import com.codahale.metrics.annotation.Timed;
-import com.google.common.collect.ImmutableSortedSet;
-import com.google.common.collect.Iterables;
-import com.smoketurner.notification.api.Notification;
 import com.smoketurner.notification.application.core.RangeHeader;
-import com.smoketurner.notification.application.core.StringSetParam;
+import com.smoketurner.notification.application.core.RollupSummarizer;
 import com.smoketurner.notification.application.core.UserNotifications;
 import com.smoketurner.notification.application.exceptions.NotificationException;
 import com.smoketurner.notification.application.exceptions.NotificationStoreException;
 import com.smoketurner.notification.application.store.NotificationStore;
 import io.dropwizard.jersey.caching.CacheControl;
-import java.util.Date;
-import java.util.NoSuchElementException;
-import java.util.Objects;
+import io.dropwizard.jersey.protobuf.ProtocolBufferMediaType;
 import java.util.Optional;
-import javax.validation.Valid;
-import javax.validation.constraints.NotNull;
-import javax.ws.rs.Consumes;
-import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
 import javax.ws.rs.HeaderParam;
-import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
-import javax.ws.rs.core.Response.ResponseBuilder;
-import javax.ws.rs.core.UriBuilder;
 import org.glassfish.jersey.server.JSONP;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 @Path("/v1/notifications")
-public class NotificationResource {
-
-  private static final Logger LOGGER = LoggerFactory.getLogger(NotificationResource.class);
-  private static final String ACCEPT_RANGES_HEADER = "Accept-Ranges";
-  private static final String CONTENT_RANGE_HEADER = "Content-Range";
-  private static final String NEXT_RANGE_HEADER = "Next-Range";
-  private static final int DEFAULT_LIMIT = 20;
-  private static final int MAX_LIMIT = 1000;
-  private static final String RANGE_NAME = "id";
-  private final NotificationStore store;
+public class NotificationResource extends AbstractNotificationResource {
 
   /**
    * Constructor
@@ -67,151 +44,35 @@ public class NotificationResource {
    * @param store Notification data store
    */
   public NotificationResource(final NotificationStore store) {
-    this.store = Objects.requireNonNull(store, "store == null");
+    super(store);
   }
 
   @GET
   @JSONP
   @Timed
   @Path("/{username}")
-  @Produces({MediaType.APPLICATION_JSON, "application/javascript"})
+  @Produces({
+    MediaType.APPLICATION_JSON,
+    "application/javascript",
+    ProtocolBufferMediaType.APPLICATION_PROTOBUF
+  })
   @CacheControl(mustRevalidate = true, noCache = true, noStore = true)
   public Response fetch(
       @HeaderParam("Range") final String rangeHeader,
-      @PathParam("username") final String username) {
-
-    final Optional<UserNotifications> list;
-    try {
-      list = store.fetch(username);
-    } catch (NotificationStoreException e) {
-      throw new NotificationException(
-          Response.Status.INTERNAL_SERVER_ERROR, "Unable to fetch notifications", e);
-    }
-
-    if (!list.isPresent()) {
-      throw new NotificationException(Response.Status.NOT_FOUND, "Notifications not found");
-    }
-
-    final ImmutableSortedSet<Notification> notifications = list.get().getNotifications();
-    final int total = notifications.size();
-
-    // if there are no notifications, just return an empty list
-    if (total < 1) {
-      return Response.ok(notifications).header(ACCEPT_RANGES_HEADER, RANGE_NAME).build();
-    }
-
-    // The newest notification is always the first notification in the list and is used to set the
-    // Last-Modified response header below.
-    final Notification newest = notifications.first();
-    final Notification oldest = notifications.last();
-
-    Notification from = newest;
-    boolean fromInclusive = true;
-    Notification to;
-    boolean toInclusive = true;
-
-    int limit = DEFAULT_LIMIT;
-    final ResponseBuilder builder;
-
-    // If no Range header is present on the request, return a 200 response
-    if (rangeHeader == null) {
-      builder = Response.ok();
-      try {
-        to = Iterables.getLast(store.skip(notifications, from.getId(""), true, limit));
-      } catch (NoSuchElementException e) {
-        LOGGER.debug("List of notifications is empty, using oldest", e);
-        to = oldest;
-      }
-    } else {
-      // If a Range header is present, return a 206 response
-      builder = Response.status(Response.Status.PARTIAL_CONTENT);
-      final RangeHeader range = RangeHeader.parse(rangeHeader);
-      limit = range.getMax().orElse(DEFAULT_LIMIT);
-      if (limit > MAX_LIMIT) {
-        limit = MAX_LIMIT;
-      }
-      try {
-        if (range.getFromId().isPresent()) {
-          from = notifications.floor(Notification.create(range.getFromId().get()));
-          if (from == null) {
-            from = newest;
-          }
-          fromInclusive = range.getFromInclusive().orElse(true);
-
-          to = Iterables.getLast(store.skip(notifications, from.getId(""), fromInclusive, limit));
-        } else {
-          to = Iterables.getLast(store.skip(notifications, from.getId(""), true, limit));
-        }
-      } catch (NoSuchElementException e) {
-        LOGGER.debug("List of notifications is empty, using oldest", e);
-        to = oldest;
-      }
-    }
-
-    // Add the Accept-Ranges response header
-    builder.header(ACCEPT_RANGES_HEADER, RANGE_NAME);
-
-    // Add the Last-Modified response header
-    builder.lastModified(Date.from(newest.getCreatedAt().toInstant()));
-
-    final ImmutableSortedSet<Notification> subSet =
-        notifications.subSet(from, fromInclusive, to, toInclusive);
-    if (!subSet.isEmpty()) {
-      final String firstId = subSet.first().getId("");
-      final String lastId = subSet.last().getId("");
-
-      // Add the Content-Range and Next-Range response headers
-      builder.header(CONTENT_RANGE_HEADER, String.format("%s %s..%s", RANGE_NAME, firstId, lastId));
-      if (subSet.last().compareTo(oldest) < 0) {
-        builder.header(
-            NEXT_RANGE_HEADER, String.format("%s ]%s..; max=%d", RANGE_NAME, lastId, limit));
-      }
-    }
-
-    return builder.entity(subSet).build();
-  }
-
-  @POST
-  @Timed
-  @Path("/{username}")
-  @Consumes(MediaType.APPLICATION_JSON)
-  @Produces(MediaType.APPLICATION_JSON)
-  public Response add(
       @PathParam("username") final String username,
-      @NotNull @Valid final Notification notification) {
-
-    final Notification storedNotification;
-    try {
-      storedNotification = store.store(username, notification);
-    } catch (NotificationStoreException e) {
-      throw new NotificationException(
-          Response.Status.INTERNAL_SERVER_ERROR, "Unable to store notification", e);
-    }
-
-    return Response.created(
-            UriBuilder.fromResource(NotificationResource.class).path("{username}").build(username))
-        .entity(storedNotification)
-        .build();
-  }
+      @QueryParam("summary") final Integer summary) {
 
-  @DELETE
-  @Timed
-  @Path("/{username}")
-  public Response delete(
-      @PathParam("username") final String username,
-      @QueryParam("ids") final StringSetParam idsParam) {
+    final RangeHeader range = RangeHeader.parse(rangeHeader);
+    final Optional<RollupSummarizer> summarizer = getSummarizer(summary);
 
+    final Optional<UserNotifications> list;
     try {
-      if (idsParam != null) {
-        store.remove(username, idsParam.get());
-      } else {
-        store.removeAll(username);
-      }
+      list = store.fetch(username, range.getFromId(), getLimit(range));
     } catch (NotificationStoreException e) {
       throw new NotificationException(
-          Response.Status.INTERNAL_SERVER_ERROR, "Unable to delete notifications", e);
+          Response.Status.INTERNAL_SERVER_ERROR, "Unable to fetch notifications", e);
     }
 
-    return Response.noContent().build();
+    return buildResponse(rangeHeader, list, summarizer);
   }
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.riak;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflate compression using a preset dictionary of strings that repeat across notification lists.
+ * The compressed value is prefixed with the uncompressed length as a 4-byte big-endian integer so
+ * it can be inflated into an exactly sized array.
+ */
+final class DeflateCodec {
+
+  /**
+   * Preset dictionary. This is part of the {@link NotificationListFormat#DEFLATE} format and must
+   * never change; a different dictionary requires a new format.
+   */
+  private static final byte[] DICTIONARY =
+      ("mention_id comment_id reply_id user_id liker_id like_id follower_id message_id "
+              + "You have a new mention You have a new comment You have a new like "
+              + "You have a new follower mention comment like new-follower")
+          .getBytes(StandardCharsets.UTF_8);
+
+  private static final int HEADER_LENGTH = 4;
+  private static final int MAX_LENGTH = 64 * 1024 * 1024;
+  private static final int BUFFER_SIZE = 4096;
+
+  private DeflateCodec() {}
+
+  /**
+   * Compress a value
+   *
+   * @param input uncompressed value
+   * @return compressed value
+   */
+  static byte[] compress(final byte[] input) {
+    final Deflater deflater = new Deflater();
+    try {
+      deflater.setDictionary(DICTIONARY);
+      deflater.setInput(input);
+      deflater.finish();
+
+      final ByteArrayOutputStream out =
+          new ByteArrayOutputStream(HEADER_LENGTH + input.length / 2 + 64);
+      out.write(input.length >>> 24);
+      out.write(input.length >>> 16);
+      out.write(input.length >>> 8);
+      out.write(input.length);
+
+      final byte[] buffer = new byte[BUFFER_SIZE];
+      while (!deflater.finished()) {
+        final int count = deflater.deflate(buffer);
+        out.write(buffer, 0, count);
+      }
+      return out.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  /**
+   * Decompress a value
+   *
+   * @param input compressed value
+   * @return uncompressed value
+   * @throws IOException if the value is truncated or corrupt
+   */
+  static byte[] decompress(final byte[] input) throws IOException {
+    if (input.length < HEADER_LENGTH) {
+      throw new IOException("Compressed value is missing its length");
+    }
+    final int length =
+        ((input[0] & 0xff) << 24)
+            | ((input[1] & 0xff) << 16)
+            | ((input[2] & 0xff) << 8)
+            | (input[3] & 0xff);
+    if (length < 0 || length > MAX_LENGTH) {
+      throw new IOException("Invalid uncompressed length: " + length);
+    }
+
+    final byte[] output = new byte[length];
+    final byte[] overflow = new byte[1];
+    final Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(input, HEADER_LENGTH, input.length - HEADER_LENGTH);
+      int offset = 0;
+      while (!inflater.finished()) {
+        final int count;
+        if (offset < length) {
+          count = inflater.inflate(output, offset, length - offset);
+        } else if (inflater.inflate(overflow) > 0) {
+          throw new IOException("Compressed value is longer than " + length + " bytes");
+        } else {
+          count = 0;
+        }
+
+        if (count > 0) {
+          offset += count;
+        } else if (inflater.needsDictionary()) {
+          inflater.setDictionary(DICTIONARY);
+        } else if (inflater.needsInput() && !inflater.finished()) {
+          throw new IOException("Compressed value is truncated");
+        }
+      }
+      if (offset != length) {
+        throw new IOException("Compressed value is shorter than " + length + " bytes");
+      }
+      return output;
+    } catch (DataFormatException e) {
+      throw new IOException(e);
+    } finally {
+      inflater.end();
+    }
+  }
+}
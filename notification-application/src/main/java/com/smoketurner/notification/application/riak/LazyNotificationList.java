@@ -0,0 +1,343 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.riak;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
+import com.smoketurner.notification.api.Notification;
+import com.smoketurner.notification.application.core.RollupState;
+import com.smoketurner.notification.application.protos.NotificationProtos.NotificationListPB;
+import com.smoketurner.notification.application.protos.NotificationProtos.NotificationPB;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+/**
+ * Read-only list of the notifications in a serialized {@link NotificationListPB}, ordered from
+ * newest to oldest, which only decodes a notification the first time it is accessed.
+ *
+ * <p>Creating the list reads just the ID and position of each entry from the serialized bytes, so
+ * entries which have been deleted, or which are never accessed because they are beyond the page
+ * being read, are never decoded. Decoded notifications are kept, so each entry is decoded at most
+ * once (or occasionally twice if two threads access it at the same time, which is harmless as
+ * notifications are immutable).
+ */
+public final class LazyNotificationList extends AbstractList<Notification> implements RandomAccess {
+
+  private final byte[] bytes;
+  private final int[] offsets;
+  private final int[] lengths;
+  private final String[] ids;
+  private final Notification[] notifications;
+  private final Set<String> deletedIds;
+  @Nullable private final String[] strings;
+  @Nullable private final RollupState rollupState;
+
+  private LazyNotificationList(
+      final byte[] bytes,
+      final int[] offsets,
+      final int[] lengths,
+      final String[] ids,
+      final Set<String> deletedIds,
+      @Nullable final String[] strings,
+      @Nullable final RollupState rollupState) {
+    this.bytes = bytes;
+    this.offsets = offsets;
+    this.lengths = lengths;
+    this.ids = ids;
+    this.notifications = new Notification[ids.length];
+    this.deletedIds = deletedIds;
+    this.strings = strings;
+    this.rollupState = rollupState;
+  }
+
+  /**
+   * Index a serialized notification list without decoding any of the notifications. The bytes are
+   * not copied, so they must not be modified afterwards.
+   *
+   * @param bytes Serialized {@link NotificationListPB}
+   * @return the lazily decoded list
+   * @throws IOException if the bytes are not a valid notification list
+   */
+  public static LazyNotificationList parse(final byte[] bytes) throws IOException {
+    return parse(bytes, false);
+  }
+
+  /**
+   * Index a serialized notification list without decoding any of the notifications. The bytes are
+   * not copied, so they must not be modified afterwards.
+   *
+   * @param bytes Serialized {@link NotificationListPB}
+   * @param stringTable Whether the list uses the string table schema
+   * @return the lazily decoded list
+   * @throws IOException if the bytes are not a valid notification list
+   */
+  public static LazyNotificationList parse(final byte[] bytes, final boolean stringTable)
+      throws IOException {
+    Objects.requireNonNull(bytes, "bytes == null");
+
+    final CodedInputStream input = CodedInputStream.newInstance(bytes);
+    final Set<String> deletedIds = new HashSet<>();
+    final List<String> strings = new ArrayList<>();
+    int count = 0;
+    int[] offsets = new int[16];
+    int[] lengths = new int[16];
+    String[] ids = new String[16];
+    int rollupCount = 0;
+    int[] rollupOffsets = new int[16];
+    int rollupVersion = 0;
+
+    int tag;
+    while ((tag = input.readTag()) != 0) {
+      final int field = WireFormat.getTagFieldNumber(tag);
+      if (field == NotificationListPB.NOTIFICATION_FIELD_NUMBER
+          && WireFormat.getTagWireType(tag) == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+        final int length = input.readRawVarint32();
+        final int offset = input.getTotalBytesRead();
+        final int oldLimit = input.pushLimit(length);
+        final String id = readId(input);
+        input.skipRawBytes(input.getBytesUntilLimit());
+        input.popLimit(oldLimit);
+
+        if (count == ids.length) {
+          offsets = Arrays.copyOf(offsets, count * 2);
+          lengths = Arrays.copyOf(lengths, count * 2);
+          ids = Arrays.copyOf(ids, count * 2);
+        }
+        offsets[count] = offset;
+        lengths[count] = length;
+        ids[count] = id;
+        count++;
+      } else if (field == NotificationListPB.DELETED_ID_FIELD_NUMBER) {
+        deletedIds.add(input.readStringRequireUtf8());
+      } else if (stringTable && field == NotificationListPB.STRING_FIELD_NUMBER) {
+        strings.add(input.readStringRequireUtf8());
+      } else if (field == NotificationListPB.ROLLUP_HEAD_OFFSET_FIELD_NUMBER) {
+        // repeated scalars are usually packed, but may not be
+        final boolean packed =
+            WireFormat.getTagWireType(tag) == WireFormat.WIRETYPE_LENGTH_DELIMITED;
+        final int oldLimit = packed ? input.pushLimit(input.readRawVarint32()) : 0;
+        do {
+          if (rollupCount == rollupOffsets.length) {
+            rollupOffsets = Arrays.copyOf(rollupOffsets, rollupCount * 2);
+          }
+          rollupOffsets[rollupCount++] = input.readUInt32();
+        } while (packed && input.getBytesUntilLimit() > 0);
+        if (packed) {
+          input.popLimit(oldLimit);
+        }
+      } else if (field == NotificationListPB.ROLLUP_RULES_VERSION_FIELD_NUMBER) {
+        rollupVersion = input.readInt32();
+      } else if (!input.skipField(tag)) {
+        throw new InvalidProtocolBufferException("Unexpected end-group tag in notification list");
+      }
+    }
+
+    RollupState rollupState = null;
+    if (rollupCount > 0 && rollupCount == count) {
+      rollupState =
+          RollupState.fromOffsets(rollupVersion, Arrays.copyOf(rollupOffsets, count)).orElse(null);
+    }
+
+    return index(
+        bytes,
+        offsets,
+        lengths,
+        ids,
+        count,
+        deletedIds,
+        stringTable ? NotificationListConverter.intern(strings) : null,
+        rollupState);
+  }
+
+  /**
+   * Read the ID of a notification, leaving the input positioned somewhere within the notification
+   *
+   * @param input Input limited to a single serialized {@link NotificationPB}
+   * @return the notification ID, or an empty string if the notification has no ID
+   * @throws IOException if unable to read the notification
+   */
+  private static String readId(final CodedInputStream input) throws IOException {
+    int tag;
+    while ((tag = input.readTag()) != 0) {
+      if (WireFormat.getTagFieldNumber(tag) == NotificationPB.ID_FIELD_NUMBER) {
+        return input.readStringRequireUtf8();
+      }
+      if (!input.skipField(tag)) {
+        throw new InvalidProtocolBufferException("Unexpected end-group tag in notification");
+      }
+    }
+    return "";
+  }
+
+  /**
+   * Drop deleted and duplicate entries and order the remaining entries from newest to oldest. Lists
+   * written by {@link NotificationListConverter} are already ordered, in which case no sorting is
+   * needed.
+   */
+  private static LazyNotificationList index(
+      final byte[] bytes,
+      final int[] offsets,
+      final int[] lengths,
+      final String[] ids,
+      final int count,
+      final Set<String> deletedIds,
+      @Nullable final String[] strings,
+      @Nullable final RollupState rollupState) {
+
+    Integer[] order = null;
+    for (int i = 1; i < count; i++) {
+      if (ids[i - 1].compareTo(ids[i]) < 0) {
+        order = new Integer[count];
+        for (int j = 0; j < count; j++) {
+          order[j] = j;
+        }
+        Arrays.sort(order, Comparator.comparing((Integer j) -> ids[j]).reversed());
+        break;
+      }
+    }
+
+    final int[] keptOffsets = new int[count];
+    final int[] keptLengths = new int[count];
+    final String[] keptIds = new String[count];
+    int kept = 0;
+    for (int i = 0; i < count; i++) {
+      final int entry = order == null ? i : order[i];
+      final String id = ids[entry];
+      if (id.isEmpty() || deletedIds.contains(id) || (kept > 0 && id.equals(keptIds[kept - 1]))) {
+        continue;
+      }
+      keptOffsets[kept] = offsets[entry];
+      keptLengths[kept] = lengths[entry];
+      keptIds[kept] = id;
+      kept++;
+    }
+
+    return new LazyNotificationList(
+        bytes,
+        Arrays.copyOf(keptOffsets, kept),
+        Arrays.copyOf(keptLengths, kept),
+        Arrays.copyOf(keptIds, kept),
+        Collections.unmodifiableSet(deletedIds),
+        strings,
+        // the rollup state is only valid if every entry was kept in the order it was written
+        order == null && kept == count ? rollupState : null);
+  }
+
+  @Override
+  public Notification get(final int index) {
+    Objects.checkIndex(index, ids.length);
+    Notification notification = notifications[index];
+    if (notification == null) {
+      notification = decode(index);
+      notifications[index] = notification;
+    }
+    return notification;
+  }
+
+  @Override
+  public int size() {
+    return ids.length;
+  }
+
+  /**
+   * Return the ID of a notification without decoding it
+   *
+   * @param index Position of the notification
+   * @return the notification ID
+   */
+  public String getId(final int index) {
+    return ids[index];
+  }
+
+  /**
+   * Return the position of a notification without decoding any notifications
+   *
+   * @param id Notification ID to find
+   * @return the position of the notification, or {@code -(insertion point) - 1} if not found
+   */
+  public int binarySearch(final String id) {
+    return Arrays.binarySearch(ids, id, Comparator.reverseOrder());
+  }
+
+  /**
+   * Return the IDs of notifications deleted from this list
+   *
+   * @return deleted notification IDs
+   */
+  public Set<String> getDeletedIds() {
+    return deletedIds;
+  }
+
+  /**
+   * Return the rollup state stored with the list
+   *
+   * @return the rollup state, or absent if the list has no valid rollup state
+   */
+  public Optional<RollupState> getRollupState() {
+    return Optional.ofNullable(rollupState);
+  }
+
+  @VisibleForTesting
+  boolean isDecoded(final int index) {
+    return notifications[index] != null;
+  }
+
+  @Override
+  public int indexOf(@Nullable final Object o) {
+    if (!(o instanceof Notification)) {
+      return -1;
+    }
+    final int index = binarySearch(((Notification) o).getId(""));
+    return index < 0 ? -1 : index;
+  }
+
+  @Override
+  public int lastIndexOf(@Nullable final Object o) {
+    return indexOf(o);
+  }
+
+  @Override
+  public boolean contains(@Nullable final Object o) {
+    return indexOf(o) >= 0;
+  }
+
+  private Notification decode(final int index) {
+    try {
+      final NotificationPB notification =
+          NotificationPB.parseFrom(
+              CodedInputStream.newInstance(bytes, offsets[index], lengths[index]));
+      return NotificationListConverter.convert(notification, strings);
+    } catch (IOException e) {
+      // the entry was already read once when the list was indexed, but string table indexes
+      // are only checked when it is decoded
+      throw new UncheckedIOException(e);
+    }
+  }
+}
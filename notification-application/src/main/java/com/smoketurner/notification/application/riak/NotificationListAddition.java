@@ -17,6 +17,9 @@ package com.smoketurner.notification.application.riak;
 
 import com.basho.riak.client.api.commands.kv.UpdateValue;
 import com.smoketurner.notification.api.Notification;
+import com.smoketurner.notification.application.core.RulePlan;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Objects;
 import javax.annotation.Nullable;
 import org.slf4j.Logger;
@@ -25,7 +28,8 @@ import org.slf4j.LoggerFactory;
 public class NotificationListAddition extends UpdateValue.Update<NotificationListObject> {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(NotificationListAddition.class);
-  private final Notification notification;
+  private final Collection<Notification> notifications;
+  @Nullable private final RulePlan rules;
 
   /**
    * Constructor
@@ -33,7 +37,29 @@ public class NotificationListAddition extends UpdateValue.Update<NotificationLis
    * @param notification Notification to add
    */
   public NotificationListAddition(final Notification notification) {
-    this.notification = Objects.requireNonNull(notification, "notification == null");
+    this(Collections.singletonList(Objects.requireNonNull(notification, "notification == null")));
+  }
+
+  /**
+   * Constructor
+   *
+   * @param notifications Notifications to add
+   */
+  public NotificationListAddition(final Collection<Notification> notifications) {
+    this.notifications = Objects.requireNonNull(notifications, "notifications == null");
+    this.rules = null;
+  }
+
+  /**
+   * Constructor that also updates the rollup state of the list
+   *
+   * @param notifications Notifications to add
+   * @param rules Rollup rules
+   */
+  public NotificationListAddition(
+      final Collection<Notification> notifications, final RulePlan rules) {
+    this.notifications = Objects.requireNonNull(notifications, "notifications == null");
+    this.rules = Objects.requireNonNull(rules, "rules == null");
   }
 
   @Override
@@ -42,7 +68,11 @@ public class NotificationListAddition extends UpdateValue.Update<NotificationLis
       LOGGER.debug("original is null, creating new notification list");
       original = new NotificationListObject();
     }
-    original.addNotification(notification);
+    if (rules != null) {
+      original.addNotifications(notifications, rules);
+    } else {
+      original.addNotifications(notifications);
+    }
     return original;
   }
 }
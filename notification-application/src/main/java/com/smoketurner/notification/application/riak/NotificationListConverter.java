@@ -18,14 +18,22 @@ package com.smoketurner.notification.application.riak;
 import com.basho.riak.client.api.convert.ConversionException;
 import com.basho.riak.client.api.convert.Converter;
 import com.basho.riak.client.core.util.BinaryValue;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.smoketurner.notification.api.Notification;
+import com.smoketurner.notification.application.core.RollupState;
 import com.smoketurner.notification.application.protos.NotificationProtos.NotificationListPB;
 import com.smoketurner.notification.application.protos.NotificationProtos.NotificationPB;
-import io.dropwizard.jersey.protobuf.ProtocolBufferMediaType;
-import java.time.Instant;
-import java.time.ZoneOffset;
-import java.time.ZonedDateTime;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,65 +41,270 @@ public class NotificationListConverter extends Converter<NotificationListObject>
 
   private static final Logger LOGGER = LoggerFactory.getLogger(NotificationListConverter.class);
 
+  /** Categories and property keys shared by every decoded notification list */
+  private static final Interner<String> STRINGS = Interners.newWeakInterner();
+
+  private final NotificationListFormat format;
+
+  /** Constructor that writes uncompressed {@link NotificationListFormat#PROTOBUF} values */
   public NotificationListConverter() {
+    this(NotificationListFormat.PROTOBUF);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param format Format to write values in. Values in every format can be read.
+   */
+  public NotificationListConverter(final NotificationListFormat format) {
     super(NotificationListObject.class);
+    this.format = Objects.requireNonNull(format, "format == null");
   }
 
   @Override
   public NotificationListObject toDomain(final BinaryValue value, final String contentType) {
-    if (!ProtocolBufferMediaType.APPLICATION_PROTOBUF.equals(contentType)) {
-      LOGGER.error("Invalid Content-Type: {}", contentType);
-      throw new ConversionException("Invalid Content-Type: " + contentType);
+    final NotificationListFormat format = getFormat(contentType);
+    final NotificationListObject obj = new NotificationListObject();
+    try {
+      final NotificationListPB list = NotificationListPB.parseFrom(decompress(value, format));
+      final String[] strings = format.hasStringTable() ? intern(list.getStringList()) : null;
+      Notification previous = null;
+      boolean ordered = true;
+      for (NotificationPB notification : list.getNotificationList()) {
+        final Notification current = convert(notification, strings);
+        ordered = ordered && (previous == null || previous.compareTo(current) < 0);
+        obj.addNotification(current);
+        previous = current;
+      }
+      // the rollup state is only valid for the notifications in the order they were written
+      if (ordered && list.getRollupHeadOffsetCount() == obj.getNotifications().size()) {
+        obj.setRollupState(getRollupState(list).orElse(null));
+      }
+      final int deletedAtCount = list.getDeletedAtCount();
+      for (int i = 0; i < list.getDeletedIdCount(); i++) {
+        obj.deleteNotification(list.getDeletedId(i), i < deletedAtCount ? list.getDeletedAt(i) : 0);
+      }
+    } catch (IOException e) {
+      LOGGER.error("Unable to convert value from Riak", e);
+      throw new ConversionException(e);
     }
+    return obj;
+  }
 
-    final NotificationListPB list;
+  /**
+   * Decode a notification list from Riak without decoding any of its notifications until they are
+   * accessed. Deleted notifications are removed from the returned list, as they would be when
+   * resolving the object.
+   *
+   * @param value Riak value
+   * @param contentType Riak content type
+   * @return the lazily decoded list of notifications
+   */
+  public LazyNotificationList toLazyDomain(final BinaryValue value, final String contentType) {
+    final NotificationListFormat format = getFormat(contentType);
     try {
-      list = NotificationListPB.parseFrom(value.unsafeGetValue());
-    } catch (InvalidProtocolBufferException e) {
+      return LazyNotificationList.parse(decompress(value, format), format.hasStringTable());
+    } catch (IOException e) {
       LOGGER.error("Unable to convert value from Riak", e);
       throw new ConversionException(e);
     }
-
-    final NotificationListObject obj = new NotificationListObject();
-    list.getNotificationList().stream()
-        .map(NotificationListConverter::convert)
-        .forEach(obj::addNotification);
-    obj.deleteNotifications(list.getDeletedIdList());
-    return obj;
   }
 
   @Override
   public ContentAndType fromDomain(final NotificationListObject domainObject) {
-    final NotificationListPB.Builder builder =
-        NotificationListPB.newBuilder().addAllDeletedId(domainObject.getDeletedIds());
+    return new ContentAndType(encode(domainObject), format.getContentType());
+  }
+
+  /**
+   * Encode a notification list in the format this converter writes
+   *
+   * @param domainObject notification list to encode
+   * @return the encoded value
+   */
+  public BinaryValue encode(final NotificationListObject domainObject) {
+    final NotificationListPB.Builder builder = NotificationListPB.newBuilder();
+    domainObject
+        .getDeletionTimes()
+        .forEach(
+            (id, deletedAt) -> {
+              builder.addDeletedId(id);
+              builder.addDeletedAt(deletedAt);
+            });
+
+    if (format.hasStringTable()) {
+      final Map<String, Integer> strings = new LinkedHashMap<>();
+      for (Notification notification : domainObject.getNotifications()) {
+        builder.addNotification(convert(notification, strings));
+      }
+      builder.addAllString(strings.keySet());
+    } else {
+      domainObject.getNotifications().stream()
+          .map(NotificationListConverter::convert)
+          .forEach(builder::addNotification);
+    }
+
+    domainObject
+        .getRollupState()
+        .ifPresent(
+            state -> {
+              builder.setRollupRulesVersion(state.getVersion());
+              for (int i = 0; i < state.size(); i++) {
+                builder.addRollupHeadOffset(state.getOffset(i));
+              }
+            });
+
+    final byte[] bytes = builder.build().toByteArray();
+    if (format.isCompressed()) {
+      return BinaryValue.unsafeCreate(DeflateCodec.compress(bytes));
+    }
+    return BinaryValue.unsafeCreate(bytes);
+  }
+
+  /**
+   * Return the rollup state of a stored notification list
+   *
+   * @param list Stored notification list
+   * @return the rollup state, or absent if the list has no valid rollup state
+   */
+  static Optional<RollupState> getRollupState(final NotificationListPB list) {
+    final int count = list.getRollupHeadOffsetCount();
+    if (count == 0) {
+      return Optional.empty();
+    }
+    final int[] offsets = new int[count];
+    for (int i = 0; i < count; i++) {
+      offsets[i] = list.getRollupHeadOffset(i);
+    }
+    return RollupState.fromOffsets(list.getRollupRulesVersion(), offsets);
+  }
 
-    domainObject.getNotifications().stream()
-        .map(NotificationListConverter::convert)
-        .forEach(builder::addNotification);
+  private static NotificationListFormat getFormat(final String contentType) {
+    return NotificationListFormat.fromContentType(contentType)
+        .orElseThrow(
+            () -> {
+              LOGGER.error("Invalid Content-Type: {}", contentType);
+              return new ConversionException("Invalid Content-Type: " + contentType);
+            });
+  }
 
-    final NotificationListPB list = builder.build();
+  /**
+   * Return the NotificationListPB bytes of a Riak value
+   *
+   * @param value Riak value
+   * @param format Format of the value
+   * @return the uncompressed protocol buffer bytes
+   * @throws IOException if the value cannot be decompressed
+   */
+  private static byte[] decompress(final BinaryValue value, final NotificationListFormat format)
+      throws IOException {
+    if (format.isCompressed()) {
+      return DeflateCodec.decompress(value.unsafeGetValue());
+    }
+    return value.unsafeGetValue();
+  }
 
-    return new ContentAndType(
-        BinaryValue.unsafeCreate(list.toByteArray()), ProtocolBufferMediaType.APPLICATION_PROTOBUF);
+  /**
+   * Intern the string table of a notification list, so the categories and property keys of every
+   * decoded list share the same instances.
+   *
+   * @param strings String table
+   * @return the interned strings
+   */
+  static String[] intern(final List<String> strings) {
+    final String[] interned = new String[strings.size()];
+    for (int i = 0; i < interned.length; i++) {
+      interned[i] = STRINGS.intern(strings.get(i));
+    }
+    return interned;
   }
 
-  private static Notification convert(final NotificationPB notification) {
-    return Notification.builder(notification.getCategory(), notification.getMessage())
+  /**
+   * Convert a stored notification
+   *
+   * @param notification Stored notification
+   * @param strings String table of the list, or null if the list does not use a string table
+   * @return the notification
+   * @throws InvalidProtocolBufferException if a string table index is invalid
+   */
+  static Notification convert(final NotificationPB notification, @Nullable final String[] strings)
+      throws InvalidProtocolBufferException {
+    final String category;
+    final Map<String, String> properties;
+    if (strings == null) {
+      category = notification.getCategory();
+      properties = notification.getPropertyMap();
+    } else {
+      category = lookup(strings, notification.getCategoryIndex());
+      properties = getProperties(notification, strings);
+    }
+
+    return Notification.builder(category, notification.getMessage())
         .withId(notification.getId())
-        .withCreatedAt(
-            ZonedDateTime.ofInstant(
-                Instant.ofEpochMilli(notification.getCreatedAt()), ZoneOffset.UTC))
-        .withProperties(notification.getPropertyMap())
+        .withCreatedAt(notification.getCreatedAt())
+        .withProperties(properties)
         .build();
   }
 
+  private static Map<String, String> getProperties(
+      final NotificationPB notification, final String[] strings)
+      throws InvalidProtocolBufferException {
+    final int count = notification.getPropertyKeyIndexCount();
+    if (count != notification.getPropertyValueCount()) {
+      throw new InvalidProtocolBufferException("Mismatched property keys and values");
+    }
+    if (count == 0) {
+      return Collections.emptyMap();
+    }
+
+    final ImmutableMap.Builder<String, String> properties = ImmutableMap.builder();
+    for (int i = 0; i < count; i++) {
+      properties.put(
+          lookup(strings, notification.getPropertyKeyIndex(i)), notification.getPropertyValue(i));
+    }
+    try {
+      return properties.build();
+    } catch (IllegalArgumentException e) {
+      throw new InvalidProtocolBufferException("Duplicate property key");
+    }
+  }
+
+  private static String lookup(final String[] strings, final int index)
+      throws InvalidProtocolBufferException {
+    if (index < 0 || index >= strings.length) {
+      throw new InvalidProtocolBufferException("Invalid string table index: " + index);
+    }
+    return strings[index];
+  }
+
   private static NotificationPB convert(final Notification notification) {
     return NotificationPB.newBuilder()
         .setId(notification.getId().get())
         .setCategory(notification.getCategory())
         .setMessage(notification.getMessage())
-        .setCreatedAt(notification.getCreatedAt().toInstant().toEpochMilli())
+        .setCreatedAt(notification.getCreatedAtMillis())
         .putAllProperty(notification.getProperties())
         .build();
   }
+
+  private static NotificationPB convert(
+      final Notification notification, final Map<String, Integer> strings) {
+    final NotificationPB.Builder builder =
+        NotificationPB.newBuilder()
+            .setId(notification.getId().get())
+            .setCategoryIndex(index(strings, notification.getCategory()))
+            .setMessage(notification.getMessage())
+            .setCreatedAt(notification.getCreatedAtMillis());
+    notification
+        .getProperties()
+        .forEach(
+            (key, value) -> {
+              builder.addPropertyKeyIndex(index(strings, key));
+              builder.addPropertyValue(value);
+            });
+    return builder.build();
+  }
+
+  private static int index(final Map<String, Integer> strings, final String value) {
+    return strings.computeIfAbsent(value, k -> strings.size());
+  }
 }
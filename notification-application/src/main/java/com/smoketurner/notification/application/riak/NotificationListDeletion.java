@@ -43,6 +43,9 @@ public class NotificationListDeletion extends UpdateValue.Update<NotificationLis
       original = new NotificationListObject();
     }
     original.deleteNotifications(ids);
+    // drop the notifications straight away so the stored value shrinks, while keeping the IDs so
+    // they are also removed from any concurrently written siblings
+    original.removeNotifications(n -> ids.contains(n.getId("")));
     return original;
   }
 }
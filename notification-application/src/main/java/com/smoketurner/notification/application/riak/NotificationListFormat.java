@@ -0,0 +1,86 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.riak;
+
+import io.dropwizard.jersey.protobuf.ProtocolBufferMediaType;
+import java.util.Optional;
+
+/**
+ * Encodings of a stored notification list. The Riak content type identifies the encoding, so values
+ * written in different formats can be read side by side.
+ */
+public enum NotificationListFormat {
+  /** Uncompressed NotificationListPB bytes */
+  PROTOBUF(ProtocolBufferMediaType.APPLICATION_PROTOBUF, false, false),
+
+  /** NotificationListPB bytes compressed with Deflate using a preset dictionary */
+  DEFLATE(ProtocolBufferMediaType.APPLICATION_PROTOBUF + "; version=2", false, true),
+
+  /** Uncompressed NotificationListPB bytes using the string table schema */
+  STRING_TABLE(ProtocolBufferMediaType.APPLICATION_PROTOBUF + "; version=3", true, false),
+
+  /** NotificationListPB bytes using the string table schema, compressed with Deflate */
+  STRING_TABLE_DEFLATE(ProtocolBufferMediaType.APPLICATION_PROTOBUF + "; version=4", true, true);
+
+  private final String contentType;
+  private final boolean stringTable;
+  private final boolean compressed;
+
+  NotificationListFormat(
+      final String contentType, final boolean stringTable, final boolean compressed) {
+    this.contentType = contentType;
+    this.stringTable = stringTable;
+    this.compressed = compressed;
+  }
+
+  public String getContentType() {
+    return contentType;
+  }
+
+  /**
+   * Whether categories and property keys are stored once per list in a string table and referred to
+   * by index from each notification
+   *
+   * @return true if the format uses a string table
+   */
+  public boolean hasStringTable() {
+    return stringTable;
+  }
+
+  /**
+   * Whether the value is compressed with {@link DeflateCodec}
+   *
+   * @return true if the format is compressed
+   */
+  public boolean isCompressed() {
+    return compressed;
+  }
+
+  /**
+   * Find the format identified by a Riak content type
+   *
+   * @param contentType Riak content type
+   * @return the format, or empty if the content type is not a known format
+   */
+  public static Optional<NotificationListFormat> fromContentType(final String contentType) {
+    for (NotificationListFormat format : values()) {
+      if (format.contentType.equals(contentType)) {
+        return Optional.of(format);
+      }
+    }
+    return Optional.empty();
+  }
+}
@@ -25,17 +25,23 @@ import com.basho.riak.client.api.annotations.RiakVTag;
 import com.basho.riak.client.api.cap.VClock;
 import com.google.common.base.MoreObjects;
 import com.smoketurner.notification.api.Notification;
+import com.smoketurner.notification.application.core.NotificationSet;
+import com.smoketurner.notification.application.core.RollupState;
+import com.smoketurner.notification.application.core.RulePlan;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.function.Predicate;
 import javax.annotation.Nullable;
 
 public class NotificationListObject {
 
-  private static final int MAX_NOTIFICATIONS = 1000;
+  public static final int MAX_NOTIFICATIONS = 1000;
 
   @RiakBucketName private final String bucketName = "notifications";
 
@@ -51,8 +57,12 @@ public class NotificationListObject {
 
   @RiakVTag @Nullable private String vtag;
 
-  private final TreeSet<Notification> notifications = new TreeSet<>();
-  private final Set<String> deletedIds = new HashSet<>();
+  private final NotificationSet notifications = new NotificationSet();
+  // deleted notification IDs, with when each was deleted in epoch milliseconds
+  private final Map<String, Long> deletedIds = new HashMap<>();
+  // rollups of the notifications, which are dropped whenever the notifications change other than
+  // through addNotifications(Collection, RulePlan)
+  @Nullable private RollupState rollupState;
 
   /** Constructor */
   public NotificationListObject() {
@@ -70,24 +80,96 @@ public class NotificationListObject {
 
   public void addNotification(final Notification notification) {
     notifications.add(notification);
-    if (notifications.size() > MAX_NOTIFICATIONS) {
-      notifications.pollLast();
-    }
+    notifications.truncate(MAX_NOTIFICATIONS);
+    rollupState = null;
   }
 
   public void addNotifications(final Collection<Notification> notifications) {
     this.notifications.addAll(notifications);
-    while (this.notifications.size() > MAX_NOTIFICATIONS) {
-      this.notifications.pollLast();
+    this.notifications.truncate(MAX_NOTIFICATIONS);
+    rollupState = null;
+  }
+
+  /**
+   * Add notifications and update the rollup state of the list. If the notifications are all newer
+   * than the existing notifications, only the rollups they affect are updated, otherwise the whole
+   * list is rolled up again.
+   *
+   * @param notifications Notifications to add
+   * @param rules Rollup rules
+   */
+  public void addNotifications(final Collection<Notification> notifications, final RulePlan rules) {
+    final RollupState previous = rollupState;
+    final Notification newest = this.notifications.isEmpty() ? null : this.notifications.first();
+    final boolean prepended =
+        newest != null && notifications.stream().allMatch(n -> n.compareTo(newest) < 0);
+
+    addNotifications(notifications);
+
+    final List<Notification> list = this.notifications.asList();
+    if (previous != null && prepended) {
+      rollupState = previous.prepend(list, this.notifications.headSet(newest).size(), rules);
+    } else {
+      rollupState = RollupState.create(list, rules);
     }
   }
 
+  /**
+   * Remove the notifications matching a filter
+   *
+   * @param filter Returns true for notifications to remove
+   * @return true if any notifications were removed, otherwise false
+   */
+  public boolean removeNotifications(final Predicate<Notification> filter) {
+    if (notifications.removeIf(filter)) {
+      rollupState = null;
+      return true;
+    }
+    return false;
+  }
+
   public void deleteNotification(final String id) {
-    deletedIds.add(id);
+    deleteNotification(id, System.currentTimeMillis());
+  }
+
+  /**
+   * Record a deleted notification ID
+   *
+   * @param id Notification ID
+   * @param deletedAt When the notification was deleted, in epoch milliseconds
+   */
+  public void deleteNotification(final String id, final long deletedAt) {
+    deletedIds.merge(id, deletedAt, Math::max);
   }
 
   public void deleteNotifications(final Collection<String> ids) {
-    deletedIds.addAll(ids);
+    final long now = System.currentTimeMillis();
+    ids.forEach(id -> deleteNotification(id, now));
+  }
+
+  /**
+   * Record the deleted notification IDs of another list, such as a sibling
+   *
+   * @param other List to copy deleted IDs from
+   */
+  public void deleteNotifications(final NotificationListObject other) {
+    other.deletedIds.forEach(this::deleteNotification);
+  }
+
+  /**
+   * Drop deleted IDs which are no longer needed to remove notifications from siblings: those
+   * deleted at or before {@code deletedBefore}, and, once the list is full, those older than the
+   * oldest notification, as a sibling's copy of them would be dropped anyway when merged.
+   *
+   * @param deletedBefore Epoch milliseconds at or before which deleted IDs can be dropped
+   */
+  public void compactDeletedIds(final long deletedBefore) {
+    final String oldestId =
+        notifications.size() >= MAX_NOTIFICATIONS ? notifications.last().getId("") : "";
+    deletedIds
+        .entrySet()
+        .removeIf(
+            entry -> entry.getValue() <= deletedBefore || entry.getKey().compareTo(oldestId) < 0);
   }
 
   @Nullable
@@ -95,12 +177,37 @@ public class NotificationListObject {
     return key;
   }
 
-  public SortedSet<Notification> getNotifications() {
+  public NotificationSet getNotifications() {
     return notifications;
   }
 
+  /**
+   * Return the rollup state of the notifications
+   *
+   * @return the rollup state, or absent if the notifications have not been rolled up
+   */
+  public Optional<RollupState> getRollupState() {
+    if (rollupState == null || rollupState.size() != notifications.size()) {
+      return Optional.empty();
+    }
+    return Optional.of(rollupState);
+  }
+
+  public void setRollupState(@Nullable final RollupState rollupState) {
+    this.rollupState = rollupState;
+  }
+
   public Set<String> getDeletedIds() {
-    return deletedIds;
+    return deletedIds.keySet();
+  }
+
+  /**
+   * Return when each deleted notification ID was deleted
+   *
+   * @return deleted notification IDs and when they were deleted, in epoch milliseconds
+   */
+  public Map<String, Long> getDeletionTimes() {
+    return Collections.unmodifiableMap(deletedIds);
   }
 
   @Override
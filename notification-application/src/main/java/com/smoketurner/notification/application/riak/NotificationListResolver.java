@@ -23,9 +23,12 @@ import com.codahale.metrics.Histogram;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.SharedMetricRegistries;
 import com.smoketurner.notification.api.Notification;
+import io.dropwizard.util.Duration;
+import java.time.Clock;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import javax.annotation.Nullable;
 import org.slf4j.Logger;
@@ -34,12 +37,41 @@ import org.slf4j.LoggerFactory;
 public class NotificationListResolver implements ConflictResolver<NotificationListObject> {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(NotificationListResolver.class);
+  private final Duration deletedIdHorizon;
+  private final Clock clock;
   private final Histogram siblingCounts;
+  private final Histogram deletedIdCounts;
 
-  /** Constructor */
+  /** Constructor that drops deleted IDs as soon as they have been applied */
   public NotificationListResolver() {
+    this(Duration.milliseconds(0));
+  }
+
+  /**
+   * Constructor
+   *
+   * @param deletedIdHorizon How long to keep deleted IDs, so they are also applied to siblings
+   *     written concurrently with the deletion
+   */
+  public NotificationListResolver(final Duration deletedIdHorizon) {
+    this(deletedIdHorizon, Clock.systemUTC());
+  }
+
+  /**
+   * Constructor
+   *
+   * @param deletedIdHorizon How long to keep deleted IDs, so they are also applied to siblings
+   *     written concurrently with the deletion
+   * @param clock Clock
+   */
+  public NotificationListResolver(final Duration deletedIdHorizon, final Clock clock) {
+    this.deletedIdHorizon = Objects.requireNonNull(deletedIdHorizon, "deletedIdHorizon == null");
+    this.clock = Objects.requireNonNull(clock, "clock == null");
+
     final MetricRegistry registry = SharedMetricRegistries.getOrCreate("default");
     this.siblingCounts = registry.histogram(name(NotificationListResolver.class, "sibling-counts"));
+    this.deletedIdCounts =
+        registry.histogram(name(NotificationListResolver.class, "deleted-id-counts"));
   }
 
   @Override
@@ -49,40 +81,31 @@ public class NotificationListResolver implements ConflictResolver<NotificationLi
 
     LOGGER.debug("Found {} siblings", siblings.size());
     siblingCounts.update(siblings.size());
-    if (siblings.size() > 1) {
-
-      final Iterator<NotificationListObject> iterator = siblings.iterator();
-      final NotificationListObject resolved = iterator.next();
-      final Set<String> deletedIds = resolved.getDeletedIds();
-
-      // add all notifications
-      while (iterator.hasNext()) {
-        final NotificationListObject sibling = iterator.next();
-        resolved.addNotifications(sibling.getNotifications());
-        deletedIds.addAll(sibling.getDeletedIds());
-      }
-
-      // remove deleted notifications
-      if (!deletedIds.isEmpty()) {
-        LOGGER.debug("IDs to delete: {}", deletedIds);
-        removeNotifications(resolved.getNotifications(), deletedIds);
-      }
-
-      return resolved;
-    } else if (siblings.size() == 1) {
-
-      final NotificationListObject resolved = siblings.get(0);
-
-      // remove deleted notifications
-      if (!resolved.getDeletedIds().isEmpty()) {
-        LOGGER.debug("IDs to delete: {}", resolved.getDeletedIds());
-        removeNotifications(resolved.getNotifications(), resolved.getDeletedIds());
-      }
-
-      return resolved;
-    } else {
+    if (siblings.isEmpty()) {
       return null;
     }
+
+    final Iterator<NotificationListObject> iterator = siblings.iterator();
+    final NotificationListObject resolved = iterator.next();
+
+    // add all notifications
+    while (iterator.hasNext()) {
+      final NotificationListObject sibling = iterator.next();
+      resolved.addNotifications(sibling.getNotifications());
+      resolved.deleteNotifications(sibling);
+    }
+
+    // remove deleted notifications
+    final Set<String> deletedIds = resolved.getDeletedIds();
+    if (!deletedIds.isEmpty()) {
+      LOGGER.debug("IDs to delete: {}", deletedIds);
+      resolved.removeNotifications(
+          n -> !n.getId().isPresent() || deletedIds.contains(n.getId().get()));
+      resolved.compactDeletedIds(clock.millis() - deletedIdHorizon.toMilliseconds());
+    }
+    deletedIdCounts.update(deletedIds.size());
+
+    return resolved;
   }
 
   /**
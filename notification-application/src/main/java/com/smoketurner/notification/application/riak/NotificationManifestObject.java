@@ -0,0 +1,269 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.riak;
+
+import com.basho.riak.client.api.annotations.RiakBucketName;
+import com.basho.riak.client.api.annotations.RiakContentType;
+import com.basho.riak.client.api.annotations.RiakKey;
+import com.basho.riak.client.api.annotations.RiakLastModified;
+import com.basho.riak.client.api.annotations.RiakTombstone;
+import com.basho.riak.client.api.annotations.RiakVClock;
+import com.basho.riak.client.api.annotations.RiakVTag;
+import com.basho.riak.client.api.cap.VClock;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ComparisonChain;
+import com.google.common.collect.Ordering;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.annotation.Nullable;
+
+/**
+ * Index of the sealed notification segments belonging to a user, along with the IDs of any
+ * notifications which have been deleted from them. Segments are kept ordered from newest to oldest.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public final class NotificationManifestObject {
+
+  @RiakBucketName private final String bucketName = "notification-manifests";
+
+  @RiakKey @Nullable private String key;
+
+  @RiakVClock @Nullable private VClock vclock;
+
+  @RiakTombstone @Nullable private Boolean tombstone;
+
+  @RiakContentType @Nullable private String contentType;
+
+  @RiakLastModified @Nullable private Long lastModified;
+
+  @RiakVTag @Nullable private String vtag;
+
+  private final TreeSet<Segment> segments = new TreeSet<>();
+  private final TreeSet<String> deletedIds = new TreeSet<>();
+
+  /** Constructor */
+  public NotificationManifestObject() {
+    // needed to handle tombstones
+  }
+
+  /**
+   * Constructor
+   *
+   * @param key Manifest key
+   * @param segments Sealed segments
+   * @param deletedIds Deleted notification IDs
+   */
+  @JsonCreator
+  public NotificationManifestObject(
+      @JsonProperty("key") @Nullable final String key,
+      @JsonProperty("segments") @Nullable final Collection<Segment> segments,
+      @JsonProperty("deleted_ids") @Nullable final Collection<String> deletedIds) {
+    this.key = key;
+    if (segments != null) {
+      this.segments.addAll(segments);
+    }
+    if (deletedIds != null) {
+      this.deletedIds.addAll(deletedIds);
+    }
+  }
+
+  @Nullable
+  @JsonProperty
+  public String getKey() {
+    return key;
+  }
+
+  @JsonProperty
+  public Set<Segment> getSegments() {
+    return segments;
+  }
+
+  @JsonProperty("deleted_ids")
+  public Set<String> getDeletedIds() {
+    return deletedIds;
+  }
+
+  public void addSegments(final Collection<Segment> segments) {
+    this.segments.addAll(segments);
+  }
+
+  public void deleteNotifications(final Collection<String> ids) {
+    deletedIds.addAll(ids);
+  }
+
+  /**
+   * Drop the oldest segments which are no longer needed to hold the newest {@code maxNotifications}
+   * notifications, along with any deleted IDs older than the remaining segments.
+   *
+   * @param maxNotifications Maximum number of notifications to retain
+   * @return the segments which were dropped
+   */
+  public List<Segment> retain(final int maxNotifications) {
+    final List<Segment> dropped = new ArrayList<>();
+    int count = 0;
+    final Iterator<Segment> iterator = segments.iterator();
+    while (iterator.hasNext()) {
+      final Segment segment = iterator.next();
+      if (count >= maxNotifications) {
+        dropped.add(segment);
+        iterator.remove();
+      } else {
+        count += segment.getCount();
+      }
+    }
+
+    if (!dropped.isEmpty()) {
+      // IDs are time-ordered, so nothing older than the oldest remaining segment can be shown
+      deletedIds.headSet(segments.last().getOldestId()).clear();
+    }
+    return dropped;
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if ((obj == null) || (getClass() != obj.getClass())) {
+      return false;
+    }
+
+    final NotificationManifestObject other = (NotificationManifestObject) obj;
+    return Objects.equals(key, other.key)
+        && Objects.equals(segments, other.segments)
+        && Objects.equals(deletedIds, other.deletedIds);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(key, segments, deletedIds);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("key", key)
+        .add("segments", segments)
+        .add("deletedIds", deletedIds)
+        .toString();
+  }
+
+  /** A sealed, immutable run of notifications stored under its own key. */
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  public static final class Segment implements Comparable<Segment> {
+
+    private final String key;
+    private final String newestId;
+    private final String oldestId;
+    private final int count;
+    private final boolean legacy;
+
+    /**
+     * Constructor
+     *
+     * @param key Segment key
+     * @param newestId ID of the newest notification in the segment
+     * @param oldestId ID of the oldest notification in the segment
+     * @param count Number of notifications in the segment
+     * @param legacy Whether the segment is a user's original single-object notification list
+     */
+    @JsonCreator
+    public Segment(
+        @JsonProperty("key") final String key,
+        @JsonProperty("newest_id") final String newestId,
+        @JsonProperty("oldest_id") final String oldestId,
+        @JsonProperty("count") final int count,
+        @JsonProperty("legacy") final boolean legacy) {
+      this.key = Objects.requireNonNull(key, "key == null");
+      this.newestId = Objects.requireNonNull(newestId, "newestId == null");
+      this.oldestId = Objects.requireNonNull(oldestId, "oldestId == null");
+      this.count = count;
+      this.legacy = legacy;
+    }
+
+    @JsonProperty
+    public String getKey() {
+      return key;
+    }
+
+    @JsonProperty("newest_id")
+    public String getNewestId() {
+      return newestId;
+    }
+
+    @JsonProperty("oldest_id")
+    public String getOldestId() {
+      return oldestId;
+    }
+
+    @JsonProperty
+    public int getCount() {
+      return count;
+    }
+
+    @JsonProperty
+    public boolean isLegacy() {
+      return legacy;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if ((obj == null) || (getClass() != obj.getClass())) {
+        return false;
+      }
+
+      final Segment other = (Segment) obj;
+      return Objects.equals(key, other.key) && Objects.equals(newestId, other.newestId);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(key, newestId);
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("key", key)
+          .add("newestId", newestId)
+          .add("oldestId", oldestId)
+          .add("count", count)
+          .add("legacy", legacy)
+          .toString();
+    }
+
+    @Override
+    public int compareTo(final Segment that) {
+      return ComparisonChain.start()
+          .compare(this.newestId, that.newestId, Ordering.natural().reverse())
+          .compare(this.key, that.key)
+          .result();
+    }
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.riak;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import com.basho.riak.client.api.cap.ConflictResolver;
+import com.basho.riak.client.api.cap.UnresolvedConflictException;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SharedMetricRegistries;
+import java.util.Iterator;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class NotificationManifestResolver implements ConflictResolver<NotificationManifestObject> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(NotificationManifestResolver.class);
+  private final Histogram siblingCounts;
+
+  /** Constructor */
+  public NotificationManifestResolver() {
+    final MetricRegistry registry = SharedMetricRegistries.getOrCreate("default");
+    this.siblingCounts =
+        registry.histogram(name(NotificationManifestResolver.class, "sibling-counts"));
+  }
+
+  @Nullable
+  @Override
+  public NotificationManifestObject resolve(final List<NotificationManifestObject> siblings)
+      throws UnresolvedConflictException {
+    LOGGER.debug("Found {} siblings", siblings.size());
+    siblingCounts.update(siblings.size());
+    if (siblings.isEmpty()) {
+      return null;
+    }
+
+    // segments are immutable, so the union of every sibling's segments and deleted IDs is safe
+    final Iterator<NotificationManifestObject> iterator = siblings.iterator();
+    final NotificationManifestObject resolved = iterator.next();
+    while (iterator.hasNext()) {
+      final NotificationManifestObject sibling = iterator.next();
+      resolved.addSegments(sibling.getSegments());
+      resolved.deleteNotifications(sibling.getDeletedIds());
+    }
+    return resolved;
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.riak;
+
+import com.basho.riak.client.api.commands.kv.UpdateValue;
+import com.google.common.collect.ImmutableList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class NotificationManifestUpdate extends UpdateValue.Update<NotificationManifestObject> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(NotificationManifestUpdate.class);
+  private final String key;
+  private final Collection<NotificationManifestObject.Segment> segments;
+  private final Collection<String> deletedIds;
+  private final int maxNotifications;
+  private List<NotificationManifestObject.Segment> dropped = Collections.emptyList();
+
+  /**
+   * Constructor
+   *
+   * @param key Manifest key
+   * @param segments Segments to add
+   * @param deletedIds Notification IDs to delete
+   * @param maxNotifications Maximum number of notifications to retain
+   */
+  public NotificationManifestUpdate(
+      final String key,
+      final Collection<NotificationManifestObject.Segment> segments,
+      final Collection<String> deletedIds,
+      final int maxNotifications) {
+    this.key = Objects.requireNonNull(key, "key == null");
+    this.segments = Objects.requireNonNull(segments, "segments == null");
+    this.deletedIds = Objects.requireNonNull(deletedIds, "deletedIds == null");
+    this.maxNotifications = maxNotifications;
+  }
+
+  @Override
+  public NotificationManifestObject apply(@Nullable NotificationManifestObject original) {
+    if (original == null) {
+      LOGGER.debug("original is null, creating new manifest");
+      original = new NotificationManifestObject(key, null, null);
+    }
+    original.addSegments(segments);
+    original.deleteNotifications(deletedIds);
+    dropped = ImmutableList.copyOf(original.retain(maxNotifications));
+    return original;
+  }
+
+  /**
+   * Return the segments which were dropped from the manifest by the last update
+   *
+   * @return segments which are no longer referenced
+   */
+  public List<NotificationManifestObject.Segment> getDropped() {
+    return dropped;
+  }
+}
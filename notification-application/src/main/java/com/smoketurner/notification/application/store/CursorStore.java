@@ -35,7 +35,10 @@ import com.smoketurner.notification.application.riak.CursorUpdate;
 import io.dropwizard.util.Duration;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -144,6 +147,99 @@ public class CursorStore {
     return Optional.ofNullable(cursor).map(c -> c.getValue());
   }
 
+  /**
+   * Asynchronously fetch the cursor for a given user. Use {@link #await(RiakFuture)} to retrieve
+   * the cursor value once the fetch has been issued.
+   *
+   * @param username User to get the cursor for
+   * @param cursorName Name of the cursor to fetch
+   * @return the pending fetch operation
+   */
+  public RiakFuture<FetchValue.Response, Location> fetchAsync(
+      final String username, final String cursorName) {
+
+    Objects.requireNonNull(username, "username == null");
+    Preconditions.checkArgument(!username.isEmpty(), "username cannot be empty");
+    Objects.requireNonNull(cursorName, "cursorName == null");
+    Preconditions.checkArgument(!cursorName.isEmpty(), "cursorName cannot be empty");
+
+    final String key = getCursorKey(username, cursorName);
+    final Location location = new Location(NAMESPACE, key);
+
+    LOGGER.debug("Fetching key (async): {}", location);
+
+    final FetchValue fv = new FetchValue.Builder(location).withTimeout(timeout).build();
+    final Timer.Context context = fetchTimer.time();
+    final RiakFuture<FetchValue.Response, Location> future = client.executeAsync(fv);
+    future.addListener(f -> context.stop());
+    return future;
+  }
+
+  /**
+   * Wait for an asynchronous cursor fetch to complete
+   *
+   * @param future Fetch operation returned by {@link #fetchAsync(String, String)}
+   * @return the last seen notification ID
+   * @throws NotificationStoreException if unable to fetch the cursor
+   */
+  public Optional<String> await(final RiakFuture<FetchValue.Response, Location> future)
+      throws NotificationStoreException {
+
+    Objects.requireNonNull(future, "future == null");
+
+    final CursorObject cursor;
+    try {
+      final FetchValue.Response response =
+          future.get(requestTimeout.getQuantity(), requestTimeout.getUnit());
+      if (response.isNotFound()) {
+        return Optional.empty();
+      }
+      cursor = response.getValue(CursorObject.class);
+    } catch (UnresolvedConflictException e) {
+      LOGGER.error("Unable to resolve siblings for key: " + future.getQueryInfo(), e);
+      throw new NotificationStoreException(e);
+    } catch (ExecutionException e) {
+      LOGGER.error("Unable to fetch key: " + future.getQueryInfo(), e);
+      throw new NotificationStoreException(e);
+    } catch (TimeoutException e) {
+      LOGGER.error("Timed out fetching key: " + future.getQueryInfo(), e);
+      throw new NotificationStoreException(e);
+    } catch (InterruptedException e) {
+      LOGGER.warn("Interrupted fetching key: " + future.getQueryInfo(), e);
+      Thread.currentThread().interrupt();
+      throw new NotificationStoreException(e);
+    }
+
+    return Optional.ofNullable(cursor).map(c -> c.getValue());
+  }
+
+  /**
+   * Resolve an asynchronous cursor fetch without blocking the calling thread
+   *
+   * @param future Fetch operation returned by {@link #fetchAsync(String, String)}
+   * @return a future completed with the last seen notification ID
+   */
+  public CompletableFuture<Optional<String>> resolve(
+      final RiakFuture<FetchValue.Response, Location> future) {
+
+    Objects.requireNonNull(future, "future == null");
+
+    return RiakFutures.toCompletableFuture(future)
+        .thenApply(
+            response -> {
+              if (response.isNotFound()) {
+                return Optional.empty();
+              }
+              try {
+                return Optional.ofNullable(response.getValue(CursorObject.class))
+                    .map(c -> c.getValue());
+              } catch (UnresolvedConflictException e) {
+                LOGGER.error("Unable to resolve siblings for key: " + future.getQueryInfo(), e);
+                throw new CompletionException(new NotificationStoreException(e));
+              }
+            });
+  }
+
   /**
    * Asynchronously update a given cursor with the specified value.
    *
@@ -160,6 +256,37 @@ public class CursorStore {
     Objects.requireNonNull(cursorName, "cursorName == null");
     Preconditions.checkArgument(!cursorName.isEmpty(), "cursorName cannot be empty");
 
+    final RiakFuture<UpdateValue.Response, Location> future =
+        storeAsync(username, cursorName, value);
+    try {
+      future.await(requestTimeout.getQuantity(), requestTimeout.getUnit());
+      if (future.isSuccess()) {
+        LOGGER.debug("Successfully updated cursor: {}", future.getQueryInfo());
+      }
+    } catch (InterruptedException e) {
+      LOGGER.warn("Update request was interrupted", e);
+      Thread.currentThread().interrupt();
+      throw new NotificationStoreException(e);
+    }
+  }
+
+  /**
+   * Asynchronously update a given cursor with the specified value without waiting for the update to
+   * complete.
+   *
+   * @param username Username to update the cursor for
+   * @param cursorName Name of the cursor to store
+   * @param value Value to set
+   * @return the pending update operation
+   */
+  public RiakFuture<UpdateValue.Response, Location> storeAsync(
+      final String username, final String cursorName, final String value) {
+
+    Objects.requireNonNull(username, "username == null");
+    Preconditions.checkArgument(!username.isEmpty(), "username cannot be empty");
+    Objects.requireNonNull(cursorName, "cursorName == null");
+    Preconditions.checkArgument(!cursorName.isEmpty(), "cursorName cannot be empty");
+
     final String key = getCursorKey(username, cursorName);
     final CursorUpdate update = new CursorUpdate(key, value);
 
@@ -172,17 +299,10 @@ public class CursorStore {
             .build();
 
     LOGGER.debug("Updating cursor ({}) to value (async): {}", location, value);
-    try (Timer.Context context = storeTimer.time()) {
-      final RiakFuture<UpdateValue.Response, Location> future = client.executeAsync(updateValue);
-      future.await(requestTimeout.getQuantity(), requestTimeout.getUnit());
-      if (future.isSuccess()) {
-        LOGGER.debug("Successfully updated cursor: {}", location);
-      }
-    } catch (InterruptedException e) {
-      LOGGER.warn("Update request was interrupted", e);
-      Thread.currentThread().interrupt();
-      throw new NotificationStoreException(e);
-    }
+    final Timer.Context context = storeTimer.time();
+    final RiakFuture<UpdateValue.Response, Location> future = client.executeAsync(updateValue);
+    future.addListener(f -> context.stop());
+    return future;
   }
 
   /**
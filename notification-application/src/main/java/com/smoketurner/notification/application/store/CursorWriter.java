@@ -0,0 +1,267 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.store;
+
+import com.basho.riak.client.api.commands.kv.UpdateValue;
+import com.basho.riak.client.core.RiakFuture;
+import com.basho.riak.client.core.query.Location;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SharedMetricRegistries;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.dropwizard.util.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Write-behind buffer for cursor updates. Cursor advances are accepted from any request thread
+ * without blocking, coalesced so only the highest value per cursor is kept, and flushed to Riak
+ * asynchronously once {@code batchSize} cursors are pending or every {@code flushInterval}.
+ */
+public class CursorWriter {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CursorWriter.class);
+
+  private final CursorStore store;
+  private final int batchSize;
+  private final Duration flushInterval;
+  private final Duration requestTimeout;
+  private final ConcurrentMap<String, PendingCursor> pending = new ConcurrentHashMap<>();
+  // in-flight updates and the key of the cursor each one is writing
+  private final ConcurrentMap<RiakFuture<UpdateValue.Response, Location>, String> inFlight =
+      new ConcurrentHashMap<>();
+  // highest value being written to each cursor, until the update completes
+  private final ConcurrentMap<String, String> writing = new ConcurrentHashMap<>();
+  private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+  private final ScheduledExecutorService executor;
+
+  // metrics
+  private final Meter writes;
+  private final Meter coalesced;
+
+  /**
+   * Constructor
+   *
+   * @param store Cursor data store
+   * @param batchSize Number of pending cursors which triggers a flush
+   * @param flushInterval Maximum amount of time a cursor update stays pending
+   * @param requestTimeout Riak client-side timeout used when draining on shutdown
+   */
+  public CursorWriter(
+      final CursorStore store,
+      final int batchSize,
+      final Duration flushInterval,
+      final Duration requestTimeout) {
+
+    this.store = Objects.requireNonNull(store, "store == null");
+    Preconditions.checkArgument(batchSize > 0, "batchSize must be greater than zero");
+    this.batchSize = batchSize;
+    this.flushInterval = Objects.requireNonNull(flushInterval, "flushInterval == null");
+    this.requestTimeout = Objects.requireNonNull(requestTimeout, "requestTimeout == null");
+
+    this.executor =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("cursor-writer-%d").setDaemon(true).build());
+
+    final MetricRegistry registry = SharedMetricRegistries.getOrCreate("default");
+    this.writes = registry.meter(MetricRegistry.name(CursorWriter.class, "writes"));
+    this.coalesced = registry.meter(MetricRegistry.name(CursorWriter.class, "coalesced-writes"));
+    registry.gauge(
+        MetricRegistry.name(CursorWriter.class, "queue-depth"),
+        () -> (Gauge<Integer>) pending::size);
+  }
+
+  /** Start periodically flushing the pending cursor updates */
+  public void start() {
+    final long interval = flushInterval.toMilliseconds();
+    executor.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Stop accepting scheduled flushes, write out any pending cursor updates and wait for all
+   * in-flight updates to complete.
+   *
+   * @throws InterruptedException if interrupted while draining
+   */
+  public void stop() throws InterruptedException {
+    executor.shutdown();
+    executor.awaitTermination(requestTimeout.getQuantity(), requestTimeout.getUnit());
+
+    flush();
+
+    for (RiakFuture<UpdateValue.Response, Location> future : inFlight.keySet()) {
+      future.await(requestTimeout.getQuantity(), requestTimeout.getUnit());
+    }
+  }
+
+  /**
+   * Queue an update to a cursor. If an update for the same cursor is already pending, only the
+   * higher of the two values will be written.
+   *
+   * @param username Username to update the cursor for
+   * @param cursorName Name of the cursor to store
+   * @param value Value to set
+   */
+  public void advance(final String username, final String cursorName, final String value) {
+    Objects.requireNonNull(username, "username == null");
+    Preconditions.checkArgument(!username.isEmpty(), "username cannot be empty");
+    Objects.requireNonNull(cursorName, "cursorName == null");
+    Preconditions.checkArgument(!cursorName.isEmpty(), "cursorName cannot be empty");
+    Objects.requireNonNull(value, "value == null");
+
+    final String key = store.getCursorKey(username, cursorName);
+    pending.merge(
+        key,
+        new PendingCursor(username, cursorName, value),
+        (existing, update) -> {
+          coalesced.mark();
+          return existing.value.compareTo(update.value) >= 0 ? existing : update;
+        });
+
+    if (pending.size() >= batchSize
+        && !executor.isShutdown()
+        && flushScheduled.compareAndSet(false, true)) {
+      executor.execute(this::flush);
+    }
+  }
+
+  /**
+   * Return the value of a cursor which has been advanced but may not be stored in Riak yet, either
+   * because the update is still pending or because it is being written.
+   *
+   * @param username Username of the cursor
+   * @param cursorName Name of the cursor
+   * @return the highest unstored value of the cursor, or absent
+   */
+  public Optional<String> pending(final String username, final String cursorName) {
+    final String key = store.getCursorKey(username, cursorName);
+    final PendingCursor cursor = pending.get(key);
+    final String written = writing.get(key);
+    if (cursor == null) {
+      return Optional.ofNullable(written);
+    }
+    if (written == null || cursor.value.compareTo(written) >= 0) {
+      return Optional.of(cursor.value);
+    }
+    return Optional.of(written);
+  }
+
+  /**
+   * Discard any pending update to a cursor, such as when the cursor is being deleted, and wait for
+   * any update which is already being written so it can't land after the cursor is deleted.
+   *
+   * @param username Username of the cursor
+   * @param cursorName Name of the cursor
+   * @throws InterruptedException if interrupted while waiting for an in-flight update
+   */
+  public void discard(final String username, final String cursorName) throws InterruptedException {
+    final String key = store.getCursorKey(username, cursorName);
+    // flush() issues the update while holding the entry, so once it is removed any update
+    // for the cursor is already registered as in-flight
+    pending.remove(key);
+
+    for (Map.Entry<RiakFuture<UpdateValue.Response, Location>, String> entry :
+        inFlight.entrySet()) {
+      if (key.equals(entry.getValue())) {
+        entry.getKey().await(requestTimeout.getQuantity(), requestTimeout.getUnit());
+      }
+    }
+  }
+
+  /**
+   * Asynchronously write all of the pending cursor updates to Riak
+   *
+   * @return the issued update operations
+   */
+  public List<RiakFuture<UpdateValue.Response, Location>> flush() {
+    flushScheduled.set(false);
+
+    final List<RiakFuture<UpdateValue.Response, Location>> futures = new ArrayList<>();
+    for (String key : pending.keySet()) {
+      pending.computeIfPresent(
+          key,
+          (k, cursor) -> {
+            write(k, cursor).ifPresent(futures::add);
+            return null;
+          });
+    }
+    return futures;
+  }
+
+  /**
+   * Issue the update of a single cursor and track it until it completes
+   *
+   * @param key Cursor key
+   * @param cursor Cursor update
+   * @return the issued update operation, or absent if unable to issue it
+   */
+  private Optional<RiakFuture<UpdateValue.Response, Location>> write(
+      final String key, final PendingCursor cursor) {
+    try {
+      final RiakFuture<UpdateValue.Response, Location> future =
+          store.storeAsync(cursor.username, cursor.cursorName, cursor.value);
+      writes.mark();
+      writing.merge(key, cursor.value, (a, b) -> a.compareTo(b) >= 0 ? a : b);
+      inFlight.put(future, key);
+      future.addListener(
+          f -> {
+            inFlight.remove(f);
+            writing.remove(key, cursor.value);
+            if (!f.isSuccess()) {
+              LOGGER.warn("Unable to update cursor: " + f.getQueryInfo(), f.cause());
+            }
+          });
+      return Optional.of(future);
+    } catch (RuntimeException e) {
+      LOGGER.error("Unable to update cursor: " + key, e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Return the number of pending cursor updates
+   *
+   * @return number of pending cursor updates
+   */
+  public int size() {
+    return pending.size();
+  }
+
+  private static final class PendingCursor {
+    private final String username;
+    private final String cursorName;
+    private final String value;
+
+    PendingCursor(final String username, final String cursorName, final String value) {
+      this.username = username;
+      this.cursorName = cursorName;
+      this.value = value;
+    }
+  }
+}
@@ -25,31 +25,56 @@ import com.basho.riak.client.api.commands.kv.UpdateValue;
 import com.basho.riak.client.core.RiakFuture;
 import com.basho.riak.client.core.query.Location;
 import com.basho.riak.client.core.query.Namespace;
+import com.basho.riak.client.core.query.RiakObject;
+import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.SharedMetricRegistries;
 import com.codahale.metrics.Timer;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
-import com.google.common.collect.Iterables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+import com.smoketurner.notification.api.FanoutResult;
 import com.smoketurner.notification.api.Notification;
-import com.smoketurner.notification.api.Rule;
 import com.smoketurner.notification.application.core.IdGenerator;
+import com.smoketurner.notification.application.core.NotificationSet;
 import com.smoketurner.notification.application.core.Rollup;
+import com.smoketurner.notification.application.core.RollupState;
+import com.smoketurner.notification.application.core.RollupSummarizer;
+import com.smoketurner.notification.application.core.RulePlan;
 import com.smoketurner.notification.application.core.UserNotifications;
 import com.smoketurner.notification.application.exceptions.NotificationStoreException;
+import com.smoketurner.notification.application.riak.LazyNotificationList;
 import com.smoketurner.notification.application.riak.NotificationListAddition;
+import com.smoketurner.notification.application.riak.NotificationListConverter;
 import com.smoketurner.notification.application.riak.NotificationListDeletion;
 import com.smoketurner.notification.application.riak.NotificationListObject;
 import io.dropwizard.util.Duration;
 import java.time.Clock;
 import java.time.ZonedDateTime;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.SortedSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -65,20 +90,45 @@ public class NotificationStore {
 
   // Riak request timeout default is 60s
   private static final int DEFAULT_TIMEOUT_MS = 60000;
+  private static final NotificationListConverter LIST_CONVERTER = new NotificationListConverter();
+  private static final int CACHE_GENERATION_STRIPES = 1024;
 
   private final RiakClient client;
   private final IdGenerator idGenerator;
   private final CursorStore cursors;
+  private final CursorWriter cursorWriter;
   private final RuleStore ruleStore;
+  private final WriteCombiner<Notification> writeCombiner;
+  private final Executor readExecutor;
+  @Nullable private final SegmentedListStore segments;
+  private final boolean lazyDecode;
+  private final boolean rollupOnWrite;
+  private final Cache<String, List<Notification>> cache;
+  // generations of the cached lists, striped by username and bumped whenever a list is changed
+  private final AtomicLongArray cacheGenerations = new AtomicLongArray(CACHE_GENERATION_STRIPES);
+  // rollup states built for cached lists stored without them, kept for as long as the list is
+  // (the keys are weak, so they are compared by identity)
+  private final Cache<List<Notification>, RollupState> rollupStates =
+      CacheBuilder.newBuilder().weakKeys().build();
+  private final int fanoutMaxInFlight;
 
   // timeouts
   private final int timeout;
   private final Duration requestTimeout;
 
-  // timers
+  // metrics
   private final Timer fetchTimer;
   private final Timer updateTimer;
   private final Timer deleteTimer;
+  private final Timer fetchOverlapTimer;
+  private final Timer fanoutTimer;
+  private final Meter fanoutFailures;
+  private final Meter fanoutUnknown;
+  private final Meter cacheHits;
+  private final Meter cacheMisses;
+  private final Meter cacheEvictions;
+  private final Meter storedRollups;
+  private final Meter builtRollups;
 
   private Supplier<ZonedDateTime> currentTimeProvider = () -> ZonedDateTime.now(Clock.systemUTC());
 
@@ -88,37 +138,106 @@ public class NotificationStore {
    * @param client Riak client
    * @param idGenerator ID Generator
    * @param cursors Cursor data store
+   * @param cursorWriter Write-behind cursor updater
    * @param ruleStore Rule data store
+   * @param writeCombiner Combines concurrent additions to the same user
+   * @param readExecutor Executor which decodes and rolls up asynchronously fetched notifications,
+   *     so the work isn't done on the Riak client's I/O threads
    * @param timeout Riak server-side timeout
    * @param requestTimeout Riak client-side timeout
+   * @param cacheSize Maximum number of notifications to cache across all users
+   * @param cacheTimeout Maximum amount of time to cache a user's notifications
+   * @param fanoutMaxInFlight Maximum number of outstanding updates issued by each fan-out
+   * @param layout How each user's notifications are laid out in Riak
+   * @param lazyDecode Whether to decode notifications from Riak only as they are accessed
+   * @param rollupOnWrite Whether to store the rollups of a user's notifications with them, updating
+   *     the rollups as notifications are added instead of rolling them up on every read
    */
   public NotificationStore(
       final RiakClient client,
       final IdGenerator idGenerator,
       final CursorStore cursors,
+      final CursorWriter cursorWriter,
       final RuleStore ruleStore,
+      final WriteCombiner<Notification> writeCombiner,
+      final Executor readExecutor,
       final Duration timeout,
-      final Duration requestTimeout) {
+      final Duration requestTimeout,
+      final long cacheSize,
+      final Duration cacheTimeout,
+      final int fanoutMaxInFlight,
+      final StorageLayout layout,
+      final boolean lazyDecode,
+      final boolean rollupOnWrite) {
 
     final MetricRegistry registry = SharedMetricRegistries.getOrCreate("default");
     this.fetchTimer = registry.timer(MetricRegistry.name(NotificationStore.class, "fetch"));
     this.updateTimer = registry.timer(MetricRegistry.name(NotificationStore.class, "store"));
     this.deleteTimer = registry.timer(MetricRegistry.name(NotificationStore.class, "delete"));
+    this.fetchOverlapTimer =
+        registry.timer(MetricRegistry.name(NotificationStore.class, "fetch-overlap"));
+    this.fanoutTimer = registry.timer(MetricRegistry.name(NotificationStore.class, "fanout"));
+    this.fanoutFailures =
+        registry.meter(MetricRegistry.name(NotificationStore.class, "fanout-failures"));
+    this.fanoutUnknown =
+        registry.meter(MetricRegistry.name(NotificationStore.class, "fanout-unknown"));
+    this.cacheHits = registry.meter(MetricRegistry.name(NotificationStore.class, "cache-hits"));
+    this.cacheMisses = registry.meter(MetricRegistry.name(NotificationStore.class, "cache-misses"));
+    this.cacheEvictions =
+        registry.meter(MetricRegistry.name(NotificationStore.class, "cache-evictions"));
+    this.storedRollups =
+        registry.meter(MetricRegistry.name(NotificationStore.class, "stored-rollups"));
+    this.builtRollups =
+        registry.meter(MetricRegistry.name(NotificationStore.class, "built-rollups"));
 
     this.client = Objects.requireNonNull(client, "client == null");
     this.idGenerator = Objects.requireNonNull(idGenerator, "idGenerator == null");
     this.cursors = Objects.requireNonNull(cursors, "cursors == null");
+    this.cursorWriter = Objects.requireNonNull(cursorWriter, "cursorWriter == null");
     this.ruleStore = Objects.requireNonNull(ruleStore, "ruleStore == null");
+    this.writeCombiner = Objects.requireNonNull(writeCombiner, "writeCombiner == null");
+    this.readExecutor = Objects.requireNonNull(readExecutor, "readExecutor == null");
 
     this.timeout =
         Optional.ofNullable(timeout)
             .map(t -> Math.toIntExact(t.toMilliseconds()))
             .orElse(DEFAULT_TIMEOUT_MS);
     this.requestTimeout = Objects.requireNonNull(requestTimeout, "requestTimeout == null");
+
+    Preconditions.checkArgument(fanoutMaxInFlight > 0, "fanoutMaxInFlight must be positive");
+    this.fanoutMaxInFlight = fanoutMaxInFlight;
+
+    Objects.requireNonNull(layout, "layout == null");
+    if (layout == StorageLayout.SEGMENTED) {
+      this.segments = new SegmentedListStore(client, this.timeout, requestTimeout, cacheSize);
+    } else {
+      this.segments = null;
+    }
+    this.lazyDecode = lazyDecode;
+    this.rollupOnWrite = rollupOnWrite;
+
+    // set up a cache of the decoded notification lists, weighed by the number of notifications
+    Objects.requireNonNull(cacheTimeout, "cacheTimeout == null");
+    this.cache =
+        CacheBuilder.newBuilder()
+            .maximumWeight(cacheSize)
+            .weigher((String key, List<Notification> value) -> value.size() + 1)
+            .expireAfterWrite(cacheTimeout.getQuantity(), cacheTimeout.getUnit())
+            .removalListener(
+                (RemovalNotification<String, List<Notification>> notification) -> {
+                  if (notification.wasEvicted()) {
+                    cacheEvictions.mark();
+                  }
+                })
+            .build();
   }
 
   /** Internal method to set the allow_multi to true */
   public void initialize() {
+    if (segments != null) {
+      segments.initialize();
+    }
+
     final boolean allowMulti = true;
     LOGGER.debug("Setting allow_multi={} for namespace={}", allowMulti, NAMESPACE);
     final StoreBucketProperties storeBucketProperties =
@@ -145,22 +264,223 @@ public class NotificationStore {
    */
   public Optional<UserNotifications> fetch(final String username)
       throws NotificationStoreException {
+    return fetch(username, (notifications, cursor) -> splitStored(username, notifications, cursor));
+  }
+
+  /**
+   * Fetch a single page of notifications for a given user. Only the notifications needed to fill
+   * the page are rolled up, see {@link #splitPage(String, List, Optional, Optional, int)}.
+   *
+   * @param username User to fetch notifications for
+   * @param fromId Notification ID the page starts from, or absent for the first page
+   * @param limit Number of notifications in the page
+   * @return Optional list of notifications or absent
+   * @throws NotificationStoreException if unable to fetch the notifications
+   */
+  public Optional<UserNotifications> fetch(
+      final String username, final Optional<String> fromId, final int limit)
+      throws NotificationStoreException {
+    return fetch(
+        username,
+        (notifications, cursor) -> splitPage(username, notifications, cursor, fromId, limit));
+  }
+
+  private Optional<UserNotifications> fetch(
+      final String username, final NotificationSplitter splitter)
+      throws NotificationStoreException {
+
+    Objects.requireNonNull(username, "username == null");
+    Preconditions.checkArgument(!username.isEmpty(), "username cannot be empty");
+
+    // The cursor key only depends on the username, so issue the cursor fetch up front and let it
+    // run concurrently with fetching the notification list.
+    final long startNanos = System.nanoTime();
+    final AtomicLong cursorNanos = new AtomicLong();
+    final Optional<String> unstoredCursor = cursorWriter.pending(username, CURSOR_NAME);
+    final RiakFuture<FetchValue.Response, Location> cursorFuture =
+        cursors.fetchAsync(username, CURSOR_NAME);
+    cursorFuture.addListener(f -> cursorNanos.set(System.nanoTime()));
+
+    final List<Notification> notifications;
+    final List<Notification> cached = cache.getIfPresent(username);
+    if (cached != null) {
+      LOGGER.debug("Found {} cached notifications for user: {}", cached.size(), username);
+      cacheHits.mark();
+      notifications = cached;
+    } else {
+      cacheMisses.mark();
+      final long generation = cacheGeneration(username);
+      final Optional<List<Notification>> list = fetchList(username);
+      if (!list.isPresent()) {
+        return Optional.empty();
+      }
+      notifications = list.get();
+      cachePut(username, generation, notifications);
+    }
+    final long listNanos = System.nanoTime();
+
+    if (notifications.isEmpty()) {
+      return Optional.of(new UserNotifications());
+    }
+
+    final Optional<String> cursor =
+        resolveCursor(username, unstoredCursor, cursors.await(cursorFuture));
+
+    // record how long both fetches were in flight at the same time, which is the latency saved
+    // over fetching them one after the other.
+    final long cursorDoneNanos = cursorNanos.get() > 0 ? cursorNanos.get() : System.nanoTime();
+    fetchOverlapTimer.update(
+        Math.min(listNanos, cursorDoneNanos) - startNanos, TimeUnit.NANOSECONDS);
+
+    return Optional.of(summarize(splitter.split(notifications, cursor)));
+  }
+
+  /**
+   * Fetch a list of notifications for a given user without blocking the calling thread. The cursor
+   * and notification list are fetched concurrently and the rollup is performed on the store's read
+   * executor once both requests complete.
+   *
+   * @param username User to fetch notifications for
+   * @return a future completed with the optional list of notifications
+   */
+  public CompletableFuture<Optional<UserNotifications>> fetchAsync(final String username) {
+    return fetchAsync(
+        username, (notifications, cursor) -> splitStored(username, notifications, cursor));
+  }
+
+  /**
+   * Fetch a single page of notifications for a given user without blocking the calling thread.
+   *
+   * @param username User to fetch notifications for
+   * @param fromId Notification ID the page starts from, or absent for the first page
+   * @param limit Number of notifications in the page
+   * @return a future completed with the optional list of notifications
+   */
+  public CompletableFuture<Optional<UserNotifications>> fetchAsync(
+      final String username, final Optional<String> fromId, final int limit) {
+    return fetchAsync(
+        username,
+        (notifications, cursor) -> splitPage(username, notifications, cursor, fromId, limit));
+  }
+
+  private CompletableFuture<Optional<UserNotifications>> fetchAsync(
+      final String username, final NotificationSplitter splitter) {
 
     Objects.requireNonNull(username, "username == null");
     Preconditions.checkArgument(!username.isEmpty(), "username cannot be empty");
 
+    final Optional<String> unstoredCursor = cursorWriter.pending(username, CURSOR_NAME);
+    final CompletableFuture<Optional<String>> cursorFuture =
+        cursors
+            .resolve(cursors.fetchAsync(username, CURSOR_NAME))
+            .thenApply(cursor -> resolveCursor(username, unstoredCursor, cursor));
+
+    final CompletableFuture<Optional<List<Notification>>> listFuture;
+    final List<Notification> cached = cache.getIfPresent(username);
+    if (cached != null) {
+      LOGGER.debug("Found {} cached notifications for user: {}", cached.size(), username);
+      cacheHits.mark();
+      listFuture = CompletableFuture.completedFuture(Optional.of(cached));
+    } else {
+      cacheMisses.mark();
+      listFuture = fetchListAsync(username);
+    }
+
+    return listFuture
+        .thenCompose(
+            list -> {
+              if (!list.isPresent()) {
+                return CompletableFuture.completedFuture(Optional.<UserNotifications>empty());
+              }
+              if (list.get().isEmpty()) {
+                return CompletableFuture.completedFuture(Optional.of(new UserNotifications()));
+              }
+              return cursorFuture.thenApplyAsync(
+                  cursor -> {
+                    try {
+                      return Optional.of(summarize(splitter.split(list.get(), cursor)));
+                    } catch (NotificationStoreException e) {
+                      throw new CompletionException(e);
+                    }
+                  },
+                  readExecutor);
+            })
+        .orTimeout(requestTimeout.getQuantity(), requestTimeout.getUnit());
+  }
+
+  /**
+   * Fetch the list of notifications for a given user from Riak without blocking the calling thread,
+   * caching the result.
+   *
+   * @param username User to fetch notifications for
+   * @return a future completed with the optional list of notifications
+   */
+  private CompletableFuture<Optional<List<Notification>>> fetchListAsync(final String username) {
+
+    final long generation = cacheGeneration(username);
+
+    if (segments != null) {
+      final Timer.Context context = fetchTimer.time();
+      return segments
+          .fetchAsync(username)
+          .whenComplete((list, e) -> context.stop())
+          .thenApply(
+              list -> {
+                final Optional<List<Notification>> notifications =
+                    list.map(ImmutableSortedSet::asList);
+                notifications.ifPresent(n -> cachePut(username, generation, n));
+                return notifications;
+              });
+    }
+
+    final Location location = new Location(NAMESPACE, username);
+
+    LOGGER.debug("Fetching key (async): {}", location);
+
+    final FetchValue fv = new FetchValue.Builder(location).withTimeout(timeout).build();
+    final Timer.Context context = fetchTimer.time();
+    final RiakFuture<FetchValue.Response, Location> future = client.executeAsync(fv);
+    future.addListener(f -> context.stop());
+
+    return RiakFutures.toCompletableFuture(future)
+        .thenApplyAsync(
+            response -> {
+              final Optional<List<Notification>> list;
+              try {
+                list = decodeList(response);
+              } catch (UnresolvedConflictException e) {
+                LOGGER.error("Unable to resolve siblings for key: " + location, e);
+                throw new CompletionException(new NotificationStoreException(e));
+              }
+              list.ifPresent(notifications -> cachePut(username, generation, notifications));
+              return list;
+            },
+            readExecutor);
+  }
+
+  /**
+   * Fetch the list of notifications for a given user from Riak
+   *
+   * @param username User to fetch notifications for
+   * @return Optional list of notifications or absent
+   * @throws NotificationStoreException if unable to fetch the notifications
+   */
+  private Optional<List<Notification>> fetchList(final String username)
+      throws NotificationStoreException {
+
+    if (segments != null) {
+      try (Timer.Context context = fetchTimer.time()) {
+        return segments.await(segments.fetchAsync(username)).map(ImmutableSortedSet::asList);
+      }
+    }
+
     final Location location = new Location(NAMESPACE, username);
 
     LOGGER.debug("Fetching key (sync): {}", location);
 
-    final NotificationListObject list;
     final FetchValue fv = new FetchValue.Builder(location).withTimeout(timeout).build();
     try (Timer.Context context = fetchTimer.time()) {
-      final FetchValue.Response response = client.execute(fv);
-      if (response.isNotFound()) {
-        return Optional.empty();
-      }
-      list = response.getValue(NotificationListObject.class);
+      return decodeList(client.execute(fv));
     } catch (UnresolvedConflictException e) {
       LOGGER.error("Unable to resolve siblings for key: " + location, e);
       throw new NotificationStoreException(e);
@@ -172,12 +492,166 @@ public class NotificationStore {
       Thread.currentThread().interrupt();
       throw new NotificationStoreException(e);
     }
+  }
 
+  /**
+   * Resolve the cursor fetched from Riak against any update to it which hasn't been stored yet,
+   * either before the fetch was issued or since, so a cursor which is still being written doesn't
+   * mark notifications as unseen again.
+   *
+   * @param username User the cursor belongs to
+   * @param before Unstored cursor value from before the fetch was issued
+   * @param stored Cursor value fetched from Riak
+   * @return the newest cursor value
+   */
+  private Optional<String> resolveCursor(
+      final String username, final Optional<String> before, final Optional<String> stored) {
+    return Stream.of(before, stored, cursorWriter.pending(username, CURSOR_NAME))
+        .filter(Optional::isPresent)
+        .map(Optional::get)
+        .max(Comparator.naturalOrder());
+  }
+
+  /**
+   * Return the current cache generation of a user's list, which must be read before the list is
+   * fetched and passed to {@link #cachePut(String, long, List)}.
+   *
+   * @param username User to get the generation of
+   * @return the cache generation
+   */
+  private long cacheGeneration(final String username) {
+    return cacheGenerations.get(cacheStripe(username));
+  }
+
+  /**
+   * Cache a user's list of notifications, unless the list has been changed since the fetch started.
+   * Otherwise a fetch racing a store could cache the list from before the store after the store
+   * invalidated it.
+   *
+   * @param username User the notifications belong to
+   * @param generation Cache generation read before the list was fetched
+   * @param notifications Notifications to cache
+   */
+  private void cachePut(
+      final String username, final long generation, final List<Notification> notifications) {
+    final int stripe = cacheStripe(username);
+    if (cacheGenerations.get(stripe) != generation) {
+      return;
+    }
+    cache.put(username, notifications);
+    // the list may have been invalidated between checking the generation and the put
+    if (cacheGenerations.get(stripe) != generation) {
+      cache.invalidate(username);
+    }
+  }
+
+  /**
+   * Invalidate a user's cached list of notifications after the list has been changed
+   *
+   * @param username User to invalidate
+   */
+  private void invalidate(final String username) {
+    cacheGenerations.incrementAndGet(cacheStripe(username));
+    cache.invalidate(username);
+  }
+
+  private static int cacheStripe(final String username) {
+    return Math.floorMod(username.hashCode(), CACHE_GENERATION_STRIPES);
+  }
+
+  /**
+   * Decode the list of notifications from a Riak response. If lazy decoding is enabled and there
+   * are no siblings to resolve, the notifications are only decoded as they are accessed.
+   *
+   * @param response Fetch response
+   * @return Optional list of notifications, ordered from newest to oldest, or absent
+   * @throws UnresolvedConflictException if unable to resolve the siblings
+   */
+  private Optional<List<Notification>> decodeList(final FetchValue.Response response)
+      throws UnresolvedConflictException {
+
+    if (response.isNotFound()) {
+      return Optional.empty();
+    }
+
+    if (lazyDecode && response.getNumberOfValues() == 1) {
+      final RiakObject object = response.getValues().get(0);
+      if (object.isDeleted()) {
+        return Optional.of(Collections.emptyList());
+      }
+      return Optional.of(LIST_CONVERTER.toLazyDomain(object.getValue(), object.getContentType()));
+    }
+
+    final NotificationListObject list = response.getValue(NotificationListObject.class);
     if (list == null) {
       return Optional.empty();
     }
 
-    return Optional.of(splitNotifications(username, list.getNotifications()));
+    return Optional.of(ImmutableList.copyOf(list.getNotifications()));
+  }
+
+  /**
+   * Sets the unseen state on all of the stored notifications based on a previously fetched cursor,
+   * using the stored rollups of the notifications if they were rolled up by the current rules.
+   *
+   * @param username Username of the notifications
+   * @param notifications Stored notifications, ordered from newest to oldest
+   * @param cursor Last seen notification ID
+   * @return the seen and unseen notifications
+   * @throws NotificationStoreException if unable to update the cursor
+   */
+  private UserNotifications splitStored(
+      final String username, final List<Notification> notifications, final Optional<String> cursor)
+      throws NotificationStoreException {
+
+    final RulePlan rules = ruleStore.fetchPlan();
+    final Optional<RollupState> state = getRollupState(notifications, rules);
+    if (!state.isPresent()) {
+      return splitNotifications(username, ImmutableSortedSet.copyOf(notifications), cursor);
+    }
+
+    advanceCursor(username, notifications.get(0).getId(""), cursor);
+
+    final int split = getUnseenCount(notifications, cursor);
+    final RollupState rollups = state.get().split(notifications, split, rules);
+    return new UserNotifications(
+        rollups.rollups(notifications, 0, split, Integer.MAX_VALUE, true),
+        rollups.rollups(notifications, split, notifications.size(), Integer.MAX_VALUE, false));
+  }
+
+  /**
+   * Return the rollup state stored with a list of notifications
+   *
+   * @param notifications Stored notifications
+   * @param rules Current rollup rules
+   * @return the rollup state, or absent if the list has no rollup state or it was rolled up by
+   *     different rules
+   */
+  private Optional<RollupState> getRollupState(
+      final List<Notification> notifications, final RulePlan rules) {
+    if (!(notifications instanceof LazyNotificationList)) {
+      return Optional.empty();
+    }
+    final Optional<RollupState> state =
+        ((LazyNotificationList) notifications)
+            .getRollupState()
+            .filter(s -> s.size() == notifications.size() && s.isCurrent(rules));
+    state.ifPresent(s -> storedRollups.mark());
+    return state;
+  }
+
+  /**
+   * Return the number of unseen notifications, which are those newer than the last seen
+   * notification. If the last seen notification is not found, all of the notifications are unseen.
+   *
+   * @param notifications Stored notifications, ordered from newest to oldest
+   * @param cursor Last seen notification ID
+   * @return the number of unseen notifications
+   */
+  private static int getUnseenCount(
+      final List<Notification> notifications, final Optional<String> cursor) {
+    final int lastSeen = cursor.map(id -> binarySearch(notifications, id)).orElse(-1);
+    return lastSeen >= 0 ? lastSeen : notifications.size();
   }
 
   /**
@@ -200,56 +674,280 @@ public class NotificationStore {
       return new UserNotifications();
     }
 
+    return splitNotifications(username, notifications, cursors.fetch(username, CURSOR_NAME));
+  }
+
+  /**
+   * Sets the unseen state on all of the notifications based on a previously fetched cursor.
+   *
+   * @param username Username of the notifications
+   * @param notifications Original notifications list
+   * @param cursor Last seen notification ID
+   * @return the seen and unseen notifications
+   * @throws NotificationStoreException if unable to update the cursor
+   */
+  public UserNotifications splitNotifications(
+      final String username,
+      @Nullable final SortedSet<Notification> notifications,
+      final Optional<String> cursor)
+      throws NotificationStoreException {
+
+    Objects.requireNonNull(username, "username == null");
+    Preconditions.checkArgument(!username.isEmpty(), "username cannot be empty");
+    Objects.requireNonNull(cursor, "cursor == null");
+
+    // if there are no notifications, just return
+    if (notifications == null || notifications.isEmpty()) {
+      return new UserNotifications();
+    }
+
     // get the ID of the most recent notification (this should never be
     // zero)
     final String newestId = notifications.first().getId("");
     LOGGER.debug("User ({}) newest notification ID: {}", username, newestId);
 
     // fetch rules from cache
-    final Map<String, Rule> rules = ruleStore.fetchCached();
-    LOGGER.debug("Fetched {} rules from cache", rules.size());
+    final RulePlan rules = ruleStore.fetchPlan();
+    LOGGER.debug("Fetched {} rules from cache", rules.getRules().size());
 
     final Rollup unseenRollup = new Rollup(rules);
 
-    final Optional<String> cursor = cursors.fetch(username, CURSOR_NAME);
-    if (!cursor.isPresent()) {
-      // if the user has no cursor, update the cursor to the newest
-      // notification
-      LOGGER.debug("User ({}) has no cursor, setting to {}", username, newestId);
-      cursors.store(username, CURSOR_NAME, newestId);
+    advanceCursor(username, newestId, cursor);
 
+    // the notifications are rolled up as they are stored, and their unseen state is only set as
+    // they are read from the UserNotifications
+    if (!cursor.isPresent()) {
       // set all of the notifications to unseen=true
-      return new UserNotifications(unseenRollup.rollup(setUnseenState(notifications, true)));
+      return UserNotifications.markOnRead(
+          unseenRollup.rollup(notifications.stream()), Stream.empty());
     }
 
     final String lastSeenId = cursor.orElse("");
-    LOGGER.debug("User ({}) last seen notification ID: {}", username, lastSeenId);
 
-    // if the latest seen notification ID is less than the newest notification ID, then update the
-    // cursor to the newest notification ID.
-    if (lastSeenId.compareTo(newestId) < 0) {
-      LOGGER.debug("User ({}) updating cursor to {}", username, newestId);
-      cursors.store(username, CURSOR_NAME, newestId);
-    }
-
-    // get the parent ID of the last seen notification ID
-    final Optional<Notification> lastNotification = tryFind(notifications, lastSeenId);
-    if (!lastNotification.isPresent()) {
+    // notifications are ordered by ID alone and aren't rolled up yet, so the last seen
+    // notification is found directly
+    final Notification lastNotification = Notification.create(lastSeenId);
+    if (lastSeenId.isEmpty() || !notifications.contains(lastNotification)) {
       // if the last notification is not found, set all of the notifications as unseen
-      return new UserNotifications(unseenRollup.rollup(setUnseenState(notifications, true)));
+      return UserNotifications.markOnRead(
+          unseenRollup.rollup(notifications.stream()), Stream.empty());
     }
 
-    // Set the head of the list as being unseen
-    final Stream<Notification> unseen =
-        setUnseenState(notifications.headSet(lastNotification.get()), true);
+    // The head of the list is unseen
+    final Stream<Notification> unseen = notifications.headSet(lastNotification).stream();
 
-    // Set the tail of the list as being seen
-    final Stream<Notification> seen =
-        setUnseenState(notifications.tailSet(lastNotification.get()), false);
+    // The tail of the list is seen
+    final Stream<Notification> seen = notifications.tailSet(lastNotification).stream();
 
     final Rollup seenRollup = new Rollup(rules);
 
-    return new UserNotifications(unseenRollup.rollup(unseen), seenRollup.rollup(seen));
+    return UserNotifications.markOnRead(unseenRollup.rollup(unseen), seenRollup.rollup(seen));
+  }
+
+  /**
+   * Sets the unseen state on a single page of notifications based on a previously fetched cursor.
+   *
+   * <p>Rollups are never stored nested, so every notification ID, whether the notification starts a
+   * rollup or is rolled up into one, is found with a binary search over the stored notifications,
+   * and the rollup state maps its position to the rollup it is in. A page starting from an ID
+   * starts from that rollup. Lists stored without current rollups have their rollup state built the
+   * first time a page is read from an ID, which is then kept for as long as the list is cached. The
+   * first page of such a list is rolled up lazily instead, stopping once the page holds one more
+   * rollup than it needs and every one of them is complete.
+   *
+   * @param username Username of the notifications
+   * @param notifications Original notifications, ordered from newest to oldest
+   * @param cursor Last seen notification ID
+   * @param fromId Notification ID the page starts from, or absent for the first page
+   * @param limit Number of notifications in the page
+   * @return the seen and unseen notifications from the start of the page onwards
+   * @throws NotificationStoreException if unable to update the cursor
+   */
+  public UserNotifications splitPage(
+      final String username,
+      final List<Notification> notifications,
+      final Optional<String> cursor,
+      final Optional<String> fromId,
+      final int limit)
+      throws NotificationStoreException {
+
+    Objects.requireNonNull(username, "username == null");
+    Preconditions.checkArgument(!username.isEmpty(), "username cannot be empty");
+    Objects.requireNonNull(notifications, "notifications == null");
+    Objects.requireNonNull(cursor, "cursor == null");
+    Objects.requireNonNull(fromId, "fromId == null");
+    Preconditions.checkArgument(limit > 0, "limit must be greater than zero");
+
+    // if there are no notifications, just return
+    if (notifications.isEmpty()) {
+      return new UserNotifications();
+    }
+
+    advanceCursor(username, notifications.get(0).getId(""), cursor);
+
+    final RulePlan rules = ruleStore.fetchPlan();
+
+    // stored notifications are never rolled up, so the last seen notification can be found directly
+    final int lastSeen = cursor.map(id -> binarySearch(notifications, id)).orElse(-1);
+    final int split = lastSeen >= 0 ? lastSeen : notifications.size();
+
+    final Optional<RollupState> state = getRollupState(notifications, rules);
+    final UserNotifications page;
+    if (state.isPresent() || fromId.isPresent()) {
+      int from = -1;
+      if (fromId.isPresent()) {
+        final int index = binarySearch(notifications, fromId.get());
+        // if the ID is not found, start from the next newer notification
+        from = index >= 0 ? index : -(index + 1) - 1;
+      }
+
+      final RollupState rollups = state.orElseGet(() -> buildRollupState(notifications, rules));
+      page =
+          splitPage(notifications, rollups.split(notifications, split, rules), split, from, limit);
+    } else {
+      page = firstPage(notifications, rules, split, limit);
+    }
+
+    // the page may not include the newest notification, which sets the Last-Modified header
+    return page.withNewest(notifications.get(0));
+  }
+
+  /**
+   * Return the first page of notifications which don't have their rollups stored, rolling up only
+   * as many notifications as the page needs
+   *
+   * @param notifications Stored notifications, ordered from newest to oldest
+   * @param rules Rollup rules
+   * @param split Number of unseen notifications
+   * @param limit Number of notifications in the page
+   * @return the seen and unseen notifications of the first page
+   */
+  private static UserNotifications firstPage(
+      final List<Notification> notifications,
+      final RulePlan rules,
+      final int split,
+      final int limit) {
+
+    // notifications newer than the last seen notification are unseen, and the rollups are
+    // returned one at a time, so only as many notifications as the page needs are rolled up
+    final Iterator<Notification> unseenRollups =
+        new Rollup(rules).iterator(notifications.subList(0, split).iterator());
+    final Iterator<Notification> seenRollups =
+        new Rollup(rules).iterator(notifications.subList(split, notifications.size()).iterator());
+
+    // one more than the page is needed to tell whether there is a next page
+    final NotificationSet unseen = new NotificationSet();
+    final NotificationSet seen = new NotificationSet();
+    while (unseen.size() + seen.size() < limit + 2) {
+      if (unseenRollups.hasNext()) {
+        unseen.add(unseenRollups.next());
+      } else if (seenRollups.hasNext()) {
+        seen.add(seenRollups.next());
+      } else {
+        break;
+      }
+    }
+    return UserNotifications.markOnRead(unseen, seen);
+  }
+
+  /**
+   * Return the rollup state of a list stored without current rollups, building it the first time it
+   * is needed for the list
+   *
+   * @param notifications Stored notifications, ordered from newest to oldest
+   * @param rules Current rollup rules
+   * @return the rollup state
+   */
+  private RollupState buildRollupState(
+      final List<Notification> notifications, final RulePlan rules) {
+    final RollupState state = rollupStates.getIfPresent(notifications);
+    if (state != null && state.isCurrent(rules)) {
+      return state;
+    }
+    final RollupState built = RollupState.create(notifications, rules);
+    rollupStates.put(notifications, built);
+    builtRollups.mark();
+    return built;
+  }
+
+  /**
+   * Return a single page of notifications from their stored rollups, which only decodes the
+   * notifications in the page.
+   *
+   * @param notifications Stored notifications, ordered from newest to oldest
+   * @param rollups Rollup state split between the unseen and seen notifications
+   * @param split Number of unseen notifications
+   * @param from Position of the notification the page starts from, or -1 for the first page
+   * @param limit Number of notifications in the page
+   * @return the seen and unseen notifications from the start of the page onwards
+   */
+  private static UserNotifications splitPage(
+      final List<Notification> notifications,
+      final RollupState rollups,
+      final int split,
+      final int from,
+      final int limit) {
+
+    // the page starts from the rollup the from notification is in
+    final int start = from >= 0 ? rollups.rollupStart(from) : 0;
+
+    // the page may start after its first rollup, and one more than the page is needed to tell
+    // whether there is a next page
+    final int count = limit + 2;
+    final NotificationSet unseen =
+        start < split
+            ? rollups.rollups(notifications, start, split, count, true)
+            : new NotificationSet();
+    final NotificationSet seen =
+        rollups.rollups(
+            notifications,
+            Math.max(start, split),
+            notifications.size(),
+            count - unseen.size(),
+            false);
+    return new UserNotifications(unseen, seen);
+  }
+
+  /**
+   * Find the position of a notification in a list of stored notifications
+   *
+   * @param notifications Notifications ordered from newest to oldest
+   * @param id Notification ID to find
+   * @return the position of the notification, or {@code -(insertion point) - 1} if not found
+   */
+  private static int binarySearch(final List<Notification> notifications, final String id) {
+    if (notifications instanceof LazyNotificationList) {
+      // avoid decoding the notifications being compared against
+      return ((LazyNotificationList) notifications).binarySearch(id);
+    }
+    return Collections.binarySearch(notifications, Notification.create(id));
+  }
+
+  /**
+   * Update the user's cursor to the newest notification if they have not already seen it
+   *
+   * @param username Username of the notifications
+   * @param newestId ID of the newest notification
+   * @param cursor Last seen notification ID
+   */
+  private void advanceCursor(
+      final String username, final String newestId, final Optional<String> cursor) {
+    if (!cursor.isPresent()) {
+      // if the user has no cursor, update the cursor to the newest notification
+      LOGGER.debug("User ({}) has no cursor, setting to {}", username, newestId);
+      cursorWriter.advance(username, CURSOR_NAME, newestId);
+      return;
+    }
+
+    final String lastSeenId = cursor.get();
+    LOGGER.debug("User ({}) last seen notification ID: {}", username, lastSeenId);
+
+    // if the latest seen notification ID is less than the newest notification ID, then update the
+    // cursor to the newest notification ID.
+    if (lastSeenId.compareTo(newestId) < 0) {
+      LOGGER.debug("User ({}) updating cursor to {}", username, newestId);
+      cursorWriter.advance(username, CURSOR_NAME, newestId);
+    }
   }
 
   /**
@@ -263,25 +961,64 @@ public class NotificationStore {
   public Notification store(final String username, final Notification notification)
       throws NotificationStoreException {
 
+    Objects.requireNonNull(notification, "notification == null");
+    return storeAll(username, Collections.singletonList(notification)).get(0);
+  }
+
+  /**
+   * Store multiple new notifications for a user in a single update
+   *
+   * @param username User to store the notifications
+   * @param notifications Notifications to store
+   * @return the stored notifications
+   * @throws NotificationStoreException if unable to store the notifications
+   */
+  public List<Notification> storeAll(
+      final String username, final Collection<Notification> notifications)
+      throws NotificationStoreException {
+
     Objects.requireNonNull(username, "username == null");
     Preconditions.checkArgument(!username.isEmpty(), "username cannot be empty");
-    Objects.requireNonNull(notification, "notification == null");
+    Objects.requireNonNull(notifications, "notifications == null");
+    Preconditions.checkArgument(!notifications.isEmpty(), "notifications cannot be empty");
+
+    final ZonedDateTime now = currentTimeProvider.get();
+    final ImmutableList.Builder<Notification> builder = ImmutableList.builder();
+    for (Notification notification : notifications) {
+      builder.add(
+          Notification.builder(notification)
+              .withId(idGenerator.nextId())
+              .withCreatedAt(now)
+              .build());
+    }
+    final List<Notification> updatedNotifications = builder.build();
 
-    final Notification updatedNotification =
-        Notification.builder(notification)
-            .withId(idGenerator.nextId())
-            .withCreatedAt(currentTimeProvider.get())
-            .build();
+    // concurrent additions for the same user may be written together in a single update
+    writeCombiner.write(username, updatedNotifications, this::addNotifications);
+    return updatedNotifications;
+  }
 
-    final NotificationListAddition update = new NotificationListAddition(updatedNotification);
+  /**
+   * Add notifications to a user's list with a single update
+   *
+   * @param username User to add the notifications to
+   * @param notifications Notifications to add
+   * @throws NotificationStoreException if unable to store the notifications
+   */
+  private void addNotifications(final String username, final List<Notification> notifications)
+      throws NotificationStoreException {
+
+    if (segments != null) {
+      try (Timer.Context context = updateTimer.time()) {
+        segments.await(segments.addAsync(username, notifications));
+      } finally {
+        invalidate(username);
+      }
+      return;
+    }
 
     final Location location = new Location(NAMESPACE, username);
-    final UpdateValue updateValue =
-        new UpdateValue.Builder(location)
-            .withUpdate(update)
-            .withStoreOption(StoreValue.Option.RETURN_BODY, false)
-            .withTimeout(timeout)
-            .build();
+    final UpdateValue updateValue = newAdditionUpdate(location, notifications);
 
     LOGGER.debug("Updating key (sync): {}", location);
 
@@ -294,8 +1031,169 @@ public class NotificationStore {
       LOGGER.warn("Update request was interrupted", e);
       Thread.currentThread().interrupt();
       throw new NotificationStoreException(e);
+    } finally {
+      invalidate(username);
     }
-    return updatedNotification;
+  }
+
+  /**
+   * Add notifications to a user's list with a single update without blocking the calling thread.
+   * The update bypasses the write combiner, which blocks each caller until its batch is written.
+   *
+   * @param username User to add the notifications to
+   * @param notifications Notifications to add
+   * @return a future completed once the notifications are stored
+   */
+  private CompletableFuture<Void> addNotificationsAsync(
+      final String username, final List<Notification> notifications) {
+
+    final Timer.Context context = updateTimer.time();
+    if (segments != null) {
+      return segments
+          .addAsync(username, notifications)
+          .whenComplete(
+              (v, e) -> {
+                context.stop();
+                invalidate(username);
+              });
+    }
+
+    final Location location = new Location(NAMESPACE, username);
+    final UpdateValue updateValue = newAdditionUpdate(location, notifications);
+
+    LOGGER.debug("Updating key (async): {}", location);
+
+    final RiakFuture<UpdateValue.Response, Location> future = client.executeAsync(updateValue);
+    return RiakFutures.toCompletableFuture(future)
+        .whenComplete(
+            (response, e) -> {
+              context.stop();
+              invalidate(username);
+              if (e != null) {
+                LOGGER.error("Unable to update key: " + location, e);
+              }
+            })
+        .thenApply(response -> null);
+  }
+
+  /**
+   * Store a copy of a notification for each of the given users. Each user's update is issued
+   * asynchronously, with at most {@code fanoutMaxInFlight} updates outstanding at any time, so the
+   * updates are pipelined to Riak rather than each holding a thread. Users whose update couldn't be
+   * issued within the request timeout of the fan-out starting are skipped and reported as failures,
+   * while users whose update was issued but hadn't completed by then are reported as unknown, as
+   * the update may still be applied.
+   *
+   * @param usernames Users to store the notification for
+   * @param notification Notification to store
+   * @return the outcome for each user, in the order the users were given
+   * @throws NotificationStoreException if interrupted while issuing the updates
+   */
+  public List<FanoutResult> fanout(
+      final Collection<String> usernames, final Notification notification)
+      throws NotificationStoreException {
+
+    Objects.requireNonNull(usernames, "usernames == null");
+    Objects.requireNonNull(notification, "notification == null");
+
+    // a single deadline covers the whole fan-out, however many users it has
+    final long deadline = System.nanoTime() + requestTimeout.toNanoseconds();
+    final Semaphore permits = new Semaphore(fanoutMaxInFlight);
+    final Map<String, CompletableFuture<Notification>> futures = new LinkedHashMap<>();
+    final ZonedDateTime now = currentTimeProvider.get();
+
+    try (Timer.Context context = fanoutTimer.time()) {
+      for (String username : usernames) {
+        if (Strings.isNullOrEmpty(username) || futures.containsKey(username)) {
+          continue;
+        }
+
+        // wait for an in-flight update to complete before issuing another one, and don't issue any
+        // more once the deadline has passed
+        final long remaining = deadline - System.nanoTime();
+        if (remaining <= 0 || !permits.tryAcquire(remaining, TimeUnit.NANOSECONDS)) {
+          LOGGER.warn("Timed out waiting to issue fan-out update for user: {}", username);
+          futures.put(username, null);
+          continue;
+        }
+
+        final Notification stored =
+            Notification.builder(notification)
+                .withId(idGenerator.nextId())
+                .withCreatedAt(now)
+                .build();
+        final CompletableFuture<Notification> future;
+        try {
+          future =
+              addNotificationsAsync(username, Collections.singletonList(stored))
+                  .thenApply(v -> stored);
+        } catch (RuntimeException e) {
+          permits.release();
+          throw e;
+        }
+        future.whenComplete((v, e) -> permits.release());
+        futures.put(username, future);
+      }
+
+      final ImmutableList.Builder<FanoutResult> results = ImmutableList.builder();
+      for (Map.Entry<String, CompletableFuture<Notification>> entry : futures.entrySet()) {
+        final String username = entry.getKey();
+        final CompletableFuture<Notification> future = entry.getValue();
+        if (future == null) {
+          fanoutFailures.mark();
+          results.add(FanoutResult.failure(username));
+          continue;
+        }
+        try {
+          final Notification stored =
+              future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+          results.add(FanoutResult.success(username, stored.getId("")));
+        } catch (ExecutionException e) {
+          LOGGER.error("Unable to store fan-out notification for user: " + username, e);
+          fanoutFailures.mark();
+          results.add(FanoutResult.failure(username));
+        } catch (TimeoutException e) {
+          LOGGER.warn("Timed out waiting for fan-out update for user: {}", username);
+          fanoutUnknown.mark();
+          results.add(FanoutResult.unknown(username));
+        }
+      }
+      return results.build();
+    } catch (InterruptedException e) {
+      LOGGER.warn("Fan-out request was interrupted", e);
+      Thread.currentThread().interrupt();
+      throw new NotificationStoreException(e);
+    }
+  }
+
+  /**
+   * Create the Riak request adding notifications to a user's list
+   *
+   * @param location Location of the user's list
+   * @param notifications Notifications to add
+   * @return the request
+   */
+  private UpdateValue newAdditionUpdate(
+      final Location location, final List<Notification> notifications) {
+    return new UpdateValue.Builder(location)
+        .withUpdate(newAddition(notifications))
+        .withStoreOption(StoreValue.Option.RETURN_BODY, false)
+        .withTimeout(timeout)
+        .build();
+  }
+
+  /**
+   * Create an update adding notifications to a user's list, which also updates the stored rollups
+   * of the list if enabled
+   *
+   * @param notifications Notifications to add
+   * @return the update
+   */
+  private NotificationListAddition newAddition(final List<Notification> notifications) {
+    if (rollupOnWrite) {
+      return new NotificationListAddition(notifications, ruleStore.fetchPlan());
+    }
+    return new NotificationListAddition(notifications);
   }
 
   /**
@@ -314,17 +1212,30 @@ public class NotificationStore {
 
     LOGGER.debug("Deleting key (async): {}", location);
     try (Timer.Context context = deleteTimer.time()) {
-      final RiakFuture<Void, Location> future = client.executeAsync(deleteValue);
-      future.await(requestTimeout.getQuantity(), requestTimeout.getUnit());
-      if (future.isSuccess()) {
-        LOGGER.debug("Successfully deleted key: {}", location);
+      if (segments != null) {
+        segments.removeAll(username);
+      } else {
+        final RiakFuture<Void, Location> future = client.executeAsync(deleteValue);
+        future.await(requestTimeout.getQuantity(), requestTimeout.getUnit());
+        if (future.isSuccess()) {
+          LOGGER.debug("Successfully deleted key: {}", location);
+        }
       }
     } catch (InterruptedException e) {
       LOGGER.warn("Delete request was interrupted", e);
       Thread.currentThread().interrupt();
       throw new NotificationStoreException(e);
+    } finally {
+      invalidate(username);
     }
 
+    try {
+      cursorWriter.discard(username, CURSOR_NAME);
+    } catch (InterruptedException e) {
+      LOGGER.warn("Interrupted waiting for cursor update", e);
+      Thread.currentThread().interrupt();
+      throw new NotificationStoreException(e);
+    }
     cursors.delete(username, CURSOR_NAME);
   }
 
@@ -347,6 +1258,15 @@ public class NotificationStore {
       return;
     }
 
+    if (segments != null) {
+      try (Timer.Context context = updateTimer.time()) {
+        segments.remove(username, ids);
+      } finally {
+        invalidate(username);
+      }
+      return;
+    }
+
     final Location location = new Location(NAMESPACE, username);
     final NotificationListDeletion delete = new NotificationListDeletion(ids);
     final UpdateValue updateValue =
@@ -367,6 +1287,8 @@ public class NotificationStore {
       LOGGER.warn("Update request was interrupted", e);
       Thread.currentThread().interrupt();
       throw new NotificationStoreException(e);
+    } finally {
+      invalidate(username);
     }
   }
 
@@ -381,113 +1303,17 @@ public class NotificationStore {
       final Iterable<Notification> notifications, final boolean unseen) {
 
     return StreamSupport.stream(notifications.spliterator(), false)
-        .map(notification -> Notification.builder(notification).withUnseen(unseen).build());
+        .map(notification -> notification.withUnseen(unseen));
   }
 
   /**
-   * Return the parent notification that matches the given ID or is the parent of a child
-   * notification.
+   * Summarize the rollups of the categories whose rule has a summary_size, as each rollup is read
    *
-   * @param notifications Notifications to search through
-   * @param id Notification ID to find
-   * @return the notification
+   * @param notifications User's notifications
+   * @return the user's notifications
    */
-  public static Optional<Notification> tryFind(
-      final Iterable<Notification> notifications, final String id) {
-
-    Objects.requireNonNull(notifications, "notifications == null");
-
-    if (Strings.isNullOrEmpty(id)) {
-      return Optional.empty();
-    }
-
-    final com.google.common.base.Optional<Notification> result =
-        Iterables.tryFind(
-            notifications,
-            notification -> {
-              // first check that the ID matches
-              final Optional<String> notificationId = notification.getId();
-              if (!notificationId.isPresent()) {
-                return false;
-              } else if (id.equals(notificationId.get())) {
-                return true;
-              }
-
-              // Check to see if the notification is included in any rolled up notifications. This
-              // code should not be hit as tryFind() is called prior to the rollups happening, but
-              // we include this here for completeness.
-              final Collection<Notification> children = notification.getNotifications();
-              if (children.isEmpty()) {
-                return false;
-              }
-              return (tryFind(children, id)).isPresent();
-            });
-
-    return result.toJavaUtil();
-  }
-
-  /**
-   * Returns the index in notifications that matches the given ID or is the parent of a child
-   * notification, or -1 if the notification was not found.
-   *
-   * @param notifications Notifications to search through
-   * @param id Notification ID to find
-   * @return the position of the notification or -1 if not found
-   */
-  public static int indexOf(final Iterable<Notification> notifications, final String id) {
-
-    Objects.requireNonNull(notifications, "notifications == null");
-
-    if (Strings.isNullOrEmpty(id)) {
-      return -1;
-    }
-
-    return Iterables.indexOf(
-        notifications,
-        notification -> {
-          // first check that the ID matches
-          final Optional<String> notificationId = notification.getId();
-          if (!notificationId.isPresent()) {
-            return false;
-          } else if (id.equals(notificationId.get())) {
-            return true;
-          }
-
-          // then check to see if the notification is included in any rolled up notifications
-          final Collection<Notification> children = notification.getNotifications();
-          if (children.isEmpty()) {
-            return false;
-          }
-          return indexOf(children, id) != -1;
-        });
-  }
-
-  /**
-   * Returns an iterable that skips forward to a given notification ID then only returns count more
-   * notifications. If the given notification ID is not found
-   *
-   * @param notifications Iterable of notifications
-   * @param startId notification ID to start at
-   * @param inclusive Whether to include the startId notification or not
-   * @param limitSize Number of notifications to return
-   * @return Iterable containing the subset of the original notifications
-   */
-  public Iterable<Notification> skip(
-      final Iterable<Notification> notifications,
-      final String startId,
-      final boolean inclusive,
-      final int limitSize) {
-
-    Objects.requireNonNull(notifications, "notifications == null");
-
-    final int position = indexOf(notifications, startId);
-    if (position == -1) {
-      return Iterables.limit(notifications, limitSize);
-    }
-    if (inclusive) {
-      return Iterables.limit(Iterables.skip(notifications, position), limitSize);
-    }
-    return Iterables.limit(Iterables.skip(notifications, position + 1), limitSize);
+  private UserNotifications summarize(final UserNotifications notifications) {
+    return notifications.summarize(RollupSummarizer.of(ruleStore.fetchPlan()));
   }
 
   /** Set the current time provider for tests */
@@ -495,4 +1321,11 @@ public class NotificationStore {
   void setCurrentTimeProvider(Supplier<ZonedDateTime> provider) {
     currentTimeProvider = provider;
   }
+
+  /** Splits a user's notifications into the seen and unseen notifications to return */
+  @FunctionalInterface
+  private interface NotificationSplitter {
+    UserNotifications split(List<Notification> notifications, Optional<String> cursor)
+        throws NotificationStoreException;
+  }
 }
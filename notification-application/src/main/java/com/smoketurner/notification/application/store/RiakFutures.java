@@ -0,0 +1,47 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.store;
+
+import com.basho.riak.client.core.RiakFuture;
+import com.smoketurner.notification.application.exceptions.NotificationStoreException;
+import java.util.concurrent.CompletableFuture;
+
+/** Helpers for composing {@link RiakFuture} operations without blocking a thread on them. */
+final class RiakFutures {
+
+  private RiakFutures() {}
+
+  /**
+   * Adapt a {@link RiakFuture} into a {@link CompletableFuture} which is completed by the Riak
+   * client once the operation finishes. Failed operations complete exceptionally with a {@link
+   * NotificationStoreException}.
+   *
+   * @param future Riak operation
+   * @return a future completed with the operation's response
+   */
+  static <V, T> CompletableFuture<V> toCompletableFuture(final RiakFuture<V, T> future) {
+    final CompletableFuture<V> result = new CompletableFuture<>();
+    future.addListener(
+        f -> {
+          if (f.isSuccess()) {
+            result.complete(f.getNow());
+          } else {
+            result.completeExceptionally(new NotificationStoreException(f.cause()));
+          }
+        });
+    return result;
+  }
+}
@@ -40,6 +40,7 @@ import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.primitives.Ints;
 import com.smoketurner.notification.api.Rule;
+import com.smoketurner.notification.application.core.RulePlan;
 import com.smoketurner.notification.application.exceptions.NotificationStoreException;
 import io.dropwizard.util.Duration;
 import java.util.Collections;
@@ -61,7 +62,7 @@ public class RuleStore {
   private static final int DEFAULT_TIMEOUT_MS = 60000;
 
   private final RiakClient client;
-  private final LoadingCache<String, Map<String, Rule>> cache;
+  private final LoadingCache<String, RulePlan> cache;
 
   // timeouts
   private final int timeout;
@@ -101,18 +102,18 @@ public class RuleStore {
             .orElse(DEFAULT_TIMEOUT_MS);
     this.requestTimeout = Objects.requireNonNull(requestTimeout, "requestTimeout == null");
 
-    // set up a cache for the rules
+    // set up a cache for the rules, which are compiled once each time they are loaded
     this.cache =
         CacheBuilder.newBuilder()
             .refreshAfterWrite(cacheTimeout.getQuantity(), cacheTimeout.getUnit())
             .build(
-                new CacheLoader<String, Map<String, Rule>>() {
+                new CacheLoader<String, RulePlan>() {
                   @Override
-                  public Map<String, Rule> load(String key) throws NotificationStoreException {
+                  public RulePlan load(String key) throws NotificationStoreException {
                     cacheMisses.mark();
 
                     // all rules are stored under a common key, so we don't need to reference it
-                    return fetch().orElse(Collections.emptyMap());
+                    return RulePlan.compile(fetch().orElse(Collections.emptyMap()));
                   }
                 });
   }
@@ -123,11 +124,20 @@ public class RuleStore {
    * @return the fetched rules or an empty map of rules
    */
   public Map<String, Rule> fetchCached() {
+    return fetchPlan().getRules();
+  }
+
+  /**
+   * Fetch the compiled rules from the cache.
+   *
+   * @return the compiled rules or an empty plan
+   */
+  public RulePlan fetchPlan() {
     try {
       return cache.get(BUCKET_NAME);
     } catch (ExecutionException e) {
       LOGGER.warn("Unable to fetch rules from cache, returning no rules", e);
-      return Collections.emptyMap();
+      return RulePlan.EMPTY;
     }
   }
 
@@ -226,6 +236,9 @@ public class RuleStore {
           case Rule.MATCH_ON:
             builder.withMatchOn(value);
             break;
+          case Rule.SUMMARY_SIZE:
+            builder.withSummarySize(Ints.tryParse(value));
+            break;
           default:
             // should never happen
             break;
@@ -303,6 +316,11 @@ public class RuleStore {
     } else if (context.isPresent()) {
       op.removeRegister(Rule.MATCH_ON);
     }
+    if (rule.getSummarySize().isPresent()) {
+      op.update(Rule.SUMMARY_SIZE, new RegisterUpdate(String.valueOf(rule.getSummarySize().get())));
+    } else if (context.isPresent()) {
+      op.removeRegister(Rule.SUMMARY_SIZE);
+    }
     return op;
   }
 
@@ -0,0 +1,632 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.store;
+
+import com.basho.riak.client.api.RiakClient;
+import com.basho.riak.client.api.cap.UnresolvedConflictException;
+import com.basho.riak.client.api.commands.buckets.StoreBucketProperties;
+import com.basho.riak.client.api.commands.kv.DeleteValue;
+import com.basho.riak.client.api.commands.kv.FetchValue;
+import com.basho.riak.client.api.commands.kv.StoreValue;
+import com.basho.riak.client.api.commands.kv.UpdateValue;
+import com.basho.riak.client.core.RiakFuture;
+import com.basho.riak.client.core.query.Location;
+import com.basho.riak.client.core.query.Namespace;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SharedMetricRegistries;
+import com.codahale.metrics.Timer;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+import com.smoketurner.notification.api.Notification;
+import com.smoketurner.notification.application.exceptions.NotificationStoreException;
+import com.smoketurner.notification.application.riak.NotificationListAddition;
+import com.smoketurner.notification.application.riak.NotificationListDeletion;
+import com.smoketurner.notification.application.riak.NotificationListObject;
+import com.smoketurner.notification.application.riak.NotificationListResolver;
+import com.smoketurner.notification.application.riak.NotificationManifestObject;
+import com.smoketurner.notification.application.riak.NotificationManifestObject.Segment;
+import com.smoketurner.notification.application.riak.NotificationManifestUpdate;
+import io.dropwizard.util.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stores a user's notifications as a set of small segments rather than a single value.
+ *
+ * <p>New notifications are appended to a head segment stored under the username, so an append only
+ * rewrites the head. Once the head holds {@link #SEGMENT_SIZE} notifications it is sealed: its
+ * contents are written once to an immutable segment in a bucket of their own, keyed by the username
+ * and the range of notification IDs it holds, the segment is recorded in the user's manifest, and
+ * the sealed notifications are trimmed from the head. Deletions are recorded in the manifest and
+ * filtered out on read.
+ *
+ * <p>As sealed segments never change, they are cached once read, so a fetch usually only reads the
+ * manifest and the head, concurrently.
+ *
+ * <p>Users whose notifications were written with the single value layout keep reading their
+ * original list until the first segment is sealed, at which point the original list is recorded in
+ * the manifest as a legacy segment.
+ */
+public class SegmentedListStore {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentedListStore.class);
+  public static final int SEGMENT_SIZE = 100;
+
+  private static final Namespace LEGACY_NAMESPACE = new Namespace("notifications");
+  private static final Namespace SEGMENT_NAMESPACE = new Namespace("notification-segments");
+  private static final Namespace SEALED_NAMESPACE = new Namespace("notification-sealed-segments");
+  private static final Namespace MANIFEST_NAMESPACE = new Namespace("notification-manifests");
+
+  private final RiakClient client;
+  private final int timeout;
+  private final Duration requestTimeout;
+  private final Cache<String, SortedSet<Notification>> sealed;
+
+  // metrics
+  private final Timer sealTimer;
+  private final Meter sealConflicts;
+  private final Histogram segmentsPerFetch;
+  private final Meter sealedCacheHits;
+  private final Meter sealedCacheMisses;
+
+  /**
+   * Constructor
+   *
+   * @param client Riak client
+   * @param timeout Riak server-side timeout in milliseconds
+   * @param requestTimeout Riak client-side timeout
+   * @param cacheSize Maximum number of sealed notifications to cache across all users
+   */
+  public SegmentedListStore(
+      final RiakClient client,
+      final int timeout,
+      final Duration requestTimeout,
+      final long cacheSize) {
+    this.client = Objects.requireNonNull(client, "client == null");
+    this.timeout = timeout;
+    this.requestTimeout = Objects.requireNonNull(requestTimeout, "requestTimeout == null");
+    this.sealed =
+        CacheBuilder.newBuilder()
+            .maximumWeight(cacheSize)
+            .weigher((String key, SortedSet<Notification> value) -> value.size() + 1)
+            .build();
+
+    final MetricRegistry registry = SharedMetricRegistries.getOrCreate("default");
+    this.sealTimer = registry.timer(MetricRegistry.name(SegmentedListStore.class, "seal"));
+    this.sealConflicts =
+        registry.meter(MetricRegistry.name(SegmentedListStore.class, "seal-conflicts"));
+    this.segmentsPerFetch =
+        registry.histogram(MetricRegistry.name(SegmentedListStore.class, "segments-per-fetch"));
+    this.sealedCacheHits =
+        registry.meter(MetricRegistry.name(SegmentedListStore.class, "sealed-cache-hits"));
+    this.sealedCacheMisses =
+        registry.meter(MetricRegistry.name(SegmentedListStore.class, "sealed-cache-misses"));
+  }
+
+  /** Internal method to set the allow_multi to true */
+  public void initialize() {
+    for (Namespace namespace : ImmutableList.of(SEGMENT_NAMESPACE, MANIFEST_NAMESPACE)) {
+      LOGGER.debug("Setting allow_multi=true for namespace={}", namespace);
+      final StoreBucketProperties storeBucketProperties =
+          new StoreBucketProperties.Builder(namespace).withAllowMulti(true).build();
+      try {
+        client.execute(storeBucketProperties);
+      } catch (InterruptedException e) {
+        LOGGER.warn("Unable to set allow_multi=true for namespace=" + namespace, e);
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException e) {
+        LOGGER.error("Unable to set allow_multi=true for namespace=" + namespace, e);
+      }
+    }
+  }
+
+  /**
+   * Fetch all of the notifications for a user by reading the manifest and head concurrently, and
+   * then every segment the manifest references which isn't already cached, also concurrently.
+   *
+   * @param username User to fetch notifications for
+   * @return a future completed with the optional list of notifications
+   */
+  public CompletableFuture<Optional<ImmutableSortedSet<Notification>>> fetchAsync(
+      final String username) {
+
+    final CompletableFuture<Optional<SortedSet<Notification>>> head =
+        fetchList(new Location(SEGMENT_NAMESPACE, username))
+            .thenApply(list -> list.map(NotificationListObject::getNotifications));
+
+    return fetchManifest(username)
+        .thenCompose(
+            manifest -> {
+              final List<CompletableFuture<Optional<SortedSet<Notification>>>> parts =
+                  new ArrayList<>();
+              parts.add(head);
+              if (manifest.isPresent()) {
+                manifest.get().getSegments().stream()
+                    .map(segment -> fetchSegment(username, segment))
+                    .forEach(parts::add);
+              } else {
+                // nothing has been sealed yet, so any pre-existing list is still stored whole
+                parts.add(
+                    fetchList(new Location(LEGACY_NAMESPACE, username))
+                        .thenApply(list -> list.map(NotificationListObject::getNotifications)));
+              }
+              segmentsPerFetch.update(parts.size());
+
+              return CompletableFuture.allOf(parts.toArray(new CompletableFuture<?>[0]))
+                  .thenApply(
+                      v -> {
+                        final List<Optional<SortedSet<Notification>>> lists =
+                            parts.stream()
+                                .map(CompletableFuture::join)
+                                .collect(Collectors.toList());
+                        if (!manifest.isPresent()
+                            && lists.stream().noneMatch(Optional::isPresent)) {
+                          return Optional.empty();
+                        }
+                        return Optional.of(
+                            merge(
+                                lists,
+                                manifest
+                                    .map(NotificationManifestObject::getDeletedIds)
+                                    .orElse(Collections.emptySet())));
+                      });
+            });
+  }
+
+  /**
+   * Fetch the notifications in a segment, reading sealed segments from the cache when possible
+   *
+   * @param username User the segment belongs to
+   * @param segment Segment to fetch
+   * @return a future completed with the optional notifications in the segment
+   */
+  private CompletableFuture<Optional<SortedSet<Notification>>> fetchSegment(
+      final String username, final Segment segment) {
+
+    if (segment.isLegacy()) {
+      return fetchList(getLocation(username, segment))
+          .thenApply(list -> list.map(NotificationListObject::getNotifications));
+    }
+
+    final SortedSet<Notification> cached = sealed.getIfPresent(segment.getKey());
+    if (cached != null) {
+      sealedCacheHits.mark();
+      return CompletableFuture.completedFuture(Optional.of(cached));
+    }
+    sealedCacheMisses.mark();
+    return fetchList(getLocation(username, segment))
+        .thenApply(
+            list ->
+                list.map(
+                    l -> {
+                      final SortedSet<Notification> notifications =
+                          ImmutableSortedSet.copyOfSorted(l.getNotifications());
+                      sealed.put(segment.getKey(), notifications);
+                      return notifications;
+                    }));
+  }
+
+  /**
+   * Append notifications to the head segment for a user, sealing the head if it is full.
+   *
+   * @param username User to add the notifications to
+   * @param notifications Notifications to add
+   * @return a future completed once the notifications are stored
+   */
+  public CompletableFuture<Void> addAsync(
+      final String username, final Collection<Notification> notifications) {
+
+    final Location location = new Location(SEGMENT_NAMESPACE, username);
+    final UpdateValue updateValue =
+        new UpdateValue.Builder(location)
+            .withUpdate(new NotificationListAddition(notifications))
+            .withStoreOption(StoreValue.Option.RETURN_BODY, true)
+            .withTimeout(timeout)
+            .build();
+
+    LOGGER.debug("Updating key (async): {}", location);
+
+    return RiakFutures.toCompletableFuture(client.executeAsync(updateValue))
+        .thenCompose(
+            response -> {
+              final NotificationListObject head;
+              try {
+                head = response.getValue(NotificationListObject.class);
+              } catch (UnresolvedConflictException e) {
+                LOGGER.error("Unable to resolve siblings for key: " + location, e);
+                throw new CompletionException(new NotificationStoreException(e));
+              }
+              if (head == null || head.getNotifications().size() < SEGMENT_SIZE) {
+                return CompletableFuture.completedFuture(null);
+              }
+              return seal(username, ImmutableSortedSet.copyOfSorted(head.getNotifications()));
+            });
+  }
+
+  /**
+   * Delete individual notifications for a user by recording their IDs in the manifest
+   *
+   * @param username User to remove notifications from
+   * @param ids Notification IDs to remove
+   * @throws NotificationStoreException if unable to remove the notifications
+   */
+  public void remove(final String username, final Collection<String> ids)
+      throws NotificationStoreException {
+
+    await(
+        seedSegments(username)
+            .thenCompose(
+                seed -> {
+                  final NotificationManifestUpdate update =
+                      new NotificationManifestUpdate(
+                          username, seed, ids, NotificationListObject.MAX_NOTIFICATIONS);
+                  return updateManifest(username, update)
+                      .thenAccept(v -> deleteSegments(update.getDropped()));
+                }));
+  }
+
+  /**
+   * Delete the manifest, head and every segment for a user
+   *
+   * @param username User to delete all the notifications
+   * @throws NotificationStoreException if unable to delete the notifications
+   */
+  public void removeAll(final String username) throws NotificationStoreException {
+    await(
+        fetchManifest(username)
+            .thenCompose(
+                manifest -> {
+                  final List<Location> locations = new ArrayList<>();
+                  locations.add(new Location(SEGMENT_NAMESPACE, username));
+                  locations.add(new Location(LEGACY_NAMESPACE, username));
+                  manifest.ifPresent(
+                      m ->
+                          m.getSegments().stream()
+                              .filter(segment -> !segment.isLegacy())
+                              .map(segment -> getLocation(username, segment))
+                              .forEach(locations::add));
+                  // delete the manifest last so a partial failure can be retried
+                  return CompletableFuture.allOf(
+                          locations.stream()
+                              .map(this::delete)
+                              .toArray(size -> new CompletableFuture<?>[size]))
+                      .thenCompose(v -> delete(new Location(MANIFEST_NAMESPACE, username)));
+                }));
+  }
+
+  /**
+   * Wait for an asynchronous operation to complete
+   *
+   * @param future Operation to wait on
+   * @return the result of the operation
+   * @throws NotificationStoreException if the operation failed or timed out
+   */
+  public <T> T await(final CompletableFuture<T> future) throws NotificationStoreException {
+    try {
+      return future.get(requestTimeout.getQuantity(), requestTimeout.getUnit());
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof NotificationStoreException) {
+        throw (NotificationStoreException) e.getCause();
+      }
+      throw new NotificationStoreException(e.getCause());
+    } catch (TimeoutException e) {
+      throw new NotificationStoreException(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new NotificationStoreException(e);
+    }
+  }
+
+  /**
+   * Seal the current contents of the head into a new segment. The segment is written before it is
+   * added to the manifest, and trimmed from the head only after that, so a failure part way through
+   * can at worst leave duplicates which are removed when the segments are merged.
+   *
+   * <p>Concurrent writers can find the head full at the same time. Each seal writes its own
+   * segment, as the key covers the range of IDs sealed, and the manifest is only updated if it
+   * hasn't changed since it was read. A seal which loses that race deletes its segment and leaves
+   * the head as it is, to be sealed by a later append if it is still full.
+   *
+   * @param username User whose head is full
+   * @param notifications Snapshot of the head's notifications
+   * @return a future completed once the head has been sealed
+   */
+  private CompletableFuture<Void> seal(
+      final String username, final ImmutableSortedSet<Notification> notifications) {
+
+    final Timer.Context context = sealTimer.time();
+    final String newestId = notifications.first().getId("");
+    final String oldestId = notifications.last().getId("");
+    final String key = username + ":" + oldestId + ":" + newestId;
+    final NotificationListObject segment = new NotificationListObject(key);
+    segment.addNotifications(notifications);
+
+    LOGGER.debug(
+        "Sealing {} notifications for user {} into segment: {}",
+        notifications.size(),
+        username,
+        key);
+
+    final Location location = new Location(SEALED_NAMESPACE, key);
+    final StoreValue storeValue =
+        new StoreValue.Builder(segment).withLocation(location).withTimeout(timeout).build();
+    final Segment sealedSegment = new Segment(key, newestId, oldestId, notifications.size(), false);
+
+    final CompletableFuture<Void> result =
+        RiakFutures.toCompletableFuture(client.executeAsync(storeValue))
+            .thenCompose(v -> addSegment(username, sealedSegment))
+            .thenCompose(
+                added -> {
+                  if (!added) {
+                    sealConflicts.mark();
+                    LOGGER.debug("Manifest changed while sealing segment: {}", key);
+                    return delete(location);
+                  }
+                  final Set<String> ids =
+                      notifications.stream().map(n -> n.getId("")).collect(Collectors.toSet());
+                  final UpdateValue trim =
+                      new UpdateValue.Builder(new Location(SEGMENT_NAMESPACE, username))
+                          .withUpdate(new NotificationListDeletion(ids))
+                          .withStoreOption(StoreValue.Option.RETURN_BODY, false)
+                          .withTimeout(timeout)
+                          .build();
+                  return RiakFutures.toCompletableFuture(client.executeAsync(trim))
+                      .thenApply(v -> null);
+                })
+            .thenApply(v -> null);
+    result.whenComplete((v, e) -> context.stop());
+    return result;
+  }
+
+  /**
+   * Add a sealed segment to a user's manifest with a conditional write against the vector clock the
+   * manifest was read with, so only one of several concurrent seals is recorded.
+   *
+   * @param username User to add the segment for
+   * @param segment Sealed segment
+   * @return a future completed with true if the segment was added, or false if the manifest was
+   *     changed concurrently or couldn't be written
+   */
+  private CompletableFuture<Boolean> addSegment(final String username, final Segment segment) {
+    final Location location = new Location(MANIFEST_NAMESPACE, username);
+    return fetch(location)
+        .thenCompose(
+            response -> {
+              final NotificationManifestObject current;
+              try {
+                current =
+                    response.isNotFound()
+                        ? null
+                        : response.getValue(NotificationManifestObject.class);
+              } catch (UnresolvedConflictException e) {
+                LOGGER.error("Unable to resolve siblings for key: " + location, e);
+                throw new CompletionException(new NotificationStoreException(e));
+              }
+
+              final CompletableFuture<List<Segment>> seed =
+                  current == null
+                      ? seedLegacy(username)
+                      : CompletableFuture.completedFuture(Collections.emptyList());
+              return seed.thenCompose(
+                  legacy -> {
+                    final NotificationManifestObject manifest =
+                        current == null
+                            ? new NotificationManifestObject(username, null, null)
+                            : current;
+                    manifest.addSegments(legacy);
+                    manifest.addSegments(Collections.singletonList(segment));
+                    final List<Segment> dropped =
+                        manifest.retain(NotificationListObject.MAX_NOTIFICATIONS);
+
+                    final StoreValue.Builder builder =
+                        new StoreValue.Builder(manifest)
+                            .withLocation(location)
+                            .withOption(StoreValue.Option.RETURN_BODY, false)
+                            .withTimeout(timeout);
+                    if (current == null) {
+                      builder.withOption(StoreValue.Option.IF_NONE_MATCH, true);
+                    } else {
+                      builder
+                          .withVectorClock(response.getVectorClock())
+                          .withOption(StoreValue.Option.IF_NOT_MODIFIED, true);
+                    }
+
+                    LOGGER.debug("Storing key (conditional): {}", location);
+                    return RiakFutures.toCompletableFuture(client.executeAsync(builder.build()))
+                        .handle(
+                            (v, e) -> {
+                              if (e != null) {
+                                LOGGER.debug("Conditional store failed for key: " + location, e);
+                                return false;
+                              }
+                              deleteSegments(dropped);
+                              return true;
+                            });
+                  });
+            });
+  }
+
+  /**
+   * Determine which segments a new manifest must start with. If the user has no manifest yet, their
+   * original single-object list becomes the first (legacy) segment.
+   *
+   * @param username User to seed the manifest for
+   * @return a future completed with the segments to add to the manifest
+   */
+  private CompletableFuture<List<Segment>> seedSegments(final String username) {
+    return fetchManifest(username)
+        .thenCompose(
+            manifest -> {
+              if (manifest.isPresent()) {
+                return CompletableFuture.completedFuture(Collections.<Segment>emptyList());
+              }
+              return seedLegacy(username);
+            });
+  }
+
+  /**
+   * Record a user's original single-object list as a legacy segment
+   *
+   * @param username User to seed the manifest for
+   * @return a future completed with the legacy segment, or no segments if there is no list
+   */
+  private CompletableFuture<List<Segment>> seedLegacy(final String username) {
+    return fetchList(new Location(LEGACY_NAMESPACE, username))
+        .thenApply(
+            legacy -> {
+              if (!legacy.isPresent() || legacy.get().getNotifications().isEmpty()) {
+                return Collections.<Segment>emptyList();
+              }
+              final SortedSet<Notification> notifications = legacy.get().getNotifications();
+              return Collections.singletonList(
+                  new Segment(
+                      username,
+                      notifications.first().getId(""),
+                      notifications.last().getId(""),
+                      notifications.size(),
+                      true));
+            });
+  }
+
+  private CompletableFuture<Optional<NotificationManifestObject>> fetchManifest(
+      final String username) {
+    final Location location = new Location(MANIFEST_NAMESPACE, username);
+    return fetch(location)
+        .thenApply(
+            response -> {
+              if (response.isNotFound()) {
+                return Optional.empty();
+              }
+              try {
+                return Optional.ofNullable(response.getValue(NotificationManifestObject.class));
+              } catch (UnresolvedConflictException e) {
+                LOGGER.error("Unable to resolve siblings for key: " + location, e);
+                throw new CompletionException(new NotificationStoreException(e));
+              }
+            });
+  }
+
+  private CompletableFuture<Optional<NotificationListObject>> fetchList(final Location location) {
+    return fetch(location)
+        .thenApply(
+            response -> {
+              if (response.isNotFound()) {
+                return Optional.empty();
+              }
+              try {
+                return Optional.ofNullable(response.getValue(NotificationListObject.class));
+              } catch (UnresolvedConflictException e) {
+                LOGGER.error("Unable to resolve siblings for key: " + location, e);
+                throw new CompletionException(new NotificationStoreException(e));
+              }
+            });
+  }
+
+  private CompletableFuture<FetchValue.Response> fetch(final Location location) {
+    LOGGER.debug("Fetching key (async): {}", location);
+    final FetchValue fv = new FetchValue.Builder(location).withTimeout(timeout).build();
+    return RiakFutures.toCompletableFuture(client.executeAsync(fv));
+  }
+
+  private CompletableFuture<Void> updateManifest(
+      final String username, final NotificationManifestUpdate update) {
+    final Location location = new Location(MANIFEST_NAMESPACE, username);
+    LOGGER.debug("Updating key (async): {}", location);
+    final UpdateValue updateValue =
+        new UpdateValue.Builder(location)
+            .withUpdate(update)
+            .withStoreOption(StoreValue.Option.RETURN_BODY, false)
+            .withTimeout(timeout)
+            .build();
+    return RiakFutures.toCompletableFuture(client.executeAsync(updateValue)).thenApply(v -> null);
+  }
+
+  private CompletableFuture<Void> delete(final Location location) {
+    LOGGER.debug("Deleting key (async): {}", location);
+    final DeleteValue deleteValue = new DeleteValue.Builder(location).withTimeout(timeout).build();
+    final RiakFuture<Void, Location> future = client.executeAsync(deleteValue);
+    return RiakFutures.toCompletableFuture(future);
+  }
+
+  /**
+   * Delete the segments dropped from the manifest by an update. Failures are only logged, as the
+   * segments are no longer referenced.
+   *
+   * @param dropped Segments dropped from the manifest
+   */
+  private void deleteSegments(final List<Segment> dropped) {
+    for (Segment segment : dropped) {
+      if (segment.isLegacy()) {
+        continue;
+      }
+      sealed.invalidate(segment.getKey());
+      delete(new Location(SEALED_NAMESPACE, segment.getKey()))
+          .whenComplete(
+              (v, e) -> {
+                if (e != null) {
+                  LOGGER.warn("Unable to delete segment: " + segment.getKey(), e);
+                }
+              });
+    }
+  }
+
+  /**
+   * Merge the head and segments into a single list, applying any deletions and the overall cap on
+   * the number of notifications.
+   *
+   * @param lists Head and segment lists
+   * @param deletedIds Deleted notification IDs
+   * @return the merged notifications
+   */
+  private static ImmutableSortedSet<Notification> merge(
+      final List<Optional<SortedSet<Notification>>> lists, final Set<String> deletedIds) {
+    final TreeSet<Notification> notifications = new TreeSet<>();
+    lists.forEach(list -> list.ifPresent(notifications::addAll));
+    if (!deletedIds.isEmpty()) {
+      NotificationListResolver.removeNotifications(notifications, new HashSet<>(deletedIds));
+    }
+
+    final NotificationListObject merged = new NotificationListObject();
+    merged.addNotifications(notifications);
+    return ImmutableSortedSet.copyOfSorted(merged.getNotifications());
+  }
+
+  private static Location getLocation(final String username, final Segment segment) {
+    if (segment.isLegacy()) {
+      return new Location(LEGACY_NAMESPACE, username);
+    }
+    return new Location(SEALED_NAMESPACE, segment.getKey());
+  }
+}
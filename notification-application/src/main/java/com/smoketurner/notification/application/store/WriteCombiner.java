@@ -0,0 +1,262 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.store;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SharedMetricRegistries;
+import com.google.common.base.Preconditions;
+import com.smoketurner.notification.application.exceptions.NotificationStoreException;
+import io.dropwizard.util.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Combines concurrent writes to the same key into a single write. Callers queue their items under
+ * the key, optionally wait {@code window} for more callers to join, and then take turns holding the
+ * key's lock. Each holder writes everything queued so far as one batch and hands the lock to the
+ * next caller whose items are still queued, so no caller writes more than one batch. Every caller
+ * blocks until the batch containing its items has been written, or until {@code timeout}.
+ *
+ * @param <T> Type of item being written
+ */
+public class WriteCombiner<T> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(WriteCombiner.class);
+
+  private final boolean enabled;
+  private final long windowMs;
+  private final long timeoutMs;
+  private final ConcurrentMap<String, Slot<T>> slots = new ConcurrentHashMap<>();
+
+  // metrics
+  private final Histogram batchSizes;
+  private final Meter coalesced;
+
+  /** Writes a batch of items to a key. */
+  @FunctionalInterface
+  public interface BatchWriter<T> {
+    void write(String key, List<T> items) throws NotificationStoreException;
+  }
+
+  /**
+   * Constructor
+   *
+   * @param enabled Whether to combine writes or write each call directly
+   * @param window Amount of time to wait for other writers before writing a batch
+   * @param timeout Maximum amount of time a caller waits for its items to be written
+   */
+  public WriteCombiner(final boolean enabled, final Duration window, final Duration timeout) {
+    Objects.requireNonNull(window, "window == null");
+    Preconditions.checkArgument(window.getQuantity() >= 0, "window cannot be negative");
+    Objects.requireNonNull(timeout, "timeout == null");
+    Preconditions.checkArgument(timeout.getQuantity() > 0, "timeout must be greater than zero");
+    this.enabled = enabled;
+    this.windowMs = window.toMilliseconds();
+    this.timeoutMs = timeout.toMilliseconds();
+
+    final MetricRegistry registry = SharedMetricRegistries.getOrCreate("default");
+    this.batchSizes =
+        registry.histogram(MetricRegistry.name(WriteCombiner.class, "coalesced-batch-size"));
+    this.coalesced = registry.meter(MetricRegistry.name(WriteCombiner.class, "coalesced-writes"));
+  }
+
+  /**
+   * Write items to a key, combining them with any other items concurrently being written to the
+   * same key.
+   *
+   * @param key Key to write to
+   * @param items Items to write
+   * @param writer Writer used to write a batch
+   * @throws NotificationStoreException if the batch containing the items could not be written
+   */
+  public void write(final String key, final List<T> items, final BatchWriter<T> writer)
+      throws NotificationStoreException {
+
+    Objects.requireNonNull(key, "key == null");
+    Objects.requireNonNull(items, "items == null");
+    Objects.requireNonNull(writer, "writer == null");
+
+    if (!enabled) {
+      writer.write(key, items);
+      return;
+    }
+
+    final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    final Pending<T> pending = new Pending<>(items);
+    // queue the items while holding the key's map entry, so the slot can't be released in between
+    final Slot<T> slot =
+        slots.compute(
+            key,
+            (k, existing) -> {
+              final Slot<T> result = existing == null ? new Slot<>() : existing;
+              result.queue.add(pending);
+              return result;
+            });
+
+    try {
+      // wait for other writers to join without holding the lock, unless they write our items first
+      if (windowMs > 0) {
+        await(pending, TimeUnit.MILLISECONDS.toNanos(windowMs));
+      }
+
+      // Take a turn holding the lock until our items have been written. The holder writes a single
+      // batch, so callers whose items arrived too late for it write the next batch themselves.
+      while (!pending.result.isDone()) {
+        final long remaining = deadline - System.nanoTime();
+        if (remaining <= 0 || !slot.lock.tryLock(remaining, TimeUnit.NANOSECONDS)) {
+          break;
+        }
+        try {
+          if (!pending.result.isDone()) {
+            drain(key, slot, writer);
+          }
+        } finally {
+          slot.lock.unlock();
+        }
+      }
+
+      // give up on our items unless a batch has already taken them
+      if (slot.queue.remove(pending) || !await(pending, deadline - System.nanoTime())) {
+        LOGGER.error("Timed out waiting for combined write to key: {}", key);
+        throw new NotificationStoreException(
+            new TimeoutException("Timed out after " + timeoutMs + "ms writing to key: " + key));
+      }
+    } catch (InterruptedException e) {
+      LOGGER.warn("Interrupted waiting for combined write to key: " + key, e);
+      slot.queue.remove(pending);
+      Thread.currentThread().interrupt();
+      throw new NotificationStoreException(e);
+    } finally {
+      release(key, slot);
+    }
+  }
+
+  /**
+   * Remove a key's slot once nothing is queued or being written for it. The slot is only removed
+   * while holding its lock, and items are only queued through {@link ConcurrentMap#compute}, so a
+   * new slot is never created for a key while another is still in use. If another caller holds the
+   * lock, it releases the slot once it is done.
+   *
+   * @param key Key of the slot
+   * @param slot Slot to release
+   */
+  private void release(final String key, final Slot<T> slot) {
+    if (!slot.queue.isEmpty() || !slot.lock.tryLock()) {
+      return;
+    }
+    try {
+      slots.computeIfPresent(key, (k, s) -> s == slot && s.queue.isEmpty() ? null : s);
+    } finally {
+      slot.lock.unlock();
+    }
+  }
+
+  /**
+   * Wait for a caller's items to be written
+   *
+   * @param pending Caller's pending write
+   * @param timeoutNanos Maximum amount of time to wait
+   * @return true if the items were written, false if the timeout elapsed first
+   * @throws NotificationStoreException if the batch containing the items could not be written
+   * @throws InterruptedException if interrupted while waiting
+   */
+  private static boolean await(final Pending<?> pending, final long timeoutNanos)
+      throws NotificationStoreException, InterruptedException {
+    try {
+      pending.result.get(timeoutNanos, TimeUnit.NANOSECONDS);
+      return true;
+    } catch (TimeoutException e) {
+      return false;
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof NotificationStoreException) {
+        throw (NotificationStoreException) e.getCause();
+      }
+      throw new NotificationStoreException(e.getCause());
+    }
+  }
+
+  /**
+   * Return the number of writes waiting to be combined
+   *
+   * @return number of queued writes
+   */
+  public int size() {
+    return slots.values().stream().mapToInt(slot -> slot.queue.size()).sum();
+  }
+
+  /**
+   * Write all of the items currently queued for a key as a single batch. Must be called while
+   * holding the key's lock.
+   *
+   * @param key Key to write to
+   * @param slot Queue of pending writes for the key
+   * @param writer Writer used to write the batch
+   */
+  private void drain(final String key, final Slot<T> slot, final BatchWriter<T> writer) {
+    final List<Pending<T>> batch = new ArrayList<>();
+    final List<T> items = new ArrayList<>();
+    Pending<T> next;
+    while ((next = slot.queue.poll()) != null) {
+      batch.add(next);
+      items.addAll(next.items);
+    }
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    batchSizes.update(batch.size());
+    if (batch.size() > 1) {
+      LOGGER.debug("Combined {} writes to key: {}", batch.size(), key);
+      coalesced.mark(batch.size() - 1L);
+    }
+
+    try {
+      writer.write(key, items);
+      batch.forEach(p -> p.result.complete(null));
+    } catch (NotificationStoreException | RuntimeException e) {
+      batch.forEach(p -> p.result.completeExceptionally(e));
+    }
+  }
+
+  private static final class Slot<T> {
+    final Lock lock = new ReentrantLock();
+    final Queue<Pending<T>> queue = new ConcurrentLinkedQueue<>();
+  }
+
+  private static final class Pending<T> {
+    final List<T> items;
+    final CompletableFuture<Void> result = new CompletableFuture<>();
+
+    Pending(final List<T> items) {
+      this.items = items;
+    }
+  }
+}
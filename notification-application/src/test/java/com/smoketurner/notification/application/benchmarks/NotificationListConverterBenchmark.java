@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.benchmarks;
+
+import com.basho.riak.client.core.util.BinaryValue;
+import com.google.common.collect.ImmutableMap;
+import com.smoketurner.notification.api.Notification;
+import com.smoketurner.notification.application.riak.LazyNotificationList;
+import com.smoketurner.notification.application.riak.NotificationListConverter;
+import com.smoketurner.notification.application.riak.NotificationListFormat;
+import com.smoketurner.notification.application.riak.NotificationListObject;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares decoding a stored notification list eagerly with decoding it lazily, in each stored
+ * format. Run with the GC profiler (as {@link #main(String[])} does) to compare allocation rates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class NotificationListConverterBenchmark {
+
+  private static final int PAGE_SIZE = 20;
+
+  private NotificationListConverter converter;
+  private BinaryValue value;
+
+  @Param({"10", "100", "1000"})
+  public int size;
+
+  @Param({"PROTOBUF", "DEFLATE", "STRING_TABLE", "STRING_TABLE_DEFLATE"})
+  public NotificationListFormat format;
+
+  @Setup
+  public void setUp() {
+    converter = new NotificationListConverter(format);
+    final ZonedDateTime now = ZonedDateTime.parse("2019-04-10T17:52:43Z");
+    final NotificationListObject list = new NotificationListObject();
+    for (int i = 0; i < size; i++) {
+      list.addNotification(
+          Notification.builder("new-follower", "You have a new follower")
+              .withId(String.format("%04d", i))
+              .withCreatedAt(now.plusSeconds(i))
+              .withProperties(
+                  ImmutableMap.of("follower_id", String.valueOf(i), "message_id", "welcome"))
+              .build());
+    }
+    // delete every tenth notification
+    for (int i = 0; i < size; i += 10) {
+      list.deleteNotification(String.format("%04d", i));
+    }
+    value = converter.encode(list);
+  }
+
+  @Benchmark
+  public NotificationListObject decodeEager() {
+    return converter.toDomain(value, format.getContentType());
+  }
+
+  @Benchmark
+  public void decodeLazyAll(final Blackhole blackhole) {
+    final LazyNotificationList list = converter.toLazyDomain(value, format.getContentType());
+    for (Notification notification : list) {
+      blackhole.consume(notification);
+    }
+  }
+
+  @Benchmark
+  public void decodeLazyFirstPage(final Blackhole blackhole) {
+    final LazyNotificationList list = converter.toLazyDomain(value, format.getContentType());
+    final int count = Math.min(PAGE_SIZE, list.size());
+    for (int i = 0; i < count; i++) {
+      blackhole.consume(list.get(i));
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(
+            new OptionsBuilder()
+                .include(NotificationListConverterBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .warmupIterations(5)
+                .measurementIterations(5)
+                .build())
+        .run();
+  }
+}
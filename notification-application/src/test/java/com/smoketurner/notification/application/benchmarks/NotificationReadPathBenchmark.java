@@ -0,0 +1,119 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.benchmarks;
+
+import com.basho.riak.client.core.util.BinaryValue;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.smoketurner.notification.api.Notification;
+import com.smoketurner.notification.api.Rule;
+import com.smoketurner.notification.application.core.Rollup;
+import com.smoketurner.notification.application.core.RulePlan;
+import com.smoketurner.notification.application.riak.LazyNotificationList;
+import com.smoketurner.notification.application.riak.NotificationListConverter;
+import com.smoketurner.notification.application.riak.NotificationListFormat;
+import com.smoketurner.notification.application.riak.NotificationListObject;
+import com.smoketurner.notification.application.store.NotificationStore;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the notifications allocated on the read path: decoding a stored list, marking the
+ * notifications as unseen and rolling them up. Run with the GC profiler (as {@link #main(String[])}
+ * does) and compare the {@code gc.alloc.rate.norm} results.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class NotificationReadPathBenchmark {
+
+  private static final int SIZE = 1000;
+  private static final NotificationListFormat FORMAT = NotificationListFormat.STRING_TABLE;
+
+  private final NotificationListConverter converter = new NotificationListConverter(FORMAT);
+  private final RulePlan rules =
+      RulePlan.compile(ImmutableMap.of("new-follower", Rule.builder().withMaxSize(5).build()));
+  private BinaryValue value;
+  private List<Notification> decoded;
+
+  @Setup
+  public void setUp() {
+    final ZonedDateTime now = ZonedDateTime.parse("2019-04-10T17:52:43Z");
+    final NotificationListObject list = new NotificationListObject();
+    for (int i = 0; i < SIZE; i++) {
+      list.addNotification(
+          Notification.builder(i % 2 == 0 ? "new-follower" : "new-like", "You have a new follower")
+              .withId(String.format("%04d", i))
+              .withCreatedAt(now.plusSeconds(i))
+              .withProperties(ImmutableMap.of("follower_id", String.valueOf(i)))
+              .build());
+    }
+    value = converter.encode(list);
+    decoded = ImmutableList.copyOf(converter.toLazyDomain(value, FORMAT.getContentType()));
+  }
+
+  @Benchmark
+  public void decode(final Blackhole blackhole) {
+    final LazyNotificationList list = converter.toLazyDomain(value, FORMAT.getContentType());
+    for (Notification notification : list) {
+      blackhole.consume(notification);
+    }
+  }
+
+  @Benchmark
+  public void setUnseenState(final Blackhole blackhole) {
+    NotificationStore.setUnseenState(decoded, true).forEach(blackhole::consume);
+  }
+
+  @Benchmark
+  public void rollup(final Blackhole blackhole) {
+    new Rollup(rules)
+        .rollup(NotificationStore.setUnseenState(decoded, true))
+        .forEach(blackhole::consume);
+  }
+
+  @Benchmark
+  public void readPath(final Blackhole blackhole) {
+    final LazyNotificationList list = converter.toLazyDomain(value, FORMAT.getContentType());
+    new Rollup(rules)
+        .rollup(NotificationStore.setUnseenState(list, true))
+        .forEach(blackhole::consume);
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(
+            new OptionsBuilder()
+                .include(NotificationReadPathBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .warmupIterations(5)
+                .measurementIterations(5)
+                .build())
+        .run();
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.benchmarks;
+
+import com.smoketurner.notification.api.Notification;
+import com.smoketurner.notification.application.core.NotificationSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares {@link NotificationSet} with the {@link TreeSet} it replaced, at the maximum size of a
+ * stored notification list.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class NotificationSetBenchmark {
+
+  private static final int SIZE = 1000;
+
+  // newest to oldest, as notifications are decoded from a stored list
+  private final List<Notification> ordered = new ArrayList<>(SIZE);
+  private final List<Notification> shuffled = new ArrayList<>(SIZE);
+  private final TreeSet<Notification> treeSet = new TreeSet<>();
+  private final NotificationSet notificationSet = new NotificationSet();
+  private Notification from;
+  private Notification to;
+
+  @Setup
+  public void setUp() {
+    for (int i = SIZE - 1; i >= 0; i--) {
+      ordered.add(Notification.create(String.format("%04d", i)));
+    }
+    shuffled.addAll(ordered);
+    Collections.shuffle(shuffled, new Random(1));
+    treeSet.addAll(ordered);
+    notificationSet.addAll(ordered);
+    from = ordered.get(SIZE / 4);
+    to = ordered.get(SIZE / 2);
+  }
+
+  @Benchmark
+  public TreeSet<Notification> insertOrderedTreeSet() {
+    final TreeSet<Notification> set = new TreeSet<>();
+    for (Notification notification : ordered) {
+      set.add(notification);
+    }
+    return set;
+  }
+
+  @Benchmark
+  public NotificationSet insertOrderedNotificationSet() {
+    final NotificationSet set = new NotificationSet();
+    for (Notification notification : ordered) {
+      set.add(notification);
+    }
+    return set;
+  }
+
+  @Benchmark
+  public TreeSet<Notification> insertShuffledTreeSet() {
+    final TreeSet<Notification> set = new TreeSet<>();
+    for (Notification notification : shuffled) {
+      set.add(notification);
+    }
+    return set;
+  }
+
+  @Benchmark
+  public NotificationSet insertShuffledNotificationSet() {
+    final NotificationSet set = new NotificationSet();
+    for (Notification notification : shuffled) {
+      set.add(notification);
+    }
+    return set;
+  }
+
+  @Benchmark
+  public void iterateTreeSet(final Blackhole blackhole) {
+    for (Notification notification : treeSet) {
+      blackhole.consume(notification);
+    }
+  }
+
+  @Benchmark
+  public void iterateNotificationSet(final Blackhole blackhole) {
+    for (Notification notification : notificationSet) {
+      blackhole.consume(notification);
+    }
+  }
+
+  @Benchmark
+  public void subSetTreeSet(final Blackhole blackhole) {
+    for (Notification notification : treeSet.subSet(from, true, to, true)) {
+      blackhole.consume(notification);
+    }
+  }
+
+  @Benchmark
+  public void subSetNotificationSet(final Blackhole blackhole) {
+    for (Notification notification : notificationSet.subSet(from, true, to, true)) {
+      blackhole.consume(notification);
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(
+            new OptionsBuilder()
+                .include(NotificationSetBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .warmupIterations(5)
+                .measurementIterations(5)
+                .build())
+        .run();
+  }
+}
@@ -15,11 +15,19 @@
  */
 package com.smoketurner.notification.application.benchmarks;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
 import com.smoketurner.notification.api.Notification;
+import com.smoketurner.notification.api.Rule;
+import com.smoketurner.notification.application.core.NotificationSet;
+import com.smoketurner.notification.application.core.Rollup;
+import com.smoketurner.notification.application.core.RollupState;
+import com.smoketurner.notification.application.core.RulePlan;
+import com.smoketurner.notification.application.core.UserNotifications;
 import com.smoketurner.notification.application.store.NotificationStore;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 import org.openjdk.jmh.annotations.Benchmark;
@@ -37,13 +45,46 @@ import org.openjdk.jmh.runner.options.OptionsBuilder;
 @State(Scope.Benchmark)
 public class NotificationStoreBenchmark {
 
+  private static final int PAGE_SIZE = 20;
   private final List<Notification> notifications = new ArrayList<>(100000);
+  private final NotificationSet unseen = new NotificationSet();
+  private final NotificationSet seen = new NotificationSet();
+  private final RulePlan rules =
+      RulePlan.compile(ImmutableMap.of("like", Rule.builder().withMaxSize(3).build()));
+  private final List<Notification> stored = new ArrayList<>(10000);
+  private final RulePlan matchOnRules =
+      RulePlan.compile(
+          ImmutableMap.of("like", Rule.builder().withMatchOn("actor").withMaxSize(3).build()));
+  private RollupState storedRollups;
 
   @Setup
   public void setUp() {
     for (int i = 0; i < 100000; i++) {
       notifications.add(Notification.create(String.format("%05d", i)));
     }
+
+    // 1000 stored notifications, half of which have been seen
+    for (int i = 0; i < 1000; i++) {
+      final Notification notification =
+          Notification.builder(i % 2 == 0 ? "like" : "comment", "message")
+              .withId(String.format("%04d", i))
+              .build();
+      if (i >= 500) {
+        unseen.add(notification);
+      } else {
+        seen.add(notification);
+      }
+    }
+
+    // 10000 stored notifications, newest first
+    for (int i = 9999; i >= 0; i--) {
+      stored.add(
+          Notification.builder(i % 2 == 0 ? "like" : "comment", "message")
+              .withId(String.format("%05d", i))
+              .withProperties(ImmutableMap.of("actor", String.valueOf(i % 50)))
+              .build());
+    }
+    storedRollups = RollupState.create(stored, matchOnRules);
   }
 
   @Benchmark
@@ -52,13 +93,51 @@ public class NotificationStoreBenchmark {
   }
 
   @Benchmark
-  public Optional<Notification> tryFind() {
-    return NotificationStore.tryFind(notifications, "10000");
+  public List<Notification> unseenRebuiltPage() {
+    return page(
+        new UserNotifications(
+            new Rollup(rules).rollup(NotificationStore.setUnseenState(unseen, true)),
+            new Rollup(rules).rollup(NotificationStore.setUnseenState(seen, false))));
+  }
+
+  @Benchmark
+  public List<Notification> unseenViewPage() {
+    return page(
+        UserNotifications.markOnRead(
+            new Rollup(rules).rollup(unseen.stream()), new Rollup(rules).rollup(seen.stream())));
+  }
+
+  @Benchmark
+  public List<Notification> unseenRebuiltAll() {
+    return new UserNotifications(
+            new Rollup(rules).rollup(NotificationStore.setUnseenState(unseen, true)),
+            new Rollup(rules).rollup(NotificationStore.setUnseenState(seen, false)))
+        .getNotifications()
+        .asList();
   }
 
   @Benchmark
-  public int indexOf() {
-    return NotificationStore.indexOf(notifications, "10000");
+  public List<Notification> unseenViewAll() {
+    return UserNotifications.markOnRead(
+            new Rollup(rules).rollup(unseen.stream()), new Rollup(rules).rollup(seen.stream()))
+        .getNotifications()
+        .asList();
+  }
+
+  @Benchmark
+  public NotificationSet storedRollupsFirstPage() {
+    return storedRollups.rollups(stored, 0, stored.size(), PAGE_SIZE + 2, false);
+  }
+
+  @Benchmark
+  public NotificationSet storedRollupsDeepPage() {
+    final int start = storedRollups.rollupStart(9000);
+    return storedRollups.rollups(stored, start, stored.size(), PAGE_SIZE + 2, false);
+  }
+
+  private static List<Notification> page(final UserNotifications notifications) {
+    return ImmutableList.copyOf(
+        Iterables.limit(notifications.getOrderedNotifications(), PAGE_SIZE));
   }
 
   public static void main(String[] args) throws Exception {
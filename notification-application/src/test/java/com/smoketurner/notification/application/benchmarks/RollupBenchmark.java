@@ -15,13 +15,19 @@
  */
 package com.smoketurner.notification.application.benchmarks;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterators;
 import com.smoketurner.notification.api.Notification;
 import com.smoketurner.notification.api.Rule;
 import com.smoketurner.notification.application.core.Rollup;
+import com.smoketurner.notification.application.core.RulePlan;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
@@ -39,34 +45,92 @@ import org.openjdk.jmh.runner.options.OptionsBuilder;
 public class RollupBenchmark {
 
   private static final String CATEGORY = "test";
+  private static final int MATCH_VALUES = 50;
+  private static final int CATEGORIES = 20;
   private final Rule sizeRule = Rule.builder().withMaxSize(3).build();
+  private final Rule matchOnRule = Rule.builder().withMaxSize(50).withMatchOn("actor").build();
   private final List<Notification> notifications = new ArrayList<>(1000);
+  private final List<Notification> matchOnNotifications = new ArrayList<>(1000);
+  private final List<Notification> categoryNotifications = new ArrayList<>(1000);
+  private final Map<String, Rule> categoryRules = new HashMap<>();
+  private RulePlan noMatchesPlan;
+  private RulePlan everyMatchPlan;
+  private RulePlan matchOnPlan;
+  private RulePlan categoryPlan;
 
   @Setup
   public void setUp() {
     for (int i = 0; i < 1000; i++) {
       notifications.add(Notification.builder(CATEGORY).withId(String.format("%03d", i)).build());
     }
+
+    // newest to oldest, spread across many match_on values and categories
+    for (int i = 999; i >= 0; i--) {
+      matchOnNotifications.add(
+          Notification.builder(CATEGORY)
+              .withId(String.format("%03d", i))
+              .withProperties(ImmutableMap.of("actor", String.valueOf(i % MATCH_VALUES)))
+              .build());
+      categoryNotifications.add(
+          Notification.builder(CATEGORY + (i % CATEGORIES))
+              .withId(String.format("%03d", i))
+              .withProperties(ImmutableMap.of("actor", String.valueOf(i % MATCH_VALUES)))
+              .build());
+    }
+    for (int i = 0; i < CATEGORIES; i++) {
+      categoryRules.put(CATEGORY + i, matchOnRule);
+    }
+
+    // the rules are compiled once when they are loaded, not on each request
+    noMatchesPlan = RulePlan.compile(ImmutableMap.of("other", sizeRule));
+    everyMatchPlan = RulePlan.compile(ImmutableMap.of(CATEGORY, sizeRule));
+    matchOnPlan = RulePlan.compile(ImmutableMap.of(CATEGORY, matchOnRule));
+    categoryPlan = RulePlan.compile(categoryRules);
   }
 
   @Benchmark
   public Stream<Notification> rollupNoRules() {
-    final Rollup rollup = new Rollup(ImmutableMap.of());
+    final Rollup rollup = new Rollup(RulePlan.EMPTY);
     return rollup.rollup(notifications.stream());
   }
 
   @Benchmark
   public Stream<Notification> rollupNoMatches() {
-    final Rollup rollup = new Rollup(ImmutableMap.of("other", sizeRule));
+    final Rollup rollup = new Rollup(noMatchesPlan);
     return rollup.rollup(notifications.stream());
   }
 
   @Benchmark
   public Stream<Notification> rollupEveryMatch() {
-    final Rollup rollup = new Rollup(ImmutableMap.of(CATEGORY, sizeRule));
+    final Rollup rollup = new Rollup(everyMatchPlan);
     return rollup.rollup(notifications.stream());
   }
 
+  @Benchmark
+  public List<Notification> rollupFirstPage() {
+    final Rollup rollup = new Rollup(everyMatchPlan);
+    return rollup.rollup(matchOnNotifications.stream()).limit(20).collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public List<Notification> rollupFirstPageLazy() {
+    final Rollup rollup = new Rollup(everyMatchPlan);
+    return ImmutableList.copyOf(
+        Iterators.limit(rollup.iterator(matchOnNotifications.iterator()), 20));
+  }
+
+  @Benchmark
+  public List<Notification> rollupHighMatchOnCardinality() {
+    final Rollup rollup = new Rollup(matchOnPlan);
+    return rollup.rollup(matchOnNotifications.stream()).collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public List<Notification> rollupManyCategories() {
+    final Rollup rollup = new Rollup(categoryPlan);
+    return rollup.rollup(categoryNotifications.stream()).collect(Collectors.toList());
+  }
+
   public static void main(String[] args) throws Exception {
     new Runner(
             new OptionsBuilder()
@@ -0,0 +1,143 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.smoketurner.notification.api.Notification;
+import com.smoketurner.notification.api.RollupSummary;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import org.junit.Test;
+
+public class NotificationPageTest {
+
+  private final List<Notification> notifications =
+      ImmutableList.of(
+          Notification.create("5"),
+          Notification.create("4"),
+          Notification.create("3"),
+          Notification.create("2"),
+          Notification.create("1"));
+
+  @Test
+  public void testEmpty() {
+    final NotificationPage page =
+        NotificationPage.create(new UserNotifications(), Optional.empty(), true, 20);
+    assertThat(page).isEmpty();
+    assertThat(page.getFirstId()).isEmpty();
+    assertThat(page.getLastId()).isEmpty();
+    assertThat(page.hasMore()).isFalse();
+  }
+
+  @Test
+  public void testFirstPage() {
+    final NotificationPage page =
+        NotificationPage.create(new UserNotifications(notifications), Optional.empty(), true, 2);
+    assertThat(page).containsExactly(Notification.create("5"), Notification.create("4"));
+    assertThat(page.getFirstId()).contains("5");
+    assertThat(page.getLastId()).contains("4");
+    assertThat(page.hasMore()).isTrue();
+  }
+
+  @Test
+  public void testFromInclusive() {
+    // the notifications start from the rollup of the starting notification
+    final NotificationPage page =
+        NotificationPage.create(
+            new UserNotifications(notifications.subList(2, 5)), Optional.of("3"), true, 2);
+    assertThat(page).containsExactly(Notification.create("3"), Notification.create("2"));
+    assertThat(page.hasMore()).isTrue();
+  }
+
+  @Test
+  public void testFromExclusive() {
+    final NotificationPage page =
+        NotificationPage.create(
+            new UserNotifications(notifications.subList(2, 5)), Optional.of("3"), false, 2);
+    assertThat(page).containsExactly(Notification.create("2"), Notification.create("1"));
+    assertThat(page.getFirstId()).contains("2");
+    assertThat(page.getLastId()).contains("1");
+    assertThat(page.hasMore()).isFalse();
+  }
+
+  @Test
+  public void testFromRolledUp() {
+    final Notification rollup =
+        Notification.create("5").withNotifications(ImmutableList.of(Notification.create("3")));
+    final List<Notification> list = ImmutableList.of(rollup, Notification.create("4"));
+
+    // a page from a rolled up notification starts from the rollup it is in
+    assertThat(NotificationPage.create(new UserNotifications(list), Optional.of("3"), true, 20))
+        .containsExactly(rollup, Notification.create("4"));
+    assertThat(NotificationPage.create(new UserNotifications(list), Optional.of("3"), false, 20))
+        .containsExactly(Notification.create("4"));
+  }
+
+  @Test
+  public void testFromNotFound() {
+    // starts from the next newer notification
+    final List<Notification> list =
+        ImmutableList.of(Notification.create("30"), Notification.create("10"));
+    assertThat(NotificationPage.create(new UserNotifications(list), Optional.of("20"), true, 20))
+        .containsExactly(Notification.create("30"), Notification.create("10"));
+    assertThat(NotificationPage.create(new UserNotifications(list), Optional.of("20"), false, 20))
+        .containsExactly(Notification.create("10"));
+
+    // starts from the newest notification, which is older than the starting ID
+    assertThat(NotificationPage.create(new UserNotifications(list), Optional.of("60"), false, 20))
+        .hasSize(2);
+  }
+
+  @Test
+  public void testSetsStateAsWritten() {
+    final Notification rollup =
+        Notification.create("4").withNotifications(ImmutableList.of(Notification.create("3")));
+    final UserNotifications list =
+        UserNotifications.markOnRead(
+                ImmutableList.of(Notification.create("5"), rollup),
+                ImmutableList.of(Notification.create("2"), Notification.create("1")))
+            .summarize(RollupSummarizer.of(0));
+    final NotificationPage page = NotificationPage.create(list, Optional.of("5"), false, 2);
+
+    // the bounds are found without setting any state
+    assertThat(page).hasSize(2);
+    assertThat(page.getFirstId()).contains("4");
+    assertThat(page.getLastId()).contains("2");
+    assertThat(page.hasMore()).isTrue();
+    assertThat(rollup.getUnseen()).isEmpty();
+
+    // the page is summarized and has its state set as it is iterated
+    final Iterator<Notification> iterator = page.iterator();
+    final Notification first = iterator.next();
+    assertThat(first.getUnseen()).contains(true);
+    assertThat(first.getSummary()).contains(RollupSummary.of(1, "3", "3"));
+    assertThat(iterator.next().getUnseen()).contains(false);
+    assertThat(iterator.hasNext()).isFalse();
+  }
+
+  @Test
+  public void testPastEnd() {
+    final NotificationPage page =
+        NotificationPage.create(
+            new UserNotifications(notifications.subList(4, 5)), Optional.of("1"), false, 2);
+    assertThat(page).isEmpty();
+    assertThat(page.getFirstId()).isEmpty();
+    assertThat(page.hasMore()).isFalse();
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+import com.smoketurner.notification.api.Notification;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+public class NotificationSetTest {
+
+  private final Notification n1 = Notification.create("1");
+  private final Notification n2 = Notification.create("2");
+  private final Notification n3 = Notification.create("3");
+  private final Notification n4 = Notification.create("4");
+  private final Notification n5 = Notification.create("5");
+
+  @Test
+  public void testAdd() {
+    final NotificationSet set = new NotificationSet();
+    assertThat(set).isEmpty();
+    assertThat(set.add(n3)).isTrue();
+    assertThat(set.add(n1)).isTrue();
+    assertThat(set.add(n5)).isTrue();
+    assertThat(set.add(n2)).isTrue();
+    assertThat(set.add(Notification.builder("other").withId("2").build())).isFalse();
+    assertThat(set).containsExactly(n5, n3, n2, n1);
+    assertThat(set.first()).isEqualTo(n5);
+    assertThat(set.last()).isEqualTo(n1);
+    assertThat(set.contains(n2)).isTrue();
+    assertThat(set.contains(n4)).isFalse();
+  }
+
+  @Test
+  public void testMatchesTreeSet() {
+    final Random random = new Random(1);
+    final List<Notification> notifications = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      notifications.add(Notification.create(String.format("%04d", random.nextInt(1000))));
+    }
+
+    final TreeSet<Notification> expected = new TreeSet<>(notifications);
+    final NotificationSet actual = new NotificationSet();
+    notifications.forEach(actual::add);
+    assertThat(actual).containsExactlyElementsOf(expected);
+    assertThat(actual).isEqualTo(expected);
+    assertThat(actual.stream().collect(Collectors.toList())).isEqualTo(new ArrayList<>(expected));
+
+    final Notification key = Notification.create("0500");
+    assertThat(actual.floor(key)).isEqualTo(expected.floor(key));
+    assertThat(actual.ceiling(key)).isEqualTo(expected.ceiling(key));
+    assertThat(actual.lower(key)).isEqualTo(expected.lower(key));
+    assertThat(actual.higher(key)).isEqualTo(expected.higher(key));
+    assertThat(actual.headSet(key)).containsExactlyElementsOf(expected.headSet(key));
+    assertThat(actual.tailSet(key)).containsExactlyElementsOf(expected.tailSet(key));
+  }
+
+  @Test
+  public void testMatchesTreeSetAfterChanges() {
+    final Random random = new Random(2);
+    final TreeSet<Notification> expected = new TreeSet<>();
+    final NotificationSet actual = new NotificationSet();
+
+    // oldest to newest, so every notification is added at the start
+    for (int i = 0; i < 300; i++) {
+      final Notification notification = Notification.create(String.format("%04d", i));
+      expected.add(notification);
+      actual.add(notification);
+    }
+    for (int i = 0; i < 1000; i++) {
+      final Notification notification =
+          Notification.create(String.format("%04d", random.nextInt(600)));
+      if (random.nextBoolean()) {
+        assertThat(actual.add(notification)).isEqualTo(expected.add(notification));
+      } else {
+        assertThat(actual.remove(notification)).isEqualTo(expected.remove(notification));
+      }
+    }
+    assertThat(actual).containsExactlyElementsOf(expected);
+    assertThat(actual.pollFirst()).isEqualTo(expected.pollFirst());
+    assertThat(actual.pollLast()).isEqualTo(expected.pollLast());
+    assertThat(actual).containsExactlyElementsOf(expected);
+  }
+
+  @Test
+  public void testAddAllSorted() {
+    final NotificationSet set = new NotificationSet(ImmutableList.of(n4, n2));
+    assertThat(set.addAll(ImmutableSortedSet.of(n5, n3, n2, n1))).isTrue();
+    assertThat(set).containsExactly(n5, n4, n3, n2, n1);
+    assertThat(set.addAll(new TreeSet<>(ImmutableList.of(n1, n5)))).isFalse();
+    assertThat(set.addAll(Collections.emptySortedSet())).isFalse();
+    assertThat(set).hasSize(5);
+  }
+
+  @Test
+  public void testFloorCeiling() {
+    final NotificationSet set = new NotificationSet(ImmutableList.of(n5, n3, n1));
+    assertThat(set.floor(n3)).isEqualTo(n3);
+    assertThat(set.floor(n4)).isEqualTo(n5);
+    assertThat(set.floor(Notification.create("6"))).isNull();
+    assertThat(set.floor(Notification.create("0"))).isEqualTo(n1);
+    assertThat(set.ceiling(n3)).isEqualTo(n3);
+    assertThat(set.ceiling(n4)).isEqualTo(n3);
+    assertThat(set.ceiling(Notification.create("0"))).isNull();
+    assertThat(set.lower(n3)).isEqualTo(n5);
+    assertThat(set.higher(n3)).isEqualTo(n1);
+  }
+
+  @Test
+  public void testViews() {
+    final NotificationSet set = new NotificationSet(ImmutableList.of(n5, n4, n3, n2, n1));
+    assertThat(set.headSet(n3)).containsExactly(n5, n4);
+    assertThat(set.headSet(n3, true)).containsExactly(n5, n4, n3);
+    assertThat(set.tailSet(n3)).containsExactly(n3, n2, n1);
+    assertThat(set.tailSet(n3, false)).containsExactly(n2, n1);
+    assertThat(set.subSet(n4, n2)).containsExactly(n4, n3);
+    assertThat(set.subSet(n4, false, n2, true)).containsExactly(n3, n2);
+
+    final NotificationSet tail = set.tailSet(n4);
+    assertThat(tail).hasSize(4);
+    assertThat(tail.first()).isEqualTo(n4);
+    assertThat(tail.contains(n5)).isFalse();
+    assertThat(tail.floor(n5)).isNull();
+    assertThat(tail.headSet(n2)).containsExactly(n4, n3);
+    assertThat(tail.tailSet(n5)).containsExactly(n4, n3, n2, n1);
+
+    // views are backed by the set
+    set.remove(n3);
+    assertThat(tail).containsExactly(n4, n2, n1);
+    assertThatThrownBy(() -> tail.add(n3)).isInstanceOf(UnsupportedOperationException.class);
+  }
+
+  @Test
+  public void testTruncate() {
+    final NotificationSet set = new NotificationSet(ImmutableList.of(n5, n4, n3, n2, n1));
+    assertThat(set.truncate(10)).isEqualTo(0);
+    assertThat(set.truncate(3)).isEqualTo(2);
+    assertThat(set).containsExactly(n5, n4, n3);
+    assertThat(set.pollLast()).isEqualTo(n3);
+    assertThat(set.pollFirst()).isEqualTo(n5);
+    assertThat(set).containsExactly(n4);
+  }
+
+  @Test
+  public void testRemove() {
+    final NotificationSet set = new NotificationSet(ImmutableList.of(n5, n4, n3, n2, n1));
+    assertThat(set.removeIf(n -> n.getId("").equals("2") || n.getId("").equals("4"))).isTrue();
+    assertThat(set).containsExactly(n5, n3, n1);
+
+    final Iterator<Notification> iterator = set.iterator();
+    iterator.next();
+    iterator.remove();
+    assertThat(iterator.next()).isEqualTo(n3);
+    assertThat(set).containsExactly(n3, n1);
+
+    final Iterator<Notification> failing = set.iterator();
+    set.add(n2);
+    assertThatThrownBy(failing::next).isInstanceOf(ConcurrentModificationException.class);
+  }
+}
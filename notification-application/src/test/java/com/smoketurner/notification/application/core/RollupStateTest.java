@@ -0,0 +1,224 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.smoketurner.notification.api.Notification;
+import com.smoketurner.notification.api.Rule;
+import com.smoketurner.notification.application.store.NotificationStore;
+import io.dropwizard.util.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Test;
+
+public class RollupStateTest {
+
+  private static final long START = 1555000000000L;
+
+  private final RulePlan rules =
+      RulePlan.compile(
+          ImmutableMap.of(
+              "like",
+              Rule.builder().withMaxSize(3).withMaxDuration(Duration.minutes(30)).build(),
+              "follow",
+              Rule.builder().withMatchOn("actor").withMaxDuration(Duration.hours(1)).build()));
+  private final Random random = new Random(1);
+  private int count;
+  private long createdAt = START;
+
+  @Test
+  public void testCreate() {
+    final List<Notification> notifications = newest(200);
+    final RollupState state = RollupState.create(notifications, rules);
+
+    assertThat(state.size()).isEqualTo(200);
+    assertThat(describe(state.rollups(notifications, 0, 200, Integer.MAX_VALUE, true)))
+        .isEqualTo(describe(rollup(notifications, true)));
+  }
+
+  @Test
+  public void testPrepend() {
+    final NotificationSet notifications = new NotificationSet();
+    RollupState state = RollupState.create(notifications.asList(), rules);
+
+    for (int i = 0; i < 100; i++) {
+      final List<Notification> added = newest(1 + random.nextInt(3));
+      notifications.addAll(added);
+      notifications.truncate(150);
+
+      state = state.prepend(notifications.asList(), added.size(), rules);
+      final RollupState expected = RollupState.create(notifications.asList(), rules);
+      assertThat(state.toString()).isEqualTo(expected.toString());
+    }
+  }
+
+  @Test
+  public void testPrependWithoutLimits() {
+    final RulePlan rules =
+        RulePlan.compile(ImmutableMap.of("like", Rule.builder().withMatchOn("actor").build()));
+    final NotificationSet notifications = new NotificationSet(newest(50));
+    RollupState state = RollupState.create(notifications.asList(), rules);
+
+    final List<Notification> added = newest(2);
+    notifications.addAll(added);
+    state = state.prepend(notifications.asList(), added.size(), rules);
+    assertThat(state.toString())
+        .isEqualTo(RollupState.create(notifications.asList(), rules).toString());
+  }
+
+  @Test
+  public void testPrependChangedRules() {
+    final NotificationSet notifications = new NotificationSet(newest(50));
+    final RollupState state = RollupState.create(notifications.asList(), RulePlan.EMPTY);
+
+    final List<Notification> added = newest(2);
+    notifications.addAll(added);
+    final RollupState updated = state.prepend(notifications.asList(), added.size(), rules);
+    assertThat(updated.isCurrent(rules)).isTrue();
+    assertThat(updated.toString())
+        .isEqualTo(RollupState.create(notifications.asList(), rules).toString());
+  }
+
+  @Test
+  public void testSplit() {
+    final List<Notification> notifications = newest(200);
+    final RollupState state = RollupState.create(notifications, rules);
+
+    for (int split = 0; split <= 200; split += 7) {
+      final RollupState rollups = state.split(notifications, split, rules);
+      assertThat(describe(rollups.rollups(notifications, 0, split, Integer.MAX_VALUE, true)))
+          .isEqualTo(describe(rollup(notifications.subList(0, split), true)));
+      assertThat(describe(rollups.rollups(notifications, split, 200, Integer.MAX_VALUE, false)))
+          .isEqualTo(describe(rollup(notifications.subList(split, 200), false)));
+    }
+  }
+
+  @Test
+  public void testRollupsLimit() {
+    final List<Notification> notifications = newest(100);
+    final RollupState state = RollupState.create(notifications, rules);
+
+    final List<String> all =
+        describe(state.rollups(notifications, 0, 100, Integer.MAX_VALUE, true));
+    assertThat(describe(state.rollups(notifications, 0, 100, 5, true)))
+        .isEqualTo(all.subList(0, 5));
+    assertThat(state.rollups(notifications, 0, 100, 0, true)).isEmpty();
+
+    final int start = state.rollupStart(50);
+    assertThat(start).isLessThanOrEqualTo(50);
+    assertThat(state.rollups(notifications, start, 100, 1, true).first())
+        .isEqualTo(notifications.get(start));
+  }
+
+  @Test
+  public void testPageIndex() {
+    final List<Notification> notifications = newest(200);
+    final RollupState state = RollupState.create(notifications, rules);
+    final List<String> all =
+        describe(state.rollups(notifications, 0, 200, Integer.MAX_VALUE, true));
+
+    for (int i = 0; i < 200; i++) {
+      // the page of a rolled up notification starts at the rollup it is in
+      final int start = state.rollupStart(i);
+      assertThat(start).isEqualTo(i - state.getOffset(i));
+
+      // reading a page from the middle of the list gives the same rollups as reading all of them
+      final int position = rollupPosition(state, start);
+      assertThat(describe(state.rollups(notifications, start, 200, 3, true)))
+          .isEqualTo(all.subList(position, Math.min(position + 3, all.size())));
+    }
+  }
+
+  /** Number of rollups which start before a rollup head */
+  private static int rollupPosition(final RollupState state, final int head) {
+    int count = 0;
+    for (int i = 0; i < head; i++) {
+      if (state.getOffset(i) == 0) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Test
+  public void testFromOffsets() {
+    final List<Notification> notifications = newest(100);
+    final RollupState state = RollupState.create(notifications, rules);
+
+    final int[] offsets = new int[state.size()];
+    for (int i = 0; i < offsets.length; i++) {
+      offsets[i] = state.getOffset(i);
+    }
+    final RollupState decoded = RollupState.fromOffsets(state.getVersion(), offsets).get();
+    assertThat(decoded.toString()).isEqualTo(state.toString());
+    assertThat(decoded.isCurrent(rules)).isTrue();
+
+    assertThat(RollupState.fromOffsets(0, new int[] {1})).isEmpty();
+    assertThat(RollupState.fromOffsets(0, new int[] {0, 1, 1})).isEmpty();
+    assertThat(RollupState.fromOffsets(0, new int[] {0, -1})).isEmpty();
+    assertThat(RollupState.fromOffsets(0, new int[] {0, 1, 2, 0})).isPresent();
+  }
+
+  /**
+   * Create notifications which are all newer than the ones created before, ordered from newest to
+   * oldest, with a mix of categories, actors and gaps between them
+   */
+  private List<Notification> newest(final int size) {
+    final List<Notification> notifications = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      createdAt += random.nextInt(20) * 60000L;
+      final String category = ImmutableList.of("like", "follow", "comment").get(random.nextInt(3));
+      notifications.add(
+          0,
+          Notification.builder(category, "message")
+              .withId(String.format("%05d", count++))
+              .withCreatedAt(createdAt)
+              .withProperties(ImmutableMap.of("actor", String.valueOf(random.nextInt(3))))
+              .build());
+    }
+    return notifications;
+  }
+
+  private Stream<Notification> rollup(
+      final List<Notification> notifications, final boolean unseen) {
+    return new Rollup(rules).rollup(NotificationStore.setUnseenState(notifications, unseen));
+  }
+
+  private static List<String> describe(final Iterable<Notification> notifications) {
+    final List<String> descriptions = new ArrayList<>();
+    notifications.forEach(
+        n ->
+            descriptions.add(
+                n.getId("")
+                    + " "
+                    + n.getUnseen().orElse(null)
+                    + " "
+                    + n.getNotifications().stream()
+                        .map(c -> c.getId("") + c.getUnseen().orElse(null))
+                        .collect(Collectors.toList())));
+    return descriptions;
+  }
+
+  private static List<String> describe(final Stream<Notification> notifications) {
+    return describe(notifications.collect(Collectors.toList()));
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import com.smoketurner.notification.api.Notification;
+import com.smoketurner.notification.api.RollupSummary;
+import com.smoketurner.notification.api.Rule;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+public class RollupSummarizerTest {
+
+  private final RulePlan rules =
+      RulePlan.compile(
+          ImmutableMap.of(
+              "like",
+              Rule.builder().withMatchOn("post_id").withSummarySize(2).build(),
+              "follow",
+              Rule.builder().withMatchOn("actor").build()));
+
+  @Test
+  public void testSummarizeByRule() {
+    final RollupSummarizer summarizer = RollupSummarizer.of(rules);
+
+    final Notification like = rollup("like", 100);
+    final Notification actual = summarizer.summarize(like);
+    assertThat(actual).isEqualTo(like);
+    assertThat(actual.getSummary()).contains(RollupSummary.of(99, "098", "000"));
+    assertThat(actual.getNotifications())
+        .containsExactly(Notification.create("098"), Notification.create("097"));
+    assertThat(actual.getCategory()).isEqualTo("like");
+
+    // categories without a summary_size are returned in full
+    final Notification follow = rollup("follow", 100);
+    assertThat(summarizer.summarize(follow)).isSameAs(follow);
+
+    // notifications which aren't rollups are returned as they are
+    final Notification single = Notification.builder("like").withId("1").build();
+    assertThat(summarizer.summarize(single)).isSameAs(single);
+
+    // summarized notifications are not summarized again
+    assertThat(summarizer.summarize(actual)).isSameAs(actual);
+  }
+
+  @Test
+  public void testSummarizeByRequest() {
+    final RollupSummarizer summarizer = RollupSummarizer.of(5);
+
+    final Notification actual = summarizer.summarize(rollup("follow", 100));
+    assertThat(actual.getSummary()).contains(RollupSummary.of(99, "098", "000"));
+    assertThat(actual.getNotifications()).hasSize(5);
+
+    // small rollups are summarized with all of their notifications
+    final Notification small = rollup("follow", 3);
+    final Notification summarized = summarizer.summarize(small);
+    assertThat(summarized.getSummary()).contains(RollupSummary.of(2, "001", "000"));
+    assertThat(summarized.getNotifications()).isSameAs(small.getNotifications());
+
+    assertThat(RollupSummarizer.of(0).summarize(small).getNotifications()).isEmpty();
+  }
+
+  @Test
+  public void testNoSummaries() {
+    assertThat(RollupSummarizer.of(RulePlan.EMPTY)).isSameAs(RollupSummarizer.NONE);
+
+    final Notification like = rollup("like", 10);
+    assertThat(RollupSummarizer.NONE.summarize(like)).isSameAs(like);
+  }
+
+  /**
+   * Create a rollup whose head is the newest of a number of notifications
+   *
+   * @param category Notification category
+   * @param size Number of notifications
+   * @return the rollup
+   */
+  private static Notification rollup(final String category, final int size) {
+    final NotificationSet children =
+        IntStream.range(0, size - 1)
+            .mapToObj(i -> Notification.builder(category).withId(String.format("%03d", i)).build())
+            .collect(Collectors.toCollection(NotificationSet::new));
+    return Notification.builder(category)
+        .withId(String.format("%03d", size - 1))
+        .withNotifications(children)
+        .build();
+  }
+}
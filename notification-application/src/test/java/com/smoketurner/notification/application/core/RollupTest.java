@@ -17,15 +17,23 @@ package com.smoketurner.notification.application.core;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Iterators;
 import com.smoketurner.notification.api.Notification;
 import com.smoketurner.notification.api.Rule;
 import io.dropwizard.util.Duration;
 import java.time.Clock;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.junit.Test;
 
@@ -85,7 +93,7 @@ public class RollupTest {
     final List<Notification> expected = Arrays.asList(rollup1, n8, n6, n4, n3, n2);
 
     final Stream<Notification> actual = rollup.rollup(notifications.stream());
-    assertThat(actual.iterator()).containsExactlyElementsOf(expected);
+    assertThat(actual.iterator()).toIterable().containsExactlyElementsOf(expected);
   }
 
   @Test
@@ -134,7 +142,7 @@ public class RollupTest {
     final List<Notification> expected = Arrays.asList(rollup1, rollup2, n1);
 
     final Stream<Notification> actual = rollup.rollup(notifications.stream());
-    assertThat(actual.iterator()).containsExactlyElementsOf(expected);
+    assertThat(actual.iterator()).toIterable().containsExactlyElementsOf(expected);
   }
 
   @Test
@@ -179,7 +187,67 @@ public class RollupTest {
     final List<Notification> expected = Arrays.asList(rollup1, rollup2, rollup3);
 
     final Stream<Notification> actual = rollup.rollup(notifications.stream());
-    assertThat(actual.iterator()).containsExactlyElementsOf(expected);
+    assertThat(actual.iterator()).toIterable().containsExactlyElementsOf(expected);
+  }
+
+  @Test
+  public void testIterator() {
+    final Random random = new Random(1);
+    final List<Notification> notifications = new ArrayList<>();
+    long createdAt = 1555000000000L;
+    for (int i = 999; i >= 0; i--) {
+      createdAt -= random.nextInt(20) * 60000L;
+      notifications.add(
+          Notification.builder(ImmutableList.of("like", "follow", "comment").get(random.nextInt(3)))
+              .withId(String.format("%04d", i))
+              .withCreatedAt(createdAt)
+              .withProperties(ImmutableMap.of("actor", String.valueOf(random.nextInt(3))))
+              .build());
+    }
+    final Map<String, Rule> rules =
+        ImmutableMap.of(
+            "like",
+            Rule.builder().withMaxSize(3).withMaxDuration(Duration.minutes(30)).build(),
+            "follow",
+            Rule.builder().withMatchOn("actor").withMaxDuration(Duration.hours(1)).build());
+
+    final List<Notification> expected =
+        new Rollup(rules).rollup(notifications.stream()).collect(Collectors.toList());
+    final List<Notification> actual =
+        ImmutableList.copyOf(new Rollup(rules).iterator(notifications.iterator()));
+    assertThat(describe(actual)).isEqualTo(describe(expected));
+  }
+
+  @Test
+  public void testIteratorIsLazy() {
+    final List<Notification> notifications = new ArrayList<>();
+    for (int i = 1000; i > 0; i--) {
+      notifications.add(createNotification(i));
+    }
+    final Rule rule = Rule.builder().withMaxSize(2).build();
+
+    final AtomicInteger rolledUp = new AtomicInteger();
+    final Iterator<Notification> iterator =
+        new Rollup(ImmutableMap.of("new-follower", rule))
+            .iterator(notifications.stream().peek(n -> rolledUp.incrementAndGet()).iterator());
+
+    assertThat(ImmutableList.copyOf(Iterators.limit(iterator, 5)))
+        .extracting(n -> n.getId(""))
+        .containsExactly("1000", "997", "994", "991", "988");
+    // each rollup is returned as soon as it is full, without reading the rest of the notifications
+    assertThat(rolledUp.get()).isEqualTo(15);
+  }
+
+  private static List<String> describe(final List<Notification> notifications) {
+    return notifications.stream()
+        .map(
+            n ->
+                n.getId("")
+                    + " "
+                    + n.getNotifications().stream()
+                        .map(c -> c.getId(""))
+                        .collect(Collectors.toList()))
+        .collect(Collectors.toList());
   }
 
   private Notification createNotification(final long id) {
@@ -0,0 +1,125 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import com.smoketurner.notification.api.Rule;
+import io.dropwizard.util.Duration;
+import java.util.Map;
+import org.junit.Test;
+
+public class RulePlanTest {
+
+  private final Map<String, Rule> rules =
+      ImmutableMap.of(
+          "like",
+          Rule.builder().withMaxSize(3).withMaxDuration(Duration.minutes(30)).build(),
+          "follow",
+          Rule.builder().withMatchOn("actor").withMaxDuration(Duration.hours(1)).build());
+
+  @Test
+  public void testCompile() {
+    final RulePlan plan =
+        RulePlan.compile(
+            ImmutableMap.of(
+                "like",
+                Rule.builder().withMaxSize(3).withMaxDuration(Duration.minutes(30)).build(),
+                "follow",
+                Rule.builder().withMatchOn("actor").build(),
+                "invalid",
+                Rule.builder().build()));
+
+    final RulePlan.CategoryRule like = plan.get("like");
+    assertThat(like.getMaxSize()).isEqualTo(3);
+    assertThat(like.hasMaxDuration()).isTrue();
+    assertThat(like.getMaxDuration()).isEqualTo(1800000L);
+    assertThat(like.getMatchOn()).isNull();
+
+    final RulePlan.CategoryRule follow = plan.get("follow");
+    assertThat(follow.getMaxSize()).isEqualTo(0);
+    assertThat(follow.hasMaxDuration()).isFalse();
+    assertThat(follow.getMatchOn()).isEqualTo("actor");
+    assertThat(follow.hasSummarySize()).isFalse();
+    assertThat(follow.getSummarySize()).isEqualTo(RulePlan.CategoryRule.NO_SUMMARY_SIZE);
+
+    assertThat(plan.get("invalid")).isNull();
+    assertThat(plan.get("comment")).isNull();
+    assertThat(plan.getRules()).hasSize(3);
+    assertThat(plan.isEmpty()).isFalse();
+    assertThat(RulePlan.EMPTY.isEmpty()).isTrue();
+    assertThat(plan.hasSummaries()).isFalse();
+  }
+
+  @Test
+  public void testSummarySize() {
+    final RulePlan plan =
+        RulePlan.compile(
+            ImmutableMap.of(
+                "like",
+                Rule.builder().withMatchOn("post_id").withSummarySize(5).build(),
+                "follow",
+                Rule.builder().withMatchOn("actor").withSummarySize(-1).build()));
+
+    assertThat(plan.hasSummaries()).isTrue();
+    assertThat(plan.get("like").hasSummarySize()).isTrue();
+    assertThat(plan.get("like").getSummarySize()).isEqualTo(5);
+    // negative sizes are ignored
+    assertThat(plan.get("follow").hasSummarySize()).isFalse();
+
+    // the summary_size doesn't change how notifications are rolled up
+    assertThat(plan.getVersion())
+        .isEqualTo(
+            RulePlan.compile(
+                    ImmutableMap.of(
+                        "like",
+                        Rule.builder().withMatchOn("post_id").build(),
+                        "follow",
+                        Rule.builder().withMatchOn("actor").build()))
+                .getVersion());
+  }
+
+  @Test
+  public void testMaxDuration() {
+    assertThat(RulePlan.compile(rules).getMaxDuration()).isEqualTo(3600000L);
+    assertThat(
+            RulePlan.compile(ImmutableMap.of("like", Rule.builder().withMaxSize(3).build()))
+                .getMaxDuration())
+        .isEqualTo(Long.MAX_VALUE);
+    assertThat(RulePlan.EMPTY.getMaxDuration()).isEqualTo(0L);
+  }
+
+  @Test
+  public void testVersion() {
+    final Map<String, Rule> same =
+        ImmutableMap.of(
+            "follow",
+            Rule.builder().withMatchOn("actor").withMaxDuration(Duration.minutes(60)).build(),
+            "like",
+            Rule.builder().withMaxSize(3).withMaxDuration(Duration.minutes(30)).build(),
+            "invalid",
+            Rule.builder().build());
+    final Map<String, Rule> changed =
+        ImmutableMap.of(
+            "like", Rule.builder().withMaxSize(4).withMaxDuration(Duration.minutes(30)).build());
+
+    final int version = RulePlan.compile(rules).getVersion();
+    assertThat(RulePlan.compile(same).getVersion()).isEqualTo(version);
+    assertThat(RulePlan.compile(changed).getVersion()).isNotEqualTo(version);
+    assertThat(RulePlan.EMPTY.getVersion()).isNotEqualTo(version);
+  }
+}
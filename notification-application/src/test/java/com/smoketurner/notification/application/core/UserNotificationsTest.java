@@ -17,10 +17,14 @@ package com.smoketurner.notification.application.core;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 import com.smoketurner.notification.api.Notification;
+import com.smoketurner.notification.api.RollupSummary;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.SortedSet;
 import org.junit.Test;
 
 public class UserNotificationsTest {
@@ -54,4 +58,70 @@ public class UserNotificationsTest {
     assertThat(notifications.getSeen()).containsExactlyElementsOf(seen);
     assertThat(notifications.getNotifications()).containsExactlyElementsOf(expected);
   }
+
+  @Test
+  public void testNewest() {
+    final List<Notification> unseen = Collections.singletonList(Notification.create("2"));
+    final List<Notification> seen = Collections.singletonList(Notification.create("1"));
+    final UserNotifications notifications = new UserNotifications(unseen, seen);
+    assertThat(new UserNotifications().getNewest()).isEmpty();
+    assertThat(notifications.getNewest()).contains(Notification.create("2"));
+    assertThat(notifications.withNewest(Notification.create("5")).getNewest())
+        .contains(Notification.create("5"));
+  }
+
+  @Test
+  public void testMarkOnRead() {
+    final Notification rollup =
+        Notification.create("3")
+            .withNotifications(
+                ImmutableList.of(Notification.create("2"), Notification.create("1")));
+    final Notification seen = Notification.create("0").withUnseen(false);
+    final UserNotifications notifications =
+        UserNotifications.markOnRead(
+            Collections.singletonList(rollup), Collections.singletonList(seen));
+
+    final Notification unseen = Iterables.getOnlyElement(notifications.getUnseen());
+    assertThat(unseen.getUnseen()).contains(true);
+    assertThat(unseen.getNotifications())
+        .extracting(n -> n.getUnseen().orElse(null))
+        .containsExactly(true, true);
+    // the rolled up notifications are copied once, not as they are iterated
+    assertThat(unseen.getNotifications()).isInstanceOf(SortedSet.class);
+    assertThat(Iterables.getFirst(unseen.getNotifications(), null))
+        .isSameAs(Iterables.getFirst(unseen.getNotifications(), null));
+    // notifications which already have their state are not copied
+    assertThat(Iterables.getOnlyElement(notifications.getSeen())).isSameAs(seen);
+    assertThat(notifications.getNotifications())
+        .extracting(n -> n.getUnseen().orElse(null))
+        .containsExactly(true, false);
+
+    // the notifications themselves are left unchanged
+    assertThat(rollup.getUnseen()).isEmpty();
+  }
+
+  @Test
+  public void testSummarize() {
+    final Notification rollup =
+        Notification.create("3")
+            .withNotifications(
+                ImmutableList.of(Notification.create("2"), Notification.create("1")));
+    final UserNotifications notifications =
+        UserNotifications.markOnRead(
+            Collections.singletonList(rollup), Collections.<Notification>emptyList());
+
+    assertThat(notifications.summarize(RollupSummarizer.NONE)).isSameAs(notifications);
+
+    final UserNotifications summarized = notifications.summarize(RollupSummarizer.of(1));
+    final Notification unseen = Iterables.getOnlyElement(summarized.getOrderedNotifications());
+    assertThat(unseen.getSummary()).contains(RollupSummary.of(2, "2", "1"));
+    assertThat(unseen.getUnseen()).contains(true);
+    // only the sample has its unseen state set
+    assertThat(unseen.getNotifications())
+        .extracting(n -> n.getUnseen().orElse(null))
+        .containsExactly(true);
+
+    // the original notifications are not summarized
+    assertThat(Iterables.getOnlyElement(notifications.getUnseen()).getSummary()).isEmpty();
+  }
 }
@@ -143,6 +143,22 @@ public class CreateRuleMutationTest {
     verify(store, never()).store(anyString(), any(Rule.class));
   }
 
+  @Test
+  public void testRuleInvalidSummarySize() throws Exception {
+    when(environment.getArgument("category")).thenReturn("like");
+    when(environment.getArgument("rule"))
+        .thenReturn(ImmutableMap.of("maxSize", 3, "summarySize", "all"));
+
+    try {
+      mutation.get(environment);
+      failBecauseExceptionWasNotThrown(GraphQLValidationError.class);
+    } catch (GraphQLValidationError e) {
+      assertThat(e.getMessage()).isEqualTo("summarySize is not an integer");
+    }
+
+    verify(store, never()).store(anyString(), any(Rule.class));
+  }
+
   @Test
   public void testRuleInvalidDuration() throws Exception {
     when(environment.getArgument("category")).thenReturn("like");
@@ -180,13 +196,16 @@ public class CreateRuleMutationTest {
   public void testStoreRule() throws Exception {
     when(environment.getArgument("category")).thenReturn("like");
     when(environment.getArgument("rule"))
-        .thenReturn(ImmutableMap.of("maxSize", 3, "maxDuration", "3m", "matchOn", "like_id"));
+        .thenReturn(
+            ImmutableMap.of(
+                "maxSize", 3, "maxDuration", "3m", "matchOn", "like_id", "summarySize", 2));
 
     final Rule rule =
         Rule.builder()
             .withMaxSize(3)
             .withMatchOn("like_id")
             .withMaxDuration(Duration.minutes(3))
+            .withSummarySize(2)
             .build();
 
     final Boolean actual = mutation.get(environment);
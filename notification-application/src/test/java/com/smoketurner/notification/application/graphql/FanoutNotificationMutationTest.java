@@ -0,0 +1,126 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.graphql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.smoketurner.dropwizard.graphql.GraphQLValidationError;
+import com.smoketurner.notification.api.Fanout;
+import com.smoketurner.notification.api.FanoutResult;
+import com.smoketurner.notification.api.Notification;
+import com.smoketurner.notification.application.exceptions.NotificationStoreException;
+import com.smoketurner.notification.application.store.NotificationStore;
+import graphql.schema.DataFetchingEnvironment;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+public class FanoutNotificationMutationTest {
+
+  private final NotificationStore store = mock(NotificationStore.class);
+  private final DataFetchingEnvironment environment = mock(DataFetchingEnvironment.class);
+  private final FanoutNotificationMutation mutation = new FanoutNotificationMutation(store);
+
+  @Test
+  public void testUsernamesEmpty() throws Exception {
+    when(environment.getArgument("usernames")).thenReturn(Collections.emptyList());
+
+    try {
+      mutation.get(environment);
+      failBecauseExceptionWasNotThrown(GraphQLValidationError.class);
+    } catch (GraphQLValidationError e) {
+      assertThat(e.getMessage()).isEqualTo("usernames cannot be empty");
+    }
+
+    verify(store, never()).fanout(any(), any());
+  }
+
+  @Test
+  public void testTooManyUsernames() throws Exception {
+    final List<String> usernames =
+        IntStream.rangeClosed(0, Fanout.MAX_USERNAMES)
+            .mapToObj(i -> "test" + i)
+            .collect(Collectors.toList());
+    when(environment.getArgument("usernames")).thenReturn(usernames);
+
+    try {
+      mutation.get(environment);
+      failBecauseExceptionWasNotThrown(GraphQLValidationError.class);
+    } catch (GraphQLValidationError e) {
+      assertThat(e.getMessage()).isEqualTo("usernames cannot contain more than 10000 users");
+    }
+
+    verify(store, never()).fanout(any(), any());
+  }
+
+  @Test
+  public void testNotificationEmpty() throws Exception {
+    when(environment.getArgument("usernames")).thenReturn(ImmutableList.of("test"));
+    when(environment.getArgument("notification")).thenReturn(Collections.emptyMap());
+
+    try {
+      mutation.get(environment);
+      failBecauseExceptionWasNotThrown(GraphQLValidationError.class);
+    } catch (GraphQLValidationError e) {
+      assertThat(e.getMessage()).isEqualTo("notification cannot be empty");
+    }
+
+    verify(store, never()).fanout(any(), any());
+  }
+
+  @Test
+  public void testFanout() throws Exception {
+    final Notification expected = Notification.builder("test-category", "testing").build();
+    final List<FanoutResult> results =
+        ImmutableList.of(FanoutResult.success("test1", "1"), FanoutResult.success("test2", "2"));
+
+    when(environment.getArgument("usernames"))
+        .thenReturn(ImmutableList.of("test1", "test2", "test1"));
+    when(environment.getArgument("notification"))
+        .thenReturn(ImmutableMap.of("category", "test-category", "message", "testing"));
+    when(store.fanout(ImmutableSet.of("test1", "test2"), expected)).thenReturn(results);
+
+    final List<FanoutResult> actual = mutation.get(environment);
+    verify(store).fanout(ImmutableSet.of("test1", "test2"), expected);
+    assertThat(actual).isEqualTo(results);
+  }
+
+  @Test
+  public void testFanoutStoreException() throws Exception {
+    when(environment.getArgument("usernames")).thenReturn(ImmutableList.of("test1"));
+    when(environment.getArgument("notification"))
+        .thenReturn(ImmutableMap.of("category", "test-category", "message", "testing"));
+    when(store.fanout(any(), any())).thenThrow(new NotificationStoreException());
+
+    try {
+      mutation.get(environment);
+      failBecauseExceptionWasNotThrown(GraphQLValidationError.class);
+    } catch (GraphQLValidationError e) {
+      assertThat(e.getMessage()).isEqualTo("Unable to create notifications");
+    }
+  }
+}
@@ -16,6 +16,7 @@
 package com.smoketurner.notification.application.graphql;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
@@ -24,7 +25,11 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+import com.smoketurner.dropwizard.graphql.GraphQLValidationError;
 import com.smoketurner.notification.api.Notification;
+import com.smoketurner.notification.api.RollupSummary;
 import com.smoketurner.notification.application.core.UserNotifications;
 import com.smoketurner.notification.application.exceptions.NotificationStoreException;
 import com.smoketurner.notification.application.store.NotificationStore;
@@ -114,4 +119,39 @@ public class NotificationDataFetcherTest {
     assertThat(actual.last()).isEqualTo(n1);
     assertThat(actual.size()).isEqualTo(4);
   }
+
+  @Test
+  public void testFetchSummary() throws Exception {
+    when(environment.getArgument("username")).thenReturn("test");
+    when(environment.getArgument("summary")).thenReturn(1);
+
+    final Notification rollup =
+        Notification.create("3")
+            .withNotifications(
+                ImmutableList.of(Notification.create("2"), Notification.create("1")));
+    when(store.fetch(anyString()))
+        .thenReturn(Optional.of(new UserNotifications(ImmutableSortedSet.of(rollup))));
+
+    final SortedSet<Notification> actual = fetcher.get(environment);
+    verify(store).fetch(eq("test"));
+
+    assertThat(actual).containsExactly(rollup);
+    assertThat(actual.first().getSummary()).contains(RollupSummary.of(2, "2", "1"));
+    assertThat(actual.first().getNotifications()).containsExactly(Notification.create("2"));
+  }
+
+  @Test
+  public void testFetchSummaryInvalid() throws Exception {
+    when(environment.getArgument("username")).thenReturn("test");
+    when(environment.getArgument("summary")).thenReturn(-1);
+
+    try {
+      fetcher.get(environment);
+      failBecauseExceptionWasNotThrown(GraphQLValidationError.class);
+    } catch (GraphQLValidationError e) {
+      assertThat(e.getMessage()).isEqualTo("summary must be greater than or equal to zero");
+    }
+
+    verify(store, never()).fetch(anyString());
+  }
 }
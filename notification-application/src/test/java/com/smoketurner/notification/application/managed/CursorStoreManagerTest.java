@@ -19,16 +19,26 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 
 import com.smoketurner.notification.application.store.CursorStore;
+import com.smoketurner.notification.application.store.CursorWriter;
 import org.junit.Test;
 
 public class CursorStoreManagerTest {
 
   private final CursorStore store = mock(CursorStore.class);
+  private final CursorWriter writer = mock(CursorWriter.class);
 
   @Test
   public void testStart() throws Exception {
-    final CursorStoreManager manager = new CursorStoreManager(store);
+    final CursorStoreManager manager = new CursorStoreManager(store, writer);
     manager.start();
     verify(store).initialize();
+    verify(writer).start();
+  }
+
+  @Test
+  public void testStop() throws Exception {
+    final CursorStoreManager manager = new CursorStoreManager(store, writer);
+    manager.stop();
+    verify(writer).stop();
   }
 }
@@ -0,0 +1,140 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.resources;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.smoketurner.notification.api.Notification;
+import com.smoketurner.notification.application.core.NotificationPage;
+import com.smoketurner.notification.application.core.UserNotifications;
+import com.smoketurner.notification.application.exceptions.NotificationException;
+import com.smoketurner.notification.application.exceptions.NotificationStoreException;
+import com.smoketurner.notification.application.store.NotificationStore;
+import java.util.ArrayDeque;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.Response;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class AsyncNotificationResourceTest {
+
+  private final NotificationStore store = mock(NotificationStore.class);
+  private final AsyncResponse asyncResponse = mock(AsyncResponse.class);
+  private final AsyncNotificationResource resource =
+      new AsyncNotificationResource(store, MoreExecutors.directExecutor());
+
+  @Test
+  public void testFetch() throws Exception {
+    final ImmutableSortedSet<Notification> expected =
+        ImmutableSortedSet.of(Notification.create("1"));
+    final UserNotifications notifications = new UserNotifications(expected);
+    final CompletableFuture<Optional<UserNotifications>> future = new CompletableFuture<>();
+    when(store.fetchAsync("test", Optional.empty(), 20)).thenReturn(future);
+
+    resource.fetch(null, "test", null, asyncResponse);
+
+    // nothing is resumed until the store completes the fetch
+    verify(store).fetchAsync("test", Optional.empty(), 20);
+    verify(asyncResponse, never()).resume(any());
+
+    future.complete(Optional.of(notifications));
+
+    final ArgumentCaptor<Response> captor = ArgumentCaptor.forClass(Response.class);
+    verify(asyncResponse).resume(captor.capture());
+    final Response response = captor.getValue();
+    assertThat(response.getStatus()).isEqualTo(200);
+    assertThat(response.getHeaderString("Accept-Ranges")).isEqualTo("id");
+    assertThat(response.getHeaderString("Content-Range")).isEqualTo("id 1..1");
+    assertThat(response.getEntity()).isInstanceOf(NotificationPage.class);
+    assertThat((NotificationPage) response.getEntity()).containsExactlyElementsOf(expected);
+  }
+
+  @Test
+  public void testFetchResumesOnExecutor() throws Exception {
+    final Queue<Runnable> tasks = new ArrayDeque<>();
+    final AsyncNotificationResource resource = new AsyncNotificationResource(store, tasks::add);
+    final CompletableFuture<Optional<UserNotifications>> future = new CompletableFuture<>();
+    when(store.fetchAsync("test", Optional.empty(), 20)).thenReturn(future);
+
+    resource.fetch(null, "test", null, asyncResponse);
+
+    // completing the fetch doesn't build the response on the completing thread
+    future.complete(Optional.of(new UserNotifications()));
+    verify(asyncResponse, never()).resume(any());
+
+    assertThat(tasks).hasSize(1);
+    tasks.remove().run();
+    verify(asyncResponse).resume(any(Response.class));
+  }
+
+  @Test
+  public void testFetchNotFound() throws Exception {
+    when(store.fetchAsync("test", Optional.empty(), 20))
+        .thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+
+    resource.fetch(null, "test", null, asyncResponse);
+
+    final ArgumentCaptor<NotificationException> captor =
+        ArgumentCaptor.forClass(NotificationException.class);
+    verify(asyncResponse).resume(captor.capture());
+    assertThat(captor.getValue().getCode()).isEqualTo(404);
+  }
+
+  @Test
+  public void testFetchException() throws Exception {
+    final CompletableFuture<Optional<UserNotifications>> future = new CompletableFuture<>();
+    future.completeExceptionally(new NotificationStoreException());
+    when(store.fetchAsync("test", Optional.empty(), 20)).thenReturn(future);
+
+    resource.fetch(null, "test", null, asyncResponse);
+
+    final ArgumentCaptor<NotificationException> captor =
+        ArgumentCaptor.forClass(NotificationException.class);
+    verify(asyncResponse).resume(captor.capture());
+    assertThat(captor.getValue().getCode()).isEqualTo(500);
+  }
+
+  @Test
+  public void testFetchRejected() throws Exception {
+    final AsyncNotificationResource resource =
+        new AsyncNotificationResource(
+            store,
+            task -> {
+              throw new RejectedExecutionException();
+            });
+    when(store.fetchAsync("test", Optional.empty(), 20))
+        .thenReturn(CompletableFuture.completedFuture(Optional.of(new UserNotifications())));
+
+    resource.fetch(null, "test", null, asyncResponse);
+
+    // a full executor sheds the request instead of queueing it
+    final ArgumentCaptor<NotificationException> captor =
+        ArgumentCaptor.forClass(NotificationException.class);
+    verify(asyncResponse).resume(captor.capture());
+    assertThat(captor.getValue().getCode()).isEqualTo(503);
+  }
+}
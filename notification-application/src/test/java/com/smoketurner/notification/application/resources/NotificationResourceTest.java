@@ -17,6 +17,7 @@ package com.smoketurner.notification.application.resources;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -26,9 +27,15 @@ import static org.mockito.Mockito.when;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedSet;
+import com.smoketurner.notification.api.Fanout;
+import com.smoketurner.notification.api.FanoutResult;
 import com.smoketurner.notification.api.Notification;
+import com.smoketurner.notification.api.NotificationProtobuf;
+import com.smoketurner.notification.api.RollupSummary;
+import com.smoketurner.notification.api.protos.NotificationApiProtos.NotificationListResponsePB;
 import com.smoketurner.notification.application.core.UserNotifications;
 import com.smoketurner.notification.application.exceptions.NotificationExceptionMapper;
 import com.smoketurner.notification.application.exceptions.NotificationStoreException;
@@ -36,13 +43,17 @@ import com.smoketurner.notification.application.store.NotificationStore;
 import io.dropwizard.jackson.Jackson;
 import io.dropwizard.jersey.errors.ErrorMessage;
 import io.dropwizard.jersey.filter.CharsetUtf8Filter;
+import io.dropwizard.jersey.protobuf.ProtocolBufferMediaType;
 import io.dropwizard.jersey.validation.ValidationErrorMessage;
 import io.dropwizard.testing.junit.ResourceTestRule;
+import java.io.InputStream;
 import java.time.Clock;
 import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.HttpHeaders;
@@ -63,6 +74,8 @@ public class NotificationResourceTest {
           .addResource(new NotificationResource(store))
           .addProvider(new CharsetUtf8Filter())
           .addProvider(new NotificationExceptionMapper())
+          .addProvider(NotificationListProtobufWriter.class)
+          .addProvider(new NotificationPageJsonWriter(MAPPER))
           .build();
 
   @After
@@ -75,8 +88,7 @@ public class NotificationResourceTest {
     final ImmutableSortedSet<Notification> expected =
         ImmutableSortedSet.of(Notification.create("1"));
     final UserNotifications notifications = new UserNotifications(expected);
-    when(store.fetch("test")).thenReturn(Optional.of(notifications));
-    when(store.skip(notifications.getNotifications(), "1", true, 20)).thenReturn(expected);
+    when(store.fetch("test", Optional.empty(), 20)).thenReturn(Optional.of(notifications));
 
     final Response response =
         resources
@@ -86,8 +98,7 @@ public class NotificationResourceTest {
             .get();
     final List<Notification> actual = response.readEntity(new GenericType<List<Notification>>() {});
 
-    verify(store).fetch("test");
-    verify(store).skip(notifications.getNotifications(), "1", true, 20);
+    verify(store).fetch("test", Optional.empty(), 20);
     assertThat(response.getStatus()).isEqualTo(200);
     assertThat(response.getHeaderString(HttpHeaders.CONTENT_TYPE))
         .isEqualTo(MediaType.APPLICATION_JSON + ";charset=UTF-8");
@@ -97,6 +108,43 @@ public class NotificationResourceTest {
     assertThat(actual).containsExactlyElementsOf(expected);
   }
 
+  @Test
+  public void testFetchProtobuf() throws Exception {
+    final ZonedDateTime now = ZonedDateTime.parse("2015-08-14T17:52:43Z");
+    final Notification child =
+        Notification.builder("like", "liked").withId("1").withCreatedAt(now).build();
+    final Notification notification =
+        Notification.builder("like", "liked")
+            .withId("2")
+            .withCreatedAt(now)
+            .withUnseen(true)
+            .withProperties(ImmutableMap.of("liker_id", "3"))
+            .withNotifications(ImmutableList.of(child))
+            .build();
+    final ImmutableSortedSet<Notification> expected = ImmutableSortedSet.of(notification);
+    final UserNotifications notifications = new UserNotifications(expected);
+    when(store.fetch("test", Optional.empty(), 20)).thenReturn(Optional.of(notifications));
+
+    final Response response =
+        resources
+            .client()
+            .target("/v1/notifications/test")
+            .request(ProtocolBufferMediaType.APPLICATION_PROTOBUF)
+            .get();
+    final NotificationListResponsePB actual =
+        NotificationListResponsePB.parseFrom(response.readEntity(InputStream.class));
+
+    assertThat(response.getStatus()).isEqualTo(200);
+    assertThat(response.getHeaderString(HttpHeaders.CONTENT_TYPE))
+        .startsWith(ProtocolBufferMediaType.APPLICATION_PROTOBUF);
+    assertThat(response.getHeaderString("Content-Range")).isEqualTo("id 2..2");
+    assertThat(actual.getNotificationCount()).isEqualTo(1);
+    assertThat(actual.getNotification(0).getUnseen().getValue()).isTrue();
+    assertThat(actual.getNotification(0).getPropertyMap()).containsEntry("liker_id", "3");
+    assertThat(actual.getNotification(0).getNotification(0).getId()).isEqualTo("1");
+    assertThat(NotificationProtobuf.fromProtobuf(actual)).containsExactly(notification);
+  }
+
   @Test
   public void testFetchJSONP() throws Exception {
     final ZonedDateTime now = ZonedDateTime.now(Clock.systemUTC());
@@ -107,15 +155,13 @@ public class NotificationResourceTest {
             .build();
     final ImmutableSortedSet<Notification> expected = ImmutableSortedSet.of(notification);
     final UserNotifications notifications = new UserNotifications(expected);
-    when(store.fetch("test")).thenReturn(Optional.of(notifications));
-    when(store.skip(notifications.getNotifications(), "1", true, 20)).thenReturn(expected);
+    when(store.fetch("test", Optional.empty(), 20)).thenReturn(Optional.of(notifications));
 
     final Response response =
         resources.client().target("/v1/notifications/test").request("application/javascript").get();
     final String actual = response.readEntity(String.class);
 
-    verify(store).fetch("test");
-    verify(store).skip(notifications.getNotifications(), "1", true, 20);
+    verify(store).fetch("test", Optional.empty(), 20);
     assertThat(response.getStatus()).isEqualTo(200);
     assertThat(response.getHeaderString(HttpHeaders.CONTENT_TYPE))
         .isEqualTo("application/javascript;charset=UTF-8");
@@ -137,8 +183,7 @@ public class NotificationResourceTest {
         ImmutableSortedSet.of(Notification.create("19"), Notification.create("18"));
 
     final UserNotifications notifications = new UserNotifications(all);
-    when(store.fetch("test")).thenReturn(Optional.of(notifications));
-    when(store.skip(notifications.getNotifications(), "20", false, 2)).thenReturn(expected);
+    when(store.fetch("test", Optional.of("20"), 2)).thenReturn(Optional.of(notifications));
 
     final Response response =
         resources
@@ -149,8 +194,7 @@ public class NotificationResourceTest {
             .get();
     final List<Notification> actual = response.readEntity(new GenericType<List<Notification>>() {});
 
-    verify(store).fetch("test");
-    verify(store).skip(notifications.getNotifications(), "20", false, 2);
+    verify(store).fetch("test", Optional.of("20"), 2);
     assertThat(response.getStatus()).isEqualTo(206);
     assertThat(response.getHeaderString(HttpHeaders.CONTENT_TYPE))
         .isEqualTo(MediaType.APPLICATION_JSON + ";charset=UTF-8");
@@ -171,8 +215,7 @@ public class NotificationResourceTest {
     final List<Notification> expected = all.subList(0, 20);
 
     final UserNotifications notifications = new UserNotifications(all);
-    when(store.fetch("test")).thenReturn(Optional.of(notifications));
-    when(store.skip(notifications.getNotifications(), "30", true, 20)).thenReturn(expected);
+    when(store.fetch("test", Optional.empty(), 20)).thenReturn(Optional.of(notifications));
 
     final Response response =
         resources
@@ -183,8 +226,7 @@ public class NotificationResourceTest {
             .get();
     final List<Notification> actual = response.readEntity(new GenericType<List<Notification>>() {});
 
-    verify(store).fetch("test");
-    verify(store).skip(notifications.getNotifications(), "30", true, 20);
+    verify(store).fetch("test", Optional.empty(), 20);
     assertThat(response.getStatus()).isEqualTo(206);
     assertThat(response.getHeaderString(HttpHeaders.CONTENT_TYPE))
         .isEqualTo(MediaType.APPLICATION_JSON + ";charset=UTF-8");
@@ -205,8 +247,7 @@ public class NotificationResourceTest {
     final List<Notification> expected = all.subList(0, 20);
 
     final UserNotifications notifications = new UserNotifications(all);
-    when(store.fetch("test")).thenReturn(Optional.of(notifications));
-    when(store.skip(notifications.getNotifications(), "0030", true, 20)).thenReturn(expected);
+    when(store.fetch("test", Optional.of("1000"), 20)).thenReturn(Optional.of(notifications));
 
     final Response response =
         resources
@@ -217,8 +258,7 @@ public class NotificationResourceTest {
             .get();
     final List<Notification> actual = response.readEntity(new GenericType<List<Notification>>() {});
 
-    verify(store).fetch("test");
-    verify(store).skip(notifications.getNotifications(), "0030", true, 20);
+    verify(store).fetch("test", Optional.of("1000"), 20);
     assertThat(response.getStatus()).isEqualTo(206);
     assertThat(response.getHeaderString(HttpHeaders.CONTENT_TYPE))
         .isEqualTo(MediaType.APPLICATION_JSON + ";charset=UTF-8");
@@ -239,8 +279,7 @@ public class NotificationResourceTest {
     final List<Notification> expected = all.subList(0, 3);
 
     final UserNotifications notifications = new UserNotifications(all);
-    when(store.fetch("test")).thenReturn(Optional.of(notifications));
-    when(store.skip(notifications.getNotifications(), "20", true, 3)).thenReturn(expected);
+    when(store.fetch("test", Optional.empty(), 3)).thenReturn(Optional.of(notifications));
 
     final Response response =
         resources
@@ -251,8 +290,7 @@ public class NotificationResourceTest {
             .get();
     final List<Notification> actual = response.readEntity(new GenericType<List<Notification>>() {});
 
-    verify(store).fetch("test");
-    verify(store).skip(notifications.getNotifications(), "20", true, 3);
+    verify(store).fetch("test", Optional.empty(), 3);
     assertThat(response.getStatus()).isEqualTo(206);
     assertThat(response.getHeaderString(HttpHeaders.CONTENT_TYPE))
         .isEqualTo(MediaType.APPLICATION_JSON + ";charset=UTF-8");
@@ -262,9 +300,77 @@ public class NotificationResourceTest {
     assertThat(actual).containsExactlyElementsOf(expected);
   }
 
+  @Test
+  public void testFetchRangeMaxZero() throws Exception {
+    final ImmutableList.Builder<Notification> builder = ImmutableList.builder();
+    for (int i = 20; i > 0; i--) {
+      builder.add(Notification.create(String.format("%02d", i)));
+    }
+    final List<Notification> all = builder.build();
+
+    final UserNotifications notifications = new UserNotifications(all);
+    when(store.fetch("test", Optional.of("20"), 1)).thenReturn(Optional.of(notifications));
+
+    final Response response =
+        resources
+            .client()
+            .target("/v1/notifications/test")
+            .request(MediaType.APPLICATION_JSON)
+            .header("Range", "id 20..; max=0")
+            .get();
+    final List<Notification> actual = response.readEntity(new GenericType<List<Notification>>() {});
+
+    // the page holds at least one notification
+    verify(store).fetch("test", Optional.of("20"), 1);
+    assertThat(response.getStatus()).isEqualTo(206);
+    assertThat(response.getHeaderString("Content-Range")).isEqualTo("id 20..20");
+    assertThat(response.getHeaderString("Next-Range")).isEqualTo("id ]20..; max=1");
+    assertThat(actual).containsExactly(Notification.create("20"));
+  }
+
+  @Test
+  public void testFetchSummary() throws Exception {
+    final Notification rollup =
+        Notification.create("3")
+            .withNotifications(
+                ImmutableList.of(Notification.create("2"), Notification.create("1")));
+    final UserNotifications notifications = new UserNotifications(ImmutableSortedSet.of(rollup));
+    when(store.fetch("test", Optional.empty(), 20)).thenReturn(Optional.of(notifications));
+
+    final Response response =
+        resources
+            .client()
+            .target("/v1/notifications/test")
+            .queryParam("summary", 1)
+            .request(MediaType.APPLICATION_JSON)
+            .get();
+    final List<Notification> actual = response.readEntity(new GenericType<List<Notification>>() {});
+
+    assertThat(response.getStatus()).isEqualTo(200);
+    assertThat(actual).containsExactly(rollup);
+    assertThat(actual.get(0).getSummary()).contains(RollupSummary.of(2, "2", "1"));
+    assertThat(actual.get(0).getNotifications()).containsExactly(Notification.create("2"));
+  }
+
+  @Test
+  public void testFetchSummaryInvalid() throws Exception {
+    final Response response =
+        resources
+            .client()
+            .target("/v1/notifications/test")
+            .queryParam("summary", -1)
+            .request(MediaType.APPLICATION_JSON)
+            .get();
+    final ErrorMessage actual = response.readEntity(ErrorMessage.class);
+
+    verify(store, never()).fetch(anyString(), any(), anyInt());
+    assertThat(response.getStatus()).isEqualTo(400);
+    assertThat(actual.getCode()).isEqualTo(400);
+  }
+
   @Test
   public void testFetchNotFound() throws Exception {
-    when(store.fetch("test")).thenReturn(Optional.<UserNotifications>empty());
+    when(store.fetch("test", Optional.empty(), 20)).thenReturn(Optional.<UserNotifications>empty());
 
     final Response response =
         resources
@@ -274,14 +380,14 @@ public class NotificationResourceTest {
             .get();
     final ErrorMessage actual = response.readEntity(ErrorMessage.class);
 
-    verify(store).fetch("test");
+    verify(store).fetch("test", Optional.empty(), 20);
     assertThat(response.getStatus()).isEqualTo(404);
     assertThat(actual.getCode()).isEqualTo(404);
   }
 
   @Test
   public void testFetchException() throws Exception {
-    when(store.fetch("test")).thenThrow(new NotificationStoreException());
+    when(store.fetch("test", Optional.empty(), 20)).thenThrow(new NotificationStoreException());
 
     final Response response =
         resources
@@ -291,7 +397,7 @@ public class NotificationResourceTest {
             .get();
     final ErrorMessage actual = response.readEntity(ErrorMessage.class);
 
-    verify(store).fetch("test");
+    verify(store).fetch("test", Optional.empty(), 20);
     assertThat(response.getStatus()).isEqualTo(500);
     assertThat(actual.getCode()).isEqualTo(500);
   }
@@ -323,6 +429,124 @@ public class NotificationResourceTest {
     assertThat(actual).isEqualTo(expected);
   }
 
+  @Test
+  public void testStoreBatch() throws Exception {
+    final ZonedDateTime now = ZonedDateTime.now(Clock.systemUTC());
+    final Notification n1 = Notification.builder("test-category", "testing 1").build();
+    final Notification n2 = Notification.builder("test-category", "testing 2").build();
+    final List<Notification> notifications = ImmutableList.of(n1, n2);
+
+    final List<Notification> expected =
+        ImmutableList.of(
+            Notification.builder(n1).withId("1").withCreatedAt(now).build(),
+            Notification.builder(n2).withId("2").withCreatedAt(now).build());
+
+    when(store.storeAll("test", notifications)).thenReturn(expected);
+
+    final Response response =
+        resources
+            .client()
+            .target("/v1/notifications/test/batch")
+            .request(MediaType.APPLICATION_JSON)
+            .post(Entity.json(notifications));
+    final List<Notification> actual = response.readEntity(new GenericType<List<Notification>>() {});
+
+    verify(store).storeAll("test", notifications);
+    assertThat(response.getStatus()).isEqualTo(201);
+    assertThat(response.getLocation().getPath()).isEqualTo("/v1/notifications/test");
+    assertThat(actual).containsExactlyElementsOf(expected);
+  }
+
+  @Test
+  public void testFanout() throws Exception {
+    final Notification notification = Notification.builder("test-category", "testing").build();
+    final Fanout fanout = Fanout.create(ImmutableList.of("test1", "test2"), notification);
+
+    final List<FanoutResult> expected =
+        ImmutableList.of(FanoutResult.success("test1", "1"), FanoutResult.failure("test2"));
+
+    when(store.fanout(fanout.getUsernames(), notification)).thenReturn(expected);
+
+    final Response response =
+        resources
+            .client()
+            .target("/v1/notifications")
+            .request(MediaType.APPLICATION_JSON)
+            .post(Entity.json(fanout));
+    final List<FanoutResult> actual = response.readEntity(new GenericType<List<FanoutResult>>() {});
+
+    verify(store).fanout(fanout.getUsernames(), notification);
+    assertThat(response.getStatus()).isEqualTo(200);
+    assertThat(actual).containsExactlyElementsOf(expected);
+  }
+
+  @Test
+  public void testFanoutNoUsernames() throws Exception {
+    final Fanout fanout =
+        Fanout.create(ImmutableList.of(), Notification.builder("test-category", "testing").build());
+
+    final Response response =
+        resources
+            .client()
+            .target("/v1/notifications")
+            .request(MediaType.APPLICATION_JSON)
+            .post(Entity.json(fanout));
+
+    verify(store, never()).fanout(any(), any());
+    assertThat(response.getStatus()).isEqualTo(422);
+  }
+
+  @Test
+  public void testFanoutTooManyUsernames() throws Exception {
+    final List<String> usernames =
+        IntStream.rangeClosed(0, Fanout.MAX_USERNAMES)
+            .mapToObj(i -> "test" + i)
+            .collect(Collectors.toList());
+    final Fanout fanout =
+        Fanout.create(usernames, Notification.builder("test-category", "testing").build());
+
+    final Response response =
+        resources
+            .client()
+            .target("/v1/notifications")
+            .request(MediaType.APPLICATION_JSON)
+            .post(Entity.json(fanout));
+
+    verify(store, never()).fanout(any(), any());
+    assertThat(response.getStatus()).isEqualTo(422);
+  }
+
+  @Test
+  public void testStoreBatchEmpty() throws Exception {
+    final Response response =
+        resources
+            .client()
+            .target("/v1/notifications/test/batch")
+            .request(MediaType.APPLICATION_JSON)
+            .post(Entity.json(ImmutableList.of()));
+
+    verify(store, never()).storeAll(anyString(), any());
+    assertThat(response.getStatus()).isEqualTo(400);
+  }
+
+  @Test
+  public void testStoreBatchInvalid() throws Exception {
+    final List<Notification> notifications =
+        ImmutableList.of(
+            Notification.builder("test-category", "testing 1").build(),
+            Notification.builder("", "testing 2").build());
+
+    final Response response =
+        resources
+            .client()
+            .target("/v1/notifications/test/batch")
+            .request(MediaType.APPLICATION_JSON)
+            .post(Entity.json(notifications));
+
+    verify(store, never()).storeAll(anyString(), any());
+    assertThat(response.getStatus()).isEqualTo(422);
+  }
+
   @Test
   public void testStoreException() throws Exception {
     final Notification notification =
@@ -0,0 +1,150 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.riak;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import com.smoketurner.notification.api.Notification;
+import com.smoketurner.notification.application.protos.NotificationProtos.NotificationListPB;
+import com.smoketurner.notification.application.protos.NotificationProtos.NotificationPB;
+import java.io.IOException;
+import org.junit.Test;
+
+public class LazyNotificationListTest {
+
+  private static NotificationPB create(final String id) {
+    return NotificationPB.newBuilder()
+        .setId(id)
+        .setCategory("test-category")
+        .setMessage("message " + id)
+        .setCreatedAt(1439574763000L)
+        .putProperty("id", id)
+        .build();
+  }
+
+  @Test
+  public void testDecodesOnlyAccessedNotifications() throws Exception {
+    final NotificationListPB list =
+        NotificationListPB.newBuilder()
+            .addNotification(create("3"))
+            .addNotification(create("2"))
+            .addNotification(create("1"))
+            .build();
+
+    final LazyNotificationList actual = LazyNotificationList.parse(list.toByteArray());
+
+    assertThat(actual).hasSize(3);
+    assertThat(actual.getId(0)).isEqualTo("3");
+    assertThat(actual.isDecoded(0)).isFalse();
+    assertThat(actual.isDecoded(1)).isFalse();
+
+    final Notification notification = actual.get(1);
+    assertThat(notification.getId("")).isEqualTo("2");
+    assertThat(notification.getMessage()).isEqualTo("message 2");
+    assertThat(notification.getProperties()).containsEntry("id", "2");
+    assertThat(actual.isDecoded(0)).isFalse();
+    assertThat(actual.isDecoded(1)).isTrue();
+    assertThat(actual.isDecoded(2)).isFalse();
+    assertThat(actual.get(1)).isSameAs(notification);
+  }
+
+  @Test
+  public void testSkipsDeletedNotifications() throws Exception {
+    final NotificationListPB list =
+        NotificationListPB.newBuilder()
+            .addNotification(create("3"))
+            .addNotification(create("2"))
+            .addNotification(create("1"))
+            .addDeletedId("2")
+            .build();
+
+    final LazyNotificationList actual = LazyNotificationList.parse(list.toByteArray());
+
+    assertThat(actual).extracting(n -> n.getId("")).containsExactly("3", "1");
+    assertThat(actual.getDeletedIds()).containsExactly("2");
+  }
+
+  @Test
+  public void testSortsUnorderedNotifications() throws Exception {
+    final NotificationListPB list =
+        NotificationListPB.newBuilder()
+            .addNotification(create("1"))
+            .addNotification(create("3"))
+            .addNotification(create("2"))
+            .addNotification(create("3"))
+            .build();
+
+    final LazyNotificationList actual = LazyNotificationList.parse(list.toByteArray());
+
+    assertThat(actual).extracting(n -> n.getId("")).containsExactly("3", "2", "1");
+  }
+
+  @Test
+  public void testBinarySearch() throws Exception {
+    final NotificationListPB list =
+        NotificationListPB.newBuilder()
+            .addNotification(create("5"))
+            .addNotification(create("3"))
+            .addNotification(create("1"))
+            .build();
+
+    final LazyNotificationList actual = LazyNotificationList.parse(list.toByteArray());
+
+    assertThat(actual.binarySearch("3")).isEqualTo(1);
+    assertThat(actual.binarySearch("4")).isEqualTo(-2);
+    assertThat(actual.indexOf(Notification.create("1"))).isEqualTo(2);
+    assertThat(actual.contains(Notification.create("2"))).isFalse();
+    assertThat(actual.isDecoded(0)).isFalse();
+  }
+
+  @Test
+  public void testStringTable() throws Exception {
+    final NotificationListPB list =
+        NotificationListPB.newBuilder()
+            .addNotification(
+                NotificationPB.newBuilder()
+                    .setId("2")
+                    .setCategoryIndex(1)
+                    .setMessage("message 2")
+                    .addPropertyKeyIndex(0)
+                    .addPropertyValue("2")
+                    .build())
+            .addNotification(NotificationPB.newBuilder().setId("1").setMessage("message 1").build())
+            .addString("id")
+            .addString("test-category")
+            .build();
+
+    final LazyNotificationList actual = LazyNotificationList.parse(list.toByteArray(), true);
+
+    assertThat(actual).hasSize(2);
+    assertThat(actual.get(0).getCategory()).isEqualTo("test-category");
+    assertThat(actual.get(0).getProperties()).containsExactly(entry("id", "2"));
+    assertThat(actual.get(1).getCategory()).isEqualTo("id");
+    assertThat(actual.get(1).getProperties()).isEmpty();
+  }
+
+  @Test
+  public void testEmpty() throws Exception {
+    final LazyNotificationList actual = LazyNotificationList.parse(new byte[0]);
+    assertThat(actual).isEmpty();
+  }
+
+  @Test(expected = IOException.class)
+  public void testInvalidData() throws Exception {
+    LazyNotificationList.parse("test".getBytes("UTF-8"));
+  }
+}
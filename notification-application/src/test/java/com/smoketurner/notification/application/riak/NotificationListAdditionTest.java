@@ -17,7 +17,13 @@ package com.smoketurner.notification.application.riak;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.smoketurner.notification.api.Notification;
+import com.smoketurner.notification.api.Rule;
+import com.smoketurner.notification.application.core.RollupState;
+import com.smoketurner.notification.application.core.RulePlan;
+import java.util.Arrays;
 import org.junit.Test;
 
 public class NotificationListAdditionTest {
@@ -38,6 +44,21 @@ public class NotificationListAdditionTest {
     assertThat(actual).isEqualTo(expected);
   }
 
+  @Test
+  public void testAddsMultipleNotifications() {
+    final Notification n1 = Notification.create("1");
+    final Notification n2 = Notification.create("2");
+
+    final NotificationListAddition update = new NotificationListAddition(Arrays.asList(n1, n2));
+
+    final NotificationListObject original = new NotificationListObject();
+    original.addNotification(Notification.create("0"));
+
+    final NotificationListObject actual = update.apply(original);
+
+    assertThat(actual.getNotifications()).containsExactly(n2, n1, Notification.create("0"));
+  }
+
   @Test
   public void testNoOriginal() {
     final Notification notification = Notification.create("1");
@@ -51,4 +72,27 @@ public class NotificationListAdditionTest {
 
     assertThat(actual).isEqualTo(expected);
   }
+
+  @Test
+  public void testUpdatesRollupState() {
+    final RulePlan rules =
+        RulePlan.compile(ImmutableMap.of("new-follower", Rule.builder().withMaxSize(2).build()));
+
+    final NotificationListObject list = new NotificationListObject();
+    new NotificationListAddition(ImmutableList.of(follower("1")), rules).apply(list);
+    new NotificationListAddition(ImmutableList.of(follower("2"), follower("3")), rules).apply(list);
+
+    final RollupState expected = RollupState.create(list.getNotifications().asList(), rules);
+    assertThat(list.getRollupState()).isPresent();
+    assertThat(list.getRollupState().get().toString()).isEqualTo(expected.toString());
+    assertThat(list.getRollupState().get().getOffset(1)).isEqualTo(1);
+
+    // adding notifications without the rules drops the rollup state
+    new NotificationListAddition(follower("4")).apply(list);
+    assertThat(list.getRollupState()).isEmpty();
+  }
+
+  private static Notification follower(final String id) {
+    return Notification.builder("new-follower", "message").withId(id).build();
+  }
 }
@@ -16,13 +16,20 @@
 package com.smoketurner.notification.application.riak;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 
 import com.basho.riak.client.api.convert.ConversionException;
 import com.basho.riak.client.core.util.BinaryValue;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.smoketurner.notification.api.Notification;
+import com.smoketurner.notification.api.Rule;
+import com.smoketurner.notification.application.core.RulePlan;
 import com.smoketurner.notification.application.protos.NotificationProtos.NotificationListPB;
 import com.smoketurner.notification.application.protos.NotificationProtos.NotificationPB;
 import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.stream.Collectors;
 import org.junit.Test;
 
 public class NotificationListConverterTest {
@@ -65,4 +72,214 @@ public class NotificationListConverterTest {
         converter.toDomain(BinaryValue.create(list.toByteArray()), "application/x-protobuf");
     assertThat(actual).isEqualTo(expected);
   }
+
+  @Test(expected = ConversionException.class)
+  public void testToLazyDomainInvalidContentType() throws Exception {
+    converter.toLazyDomain(BinaryValue.create("test"), "text/plain");
+  }
+
+  @Test(expected = ConversionException.class)
+  public void testToLazyDomainInvalidData() throws Exception {
+    converter.toLazyDomain(BinaryValue.create("test"), "application/x-protobuf");
+  }
+
+  @Test
+  public void testToLazyDomain() throws Exception {
+    final ZonedDateTime now = ZonedDateTime.parse("2015-08-14T17:52:43Z");
+
+    final Notification n1 =
+        Notification.builder("test-category", "this is a test")
+            .withId("1")
+            .withCreatedAt(now)
+            .withProperties(ImmutableMap.of("first", "value"))
+            .build();
+    final Notification n2 =
+        Notification.builder("test-category", "this is another test")
+            .withId("2")
+            .withCreatedAt(now)
+            .build();
+    final NotificationListObject list = new NotificationListObject();
+    list.addNotification(n1);
+    list.addNotification(n2);
+
+    final BinaryValue value = converter.encode(list);
+
+    final LazyNotificationList actual = converter.toLazyDomain(value, "application/x-protobuf");
+    assertThat(actual).containsExactly(n2, n1);
+    assertThat(actual.get(1).getProperties()).containsEntry("first", "value");
+    assertThat(actual.get(1).getCreatedAt()).isEqualTo(now);
+  }
+
+  @Test
+  public void testDeflateRoundTrip() throws Exception {
+    final NotificationListConverter deflate =
+        new NotificationListConverter(NotificationListFormat.DEFLATE);
+    final NotificationListObject expected = buildList(100);
+    expected.deleteNotification("0001");
+
+    final BinaryValue compressed = deflate.encode(expected);
+    final BinaryValue uncompressed = converter.encode(expected);
+    assertThat(compressed.length()).isLessThan(uncompressed.length() / 4);
+
+    final String contentType = NotificationListFormat.DEFLATE.getContentType();
+    assertThat(deflate.toDomain(compressed, contentType)).isEqualTo(expected);
+    assertThat(deflate.toDomain(compressed, contentType).getDeletedIds()).containsExactly("0001");
+    assertThat(deflate.toLazyDomain(compressed, contentType))
+        .hasSize(99)
+        .doesNotContain(Notification.create("0001"));
+  }
+
+  @Test
+  public void testReadsEveryFormat() throws Exception {
+    final NotificationListConverter deflate =
+        new NotificationListConverter(NotificationListFormat.DEFLATE);
+    final NotificationListObject expected = buildList(10);
+
+    assertThat(deflate.toDomain(converter.encode(expected), "application/x-protobuf"))
+        .isEqualTo(expected);
+    assertThat(
+            converter.toDomain(
+                deflate.encode(expected), NotificationListFormat.DEFLATE.getContentType()))
+        .isEqualTo(expected);
+  }
+
+  @Test(expected = ConversionException.class)
+  public void testToDomainTruncatedDeflate() throws Exception {
+    final NotificationListConverter deflate =
+        new NotificationListConverter(NotificationListFormat.DEFLATE);
+    final byte[] bytes = deflate.encode(buildList(10)).getValue();
+
+    deflate.toDomain(
+        BinaryValue.create(Arrays.copyOf(bytes, bytes.length - 8)),
+        NotificationListFormat.DEFLATE.getContentType());
+  }
+
+  @Test(expected = ConversionException.class)
+  public void testToLazyDomainInvalidDeflate() throws Exception {
+    converter.toLazyDomain(
+        BinaryValue.create("test"), NotificationListFormat.DEFLATE.getContentType());
+  }
+
+  @Test
+  public void testRollupStateRoundTrip() throws Exception {
+    final RulePlan rules =
+        RulePlan.compile(ImmutableMap.of("new-follower", Rule.builder().withMaxSize(2).build()));
+
+    final NotificationListObject list = new NotificationListObject();
+    list.addNotifications(ImmutableList.of(follower("1"), follower("2"), follower("3")), rules);
+    final BinaryValue value = converter.encode(list);
+
+    final NotificationListObject decoded =
+        converter.toDomain(value, NotificationListFormat.PROTOBUF.getContentType());
+    assertThat(decoded.getRollupState().map(Object::toString))
+        .isEqualTo(list.getRollupState().map(Object::toString));
+
+    final LazyNotificationList lazy =
+        converter.toLazyDomain(value, NotificationListFormat.PROTOBUF.getContentType());
+    assertThat(lazy.getRollupState().map(Object::toString))
+        .isEqualTo(list.getRollupState().map(Object::toString));
+    assertThat(lazy.getRollupState().get().isCurrent(rules)).isTrue();
+
+    // the rollup state no longer applies once a notification is deleted
+    list.deleteNotification("2");
+    final LazyNotificationList deleted =
+        converter.toLazyDomain(
+            converter.encode(list), NotificationListFormat.PROTOBUF.getContentType());
+    assertThat(deleted).hasSize(2);
+    assertThat(deleted.getRollupState()).isEmpty();
+  }
+
+  @Test
+  public void testStringTableRoundTrip() throws Exception {
+    final NotificationListConverter stringTable =
+        new NotificationListConverter(NotificationListFormat.STRING_TABLE);
+    final NotificationListObject expected = buildList(100);
+
+    final BinaryValue value = stringTable.encode(expected);
+    assertThat(value.length()).isLessThan(converter.encode(expected).length());
+
+    final NotificationListPB list = NotificationListPB.parseFrom(value.getValue());
+    assertThat(list.getStringList()).containsExactly("new-follower", "follower_id");
+    assertThat(list.getNotification(0).getCategory()).isEmpty();
+    assertThat(list.getNotification(0).getPropertyMap()).isEmpty();
+
+    final String contentType = NotificationListFormat.STRING_TABLE.getContentType();
+    final NotificationListObject actual = stringTable.toDomain(value, contentType);
+    assertThat(actual).isEqualTo(expected);
+    assertThat(actual.getNotifications())
+        .extracting(Notification::getProperties)
+        .containsExactlyElementsOf(
+            expected.getNotifications().stream()
+                .map(Notification::getProperties)
+                .collect(Collectors.toList()));
+    assertThat(stringTable.toLazyDomain(value, contentType))
+        .containsExactlyElementsOf(expected.getNotifications());
+  }
+
+  @Test
+  public void testStringTableInternsStrings() throws Exception {
+    final NotificationListConverter stringTable =
+        new NotificationListConverter(NotificationListFormat.STRING_TABLE_DEFLATE);
+    final String contentType = NotificationListFormat.STRING_TABLE_DEFLATE.getContentType();
+
+    final Notification first =
+        stringTable
+            .toDomain(stringTable.encode(buildList(1)), contentType)
+            .getNotifications()
+            .first();
+    final Notification second =
+        stringTable.toLazyDomain(stringTable.encode(buildList(2)), contentType).get(0);
+
+    assertThat(second.getCategory()).isSameAs(first.getCategory());
+    assertThat(second.getProperties().keySet().iterator().next())
+        .isSameAs(first.getProperties().keySet().iterator().next());
+  }
+
+  @Test(expected = ConversionException.class)
+  public void testToDomainInvalidStringTableIndex() throws Exception {
+    final NotificationPB pb =
+        NotificationPB.newBuilder().setId("1").setMessage("test").setCategoryIndex(1).build();
+    final NotificationListPB list =
+        NotificationListPB.newBuilder().addNotification(pb).addString("like").build();
+
+    converter.toDomain(
+        BinaryValue.create(list.toByteArray()),
+        NotificationListFormat.STRING_TABLE.getContentType());
+  }
+
+  @Test
+  public void testDeletionTimes() throws Exception {
+    final NotificationListObject expected = buildList(2);
+    expected.deleteNotification("0000", 1234L);
+
+    final NotificationListObject actual =
+        converter.toDomain(converter.encode(expected), "application/x-protobuf");
+    assertThat(actual.getDeletionTimes()).containsOnly(entry("0000", 1234L));
+
+    // lists written before deletion times were stored
+    final NotificationListPB list = NotificationListPB.newBuilder().addDeletedId("1").build();
+    assertThat(
+            converter
+                .toDomain(BinaryValue.create(list.toByteArray()), "application/x-protobuf")
+                .getDeletionTimes())
+        .containsOnly(entry("1", 0L));
+  }
+
+  private static NotificationListObject buildList(final int count) {
+    final ZonedDateTime now = ZonedDateTime.parse("2015-08-14T17:52:43Z");
+    final NotificationListObject list = new NotificationListObject();
+    for (int i = 0; i < count; i++) {
+      list.addNotification(
+          Notification.builder("new-follower", "You have a new follower")
+              .withId(String.format("%04d", i))
+              .withCreatedAt(now.plusSeconds(i))
+              .withProperties(ImmutableMap.of("follower_id", String.valueOf(i)))
+              .build());
+    }
+    return list;
+  }
+
+  private static Notification follower(final String id) {
+    return Notification.builder("new-follower", "message").withId(id).build();
+  }
 }
@@ -18,6 +18,7 @@ package com.smoketurner.notification.application.riak;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.google.common.collect.ImmutableList;
+import com.smoketurner.notification.api.Notification;
 import org.junit.Test;
 
 public class NotificationListDeletionTest {
@@ -37,6 +38,22 @@ public class NotificationListDeletionTest {
     assertThat(actual).isEqualTo(expected);
   }
 
+  @Test
+  public void testRemovesDeletedNotifications() {
+    final ImmutableList<String> ids = ImmutableList.of("1");
+    final NotificationListDeletion update = new NotificationListDeletion(ids);
+
+    final Notification n1 = Notification.create("1");
+    final Notification n2 = Notification.create("2");
+    final NotificationListObject original = new NotificationListObject();
+    original.addNotifications(ImmutableList.of(n1, n2));
+
+    final NotificationListObject actual = update.apply(original);
+
+    assertThat(actual.getNotifications()).containsExactly(n2);
+    assertThat(actual.getDeletedIds()).containsExactly("1");
+  }
+
   @Test
   public void testNoOriginal() {
     final ImmutableList<String> ids = ImmutableList.of("1", "2", "3");
@@ -16,6 +16,7 @@
 package com.smoketurner.notification.application.riak;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 
 import com.google.common.collect.ImmutableList;
 import com.smoketurner.notification.api.Notification;
@@ -83,6 +84,46 @@ public class NotificationListObjectTest {
     assertThat(list.getDeletedIds()).contains("1");
   }
 
+  @Test
+  public void testDeleteNotificationKeepsLatestTime() {
+    list.deleteNotification("1", 200);
+    final NotificationListObject sibling = new NotificationListObject("test");
+    sibling.deleteNotification("1", 100);
+    sibling.deleteNotification("2", 300);
+
+    list.deleteNotifications(sibling);
+    assertThat(list.getDeletionTimes()).containsOnly(entry("1", 200L), entry("2", 300L));
+  }
+
+  @Test
+  public void testCompactDeletedIdsByTime() {
+    list.addNotification(Notification.create("5"));
+    list.deleteNotification("1", 100);
+    list.deleteNotification("2", 200);
+    list.deleteNotification("3", 300);
+
+    list.compactDeletedIds(200);
+    assertThat(list.getDeletedIds()).containsExactly("3");
+  }
+
+  @Test
+  public void testCompactDeletedIdsOlderThanFullList() {
+    for (int i = 0; i < NotificationListObject.MAX_NOTIFICATIONS; i++) {
+      list.addNotification(Notification.create(String.format("%04d", i + 100)));
+    }
+    list.deleteNotification("0099", 300);
+    list.deleteNotification("0100", 300);
+    list.deleteNotification("2000", 300);
+
+    list.compactDeletedIds(200);
+    assertThat(list.getDeletedIds()).containsOnly("0100", "2000");
+
+    list.getNotifications().remove(list.getNotifications().last());
+    list.deleteNotification("0050", 300);
+    list.compactDeletedIds(200);
+    assertThat(list.getDeletedIds()).containsOnly("0050", "0100", "2000");
+  }
+
   @Test
   public void testGetKey() {
     assertThat(list.getKey()).isEqualTo("test");
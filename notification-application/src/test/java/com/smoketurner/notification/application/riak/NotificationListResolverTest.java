@@ -19,6 +19,10 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.google.common.collect.Lists;
 import com.smoketurner.notification.api.Notification;
+import io.dropwizard.util.Duration;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -139,6 +143,36 @@ public class NotificationListResolverTest {
     assertThat(actual.getDeletedIds()).isEmpty();
   }
 
+  @Test
+  @SuppressWarnings("NullAway")
+  public void testKeepsDeletedIdsWithinHorizon() throws Exception {
+    final Clock clock = Clock.fixed(Instant.ofEpochMilli(10_000_000L), ZoneOffset.UTC);
+    final NotificationListResolver resolver =
+        new NotificationListResolver(Duration.hours(1), clock);
+
+    final NotificationListObject list1 = new NotificationListObject("test");
+    list1.addNotification(Notification.create("1"));
+    list1.addNotification(Notification.create("2"));
+    list1.deleteNotification("1", clock.millis() - 1000);
+    list1.deleteNotification("3", clock.millis() - Duration.hours(2).toMilliseconds());
+
+    // written concurrently with the deletion
+    final NotificationListObject list2 = new NotificationListObject("test");
+    list2.addNotification(Notification.create("1"));
+    list2.addNotification(Notification.create("3"));
+
+    final NotificationListObject actual = resolver.resolve(Arrays.asList(list1, list2));
+    assertThat(actual.getNotifications()).containsExactly(Notification.create("2"));
+    assertThat(actual.getDeletedIds()).containsExactly("1");
+
+    // a later sibling still holding the deleted notification
+    final NotificationListObject list3 = new NotificationListObject("test");
+    list3.addNotification(Notification.create("1"));
+
+    final NotificationListObject resolved = resolver.resolve(Arrays.asList(actual, list3));
+    assertThat(resolved.getNotifications()).containsExactly(Notification.create("2"));
+  }
+
   @Test
   public void testRemoveNotifications() throws Exception {
     final List<Notification> notifications =
@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.riak;
+
+import static io.dropwizard.testing.FixtureHelpers.fixture;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import io.dropwizard.jackson.Jackson;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NotificationManifestObjectTest {
+
+  private final ObjectMapper MAPPER = Jackson.newObjectMapper();
+  private final NotificationManifestObject.Segment legacy =
+      new NotificationManifestObject.Segment("test", "2", "1", 2, true);
+  private final NotificationManifestObject.Segment segment =
+      new NotificationManifestObject.Segment("test:3", "4", "3", 2, false);
+  private NotificationManifestObject manifest;
+
+  @Before
+  public void setUp() {
+    manifest =
+        new NotificationManifestObject(
+            "test", ImmutableList.of(legacy, segment), ImmutableList.of("1"));
+  }
+
+  @Test
+  public void serializesToJSON() throws Exception {
+    final String actual = MAPPER.writeValueAsString(manifest);
+    final String expected =
+        MAPPER.writeValueAsString(
+            MAPPER.readValue(fixture("fixtures/manifest.json"), NotificationManifestObject.class));
+    assertThat(actual).isEqualTo(expected);
+  }
+
+  @Test
+  public void deserializesFromJSON() throws Exception {
+    final NotificationManifestObject actual =
+        MAPPER.readValue(fixture("fixtures/manifest.json"), NotificationManifestObject.class);
+    assertThat(actual).isEqualTo(manifest);
+  }
+
+  @Test
+  public void testSegmentOrdering() {
+    assertThat(manifest.getSegments()).containsExactly(segment, legacy);
+  }
+
+  @Test
+  public void testRetainUnderLimit() {
+    final List<NotificationManifestObject.Segment> dropped = manifest.retain(4);
+    assertThat(dropped).isEmpty();
+    assertThat(manifest.getSegments()).containsExactly(segment, legacy);
+    assertThat(manifest.getDeletedIds()).containsExactly("1");
+  }
+
+  @Test
+  public void testRetainDropsOldestSegments() {
+    final NotificationManifestObject.Segment newest =
+        new NotificationManifestObject.Segment("test:5", "6", "5", 2, false);
+    manifest.addSegments(ImmutableList.of(newest));
+    manifest.deleteNotifications(ImmutableList.of("3", "5"));
+
+    final List<NotificationManifestObject.Segment> dropped = manifest.retain(4);
+    assertThat(dropped).containsExactly(legacy);
+    assertThat(manifest.getSegments()).containsExactly(newest, segment);
+    assertThat(manifest.getDeletedIds()).containsExactly("3", "5");
+  }
+}
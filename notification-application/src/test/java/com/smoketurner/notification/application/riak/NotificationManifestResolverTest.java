@@ -0,0 +1,65 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.riak;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+public class NotificationManifestResolverTest {
+
+  private final NotificationManifestResolver resolver = new NotificationManifestResolver();
+
+  @Test
+  public void testNoSiblings() throws Exception {
+    final List<NotificationManifestObject> siblings = Collections.emptyList();
+    final NotificationManifestObject actual = resolver.resolve(siblings);
+    assertThat(actual).isNull();
+  }
+
+  @Test
+  public void testSingleSibling() throws Exception {
+    final NotificationManifestObject manifest = new NotificationManifestObject("test", null, null);
+    final List<NotificationManifestObject> siblings = Collections.singletonList(manifest);
+    final NotificationManifestObject actual = resolver.resolve(siblings);
+    assertThat(actual).isEqualTo(manifest);
+  }
+
+  @Test
+  public void testMultipleSibling() throws Exception {
+    final NotificationManifestObject.Segment segment1 =
+        new NotificationManifestObject.Segment("test:1", "2", "1", 2, false);
+    final NotificationManifestObject.Segment segment2 =
+        new NotificationManifestObject.Segment("test:3", "4", "3", 2, false);
+
+    final NotificationManifestObject manifest1 =
+        new NotificationManifestObject("test", ImmutableList.of(segment1), ImmutableList.of("1"));
+    final NotificationManifestObject manifest2 =
+        new NotificationManifestObject(
+            "test", ImmutableList.of(segment1, segment2), ImmutableList.of("3"));
+
+    final NotificationManifestObject expected =
+        new NotificationManifestObject(
+            "test", ImmutableList.of(segment1, segment2), ImmutableList.of("1", "3"));
+
+    final NotificationManifestObject actual = resolver.resolve(Arrays.asList(manifest1, manifest2));
+    assertThat(actual).isEqualTo(expected);
+  }
+}
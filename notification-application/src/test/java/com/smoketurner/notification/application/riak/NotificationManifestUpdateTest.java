@@ -0,0 +1,61 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.riak;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+public class NotificationManifestUpdateTest {
+
+  private final NotificationManifestObject.Segment segment1 =
+      new NotificationManifestObject.Segment("test:1", "2", "1", 2, false);
+  private final NotificationManifestObject.Segment segment2 =
+      new NotificationManifestObject.Segment("test:3", "4", "3", 2, false);
+
+  @Test
+  public void testNoOriginal() {
+    final NotificationManifestUpdate update =
+        new NotificationManifestUpdate(
+            "test", ImmutableList.of(segment1), ImmutableList.of("1"), 10);
+
+    final NotificationManifestObject expected =
+        new NotificationManifestObject("test", ImmutableList.of(segment1), ImmutableList.of("1"));
+
+    final NotificationManifestObject actual = update.apply(null);
+
+    assertThat(actual).isEqualTo(expected);
+    assertThat(update.getDropped()).isEmpty();
+  }
+
+  @Test
+  public void testDropsSegmentsOverLimit() {
+    final NotificationManifestUpdate update =
+        new NotificationManifestUpdate("test", ImmutableList.of(segment2), ImmutableList.of(), 2);
+
+    final NotificationManifestObject original =
+        new NotificationManifestObject("test", ImmutableList.of(segment1), ImmutableList.of("1"));
+
+    final NotificationManifestObject expected =
+        new NotificationManifestObject("test", ImmutableList.of(segment2), ImmutableList.of());
+
+    final NotificationManifestObject actual = update.apply(original);
+
+    assertThat(actual).isEqualTo(expected);
+    assertThat(update.getDropped()).containsExactly(segment1);
+  }
+}
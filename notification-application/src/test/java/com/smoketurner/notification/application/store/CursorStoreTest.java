@@ -28,8 +28,11 @@ import com.basho.riak.client.api.commands.buckets.StoreBucketProperties;
 import com.basho.riak.client.api.commands.kv.DeleteValue;
 import com.basho.riak.client.api.commands.kv.FetchValue;
 import com.basho.riak.client.api.commands.kv.UpdateValue;
+import com.basho.riak.client.core.RiakFuture;
+import com.basho.riak.client.core.query.Location;
 import io.dropwizard.util.Duration;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import org.junit.Ignore;
 import org.junit.Test;
 
@@ -81,6 +84,22 @@ public class CursorStoreTest {
     verify(client, never()).execute(any(FetchValue.class));
   }
 
+  @Test
+  public void testFetchAsync() throws Exception {
+    final FetchValue.Response response = mock(FetchValue.Response.class);
+    when(response.isNotFound()).thenReturn(true);
+
+    @SuppressWarnings("unchecked")
+    final RiakFuture<FetchValue.Response, Location> future = mock(RiakFuture.class);
+    when(future.get(5L, TimeUnit.SECONDS)).thenReturn(response);
+    when(client.executeAsync(any(FetchValue.class))).thenReturn(future);
+
+    final RiakFuture<FetchValue.Response, Location> actual =
+        store.fetchAsync(TEST_USER, CURSOR_NAME);
+    verify(client).executeAsync(any(FetchValue.class));
+    assertThat(store.await(actual)).isEqualTo(Optional.empty());
+  }
+
   @Test
   @Ignore
   public void testStore() throws Exception {
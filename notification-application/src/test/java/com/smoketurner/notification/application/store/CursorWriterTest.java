@@ -0,0 +1,117 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.basho.riak.client.api.commands.kv.UpdateValue;
+import com.basho.riak.client.core.RiakFuture;
+import com.basho.riak.client.core.query.Location;
+import io.dropwizard.util.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CursorWriterTest {
+
+  private static final String TEST_USER = "test";
+  private static final String CURSOR_NAME = "notifications";
+
+  private final CursorStore store = mock(CursorStore.class);
+  private final CursorWriter writer =
+      new CursorWriter(store, 100, Duration.minutes(1), Duration.seconds(5));
+
+  @SuppressWarnings("unchecked")
+  private final RiakFuture<UpdateValue.Response, Location> future = mock(RiakFuture.class);
+
+  @Before
+  public void setUp() {
+    when(store.getCursorKey(anyString(), anyString())).thenCallRealMethod();
+    when(store.storeAsync(anyString(), anyString(), anyString())).thenReturn(future);
+  }
+
+  @Test
+  public void testAdvanceKeepsHighestValue() throws Exception {
+    writer.advance(TEST_USER, CURSOR_NAME, "2");
+    writer.advance(TEST_USER, CURSOR_NAME, "3");
+    writer.advance(TEST_USER, CURSOR_NAME, "1");
+    assertThat(writer.size()).isEqualTo(1);
+
+    assertThat(writer.flush()).hasSize(1);
+    verify(store).storeAsync(TEST_USER, CURSOR_NAME, "3");
+    assertThat(writer.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void testDiscard() throws Exception {
+    writer.advance(TEST_USER, CURSOR_NAME, "1");
+    writer.discard(TEST_USER, CURSOR_NAME);
+
+    assertThat(writer.flush()).isEmpty();
+    verify(store, never()).storeAsync(anyString(), anyString(), anyString());
+  }
+
+  @Test
+  public void testPending() throws Exception {
+    assertThat(writer.pending(TEST_USER, CURSOR_NAME)).isEmpty();
+
+    writer.advance(TEST_USER, CURSOR_NAME, "2");
+    assertThat(writer.pending(TEST_USER, CURSOR_NAME)).contains("2");
+
+    // the cursor is still unstored while the update is in flight
+    writer.flush();
+    assertThat(writer.pending(TEST_USER, CURSOR_NAME)).contains("2");
+
+    writer.advance(TEST_USER, CURSOR_NAME, "1");
+    assertThat(writer.pending(TEST_USER, CURSOR_NAME)).contains("2");
+    writer.advance(TEST_USER, CURSOR_NAME, "3");
+    assertThat(writer.pending(TEST_USER, CURSOR_NAME)).contains("3");
+  }
+
+  @Test
+  public void testDiscardWaitsForInFlight() throws Exception {
+    @SuppressWarnings("unchecked")
+    final RiakFuture<UpdateValue.Response, Location> other = mock(RiakFuture.class);
+    when(store.storeAsync("other", CURSOR_NAME, "1")).thenReturn(other);
+
+    writer.advance(TEST_USER, CURSOR_NAME, "1");
+    writer.advance("other", CURSOR_NAME, "1");
+    writer.flush();
+
+    writer.discard(TEST_USER, CURSOR_NAME);
+    verify(future).await(5L, TimeUnit.SECONDS);
+    verify(other, never()).await(anyLong(), any(TimeUnit.class));
+  }
+
+  @Test
+  public void testStopDrainsPending() throws Exception {
+    writer.start();
+    writer.advance(TEST_USER, CURSOR_NAME, "1");
+    writer.advance("other", CURSOR_NAME, "2");
+    writer.stop();
+
+    verify(store).storeAsync(TEST_USER, CURSOR_NAME, "1");
+    verify(store).storeAsync("other", CURSOR_NAME, "2");
+    assertThat(writer.size()).isEqualTo(0);
+  }
+}
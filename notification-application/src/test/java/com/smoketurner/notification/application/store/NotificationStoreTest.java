@@ -16,25 +16,56 @@
 package com.smoketurner.notification.application.store;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.basho.riak.client.api.RiakClient;
+import com.basho.riak.client.api.commands.kv.FetchValue;
+import com.basho.riak.client.api.commands.kv.UpdateValue;
+import com.basho.riak.client.core.RiakFuture;
+import com.basho.riak.client.core.RiakFutureListener;
+import com.basho.riak.client.core.query.Location;
+import com.basho.riak.client.core.query.RiakObject;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SharedMetricRegistries;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.smoketurner.notification.api.FanoutResult;
 import com.smoketurner.notification.api.Notification;
+import com.smoketurner.notification.api.RollupSummary;
+import com.smoketurner.notification.api.Rule;
 import com.smoketurner.notification.application.core.IdGenerator;
+import com.smoketurner.notification.application.core.RulePlan;
 import com.smoketurner.notification.application.core.UserNotifications;
+import com.smoketurner.notification.application.riak.NotificationListConverter;
+import com.smoketurner.notification.application.riak.NotificationListObject;
 import io.dropwizard.util.Duration;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import org.assertj.core.groups.Tuple;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -46,15 +77,430 @@ public class NotificationStoreTest {
 
   private final RiakClient client = mock(RiakClient.class);
   private final CursorStore cursors = mock(CursorStore.class);
+  private final CursorWriter cursorWriter = mock(CursorWriter.class);
   private final IdGenerator idGenerator = mock(IdGenerator.class);
   private final RuleStore rules = mock(RuleStore.class);
   private final NotificationStore store =
       new NotificationStore(
-          client, idGenerator, cursors, rules, Duration.seconds(60), Duration.seconds(5));
+          client,
+          idGenerator,
+          cursors,
+          cursorWriter,
+          rules,
+          new WriteCombiner<>(false, Duration.milliseconds(0), Duration.seconds(5)),
+          MoreExecutors.directExecutor(),
+          Duration.seconds(60),
+          Duration.seconds(5),
+          1000,
+          Duration.seconds(5),
+          64,
+          StorageLayout.SINGLE,
+          false,
+          false);
 
   @Before
   public void setUp() {
     store.setCurrentTimeProvider(() -> NOW);
+    when(rules.fetchPlan()).thenReturn(RulePlan.EMPTY);
+  }
+
+  @Test
+  public void testFetchCached() throws Exception {
+    final NotificationListObject list = new NotificationListObject(TEST_USER);
+    list.addNotification(Notification.create("1"));
+
+    final FetchValue.Response response = mock(FetchValue.Response.class);
+    when(response.getValue(NotificationListObject.class)).thenReturn(list);
+    when(client.execute(any(FetchValue.class))).thenReturn(response);
+    @SuppressWarnings("unchecked")
+    final RiakFuture<FetchValue.Response, Location> cursorFuture = mock(RiakFuture.class);
+    when(cursors.fetchAsync(TEST_USER, CURSOR_NAME)).thenReturn(cursorFuture);
+    when(cursors.await(cursorFuture)).thenReturn(Optional.of("1"));
+    when(rules.fetchPlan()).thenReturn(RulePlan.EMPTY);
+    when(idGenerator.nextId()).thenReturn("2");
+
+    assertThat(store.fetch(TEST_USER)).isPresent();
+    assertThat(store.fetch(TEST_USER)).isPresent();
+    verify(client, times(1)).execute(any(FetchValue.class));
+
+    // storing a new notification invalidates the cached list
+    store.store(TEST_USER, Notification.create("ignored"));
+    assertThat(store.fetch(TEST_USER)).isPresent();
+    verify(client, times(2)).execute(any(FetchValue.class));
+
+    // the cursor is fetched asynchronously alongside the list on every request
+    verify(cursors, times(3)).fetchAsync(TEST_USER, CURSOR_NAME);
+    verify(cursors, never()).fetch(TEST_USER, CURSOR_NAME);
+  }
+
+  @Test
+  public void testFetchRacingStoreIsNotCached() throws Exception {
+    final NotificationListObject list = new NotificationListObject(TEST_USER);
+    list.addNotification(Notification.create("1"));
+
+    final FetchValue.Response response = mock(FetchValue.Response.class);
+    when(response.getValue(NotificationListObject.class)).thenReturn(list);
+    final AtomicBoolean racing = new AtomicBoolean(true);
+    when(client.execute(any(FetchValue.class)))
+        .thenAnswer(
+            invocation -> {
+              // a store completes while the list is being fetched
+              if (racing.getAndSet(false)) {
+                store.store(TEST_USER, Notification.create("ignored"));
+              }
+              return response;
+            });
+    @SuppressWarnings("unchecked")
+    final RiakFuture<FetchValue.Response, Location> cursorFuture = mock(RiakFuture.class);
+    when(cursors.fetchAsync(TEST_USER, CURSOR_NAME)).thenReturn(cursorFuture);
+    when(cursors.await(cursorFuture)).thenReturn(Optional.of("1"));
+    when(idGenerator.nextId()).thenReturn("2");
+
+    assertThat(store.fetch(TEST_USER)).isPresent();
+    assertThat(store.fetch(TEST_USER)).isPresent();
+    assertThat(store.fetch(TEST_USER)).isPresent();
+    verify(client, times(2)).execute(any(FetchValue.class));
+  }
+
+  @Test
+  public void testFetchPendingCursor() throws Exception {
+    final NotificationListObject list = new NotificationListObject(TEST_USER);
+    for (int i = 1; i <= 3; i++) {
+      list.addNotification(Notification.builder().withId(String.valueOf(i)).build());
+    }
+
+    final FetchValue.Response response = mock(FetchValue.Response.class);
+    when(response.getValue(NotificationListObject.class)).thenReturn(list);
+    when(client.execute(any(FetchValue.class))).thenReturn(response);
+    @SuppressWarnings("unchecked")
+    final RiakFuture<FetchValue.Response, Location> cursorFuture = mock(RiakFuture.class);
+    when(cursors.fetchAsync(TEST_USER, CURSOR_NAME)).thenReturn(cursorFuture);
+    when(cursors.await(cursorFuture)).thenReturn(Optional.of("1"));
+    // the cursor has been advanced, but the update hasn't been written to Riak yet
+    when(cursorWriter.pending(TEST_USER, CURSOR_NAME)).thenReturn(Optional.of("2"));
+
+    final UserNotifications actual = store.fetch(TEST_USER).get();
+    assertThat(actual.getUnseen()).extracting(n -> n.getId("")).containsExactly("3");
+    assertThat(actual.getSeen()).extracting(n -> n.getId("")).containsExactly("2", "1");
+  }
+
+  @Test
+  public void testFetchSummary() throws Exception {
+    final NotificationListObject list = new NotificationListObject(TEST_USER);
+    for (int i = 1; i <= 10; i++) {
+      list.addNotification(Notification.builder("like").withId(String.format("%03d", i)).build());
+    }
+
+    final FetchValue.Response response = mock(FetchValue.Response.class);
+    when(response.getValue(NotificationListObject.class)).thenReturn(list);
+    when(client.execute(any(FetchValue.class))).thenReturn(response);
+    @SuppressWarnings("unchecked")
+    final RiakFuture<FetchValue.Response, Location> cursorFuture = mock(RiakFuture.class);
+    when(cursors.fetchAsync(TEST_USER, CURSOR_NAME)).thenReturn(cursorFuture);
+    when(cursors.await(cursorFuture)).thenReturn(Optional.empty());
+    when(rules.fetchPlan())
+        .thenReturn(
+            RulePlan.compile(
+                ImmutableMap.of(
+                    "like", Rule.builder().withMaxSize(20).withSummarySize(2).build())));
+
+    final Notification actual =
+        Iterables.getOnlyElement(store.fetch(TEST_USER, Optional.empty(), 20).get().getUnseen());
+
+    assertThat(actual.getId()).contains("010");
+    assertThat(actual.getSummary()).contains(RollupSummary.of(9, "009", "001"));
+    assertThat(actual.getNotifications())
+        .extracting(n -> n.getId(""))
+        .containsExactly("009", "008");
+  }
+
+  @Test
+  public void testFetchPageLazy() throws Exception {
+    final NotificationStore store =
+        new NotificationStore(
+            client,
+            idGenerator,
+            cursors,
+            cursorWriter,
+            rules,
+            new WriteCombiner<>(false, Duration.milliseconds(0), Duration.seconds(5)),
+            MoreExecutors.directExecutor(),
+            Duration.seconds(60),
+            Duration.seconds(5),
+            1000,
+            Duration.seconds(5),
+            64,
+            StorageLayout.SINGLE,
+            true,
+            false);
+
+    final NotificationListObject list = new NotificationListObject(TEST_USER);
+    for (int i = 1; i <= 100; i++) {
+      list.addNotification(Notification.create(String.format("%03d", i)));
+    }
+    list.deleteNotification("099");
+    final RiakObject object =
+        new RiakObject()
+            .setValue(new NotificationListConverter().encode(list))
+            .setContentType("application/x-protobuf");
+
+    final FetchValue.Response response = mock(FetchValue.Response.class);
+    when(response.getNumberOfValues()).thenReturn(1);
+    when(response.getValues()).thenReturn(Collections.singletonList(object));
+    when(client.execute(any(FetchValue.class))).thenReturn(response);
+    @SuppressWarnings("unchecked")
+    final RiakFuture<FetchValue.Response, Location> cursorFuture = mock(RiakFuture.class);
+    when(cursors.fetchAsync(TEST_USER, CURSOR_NAME)).thenReturn(cursorFuture);
+    when(cursors.await(cursorFuture)).thenReturn(Optional.of("050"));
+    when(rules.fetchPlan()).thenReturn(RulePlan.EMPTY);
+
+    final Optional<UserNotifications> actual = store.fetch(TEST_USER, Optional.empty(), 10);
+
+    assertThat(actual).isPresent();
+    assertThat(actual.get().getNotifications())
+        .extracting(n -> n.getId(""))
+        .containsExactly(
+            "100", "098", "097", "096", "095", "094", "093", "092", "091", "090", "089", "088");
+    verify(response, never()).getValue(NotificationListObject.class);
+  }
+
+  @Test
+  public void testFetchStoredRollups() throws Exception {
+    final NotificationStore store =
+        new NotificationStore(
+            client,
+            idGenerator,
+            cursors,
+            cursorWriter,
+            rules,
+            new WriteCombiner<>(false, Duration.milliseconds(0), Duration.seconds(5)),
+            MoreExecutors.directExecutor(),
+            Duration.seconds(60),
+            Duration.seconds(5),
+            1000,
+            Duration.seconds(5),
+            64,
+            StorageLayout.SINGLE,
+            true,
+            true);
+
+    final RulePlan rollupRules =
+        RulePlan.compile(
+            ImmutableMap.of(
+                "like",
+                Rule.builder().withMaxSize(3).withMaxDuration(Duration.minutes(10)).build()));
+    final NotificationListObject list = new NotificationListObject(TEST_USER);
+    for (int i = 1; i <= 100; i++) {
+      list.addNotifications(
+          Collections.singletonList(
+              Notification.builder(i % 4 == 0 ? "comment" : "like", "message")
+                  .withId(String.format("%03d", i))
+                  .withCreatedAt(NOW.plusMinutes(i * 2))
+                  .build()),
+          rollupRules);
+    }
+    final RiakObject object =
+        new RiakObject()
+            .setValue(new NotificationListConverter().encode(list))
+            .setContentType("application/x-protobuf");
+
+    final FetchValue.Response response = mock(FetchValue.Response.class);
+    when(response.getNumberOfValues()).thenReturn(1);
+    when(response.getValues()).thenReturn(Collections.singletonList(object));
+    when(client.execute(any(FetchValue.class))).thenReturn(response);
+    @SuppressWarnings("unchecked")
+    final RiakFuture<FetchValue.Response, Location> cursorFuture = mock(RiakFuture.class);
+    when(cursors.fetchAsync(TEST_USER, CURSOR_NAME)).thenReturn(cursorFuture);
+    when(cursors.await(cursorFuture)).thenReturn(Optional.of("050"));
+    when(rules.fetchPlan()).thenReturn(rollupRules);
+
+    // rolling up the notifications again gives the same result as the stored rollups
+    final UserNotifications expected =
+        store.splitNotifications(
+            TEST_USER, ImmutableSortedSet.copyOf(list.getNotifications()), Optional.of("050"));
+
+    final UserNotifications actual = store.fetch(TEST_USER).get();
+    assertThat(actual.getNotifications())
+        .extracting(n -> n.getId(""), Notification::getUnseen, n -> ids(n.getNotifications()))
+        .containsExactlyElementsOf(
+            expected.getNotifications().stream()
+                .map(n -> tuple(n.getId(""), n.getUnseen(), ids(n.getNotifications())))
+                .collect(Collectors.toList()));
+
+    final UserNotifications page = store.fetch(TEST_USER, Optional.of("052"), 5).get();
+    assertThat(page.getNotifications())
+        .extracting(n -> n.getId(""), n -> ids(n.getNotifications()))
+        .startsWith(
+            expected.getNotifications().tailSet(Notification.create("053")).stream()
+                .limit(5)
+                .map(n -> tuple(n.getId(""), ids(n.getNotifications())))
+                .toArray(Tuple[]::new));
+    verify(response, never()).getValue(NotificationListObject.class);
+  }
+
+  private static List<String> ids(final Collection<Notification> notifications) {
+    return notifications.stream().map(n -> n.getId("")).collect(Collectors.toList());
+  }
+
+  @Test
+  public void testFetchAsync() throws Exception {
+    final NotificationListObject list = new NotificationListObject(TEST_USER);
+    list.addNotification(Notification.create("2"));
+    list.addNotification(Notification.create("1"));
+
+    final FetchValue.Response response = mock(FetchValue.Response.class);
+    when(response.getValue(NotificationListObject.class)).thenReturn(list);
+    @SuppressWarnings("unchecked")
+    final RiakFuture<FetchValue.Response, Location> listFuture = mock(RiakFuture.class);
+    when(listFuture.isSuccess()).thenReturn(true);
+    when(listFuture.getNow()).thenReturn(response);
+    doAnswer(
+            invocation -> {
+              final RiakFutureListener<FetchValue.Response, Location> listener =
+                  invocation.getArgument(0);
+              listener.handle(listFuture);
+              return null;
+            })
+        .when(listFuture)
+        .addListener(any());
+    when(client.executeAsync(any(FetchValue.class))).thenReturn(listFuture);
+
+    @SuppressWarnings("unchecked")
+    final RiakFuture<FetchValue.Response, Location> cursorFuture = mock(RiakFuture.class);
+    when(cursors.fetchAsync(TEST_USER, CURSOR_NAME)).thenReturn(cursorFuture);
+    when(cursors.resolve(cursorFuture))
+        .thenReturn(CompletableFuture.completedFuture(Optional.of("1")));
+    when(rules.fetchPlan()).thenReturn(RulePlan.EMPTY);
+
+    final Optional<UserNotifications> actual = store.fetchAsync(TEST_USER).get();
+
+    assertThat(actual).isPresent();
+    assertThat(actual.get().getNotifications())
+        .extracting(n -> n.getId(""), Notification::getUnseen)
+        .containsExactly(tuple("2", Optional.of(true)), tuple("1", Optional.of(false)));
+    verify(client, never()).execute(any(FetchValue.class));
+    verify(cursorWriter).advance(TEST_USER, CURSOR_NAME, "2");
+  }
+
+  @Test
+  public void testStoreAll() throws Exception {
+    when(idGenerator.nextId()).thenReturn("1", "2");
+
+    final List<Notification> actual =
+        store.storeAll(
+            TEST_USER,
+            Arrays.asList(
+                Notification.builder("test", "first").build(),
+                Notification.builder("test", "second").build()));
+
+    verify(client, times(1)).execute(any(UpdateValue.class));
+    assertThat(actual).extracting(n -> n.getId("")).containsExactly("1", "2");
+    assertThat(actual).extracting(Notification::getCreatedAt).containsOnly(NOW);
+  }
+
+  @Test
+  public void testFanout() throws Exception {
+    // only allow a single in-flight request so each update must complete before the next
+    final NotificationStore store =
+        new NotificationStore(
+            client,
+            idGenerator,
+            cursors,
+            cursorWriter,
+            rules,
+            new WriteCombiner<>(false, Duration.milliseconds(0), Duration.seconds(5)),
+            MoreExecutors.directExecutor(),
+            Duration.seconds(60),
+            Duration.seconds(5),
+            1000,
+            Duration.seconds(5),
+            1,
+            StorageLayout.SINGLE,
+            false,
+            false);
+    store.setCurrentTimeProvider(() -> NOW);
+
+    final RiakFuture<UpdateValue.Response, Location> stored = completedUpdate(null);
+    final RiakFuture<UpdateValue.Response, Location> failed =
+        completedUpdate(new RuntimeException());
+    when(client.executeAsync(any(UpdateValue.class)))
+        .thenReturn(stored)
+        .thenReturn(failed)
+        .thenReturn(stored);
+    when(idGenerator.nextId()).thenReturn("1", "2", "3");
+
+    final List<FanoutResult> actual =
+        store.fanout(
+            Arrays.asList("user1", "user2", "user3"), Notification.builder("test", "hi").build());
+
+    // the updates are pipelined rather than each blocking a thread
+    verify(client, times(3)).executeAsync(any(UpdateValue.class));
+    verify(client, never()).execute(any(UpdateValue.class));
+    assertThat(actual)
+        .containsExactly(
+            FanoutResult.success("user1", "1"),
+            FanoutResult.failure("user2"),
+            FanoutResult.success("user3", "3"));
+  }
+
+  @Test
+  public void testFanoutDeadline() throws Exception {
+    final NotificationStore store =
+        new NotificationStore(
+            client,
+            idGenerator,
+            cursors,
+            cursorWriter,
+            rules,
+            new WriteCombiner<>(false, Duration.milliseconds(0), Duration.seconds(5)),
+            MoreExecutors.directExecutor(),
+            Duration.seconds(60),
+            Duration.milliseconds(500),
+            1000,
+            Duration.seconds(5),
+            1,
+            StorageLayout.SINGLE,
+            false,
+            false);
+
+    // the first update never completes, so it holds the only permit until the deadline passes
+    @SuppressWarnings("unchecked")
+    final RiakFuture<UpdateValue.Response, Location> pending = mock(RiakFuture.class);
+    when(client.executeAsync(any(UpdateValue.class))).thenReturn(pending);
+    when(idGenerator.nextId()).thenReturn("1", "2", "3");
+
+    final long start = System.nanoTime();
+    final List<FanoutResult> actual =
+        store.fanout(
+            Arrays.asList("user1", "user2", "user3"), Notification.builder("test", "hi").build());
+
+    // one deadline for the whole fan-out rather than one per user
+    assertThat(System.nanoTime() - start).isLessThan(TimeUnit.MILLISECONDS.toNanos(1000));
+    // updates which weren't issued by the deadline are skipped
+    verify(client, times(1)).executeAsync(any(UpdateValue.class));
+    assertThat(actual)
+        .containsExactly(
+            FanoutResult.unknown("user1"),
+            FanoutResult.failure("user2"),
+            FanoutResult.failure("user3"));
+  }
+
+  private static RiakFuture<UpdateValue.Response, Location> completedUpdate(
+      @Nullable final Throwable cause) {
+    @SuppressWarnings("unchecked")
+    final RiakFuture<UpdateValue.Response, Location> future = mock(RiakFuture.class);
+    when(future.isSuccess()).thenReturn(cause == null);
+    when(future.cause()).thenReturn(cause);
+    doAnswer(
+            invocation -> {
+              final RiakFutureListener<UpdateValue.Response, Location> listener =
+                  invocation.getArgument(0);
+              listener.handle(future);
+              return null;
+            })
+        .when(future)
+        .addListener(any());
+    return future;
   }
 
   @Test
@@ -94,6 +540,102 @@ public class NotificationStoreTest {
     assertThat(actual.getSeen()).containsExactly(n4Seen, n3Seen, n2Seen, n1Seen);
   }
 
+  @Test
+  public void testSplitPage() throws Exception {
+    when(rules.fetchPlan()).thenReturn(RulePlan.EMPTY);
+
+    final TreeSet<Notification> notifications = new TreeSet<>();
+    for (int i = 1; i <= 1000; i++) {
+      notifications.add(Notification.create(String.format("%04d", i)));
+    }
+
+    final UserNotifications actual =
+        store.splitPage(
+            TEST_USER,
+            ImmutableList.copyOf(notifications),
+            Optional.of("0600"),
+            Optional.of("0700"),
+            20);
+
+    // only the page and the next notification are returned, starting from the requested ID
+    assertThat(actual.getNotifications())
+        .extracting(n -> n.getId(""))
+        .hasSize(22)
+        .startsWith("0700", "0699")
+        .endsWith("0679");
+    assertThat(actual.getNotifications())
+        .allMatch(n -> n.getUnseen().orElse(false) == (n.getId("").compareTo("0600") > 0));
+    // the newest notification sets Last-Modified even though it isn't in the page
+    assertThat(actual.getNewest()).contains(Notification.create("1000"));
+    verify(cursorWriter).advance(TEST_USER, CURSOR_NAME, "1000");
+  }
+
+  @Test
+  public void testSplitPageMatchesSplitNotifications() throws Exception {
+    final Rule rule = Rule.builder().withMaxSize(3).withMaxDuration(Duration.minutes(5)).build();
+    when(rules.fetchPlan()).thenReturn(RulePlan.compile(Collections.singletonMap("like", rule)));
+    when(cursors.fetch(TEST_USER, CURSOR_NAME)).thenReturn(Optional.of("150"));
+
+    // one notification a minute, with an hour between every burst of 17 notifications
+    final TreeSet<Notification> notifications = new TreeSet<>();
+    ZonedDateTime createdAt = NOW;
+    for (int i = 200; i > 0; i--) {
+      createdAt = createdAt.minusMinutes(i % 17 == 0 ? 60 : 1);
+      notifications.add(
+          Notification.builder(i % 4 == 0 ? "follow" : "like", "message")
+              .withId(String.format("%03d", i))
+              .withCreatedAt(createdAt)
+              .build());
+    }
+
+    final ImmutableSortedSet<Notification> expected =
+        store.splitNotifications(TEST_USER, notifications).getNotifications();
+
+    final List<Optional<String>> fromIds = new ArrayList<>();
+    fromIds.add(Optional.empty());
+    notifications.forEach(n -> fromIds.add(n.getId()));
+
+    final int limit = 10;
+    for (Optional<String> fromId : fromIds) {
+      final ImmutableSortedSet<Notification> actual =
+          store
+              .splitPage(
+                  TEST_USER, ImmutableList.copyOf(notifications), Optional.of("150"), fromId, limit)
+              .getNotifications();
+
+      // the page starts from the rollup the notification is in
+      final Notification from =
+          fromId
+              .flatMap(
+                  id ->
+                      expected.stream()
+                          .filter(n -> n.getId("").equals(id) || contains(n, id))
+                          .findFirst())
+              .orElse(expected.first());
+      final List<String> expectedPage =
+          expected.tailSet(from).stream()
+              .limit(limit + 1)
+              .map(NotificationStoreTest::describe)
+              .collect(Collectors.toList());
+
+      assertThat(actual.stream().limit(limit + 1).map(NotificationStoreTest::describe))
+          .as("page from %s", fromId)
+          .containsExactlyElementsOf(expectedPage);
+    }
+  }
+
+  private static boolean contains(final Notification rollup, final String id) {
+    return rollup.getNotifications().stream().anyMatch(n -> n.getId("").equals(id));
+  }
+
+  private static String describe(final Notification notification) {
+    return notification.getId("")
+        + notification.getUnseen()
+        + notification.getNotifications().stream()
+            .map(n -> n.getId(""))
+            .collect(Collectors.toList());
+  }
+
   @Test
   public void testSplitNotificationsFirst() throws Exception {
     when(cursors.fetch(TEST_USER, CURSOR_NAME)).thenReturn(Optional.of(""));
@@ -126,7 +668,7 @@ public class NotificationStoreTest {
 
     final UserNotifications actual = store.splitNotifications(TEST_USER, notifications);
     verify(cursors).fetch(TEST_USER, CURSOR_NAME);
-    verify(cursors).store(TEST_USER, CURSOR_NAME, "6");
+    verify(cursorWriter).advance(TEST_USER, CURSOR_NAME, "6");
     assertThat(actual.getNotifications()).containsExactlyElementsOf(expected);
     assertThat(actual.getUnseen()).containsExactly(n6Seen, n5Seen, n4Seen, n3Seen, n2Seen, n1Seen);
     assertThat(actual.getSeen()).isEmpty();
@@ -146,7 +688,7 @@ public class NotificationStoreTest {
 
     final UserNotifications actual = store.splitNotifications(TEST_USER, notifications);
     verify(cursors).fetch(TEST_USER, CURSOR_NAME);
-    verify(cursors).store(TEST_USER, CURSOR_NAME, "1");
+    verify(cursorWriter).advance(TEST_USER, CURSOR_NAME, "1");
     assertThat(actual.getNotifications()).containsExactlyElementsOf(expected);
   }
 
@@ -192,103 +734,42 @@ public class NotificationStoreTest {
     final List<Notification> expectedSeen = builder.build();
 
     assertThat(NotificationStore.setUnseenState(notifications, true).iterator())
+        .toIterable()
         .containsExactlyElementsOf(expectedUnseen);
     assertThat(NotificationStore.setUnseenState(notifications, false).iterator())
+        .toIterable()
         .containsExactlyElementsOf(expectedSeen);
   }
 
   @Test
-  public void testFindNotification() throws Exception {
-    final Notification n100 =
-        Notification.builder()
-            .withId("100")
-            .withNotifications(
-                Arrays.asList(Notification.create("101"), Notification.create("102")))
-            .build();
-
-    final Notification n150 =
-        Notification.builder().withId("150").withNotifications(Collections.emptyList()).build();
-
-    final ImmutableList.Builder<Notification> builder = ImmutableList.builder();
-    for (int i = 1; i < 11; i++) {
-      builder.add(Notification.create(String.format("%03d", i)));
-    }
-    builder.add(n100);
-    builder.add(n150);
-    builder.add(Notification.builder().build());
-
-    final List<Notification> notifications = builder.build();
-
-    assertThat(NotificationStore.tryFind(notifications, "001"))
-        .isEqualTo(Optional.of(Notification.create("001")));
-    assertThat(NotificationStore.tryFind(notifications, "005"))
-        .isEqualTo(Optional.of(Notification.create("005")));
-    assertThat(NotificationStore.tryFind(notifications, "010"))
-        .isEqualTo(Optional.of(Notification.create("010")));
-    assertThat(NotificationStore.tryFind(notifications, "012"))
-        .isEqualTo(Optional.<Notification>empty());
-    assertThat(NotificationStore.tryFind(notifications, "100")).isEqualTo(Optional.of(n100));
-    assertThat(NotificationStore.tryFind(notifications, "101")).isEqualTo(Optional.of(n100));
-    assertThat(NotificationStore.tryFind(notifications, "102")).isEqualTo(Optional.of(n100));
-    assertThat(NotificationStore.tryFind(notifications, "103"))
-        .isEqualTo(Optional.<Notification>empty());
-    assertThat(NotificationStore.tryFind(notifications, "150")).isEqualTo(Optional.of(n150));
-  }
-
-  @Test
-  public void testSkip() throws Exception {
-    final ImmutableSortedSet.Builder<Notification> builder =
-        ImmutableSortedSet.<Notification>naturalOrder();
-    for (int i = 1; i <= 100; i++) {
-      builder.add(Notification.create(String.format("%03d", i)));
-    }
-    final ImmutableSortedSet<Notification> notifications = builder.build();
-
-    final ImmutableList.Builder<Notification> builder2 = ImmutableList.<Notification>builder();
-    for (int i = 100; i > 90; i--) {
-      builder2.add(Notification.create(String.format("%03d", i)));
-    }
-    final List<Notification> expected = builder2.build();
-
-    final Iterable<Notification> actual = store.skip(notifications, "", true, 10);
-    assertThat(actual).containsExactlyElementsOf(expected);
-  }
-
-  @Test
-  public void testSkipWithStart() throws Exception {
-    final ImmutableSortedSet.Builder<Notification> builder =
-        ImmutableSortedSet.<Notification>naturalOrder();
-    for (int i = 1; i <= 100; i++) {
-      builder.add(Notification.create(String.format("%03d", i)));
-    }
-    final ImmutableSortedSet<Notification> notifications = builder.build();
-
-    final ImmutableList.Builder<Notification> builder2 = ImmutableList.<Notification>builder();
-    for (int i = 55; i > 45; i--) {
-      builder2.add(Notification.create(String.format("%03d", i)));
-    }
-    final List<Notification> expected = builder2.build();
-
-    final Iterable<Notification> actual = store.skip(notifications, "056", false, 10);
-    assertThat(actual).containsExactlyElementsOf(expected);
-  }
-
-  @Test
-  public void testSkipWithStartNotFound() throws Exception {
-    final ImmutableSortedSet.Builder<Notification> builder =
-        ImmutableSortedSet.<Notification>naturalOrder();
-    for (int i = 1; i <= 100; i++) {
-      builder.add(Notification.create(String.format("%04d", i)));
+  public void testSplitPageFromRolledUpNotification() throws Exception {
+    final Rule rule = Rule.builder().withMaxSize(3).build();
+    when(rules.fetchPlan()).thenReturn(RulePlan.compile(Collections.singletonMap("like", rule)));
+
+    // the likes 6, 4 and 2 are rolled up together, with the follows between them
+    final List<Notification> notifications = new ArrayList<>();
+    for (int i = 6; i > 0; i--) {
+      notifications.add(
+          Notification.builder(i % 2 == 0 ? "like" : "follow", "message")
+              .withId(String.valueOf(i))
+              .withCreatedAt(NOW)
+              .build());
     }
-    final ImmutableSortedSet<Notification> notifications = builder.build();
 
-    final ImmutableList.Builder<Notification> builder2 = ImmutableList.<Notification>builder();
-    for (int i = 100; i > 90; i--) {
-      builder2.add(Notification.create(String.format("%04d", i)));
-    }
-    final List<Notification> expected = builder2.build();
-
-    final Iterable<Notification> actual = store.skip(notifications, "1000", true, 10);
-    assertThat(actual).containsExactlyElementsOf(expected);
+    // a page from a rolled up notification starts from the rollup it is in
+    final UserNotifications actual =
+        store.splitPage(TEST_USER, notifications, Optional.empty(), Optional.of("2"), 20);
+    assertThat(actual.getNotifications())
+        .extracting(NotificationStoreTest::describe)
+        .containsExactly(
+            "6Optional[true][4, 2]", "5Optional[true][]", "3Optional[true][]", "1Optional[true][]");
+
+    // the rollup state built for the list is kept for the next page
+    final Meter builtRollups =
+        SharedMetricRegistries.getOrCreate("default")
+            .meter(MetricRegistry.name(NotificationStore.class, "built-rollups"));
+    final long built = builtRollups.getCount();
+    store.splitPage(TEST_USER, notifications, Optional.empty(), Optional.of("4"), 20);
+    assertThat(builtRollups.getCount()).isEqualTo(built);
   }
 }
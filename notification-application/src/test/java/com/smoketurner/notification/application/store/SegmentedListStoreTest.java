@@ -0,0 +1,247 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.basho.riak.client.api.RiakClient;
+import com.basho.riak.client.api.commands.kv.DeleteValue;
+import com.basho.riak.client.api.commands.kv.FetchValue;
+import com.basho.riak.client.api.commands.kv.StoreValue;
+import com.basho.riak.client.api.commands.kv.UpdateValue;
+import com.basho.riak.client.core.RiakFuture;
+import com.basho.riak.client.core.RiakFutureListener;
+import com.basho.riak.client.core.query.Location;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+import com.smoketurner.notification.api.Notification;
+import com.smoketurner.notification.application.riak.NotificationListObject;
+import com.smoketurner.notification.application.riak.NotificationManifestObject;
+import com.smoketurner.notification.application.riak.NotificationManifestObject.Segment;
+import io.dropwizard.util.Duration;
+import java.util.Optional;
+import org.junit.Test;
+
+public class SegmentedListStoreTest {
+
+  private static final String TEST_USER = "test";
+
+  private final RiakClient client = mock(RiakClient.class);
+  private final SegmentedListStore store =
+      new SegmentedListStore(client, 60000, Duration.seconds(5), 1000);
+
+  @Test
+  public void testFetchNotFound() throws Exception {
+    final FetchValue.Response notFound = fetchResponse(null);
+    final RiakFuture<FetchValue.Response, Location> future = completedFuture(notFound);
+    when(client.executeAsync(any(FetchValue.class))).thenReturn(future);
+
+    final Optional<ImmutableSortedSet<Notification>> actual = store.fetchAsync(TEST_USER).get();
+
+    assertThat(actual).isEmpty();
+  }
+
+  @Test
+  public void testFetchMergesHeadAndLegacyList() throws Exception {
+    final NotificationListObject head = new NotificationListObject(TEST_USER);
+    head.addNotification(Notification.create("3"));
+
+    final NotificationListObject legacy = new NotificationListObject(TEST_USER);
+    legacy.addNotification(Notification.create("2"));
+    legacy.addNotification(Notification.create("1"));
+
+    // the head is fetched first, then the manifest and finally the legacy list
+    final RiakFuture<FetchValue.Response, Location> headFuture =
+        completedFuture(fetchResponse(head));
+    final RiakFuture<FetchValue.Response, Location> manifestFuture =
+        completedFuture(fetchResponse(null));
+    final RiakFuture<FetchValue.Response, Location> legacyFuture =
+        completedFuture(fetchResponse(legacy));
+    when(client.executeAsync(any(FetchValue.class)))
+        .thenReturn(headFuture)
+        .thenReturn(manifestFuture)
+        .thenReturn(legacyFuture);
+
+    final Optional<ImmutableSortedSet<Notification>> actual = store.fetchAsync(TEST_USER).get();
+
+    assertThat(actual).isPresent();
+    assertThat(actual.get()).extracting(n -> n.getId("")).containsExactly("3", "2", "1");
+  }
+
+  @Test
+  public void testAddBelowSegmentSize() throws Exception {
+    final NotificationListObject head = new NotificationListObject(TEST_USER);
+    head.addNotification(Notification.create("1"));
+
+    final RiakFuture<UpdateValue.Response, Location> future = completedFuture(updateResponse(head));
+    when(client.executeAsync(any(UpdateValue.class))).thenReturn(future);
+
+    store.addAsync(TEST_USER, ImmutableList.of(Notification.create("1"))).get();
+
+    verify(client, times(1)).executeAsync(any(UpdateValue.class));
+    verify(client, never()).executeAsync(any(StoreValue.class));
+  }
+
+  @Test
+  public void testAddSealsFullHead() throws Exception {
+    final NotificationListObject head = new NotificationListObject(TEST_USER);
+    for (int i = 0; i < SegmentedListStore.SEGMENT_SIZE; i++) {
+      head.addNotification(Notification.create(String.valueOf(1000 + i)));
+    }
+
+    final RiakFuture<UpdateValue.Response, Location> updateFuture =
+        completedFuture(updateResponse(head));
+    when(client.executeAsync(any(UpdateValue.class))).thenReturn(updateFuture);
+    final RiakFuture<StoreValue.Response, Location> storeFuture = completedFuture(null);
+    when(client.executeAsync(any(StoreValue.class))).thenReturn(storeFuture);
+    final RiakFuture<FetchValue.Response, Location> fetchFuture =
+        completedFuture(fetchResponse(null));
+    when(client.executeAsync(any(FetchValue.class))).thenReturn(fetchFuture);
+
+    store.addAsync(TEST_USER, ImmutableList.of(Notification.create("1099"))).get();
+
+    // append to the head, write the segment and the manifest, and trim the head
+    verify(client, times(2)).executeAsync(any(UpdateValue.class));
+    verify(client, times(2)).executeAsync(any(StoreValue.class));
+    verify(client, never()).executeAsync(any(DeleteValue.class));
+  }
+
+  @Test
+  public void testAddSealConflictKeepsHead() throws Exception {
+    final NotificationListObject head = new NotificationListObject(TEST_USER);
+    for (int i = 0; i < SegmentedListStore.SEGMENT_SIZE; i++) {
+      head.addNotification(Notification.create(String.valueOf(1000 + i)));
+    }
+
+    final RiakFuture<UpdateValue.Response, Location> updateFuture =
+        completedFuture(updateResponse(head));
+    when(client.executeAsync(any(UpdateValue.class))).thenReturn(updateFuture);
+    // the segment is written, but another writer changed the manifest first
+    final RiakFuture<StoreValue.Response, Location> storeFuture = completedFuture(null);
+    final RiakFuture<StoreValue.Response, Location> conflictFuture = failedFuture();
+    when(client.executeAsync(any(StoreValue.class)))
+        .thenReturn(storeFuture)
+        .thenReturn(conflictFuture);
+    final RiakFuture<FetchValue.Response, Location> fetchFuture =
+        completedFuture(fetchResponse(null));
+    when(client.executeAsync(any(FetchValue.class))).thenReturn(fetchFuture);
+    final RiakFuture<Void, Location> deleteFuture = completedFuture(null);
+    when(client.executeAsync(any(DeleteValue.class))).thenReturn(deleteFuture);
+
+    store.addAsync(TEST_USER, ImmutableList.of(Notification.create("1099"))).get();
+
+    // the segment is deleted and the head isn't trimmed
+    verify(client, times(1)).executeAsync(any(UpdateValue.class));
+    verify(client, times(2)).executeAsync(any(StoreValue.class));
+    verify(client, times(1)).executeAsync(any(DeleteValue.class));
+  }
+
+  @Test
+  public void testFetchCachesSealedSegments() throws Exception {
+    final NotificationListObject head = new NotificationListObject(TEST_USER);
+    head.addNotification(Notification.create("3"));
+
+    final NotificationListObject segment = new NotificationListObject("test:1:2");
+    segment.addNotification(Notification.create("2"));
+    segment.addNotification(Notification.create("1"));
+
+    final NotificationManifestObject manifest =
+        new NotificationManifestObject(
+            TEST_USER,
+            ImmutableList.of(new Segment("test:1:2", "2", "1", 2, false)),
+            ImmutableList.of());
+    final FetchValue.Response manifestResponse = fetchResponse(null);
+    when(manifestResponse.isNotFound()).thenReturn(false);
+    when(manifestResponse.getValue(NotificationManifestObject.class)).thenReturn(manifest);
+
+    final RiakFuture<FetchValue.Response, Location> headFuture =
+        completedFuture(fetchResponse(head));
+    final RiakFuture<FetchValue.Response, Location> manifestFuture =
+        completedFuture(manifestResponse);
+    final RiakFuture<FetchValue.Response, Location> segmentFuture =
+        completedFuture(fetchResponse(segment));
+    when(client.executeAsync(any(FetchValue.class)))
+        .thenReturn(headFuture)
+        .thenReturn(manifestFuture)
+        .thenReturn(segmentFuture)
+        .thenReturn(headFuture)
+        .thenReturn(manifestFuture);
+
+    assertThat(store.fetchAsync(TEST_USER).get().get())
+        .extracting(n -> n.getId(""))
+        .containsExactly("3", "2", "1");
+    assertThat(store.fetchAsync(TEST_USER).get().get())
+        .extracting(n -> n.getId(""))
+        .containsExactly("3", "2", "1");
+
+    // the sealed segment is only read once
+    verify(client, times(5)).executeAsync(any(FetchValue.class));
+  }
+
+  private static FetchValue.Response fetchResponse(final NotificationListObject list)
+      throws Exception {
+    final FetchValue.Response response = mock(FetchValue.Response.class);
+    when(response.isNotFound()).thenReturn(list == null);
+    when(response.getValue(NotificationListObject.class)).thenReturn(list);
+    return response;
+  }
+
+  private static UpdateValue.Response updateResponse(final NotificationListObject list)
+      throws Exception {
+    final UpdateValue.Response response = mock(UpdateValue.Response.class);
+    when(response.getValue(NotificationListObject.class)).thenReturn(list);
+    return response;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <V> RiakFuture<V, Location> failedFuture() {
+    final RiakFuture<V, Location> future = mock(RiakFuture.class);
+    when(future.isSuccess()).thenReturn(false);
+    when(future.cause()).thenReturn(new RuntimeException("modified"));
+    doAnswer(
+            invocation -> {
+              final RiakFutureListener<V, Location> listener = invocation.getArgument(0);
+              listener.handle(future);
+              return null;
+            })
+        .when(future)
+        .addListener(any());
+    return future;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <V> RiakFuture<V, Location> completedFuture(final V value) {
+    final RiakFuture<V, Location> future = mock(RiakFuture.class);
+    when(future.isSuccess()).thenReturn(true);
+    when(future.getNow()).thenReturn(value);
+    doAnswer(
+            invocation -> {
+              final RiakFutureListener<V, Location> listener = invocation.getArgument(0);
+              listener.handle(future);
+              return null;
+            })
+        .when(future)
+        .addListener(any());
+    return future;
+  }
+}
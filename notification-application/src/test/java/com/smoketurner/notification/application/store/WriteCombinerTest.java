@@ -0,0 +1,248 @@
+/*
+ * Copyright © 2019 Smoke Turner, LLC (github@smoketurner.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.smoketurner.notification.application.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
+
+import com.google.common.collect.ImmutableList;
+import com.smoketurner.notification.application.exceptions.NotificationStoreException;
+import io.dropwizard.util.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+public class WriteCombinerTest {
+
+  private static final String TEST_USER = "test";
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(4);
+  private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testDisabledWritesDirectly() throws Exception {
+    final WriteCombiner<String> combiner =
+        new WriteCombiner<>(false, Duration.milliseconds(0), Duration.seconds(5));
+
+    combiner.write(TEST_USER, ImmutableList.of("1"), (key, items) -> batches.add(items));
+    combiner.write(TEST_USER, ImmutableList.of("2", "3"), (key, items) -> batches.add(items));
+
+    assertThat(batches).containsExactly(ImmutableList.of("1"), ImmutableList.of("2", "3"));
+  }
+
+  @Test
+  public void testCombinesWritesWhileInFlight() throws Exception {
+    final WriteCombiner<String> combiner =
+        new WriteCombiner<>(true, Duration.milliseconds(0), Duration.seconds(5));
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+
+    final WriteCombiner.BatchWriter<String> writer =
+        (key, items) -> {
+          batches.add(ImmutableList.copyOf(items));
+          started.countDown();
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            throw new NotificationStoreException(e);
+          }
+        };
+
+    // the first write holds the lock until released
+    final Future<?> first =
+        executor.submit(
+            () -> {
+              combiner.write(TEST_USER, ImmutableList.of("1"), writer);
+              return null;
+            });
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // these writes arrive while the first one is in flight
+    final List<Future<?>> others =
+        ImmutableList.of(
+            executor.submit(
+                () -> {
+                  combiner.write(TEST_USER, ImmutableList.of("2"), writer);
+                  return null;
+                }),
+            executor.submit(
+                () -> {
+                  combiner.write(TEST_USER, ImmutableList.of("3", "4"), writer);
+                  return null;
+                }));
+    while (combiner.size() < 2) {
+      Thread.sleep(1);
+    }
+
+    release.countDown();
+    first.get(5, TimeUnit.SECONDS);
+    for (Future<?> other : others) {
+      other.get(5, TimeUnit.SECONDS);
+    }
+
+    assertThat(batches).hasSize(2);
+    assertThat(batches.get(0)).containsExactly("1");
+    assertThat(batches.get(1)).containsExactlyInAnyOrder("2", "3", "4");
+    assertThat(combiner.size()).isZero();
+  }
+
+  @Test
+  public void testConcurrentWritesNeverOverlap() throws Exception {
+    final WriteCombiner<String> combiner =
+        new WriteCombiner<>(true, Duration.milliseconds(0), Duration.seconds(5));
+    final AtomicInteger writing = new AtomicInteger();
+    final AtomicBoolean overlapped = new AtomicBoolean();
+
+    final WriteCombiner.BatchWriter<String> writer =
+        (key, items) -> {
+          if (writing.incrementAndGet() > 1) {
+            overlapped.set(true);
+          }
+          batches.add(ImmutableList.copyOf(items));
+          Thread.yield();
+          writing.decrementAndGet();
+        };
+
+    // each caller repeatedly writes, so slots are released and recreated while others queue
+    final List<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      final int thread = t;
+      futures.add(
+          executor.submit(
+              () -> {
+                for (int i = 0; i < 500; i++) {
+                  combiner.write(TEST_USER, ImmutableList.of(thread + "-" + i), writer);
+                }
+                return null;
+              }));
+    }
+    for (Future<?> future : futures) {
+      future.get(30, TimeUnit.SECONDS);
+    }
+
+    // every item is written in exactly one batch, and only one batch is written at a time
+    assertThat(overlapped).isFalse();
+    assertThat(batches.stream().mapToInt(List::size).sum()).isEqualTo(2000);
+    assertThat(batches.stream().flatMap(List::stream).distinct().count()).isEqualTo(2000);
+    assertThat(combiner.size()).isZero();
+  }
+
+  @Test
+  public void testTimesOutWaitingForLock() throws Exception {
+    final WriteCombiner<String> combiner =
+        new WriteCombiner<>(true, Duration.milliseconds(0), Duration.milliseconds(100));
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+
+    final Future<?> first =
+        executor.submit(
+            () -> {
+              combiner.write(
+                  TEST_USER,
+                  ImmutableList.of("1"),
+                  (key, items) -> {
+                    batches.add(ImmutableList.copyOf(items));
+                    started.countDown();
+                    try {
+                      release.await();
+                    } catch (InterruptedException e) {
+                      throw new NotificationStoreException(e);
+                    }
+                  });
+              return null;
+            });
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+    try {
+      combiner.write(TEST_USER, ImmutableList.of("2"), (key, items) -> batches.add(items));
+      failBecauseExceptionWasNotThrown(NotificationStoreException.class);
+    } catch (NotificationStoreException e) {
+      assertThat(e).hasCauseInstanceOf(TimeoutException.class);
+    }
+
+    release.countDown();
+    first.get(5, TimeUnit.SECONDS);
+
+    // the timed out items are never written
+    assertThat(batches).containsExactly(ImmutableList.of("1"));
+    assertThat(combiner.size()).isZero();
+  }
+
+  @Test
+  public void testWindowWaitsWithoutLock() throws Exception {
+    final WriteCombiner<String> combiner =
+        new WriteCombiner<>(true, Duration.milliseconds(500), Duration.seconds(5));
+
+    final List<Future<?>> writes =
+        ImmutableList.of(
+            executor.submit(
+                () -> {
+                  combiner.write(
+                      TEST_USER, ImmutableList.of("1"), (key, items) -> batches.add(items));
+                  return null;
+                }),
+            executor.submit(
+                () -> {
+                  combiner.write(
+                      TEST_USER, ImmutableList.of("2"), (key, items) -> batches.add(items));
+                  return null;
+                }));
+    for (Future<?> write : writes) {
+      write.get(5, TimeUnit.SECONDS);
+    }
+
+    // both writers joined during the window, so the first to take the lock wrote both
+    assertThat(batches).hasSize(1);
+    assertThat(batches.get(0)).containsExactlyInAnyOrder("1", "2");
+  }
+
+  @Test
+  public void testFailurePropagatesToCaller() throws Exception {
+    final WriteCombiner<String> combiner =
+        new WriteCombiner<>(true, Duration.milliseconds(0), Duration.seconds(5));
+
+    try {
+      combiner.write(
+          TEST_USER,
+          ImmutableList.of("1"),
+          (key, items) -> {
+            throw new NotificationStoreException();
+          });
+      failBecauseExceptionWasNotThrown(NotificationStoreException.class);
+    } catch (NotificationStoreException e) {
+      // expected
+    }
+
+    // the key is still usable after a failed write
+    combiner.write(TEST_USER, ImmutableList.of("2"), (key, items) -> batches.add(items));
+    assertThat(batches).containsExactly(ImmutableList.of("2"));
+  }
+}
@@ -22,6 +22,9 @@ import com.codahale.metrics.Timer;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSortedSet;
 import com.smoketurner.notification.api.Notification;
+import com.smoketurner.notification.api.NotificationProtobuf;
+import com.smoketurner.notification.api.protos.NotificationApiProtos.NotificationListResponsePB;
+import io.dropwizard.jersey.protobuf.ProtocolBufferMessageBodyProvider;
 import java.io.Closeable;
 import java.net.URI;
 import java.util.Collection;
@@ -47,6 +50,7 @@ public class NotificationClient implements Closeable {
   private final Timer storeTimer;
   private final Timer deleteTimer;
   private final URI rootUri;
+  private final boolean protobuf;
 
   /**
    * Constructor
@@ -56,11 +60,29 @@ public class NotificationClient implements Closeable {
    * @param uri API endpoint
    */
   public NotificationClient(final MetricRegistry registry, final Client client, final URI uri) {
+    this(registry, client, uri, false);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param registry Metric Registry
+   * @param client Jersey Client
+   * @param uri API endpoint
+   * @param protobuf Whether to fetch notifications as protocol buffers rather than JSON
+   */
+  public NotificationClient(
+      final MetricRegistry registry, final Client client, final URI uri, final boolean protobuf) {
     this.client = Objects.requireNonNull(client, "client == null");
     this.fetchTimer = registry.timer(name(NotificationClient.class, "fetch"));
     this.storeTimer = registry.timer(name(NotificationClient.class, "store"));
     this.deleteTimer = registry.timer(name(NotificationClient.class, "delete"));
     this.rootUri = Objects.requireNonNull(uri, "uri == null");
+    this.protobuf = protobuf;
+    if (protobuf
+        && !client.getConfiguration().isRegistered(ProtocolBufferMessageBodyProvider.class)) {
+      client.register(ProtocolBufferMessageBodyProvider.class);
+    }
   }
 
   /**
@@ -81,7 +103,10 @@ public class NotificationClient implements Closeable {
       while (paginate) {
         LOGGER.info("GET {}", uri);
 
-        final Invocation.Builder builder = client.target(uri).request(APPLICATION_JSON);
+        final Invocation.Builder builder =
+            client
+                .target(uri)
+                .request(protobuf ? NotificationProtobuf.APPLICATION_PROTOBUF : APPLICATION_JSON);
         if (nextRange != null) {
           builder.header("Range", nextRange);
         }
@@ -94,7 +119,13 @@ public class NotificationClient implements Closeable {
 
         if (response.getStatus() == Response.Status.OK.getStatusCode()
             || response.getStatus() == Response.Status.PARTIAL_CONTENT.getStatusCode()) {
-          results.addAll(response.readEntity(new GenericType<List<Notification>>() {}));
+          if (protobuf) {
+            results.addAll(
+                NotificationProtobuf.fromProtobuf(
+                    response.readEntity(NotificationListResponsePB.class)));
+          } else {
+            results.addAll(response.readEntity(new GenericType<List<Notification>>() {}));
+          }
         }
         response.close();
       }
@@ -53,6 +53,7 @@ public class NotificationClientBuilder {
    */
   public NotificationClient build(
       final NotificationClientConfiguration configuration, final Client client) {
-    return new NotificationClient(environment.metrics(), client, configuration.getUri());
+    return new NotificationClient(
+        environment.metrics(), client, configuration.getUri(), configuration.isProtobuf());
   }
 }
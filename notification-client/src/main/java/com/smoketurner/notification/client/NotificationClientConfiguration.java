@@ -23,6 +23,8 @@ public class NotificationClientConfiguration extends JerseyClientConfiguration {
 
   @NotEmpty private String uri = "http://127.0.0.1:8080/api";
 
+  private boolean protobuf = false;
+
   public URI getUri() {
     return URI.create(uri);
   }
@@ -30,4 +32,17 @@ public class NotificationClientConfiguration extends JerseyClientConfiguration {
   public void setUri(final String uri) {
     this.uri = uri;
   }
+
+  /**
+   * Whether to fetch notifications as protocol buffers rather than JSON
+   *
+   * @return true to fetch notifications as protocol buffers
+   */
+  public boolean isProtobuf() {
+    return protobuf;
+  }
+
+  public void setProtobuf(final boolean protobuf) {
+    this.protobuf = protobuf;
+  }
 }
@@ -19,7 +19,10 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.google.common.collect.ImmutableList;
 import com.smoketurner.notification.api.Notification;
+import com.smoketurner.notification.api.NotificationProtobuf;
+import com.smoketurner.notification.api.protos.NotificationApiProtos.NotificationListResponsePB;
 import io.dropwizard.client.JerseyClientBuilder;
+import io.dropwizard.jersey.protobuf.ProtocolBufferMessageBodyProvider;
 import io.dropwizard.testing.junit.DropwizardClientRule;
 import java.util.List;
 import java.util.Optional;
@@ -50,6 +53,18 @@ public class NotificationClientTest {
       return ImmutableList.of(Notification.create("1"));
     }
 
+    @GET
+    @Produces(NotificationProtobuf.APPLICATION_PROTOBUF)
+    public NotificationListResponsePB fetchProtobuf(@PathParam("username") String username) {
+      return NotificationProtobuf.toProtobuf(
+          ImmutableList.of(
+              Notification.builder("like", "liked")
+                  .withId("2")
+                  .withUnseen(true)
+                  .withNotifications(ImmutableList.of(Notification.create("1")))
+                  .build()));
+    }
+
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
@@ -82,9 +97,13 @@ public class NotificationClientTest {
   @ClassRule
   public static final DropwizardClientRule resources =
       new DropwizardClientRule(
-          new NotificationResource(), new PingResource(), new VersionResource());
+          new NotificationResource(),
+          new PingResource(),
+          new VersionResource(),
+          new ProtocolBufferMessageBodyProvider());
 
   private static NotificationClient client;
+  private static NotificationClient protobufClient;
 
   @BeforeClass
   public static void setUp() {
@@ -92,11 +111,18 @@ public class NotificationClientTest {
     client =
         new NotificationClient(
             resources.getEnvironment().metrics(), jerseyClient, resources.baseUri());
+
+    final Client protobufJerseyClient =
+        new JerseyClientBuilder(resources.getEnvironment()).build("test-protobuf");
+    protobufClient =
+        new NotificationClient(
+            resources.getEnvironment().metrics(), protobufJerseyClient, resources.baseUri(), true);
   }
 
   @AfterClass
   public static void tearDown() throws Exception {
     client.close();
+    protobufClient.close();
   }
 
   @Test
@@ -108,6 +134,16 @@ public class NotificationClientTest {
     assertThat(notifications.first().getId().isPresent()).isTrue();
   }
 
+  @Test
+  public void testFetchProtobuf() throws Exception {
+    final Optional<SortedSet<Notification>> actual = protobufClient.fetch("test");
+    assertThat(actual.isPresent()).isTrue();
+    final SortedSet<Notification> notifications = actual.get();
+    assertThat(notifications).containsExactly(Notification.create("2"));
+    assertThat(notifications.first().getUnseen()).contains(true);
+    assertThat(notifications.first().getNotifications()).containsExactly(Notification.create("1"));
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testFetchEmptyUsername() throws Exception {
     client.fetch("");